@@ -16,16 +16,56 @@ public record CellPosition(
         }
     }
 
+    /**
+     * Crea una posición a partir de su notación Excel (ej: "A1", "$B$2")
+     */
+    public static CellPosition fromExcelNotation(String notation) {
+        if (notation == null || !notation.trim().matches("\\$?[A-Za-z]{1,3}\\$?[0-9]+")) {
+            throw new IllegalArgumentException("Invalid cell reference: " + notation);
+        }
+        String reference = notation.trim().replace("$", "").toUpperCase();
+
+        int column = 0;
+        int index = 0;
+        while (Character.isLetter(reference.charAt(index))) {
+            column = column * 26 + (reference.charAt(index) - 'A' + 1);
+            index++;
+        }
+        int row = Integer.parseInt(reference.substring(index));
+        return new CellPosition(row - 1, column - 1);
+    }
+
     /**
      * Retorna una representación textual de la posición (ej: "A1", "B2")
      */
     public String toExcelNotation() {
+        return columnLetters(column) + (row + 1);
+    }
+
+    /**
+     * Indica si el texto es una referencia de columna en letras (ej: "A", "BC")
+     */
+    public static boolean isColumnLetters(String reference) {
+        return reference != null && reference.trim().matches("[A-Za-z]{1,3}");
+    }
+
+    /**
+     * Convierte las letras de una columna (ej: "A", "AB") a su índice base 0
+     */
+    public static int columnIndex(String columnLetters) {
+        return fromExcelNotation(columnLetters.trim() + "1").column();
+    }
+
+    /**
+     * Convierte un índice de columna base 0 a sus letras (ej: 0 -> "A", 27 -> "AB")
+     */
+    public static String columnLetters(int columnIndex) {
         StringBuilder columnName = new StringBuilder();
-        int col = column;
+        int col = columnIndex;
         while (col >= 0) {
             columnName.insert(0, (char) ('A' + col % 26));
             col = col / 26 - 1;
         }
-        return columnName.toString() + (row + 1);
+        return columnName.toString();
     }
 }
@@ -0,0 +1,15 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representa el resultado agregado de un grupo: valores de las columnas de agrupación,
+ * número de filas y las métricas calculadas por columna (ej: {"Qty": {"sum": 10.0}})
+ */
+public record ExcelAggregationGroup(
+        List<Object> keys,
+        long rowCount,
+        Map<String, Map<String, Double>> values
+) {
+}
@@ -0,0 +1,23 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa el resultado de una agregación sobre una hoja o rango
+ */
+public record ExcelAggregationResult(
+        String sheetName,
+        List<String> groupBy,
+        List<String> functions,
+        long rowsScanned,
+        List<ExcelAggregationGroup> groups
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelAggregationResult {
+        if (groups == null) {
+            throw new IllegalArgumentException("Groups cannot be null");
+        }
+    }
+}
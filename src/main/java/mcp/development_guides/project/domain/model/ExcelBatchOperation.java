@@ -0,0 +1,80 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa una operación de un lote ejecutado sobre un único workbook abierto. Cada tipo usa solo
+ * algunos campos; el resto se deja a null
+ */
+public record ExcelBatchOperation(
+        OperationType type,
+        String sheet,
+        String range,
+        String target,
+        Integer index,
+        Object value,
+        List<List<Object>> rows,
+        Boolean bold,
+        Boolean italic,
+        String fontColor,
+        String backgroundColor,
+        String borderStyle,
+        String borderColor,
+        String numberFormat,
+        String horizontalAlignment,
+        String verticalAlignment
+) {
+    public enum OperationType {
+        WRITE_CELL,
+        WRITE_FORMULA,
+        WRITE_ROWS,
+        CLEAR_RANGE,
+        FORMAT,
+        INSERT_ROW,
+        DELETE_ROW,
+        INSERT_COLUMN,
+        DELETE_COLUMN,
+        MERGE,
+        UNMERGE,
+        COPY_RANGE,
+        MOVE_RANGE,
+        CREATE_SHEET,
+        DELETE_SHEET,
+        RENAME_SHEET,
+        COPY_SHEET,
+        CLEAR_SHEET
+    }
+
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelBatchOperation {
+        if (type == null) {
+            throw new IllegalArgumentException("Operation type cannot be null");
+        }
+    }
+
+    /**
+     * Escritura de un valor (texto, número, booleano o null para vaciar) en una celda A1
+     */
+    public static ExcelBatchOperation writeCell(String sheet, String cell, Object value) {
+        return new ExcelBatchOperation(OperationType.WRITE_CELL, sheet, cell, null, null, value, null,
+            null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Operación estructural sobre una fila o columna (INSERT_ROW, DELETE_ROW, INSERT_COLUMN, DELETE_COLUMN)
+     */
+    public static ExcelBatchOperation structural(OperationType type, String sheet, int index) {
+        return new ExcelBatchOperation(type, sheet, null, null, index, null, null,
+            null, null, null, null, null, null, null, null, null);
+    }
+
+    /**
+     * Operación sobre una hoja o un rango con un destino opcional (nombre de hoja o celda A1)
+     */
+    public static ExcelBatchOperation of(OperationType type, String sheet, String range, String target) {
+        return new ExcelBatchOperation(type, sheet, range, target, null, null, null,
+            null, null, null, null, null, null, null, null, null);
+    }
+}
@@ -0,0 +1,13 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Representa el resultado de una operación de un lote: estado (OK, FAILED o SKIPPED), mensaje y duración
+ */
+public record ExcelBatchOperationResult(
+        int index,
+        String type,
+        String status,
+        String message,
+        long elapsedMicros
+) {
+}
@@ -0,0 +1,17 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa el resultado de un lote de operaciones: se guarda una sola vez y solo si todas tienen éxito
+ */
+public record ExcelBatchResult(
+        String filePath,
+        int operationCount,
+        int succeeded,
+        boolean saved,
+        long saveMillis,
+        long totalMillis,
+        List<ExcelBatchOperationResult> results
+) {
+}
@@ -0,0 +1,11 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Representa el cambio de valor de una celda entre dos versiones (null = celda vacía)
+ */
+public record ExcelCellChange(
+        String cell,
+        Object oldValue,
+        Object newValue
+) {
+}
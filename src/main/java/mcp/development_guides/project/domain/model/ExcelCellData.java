@@ -1,5 +1,6 @@
 package mcp.development_guides.project.domain.model;
 
+import java.io.Serializable;
 import java.util.Date;
 
 /**
@@ -15,7 +16,15 @@ public record ExcelCellData(
         Date dateValue,
         Double numericValue,
         String formula
-) {
+) implements Serializable {
+    /**
+     * Dirección A1 de la celda; si se creó sin ella (address null) se calcula al pedirla
+     */
+    @Override
+    public String address() {
+        return address != null ? address : new CellPosition(row, column).toExcelNotation();
+    }
+
     /**
      * Constructor para celdas simples sin datos adicionales
      */
@@ -0,0 +1,57 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.Base64;
+import java.util.Set;
+
+/**
+ * Representa una columna para una escritura por columnas, con el mismo formato que devuelve la lectura
+ * tipada: NUMBER, DATE (milisegundos epoch de la fecha y hora tomada como UTC) y BOOLEAN (1/0) en values;
+ * TEXT en dictionary + indexes (-1 = celda vacía). nulls marca filas vacías (mapa de bits en Base64) y
+ * numberFormat, opcional, se aplica a toda la columna. header, opcional, va en una fila de cabecera
+ */
+public record ExcelColumnData(
+        String header,
+        String type,
+        double[] values,
+        String[] dictionary,
+        int[] indexes,
+        String nulls,
+        String numberFormat
+) {
+    private static final Set<String> TYPES = Set.of("NUMBER", "DATE", "BOOLEAN", "TEXT");
+
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelColumnData {
+        if (type == null || !TYPES.contains(type)) {
+            throw new IllegalArgumentException("Column type must be one of " + TYPES + ": " + type);
+        }
+        if ("TEXT".equals(type)) {
+            if (dictionary == null || indexes == null) {
+                throw new IllegalArgumentException("TEXT columns need dictionary and indexes");
+            }
+            for (int index : indexes) {
+                if (index < -1 || index >= dictionary.length) {
+                    throw new IllegalArgumentException("Text index " + index + " is outside the dictionary (" + dictionary.length + " entries)");
+                }
+            }
+        } else if (values == null) {
+            throw new IllegalArgumentException(type + " columns need values");
+        }
+    }
+
+    /**
+     * Número de filas de datos de la columna
+     */
+    public int rowCount() {
+        return "TEXT".equals(type) ? indexes.length : values.length;
+    }
+
+    /**
+     * Mapa de bits de filas vacías decodificado (vacío si no hay)
+     */
+    public byte[] nullBitmap() {
+        return nulls != null && !nulls.isEmpty() ? Base64.getDecoder().decode(nulls) : new byte[0];
+    }
+}
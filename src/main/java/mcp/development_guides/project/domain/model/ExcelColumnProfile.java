@@ -0,0 +1,22 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representa el perfil de una columna: distribución de tipos, vacíos, distintos estimados,
+ * extremos y valores más frecuentes
+ */
+public record ExcelColumnProfile(
+        String name,
+        int index,
+        String dominantType,
+        Map<String, Long> typeDistribution,
+        long nullCount,
+        double nullRatio,
+        long distinctEstimate,
+        Object min,
+        Object max,
+        List<ExcelValueCount> topValues
+) {
+}
@@ -0,0 +1,26 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa el resultado de una detección o eliminación de filas duplicadas
+ */
+public record ExcelDedupeResult(
+        String sheetName,
+        List<String> keyColumns,
+        long rowsScanned,
+        long duplicateCount,
+        List<Integer> duplicateRows,
+        boolean duplicateRowsTruncated,
+        boolean removed,
+        String strategy
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelDedupeResult {
+        if (duplicateRows == null) {
+            throw new IllegalArgumentException("Duplicate rows cannot be null");
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa el resultado de comparar dos workbooks o dos hojas
+ */
+public record ExcelDiffResult(
+        String oldFilePath,
+        String newFilePath,
+        List<String> addedSheets,
+        List<String> removedSheets,
+        List<ExcelSheetDiff> sheets
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelDiffResult {
+        if (sheets == null) {
+            throw new IllegalArgumentException("Sheets cannot be null");
+        }
+    }
+}
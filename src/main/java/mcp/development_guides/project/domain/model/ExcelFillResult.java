@@ -0,0 +1,13 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Representa el resultado de un relleno de rango (fórmula, serie o constante)
+ */
+public record ExcelFillResult(
+        String sheetName,
+        String range,
+        String fillType,
+        long cellsWritten,
+        String strategy
+) {
+}
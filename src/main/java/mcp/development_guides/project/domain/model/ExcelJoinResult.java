@@ -0,0 +1,26 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa el resultado de una combinación (join) entre dos tablas
+ */
+public record ExcelJoinResult(
+        String targetFilePath,
+        String targetSheetName,
+        String joinType,
+        String buildSide,
+        long buildRows,
+        long probeRows,
+        long rowsWritten,
+        List<String> columns
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelJoinResult {
+        if (columns == null) {
+            throw new IllegalArgumentException("Columns cannot be null");
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa el resumen estadístico de los valores numéricos de una columna: conteo, suma, media,
+ * varianza muestral, desviación estándar, extremos e histograma de intervalos iguales
+ */
+public record ExcelNumericSummary(
+        String column,
+        long count,
+        double sum,
+        Double mean,
+        Double variance,
+        Double standardDeviation,
+        Double min,
+        Double max,
+        List<Double> binEdges,
+        List<Long> histogram,
+        String kernel
+) {
+}
@@ -0,0 +1,12 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa una fila de la vista previa de una hoja con su índice (base 0) y sus valores desde la columna A
+ */
+public record ExcelPreviewRow(
+        int row,
+        List<Object> values
+) {
+}
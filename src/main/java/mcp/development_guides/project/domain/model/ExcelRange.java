@@ -24,6 +24,22 @@ public record ExcelRange(
         this(new CellPosition(startRow, startColumn), new CellPosition(endRow, endColumn));
     }
 
+    /**
+     * Crea un rango a partir de su notación Excel (ej: "A1:C3" o una sola celda "B2")
+     */
+    public static ExcelRange fromExcelNotation(String notation) {
+        if (notation == null || notation.trim().isEmpty()) {
+            throw new IllegalArgumentException("Range notation cannot be null or empty");
+        }
+        String[] parts = notation.trim().split(":");
+        if (parts.length > 2) {
+            throw new IllegalArgumentException("Invalid range reference: " + notation);
+        }
+        CellPosition start = CellPosition.fromExcelNotation(parts[0]);
+        CellPosition end = parts.length == 2 ? CellPosition.fromExcelNotation(parts[1]) : start;
+        return new ExcelRange(start, end);
+    }
+
     /**
      * Retorna el número de filas en el rango
      */
@@ -0,0 +1,22 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Representa una lectura solicitada en una petición múltiple: hoja y rango A1 ("A1:D10", "B2",
+ * columna completa "C:C" o fila completa "5:5")
+ */
+public record ExcelRangeRequest(
+        String sheetName,
+        String range
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelRangeRequest {
+        if (sheetName == null || sheetName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Sheet name cannot be null or empty");
+        }
+        if (range == null || range.trim().isEmpty()) {
+            throw new IllegalArgumentException("Range cannot be null or empty");
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package mcp.development_guides.project.domain.model;
+
+import java.io.Serializable;
+
+/**
+ * Representa el resultado de una lectura de una petición múltiple: valores como texto (vacío para celdas
+ * vacías) a partir de la primera fila y columna del rango, o el error si no se pudo leer
+ */
+public record ExcelRangeValues(
+        String sheetName,
+        String range,
+        int firstRow,
+        int firstColumn,
+        String[][] values,
+        String error
+) implements Serializable {
+}
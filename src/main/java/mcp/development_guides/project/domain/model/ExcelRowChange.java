@@ -0,0 +1,15 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa una fila añadida, eliminada o modificada entre dos versiones de una hoja.
+ * Los índices de fila son base 0; el de la versión en la que la fila no existe es null
+ */
+public record ExcelRowChange(
+        String type,
+        Integer oldRow,
+        Integer newRow,
+        List<ExcelCellChange> cells
+) {
+}
@@ -1,5 +1,6 @@
 package mcp.development_guides.project.domain.model;
 
+import java.io.Serializable;
 import java.util.List;
 
 /**
@@ -8,7 +9,7 @@ import java.util.List;
 public record ExcelSheetData(
         ExcelSheetInfo info,
         List<List<ExcelCellData>> rows
-) {
+) implements Serializable {
     /**
      * Constructor que valida los datos
      */
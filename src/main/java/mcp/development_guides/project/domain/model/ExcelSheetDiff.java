@@ -0,0 +1,26 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa las diferencias entre dos hojas: conteos completos y el detalle de las filas cambiadas
+ */
+public record ExcelSheetDiff(
+        String oldSheetName,
+        String newSheetName,
+        String alignment,
+        long oldRows,
+        long newRows,
+        long addedRows,
+        long removedRows,
+        long changedRows,
+        List<ExcelRowChange> changes,
+        boolean truncated
+) {
+    /**
+     * Indica si las hojas son iguales
+     */
+    public boolean isIdentical() {
+        return addedRows == 0 && removedRows == 0 && changedRows == 0;
+    }
+}
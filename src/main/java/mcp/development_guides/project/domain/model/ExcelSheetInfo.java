@@ -1,5 +1,7 @@
 package mcp.development_guides.project.domain.model;
 
+import java.io.Serializable;
+
 /**
  * Representa información de una hoja de Excel
  */
@@ -9,7 +11,7 @@ public record ExcelSheetInfo(
         int rowCount,
         int columnCount,
         boolean hasData
-) {
+) implements Serializable {
     /**
      * Constructor que valida los datos de entrada
      */
@@ -0,0 +1,33 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+
+/**
+ * Representa la vista previa de una hoja obtenida en una lectura parcial: primeras filas, encabezado
+ * detectado, rango usado, celdas combinadas y estadísticas baratas por columna
+ */
+public record ExcelSheetPreview(
+        String sheetName,
+        String usedRange,
+        String usedRangeSource,
+        int headerRow,
+        List<ExcelTableColumn> columns,
+        List<ExcelPreviewRow> rows,
+        List<ExcelColumnProfile> columnStats,
+        int statsRows,
+        List<String> mergedRegions,
+        boolean mergedRegionsComplete,
+        boolean reachedEnd
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelSheetPreview {
+        if (sheetName == null || sheetName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Sheet name cannot be null or empty");
+        }
+        if (rows == null || columns == null || columnStats == null || mergedRegions == null) {
+            throw new IllegalArgumentException("Preview lists cannot be null");
+        }
+    }
+}
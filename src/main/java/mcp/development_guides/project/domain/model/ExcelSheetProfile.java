@@ -0,0 +1,33 @@
+package mcp.development_guides.project.domain.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Representa el perfil por columnas de una hoja, calculado sobre todas las filas o sobre una muestra,
+ * junto con el recuento de celdas no vacías por tipo de celda. cellCountsComplete indica si ese recuento
+ * cubre toda la hoja o solo las filas leídas antes de cortar el recorrido
+ */
+public record ExcelSheetProfile(
+        String sheetName,
+        String samplingMode,
+        long rowsScanned,
+        long rowsProfiled,
+        boolean complete,
+        List<ExcelColumnProfile> columns,
+        long totalCells,
+        Map<String, Long> cellTypeDistribution,
+        boolean cellCountsComplete
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelSheetProfile {
+        if (columns == null) {
+            throw new IllegalArgumentException("Columns cannot be null");
+        }
+        if (cellTypeDistribution == null) {
+            throw new IllegalArgumentException("Cell type distribution cannot be null");
+        }
+    }
+}
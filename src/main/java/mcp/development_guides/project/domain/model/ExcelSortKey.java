@@ -0,0 +1,28 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Representa una clave de ordenación: columna (nombre de encabezado o letra) y sentido ("asc" o "desc")
+ */
+public record ExcelSortKey(
+        String column,
+        String order
+) {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelSortKey {
+        if (column == null || column.isBlank()) {
+            throw new IllegalArgumentException("Sort column cannot be empty");
+        }
+        if (order != null && !order.isBlank() && !order.equalsIgnoreCase("asc") && !order.equalsIgnoreCase("desc")) {
+            throw new IllegalArgumentException("Sort order must be 'asc' or 'desc': " + order);
+        }
+    }
+
+    /**
+     * Indica si el orden es descendente (por defecto ascendente)
+     */
+    public boolean isDescending() {
+        return order != null && order.equalsIgnoreCase("desc");
+    }
+}
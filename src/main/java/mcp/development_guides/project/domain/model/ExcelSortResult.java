@@ -0,0 +1,19 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Representa el resultado de una ordenación de rango
+ */
+public record ExcelSortResult(
+        String sheetName,
+        String targetSheetName,
+        String writtenRange,
+        long rowsSorted,
+        int spilledRuns
+) {
+    /**
+     * Indica si la ordenación necesitó volcar tramos ordenados a disco (ordenación externa)
+     */
+    public boolean isExternal() {
+        return spilledRuns > 0;
+    }
+}
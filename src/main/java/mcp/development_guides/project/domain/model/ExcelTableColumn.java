@@ -0,0 +1,24 @@
+package mcp.development_guides.project.domain.model;
+
+import java.io.Serializable;
+
+/**
+ * Representa una columna de una tabla Excel detectada a partir de su fila de encabezado
+ */
+public record ExcelTableColumn(
+        String name,
+        int index,
+        String type
+) implements Serializable {
+    /**
+     * Constructor que valida los datos de entrada
+     */
+    public ExcelTableColumn {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Column name cannot be null or empty");
+        }
+        if (index < 0) {
+            throw new IllegalArgumentException("Column index must be non-negative");
+        }
+    }
+}
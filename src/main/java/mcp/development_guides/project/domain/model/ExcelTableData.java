@@ -0,0 +1,27 @@
+package mcp.development_guides.project.domain.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Representa los datos de una tabla Excel en formato compacto: el esquema se envía una sola vez
+ * y cada fila es un arreglo posicional de valores tipados
+ */
+public record ExcelTableData(
+        ExcelTableSchema schema,
+        int totalRows,
+        int offset,
+        List<Object[]> rows
+) implements Serializable {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelTableData {
+        if (schema == null) {
+            throw new IllegalArgumentException("Table schema cannot be null");
+        }
+        if (rows == null) {
+            throw new IllegalArgumentException("Rows cannot be null");
+        }
+    }
+}
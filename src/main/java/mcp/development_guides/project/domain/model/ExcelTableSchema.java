@@ -0,0 +1,48 @@
+package mcp.development_guides.project.domain.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Representa el esquema de una tabla Excel: fila de encabezado y columnas con su tipo inferido
+ */
+public record ExcelTableSchema(
+        String sheetName,
+        int headerRow,
+        int firstDataRow,
+        List<ExcelTableColumn> columns
+) implements Serializable {
+    /**
+     * Constructor que valida los datos
+     */
+    public ExcelTableSchema {
+        if (sheetName == null || sheetName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Sheet name cannot be null or empty");
+        }
+        if (columns == null) {
+            throw new IllegalArgumentException("Columns cannot be null");
+        }
+        if (firstDataRow < 0) {
+            throw new IllegalArgumentException("First data row must be non-negative");
+        }
+    }
+
+    /**
+     * Indica si la tabla tiene una fila de encabezado detectada
+     */
+    public boolean hasHeader() {
+        return headerRow >= 0;
+    }
+
+    /**
+     * Busca una columna por su nombre (sin distinguir mayúsculas)
+     */
+    public ExcelTableColumn findColumn(String name) {
+        for (ExcelTableColumn column : columns) {
+            if (column.name().equalsIgnoreCase(name)) {
+                return column;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,21 @@
+package mcp.development_guides.project.domain.model;
+
+import java.io.Serializable;
+
+/**
+ * Representa una columna de una lectura tipada. Según type (NUMBER, DATE, BOOLEAN, TEXT o EMPTY) los datos
+ * van en values (números; fechas en milisegundos epoch de la fecha y hora tomada como UTC; booleanos 1/0)
+ * o en dictionary + indexes (textos distintos e índice de cada fila, -1 si está vacía). nulls es un mapa de
+ * bits en Base64 con las filas vacías (bit i del byte i/8, empezando por el menos significativo); es null
+ * si no hay ninguna
+ */
+public record ExcelTypedColumn(
+        int column,
+        String type,
+        int nullCount,
+        String nulls,
+        double[] values,
+        String[] dictionary,
+        int[] indexes
+) implements Serializable {
+}
@@ -0,0 +1,17 @@
+package mcp.development_guides.project.domain.model;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Representa un rango leído por columnas con valores tipados: rowCount filas a partir de firstRow y una
+ * columna por cada índice desde firstColumn
+ */
+public record ExcelTypedRange(
+        String sheetName,
+        int firstRow,
+        int firstColumn,
+        int rowCount,
+        List<ExcelTypedColumn> columns
+) implements Serializable {
+}
@@ -0,0 +1,10 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Representa un valor y su número de apariciones (aproximado en los perfiles de columna)
+ */
+public record ExcelValueCount(
+        String value,
+        long count
+) {
+}
@@ -0,0 +1,10 @@
+package mcp.development_guides.project.domain.model;
+
+/**
+ * Resultado de una escritura: UNCHANGED indica que el archivo ya contenía lo solicitado y no se guardó
+ */
+public enum ExcelWriteStatus {
+    UPDATED,
+    UNCHANGED,
+    FAILED
+}
@@ -0,0 +1,165 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import mcp.development_guides.project.domain.model.ExcelColumnProfile;
+import mcp.development_guides.project.domain.model.ExcelValueCount;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.*;
+
+/**
+ * Acumulador del perfil de una columna: conteo por tipo, extremos, distintos estimados con HyperLogLog
+ * y valores frecuentes con el algoritmo Space-Saving (memoria acotada aunque la columna tenga millones de valores)
+ */
+final class ColumnProfiler {
+
+    private static final int HLL_PRECISION = 12;
+
+    private final long[] typeCounts = new long[ColumnSampleBatch.TYPE_NAMES.length];
+    private final HyperLogLog distinct = new HyperLogLog(HLL_PRECISION);
+    private final int counterCapacity;
+    private final Map<String, long[]> counters = new HashMap<>();
+
+    private double numberMin = Double.POSITIVE_INFINITY;
+    private double numberMax = Double.NEGATIVE_INFINITY;
+    private double dateMin = Double.POSITIVE_INFINITY;
+    private double dateMax = Double.NEGATIVE_INFINITY;
+    private String textMin;
+    private String textMax;
+
+    ColumnProfiler(int topK) {
+        // Space-Saving garantiza los k más frecuentes si se vigilan bastantes más contadores que k
+        this.counterCapacity = Math.max(topK * 8, 64);
+    }
+
+    /**
+     * Acumula la columna c de todas las filas del lote
+     */
+    void accept(ColumnSampleBatch batch, int c) {
+        byte[] types = batch.types[c];
+        double[] numbers = batch.numbers[c];
+        String[] texts = batch.texts[c];
+        long[] hashes = batch.hashes[c];
+        for (int i = 0; i < batch.size; i++) {
+            byte type = types[i];
+            typeCounts[type]++;
+            if (type == ColumnSampleBatch.EMPTY) {
+                continue;
+            }
+            distinct.add(hashes[i]);
+            count(texts[i]);
+            switch (type) {
+                case ColumnSampleBatch.INTEGER, ColumnSampleBatch.DECIMAL -> {
+                    numberMin = Math.min(numberMin, numbers[i]);
+                    numberMax = Math.max(numberMax, numbers[i]);
+                }
+                case ColumnSampleBatch.DATE -> {
+                    dateMin = Math.min(dateMin, numbers[i]);
+                    dateMax = Math.max(dateMax, numbers[i]);
+                }
+                case ColumnSampleBatch.TEXT -> {
+                    if (textMin == null || texts[i].compareTo(textMin) < 0) {
+                        textMin = texts[i];
+                    }
+                    if (textMax == null || texts[i].compareTo(textMax) > 0) {
+                        textMax = texts[i];
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    ExcelColumnProfile toProfile(String name, int index, int topK) {
+        Map<String, Long> distribution = new LinkedHashMap<>();
+        long total = 0;
+        for (int type = 0; type < typeCounts.length; type++) {
+            total += typeCounts[type];
+            if (typeCounts[type] > 0 && type != ColumnSampleBatch.EMPTY) {
+                distribution.put(ColumnSampleBatch.TYPE_NAMES[type], typeCounts[type]);
+            }
+        }
+        long nulls = typeCounts[ColumnSampleBatch.EMPTY];
+        double nullRatio = total > 0 ? (double) nulls / total : 0;
+        String dominantType = dominantType(distribution);
+
+        Object min = null;
+        Object max = null;
+        if (numberMin <= numberMax && !"DATE".equals(dominantType) && !"TEXT".equals(dominantType)) {
+            min = compactNumber(numberMin);
+            max = compactNumber(numberMax);
+        } else if (dateMin <= dateMax && !"TEXT".equals(dominantType)) {
+            min = DateUtil.getLocalDateTime(dateMin).toString();
+            max = DateUtil.getLocalDateTime(dateMax).toString();
+        } else if (textMin != null) {
+            min = textMin;
+            max = textMax;
+        }
+
+        // La estimación no puede superar el número de valores no vacíos vistos
+        long distinctEstimate = Math.min(distinct.estimate(), total - nulls);
+        return new ExcelColumnProfile(name, index, dominantType, distribution, nulls, nullRatio,
+            distinctEstimate, min, max, topValues(topK));
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Space-Saving: si no hay hueco se reemplaza el contador mínimo heredando su cuenta
+     */
+    private void count(String value) {
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < counterCapacity) {
+            counters.put(value, new long[]{1, 0});
+            return;
+        }
+        Map.Entry<String, long[]> minimum = null;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (minimum == null || entry.getValue()[0] < minimum.getValue()[0]) {
+                minimum = entry;
+            }
+        }
+        long inherited = minimum.getValue()[0];
+        counters.remove(minimum.getKey());
+        // Se guarda la cuenta heredada como error máximo del nuevo contador
+        counters.put(value, new long[]{inherited + 1, inherited});
+    }
+
+    private List<ExcelValueCount> topValues(int topK) {
+        // Solo se informan valores que seguro se repiten (cuenta menos error heredado mayor que 1)
+        return counters.entrySet().stream()
+            .filter(entry -> entry.getValue()[0] - entry.getValue()[1] > 1)
+            .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+            .limit(topK)
+            .map(entry -> new ExcelValueCount(entry.getKey(), entry.getValue()[0]))
+            .toList();
+    }
+
+    /**
+     * Mismas reglas que ExcelTableReader al inferir el tipo de columna: un único tipo, DECIMAL si se
+     * mezclan enteros y decimales, MIXED en otro caso y EMPTY si no hay valores
+     */
+    private static String dominantType(Map<String, Long> distribution) {
+        if (distribution.isEmpty()) {
+            return "EMPTY";
+        }
+        if (distribution.size() == 1) {
+            return distribution.keySet().iterator().next();
+        }
+        if (distribution.size() == 2 && distribution.containsKey("INTEGER") && distribution.containsKey("DECIMAL")) {
+            return "DECIMAL";
+        }
+        return "MIXED";
+    }
+
+    private static Object compactNumber(double value) {
+        if (value == Math.floor(value) && !Double.isInfinite(value)) {
+            return (long) value;
+        }
+        return value;
+    }
+}
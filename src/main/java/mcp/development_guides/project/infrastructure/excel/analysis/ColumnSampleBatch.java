@@ -0,0 +1,101 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+
+/**
+ * Lote de filas capturadas por columnas (tipo, número, texto y huella de cada celda) para que cada
+ * columna se pueda perfilar de forma independiente y en paralelo
+ */
+final class ColumnSampleBatch {
+
+    static final String[] TYPE_NAMES = {"EMPTY", "TEXT", "INTEGER", "DECIMAL", "DATE", "BOOLEAN", "ERROR"};
+    static final byte EMPTY = 0;
+    static final byte TEXT = 1;
+    static final byte INTEGER = 2;
+    static final byte DECIMAL = 3;
+    static final byte DATE = 4;
+    static final byte BOOLEAN = 5;
+    static final byte ERROR = 6;
+
+    final int[] columns;
+    final byte[][] types;
+    final double[][] numbers;
+    final String[][] texts;
+    final long[][] hashes;
+    private final int[][] singleColumns;
+    private final int capacity;
+    int size;
+
+    ColumnSampleBatch(int[] columns, int capacity) {
+        this.columns = columns;
+        this.capacity = capacity;
+        types = new byte[columns.length][capacity];
+        numbers = new double[columns.length][capacity];
+        texts = new String[columns.length][capacity];
+        hashes = new long[columns.length][capacity];
+        singleColumns = new int[columns.length][];
+        for (int c = 0; c < columns.length; c++) {
+            singleColumns[c] = new int[]{columns[c]};
+        }
+    }
+
+    boolean isFull() {
+        return size == capacity;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void add(ExcelStreamedRow row) {
+        set(size++, row);
+    }
+
+    /**
+     * Captura la fila en la posición indicada (reemplaza lo que hubiera)
+     */
+    void set(int slot, ExcelStreamedRow row) {
+        for (int c = 0; c < columns.length; c++) {
+            int column = columns[c];
+            byte type = typeOf(row, column);
+            types[c][slot] = type;
+            texts[c][slot] = type == EMPTY ? null : row.getValueAsString(column);
+            numbers[c][slot] = row.getNumber(column);
+            hashes[c][slot] = type == EMPTY ? 0 : row.fingerprint(singleColumns[c]);
+        }
+    }
+
+    /**
+     * Conserva solo las filas en posiciones pares (muestreo por paso adaptativo)
+     */
+    void keepEvenSlots() {
+        int kept = 0;
+        for (int slot = 0; slot < size; slot += 2, kept++) {
+            for (int c = 0; c < columns.length; c++) {
+                types[c][kept] = types[c][slot];
+                numbers[c][kept] = numbers[c][slot];
+                texts[c][kept] = texts[c][slot];
+                hashes[c][kept] = hashes[c][slot];
+            }
+        }
+        size = kept;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    private static byte typeOf(ExcelStreamedRow row, int column) {
+        return switch (row.getKind(column)) {
+            case STRING -> TEXT;
+            case NUMERIC -> {
+                double value = row.getNumber(column);
+                yield value == Math.floor(value) ? INTEGER : DECIMAL;
+            }
+            case DATE -> DATE;
+            case BOOLEAN -> BOOLEAN;
+            case ERROR -> ERROR;
+            case BLANK -> EMPTY;
+        };
+    }
+}
@@ -0,0 +1,194 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import mcp.development_guides.project.domain.model.CellPosition;
+import mcp.development_guides.project.domain.model.ExcelAggregationGroup;
+import mcp.development_guides.project.domain.model.ExcelAggregationResult;
+import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Agregaciones (suma, promedio, mínimo, máximo, conteo) calculadas en un único pase en streaming,
+ * con agrupación opcional por una o varias columnas clave
+ */
+@Component
+public class ExcelAggregator {
+
+    private static final List<String> SUPPORTED_FUNCTIONS = List.of("sum", "avg", "min", "max", "count");
+
+    // Separador entre las partes de una clave de grupo compuesta
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    /**
+     * Calcula agregados sobre columnas de una tabla (rangeNotation vacío) o de un rango en notación A1
+     */
+    public ExcelAggregationResult aggregate(String filePath, String sheetName, String rangeNotation,
+                                            List<String> valueColumns, List<String> groupByColumns, List<String> functions) {
+        List<String> values = valueColumns != null ? valueColumns : List.of();
+        List<String> groupBy = groupByColumns != null ? groupByColumns : List.of();
+        List<String> selectedFunctions = normalizeFunctions(functions);
+        if (values.isEmpty() && groupBy.isEmpty()) {
+            throw new IllegalArgumentException("At least one value column or group-by column is required");
+        }
+
+        ExcelFileVersion version = ExcelFileVersion.of(filePath);
+        ExcelRange range = rangeNotation != null && !rangeNotation.isBlank() ? ExcelRange.fromExcelNotation(rangeNotation) : null;
+
+        return streamingReader.executeWithStream(filePath,
+            String.format("Aggregating %d columns grouped by %s in sheet '%s'", values.size(), groupBy, sheetName),
+            (workbook, path) -> {
+                ColumnResolver resolver = new ColumnResolver(workbook, version, sheetName, range);
+                int[] valueIndexes = resolver.resolveAll(values);
+                int[] keyIndexes = resolver.resolveAll(groupBy);
+                int firstRow = range != null ? range.startPosition().row() : resolver.schema().firstDataRow();
+                int lastRow = range != null ? range.endPosition().row() : Integer.MAX_VALUE;
+
+                GroupKeyIndex groups = new GroupKeyIndex(64);
+                NumericAccumulators accumulators = new NumericAccumulators(valueIndexes.length, 64);
+                List<List<Object>> groupKeys = new ArrayList<>();
+                StringBuilder key = new StringBuilder();
+                long[] rowsScanned = {0};
+
+                workbook.streamSheet(sheetName, row -> {
+                    int rowIndex = row.getRowIndex();
+                    if (rowIndex < firstRow || row.isEmpty()) {
+                        return true;
+                    }
+                    if (rowIndex > lastRow) {
+                        return false;
+                    }
+
+                    key.setLength(0);
+                    for (int keyIndex : keyIndexes) {
+                        row.appendValue(keyIndex, key);
+                        key.append(KEY_SEPARATOR);
+                    }
+
+                    int group = groups.getOrAdd(key);
+                    if (group < 0) {
+                        group = -group - 1;
+                        List<Object> keyValues = new ArrayList<>(keyIndexes.length);
+                        for (int keyIndex : keyIndexes) {
+                            keyValues.add(row.getValueAsObject(keyIndex));
+                        }
+                        groupKeys.add(keyValues);
+                    }
+
+                    accumulators.addRow(group);
+                    for (int i = 0; i < valueIndexes.length; i++) {
+                        if (row.isNumeric(valueIndexes[i])) {
+                            accumulators.add(group, i, row.getNumber(valueIndexes[i]));
+                        }
+                    }
+                    rowsScanned[0]++;
+                    return true;
+                });
+
+                List<ExcelAggregationGroup> result = new ArrayList<>(groups.size());
+                for (int group = 0; group < groups.size(); group++) {
+                    Map<String, Map<String, Double>> metrics = new LinkedHashMap<>();
+                    for (int i = 0; i < valueIndexes.length; i++) {
+                        metrics.put(values.get(i), buildMetrics(accumulators, group, i, selectedFunctions));
+                    }
+                    result.add(new ExcelAggregationGroup(groupKeys.get(group), accumulators.rowCount(group), metrics));
+                }
+
+                return new ExcelAggregationResult(sheetName, groupBy, selectedFunctions, rowsScanned[0], result);
+            });
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Construye el mapa de métricas de una columna; los valores no definidos (sin datos) se devuelven como null
+     */
+    private Map<String, Double> buildMetrics(NumericAccumulators accumulators, int group, int column, List<String> functions) {
+        Map<String, Double> metrics = new LinkedHashMap<>();
+        for (String function : functions) {
+            double value = switch (function) {
+                case "sum" -> accumulators.sum(group, column);
+                case "avg" -> accumulators.average(group, column);
+                case "min" -> accumulators.min(group, column);
+                case "max" -> accumulators.max(group, column);
+                default -> accumulators.count(group, column);
+            };
+            metrics.put(function, Double.isNaN(value) ? null : value);
+        }
+        return metrics;
+    }
+
+    private List<String> normalizeFunctions(List<String> functions) {
+        if (functions == null || functions.isEmpty()) {
+            return SUPPORTED_FUNCTIONS;
+        }
+        List<String> normalized = new ArrayList<>();
+        for (String function : functions) {
+            String name = function.trim().toLowerCase();
+            if (name.equals("average") || name.equals("mean")) {
+                name = "avg";
+            }
+            if (!SUPPORTED_FUNCTIONS.contains(name)) {
+                throw new IllegalArgumentException("Unsupported aggregate function '" + function + "'. Supported: " + SUPPORTED_FUNCTIONS);
+            }
+            if (!normalized.contains(name)) {
+                normalized.add(name);
+            }
+        }
+        return normalized;
+    }
+
+    /**
+     * Resuelve referencias de columna por letra o nombre de encabezado; el esquema de tabla
+     * solo se detecta cuando hace falta (modo tabla o columnas referenciadas por nombre)
+     */
+    private final class ColumnResolver {
+
+        private final ExcelStreamingWorkbook workbook;
+        private final ExcelFileVersion version;
+        private final String sheetName;
+        private final ExcelRange range;
+        private ExcelTableSchema schema;
+
+        ColumnResolver(ExcelStreamingWorkbook workbook, ExcelFileVersion version, String sheetName, ExcelRange range) {
+            this.workbook = workbook;
+            this.version = version;
+            this.sheetName = sheetName;
+            this.range = range;
+        }
+
+        ExcelTableSchema schema() throws Exception {
+            if (schema == null) {
+                schema = tableReader.getTableSchema(workbook, version, sheetName);
+            }
+            return schema;
+        }
+
+        int[] resolveAll(List<String> references) throws Exception {
+            int[] indexes = new int[references.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                String reference = references.get(i);
+                indexes[i] = range != null && CellPosition.isColumnLetters(reference)
+                    ? CellPosition.columnIndex(reference)
+                    : tableReader.resolveColumnIndex(schema(), reference);
+
+                if (range != null && (indexes[i] < range.startPosition().column() || indexes[i] > range.endPosition().column())) {
+                    throw new IllegalArgumentException("Column '" + reference + "' is outside range " + range.toExcelNotation());
+                }
+            }
+            return indexes;
+        }
+    }
+}
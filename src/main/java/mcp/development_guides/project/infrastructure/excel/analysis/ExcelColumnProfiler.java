@@ -0,0 +1,222 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import mcp.development_guides.project.domain.model.ExcelColumnProfile;
+import mcp.development_guides.project.domain.model.ExcelSheetProfile;
+import mcp.development_guides.project.domain.model.ExcelTableColumn;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Perfilado por columnas de una hoja en streaming. Las filas se capturan en lotes por columnas y cada
+ * lote se procesa con una columna por tarea en paralelo. Admite muestreo de las primeras N filas, por
+ * reservorio (muestra uniforme) o por paso adaptativo (filas equiespaciadas). En la misma pasada se
+ * cuentan las celdas no vacías por tipo de celda: de toda la hoja salvo en first, que deja de leer
+ * al completar la muestra
+ */
+@Component
+public class ExcelColumnProfiler {
+
+    public static final String MODE_ALL = "all";
+    public static final String MODE_FIRST = "first";
+    public static final String MODE_RESERVOIR = "reservoir";
+    public static final String MODE_STRIDE = "stride";
+
+    // Filas por lote cuando se perfila la hoja completa o las primeras N filas
+    private static final int BATCH_ROWS = 4096;
+
+    // Semilla fija para que el muestreo por reservorio sea reproducible
+    private static final long RESERVOIR_SEED = 0x5DEECE66DL;
+
+    // Tipos de celda (nombres de CellType) del recuento de toda la hoja
+    private static final String[] CELL_TYPES = {"STRING", "NUMERIC", "BOOLEAN", "FORMULA"};
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    @Value("${excel.analysis.profile-top-values:5}")
+    private int topValues;
+
+    /**
+     * Ajusta el número de valores más frecuentes que se devuelven por columna
+     */
+    public void setTopValues(int topValues) {
+        this.topValues = topValues;
+    }
+
+    /**
+     * Perfila las columnas de la tabla detectada en la hoja. Con sampleSize <= 0 se perfilan todas las
+     * filas; en otro caso samplingMode elige first (por defecto), reservoir o stride. En first el recorrido
+     * se corta en la primera fila de datos fuera de la muestra, así que el recuento de celdas por tipo
+     * solo cubre las filas leídas hasta ahí (cellCountsComplete a false)
+     */
+    public ExcelSheetProfile profileSheet(String filePath, String sheetName, String samplingMode, int sampleSize) {
+        String mode = resolveMode(samplingMode, sampleSize);
+        ExcelFileVersion version = ExcelFileVersion.of(filePath);
+
+        return streamingReader.executeWithStream(filePath,
+            String.format("Profiling columns of sheet '%s' (%s)", sheetName, describe(mode, sampleSize)),
+            (workbook, path) -> {
+                ExcelTableSchema schema = tableReader.getTableSchema(workbook, version, sheetName);
+                List<ExcelTableColumn> tableColumns = schema.columns();
+                int[] columns = tableColumns.stream().mapToInt(ExcelTableColumn::index).toArray();
+                ColumnProfiler[] profilers = new ColumnProfiler[columns.length];
+                for (int c = 0; c < profilers.length; c++) {
+                    profilers[c] = new ColumnProfiler(topValues);
+                }
+
+                // Reservorio y paso necesitan toda la muestra en memoria; el resto se procesa por lotes
+                boolean buffered = MODE_RESERVOIR.equals(mode) || MODE_STRIDE.equals(mode);
+                ColumnSampleBatch batch = new ColumnSampleBatch(columns, buffered ? sampleSize : BATCH_ROWS);
+                SplittableRandom random = new SplittableRandom(RESERVOIR_SEED);
+                long[] scanned = {0};
+                long[] profiled = {0};
+                long[] stride = {1};
+                long[] cellTypeCounts = new long[CELL_TYPES.length];
+                boolean[] stopped = {false};
+
+                workbook.streamSheet(sheetName, row -> {
+                    boolean dataRow = row.getRowIndex() >= schema.firstDataRow() && !row.isEmpty();
+                    // En first, la primera fila de datos fuera de la muestra termina el recorrido
+                    if (dataRow && MODE_FIRST.equals(mode) && profiled[0] >= sampleSize) {
+                        stopped[0] = true;
+                        return false;
+                    }
+                    countCells(row, cellTypeCounts);
+                    if (!dataRow) {
+                        return true;
+                    }
+                    long seen = scanned[0]++;
+                    switch (mode) {
+                        case MODE_RESERVOIR -> {
+                            // Algoritmo R: la fila n sustituye a una posición al azar con probabilidad k / n
+                            if (batch.size < sampleSize) {
+                                batch.add(row);
+                            } else {
+                                long slot = random.nextLong(seen + 1);
+                                if (slot < sampleSize) {
+                                    batch.set((int) slot, row);
+                                }
+                            }
+                        }
+                        case MODE_STRIDE -> {
+                            // Al llenarse el búfer se descarta una de cada dos filas y se duplica el paso
+                            if (seen % stride[0] == 0) {
+                                if (batch.isFull()) {
+                                    batch.keepEvenSlots();
+                                    stride[0] *= 2;
+                                }
+                                if (seen % stride[0] == 0) {
+                                    batch.add(row);
+                                }
+                            }
+                        }
+                        default -> {
+                            batch.add(row);
+                            profiled[0]++;
+                            if (batch.isFull()) {
+                                profileBatch(batch, profilers);
+                            }
+                        }
+                    }
+                    return true;
+                });
+
+                if (buffered) {
+                    profiled[0] = batch.size;
+                }
+                profileBatch(batch, profilers);
+
+                List<ExcelColumnProfile> profiles = new ArrayList<>(columns.length);
+                for (int c = 0; c < columns.length; c++) {
+                    profiles.add(profilers[c].toProfile(tableColumns.get(c).name(), columns[c], topValues));
+                }
+                Map<String, Long> cellTypeDistribution = new HashMap<>();
+                long totalCells = 0;
+                for (int t = 0; t < CELL_TYPES.length; t++) {
+                    if (cellTypeCounts[t] > 0) {
+                        cellTypeDistribution.put(CELL_TYPES[t], cellTypeCounts[t]);
+                        totalCells += cellTypeCounts[t];
+                    }
+                }
+                System.out.println("🧬 Profiled " + columns.length + " columns over " + profiled[0] + " of "
+                    + scanned[0] + (stopped[0] ? "+" : "") + " rows");
+                return new ExcelSheetProfile(sheetName, mode, scanned[0], profiled[0],
+                    !stopped[0] && profiled[0] == scanned[0], profiles, totalCells, cellTypeDistribution, !stopped[0]);
+            });
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Cuenta las celdas no vacías de la fila por tipo con los criterios de excel_read_sheet: los textos
+     * vacíos y los errores no cuentan (su valor es "") y las fórmulas cuentan como FORMULA salvo que su
+     * resultado sea un texto vacío
+     */
+    private static void countCells(ExcelStreamedRow row, long[] cellTypeCounts) {
+        for (int column = 0; column < row.getColumnCount(); column++) {
+            ExcelStreamedRow.CellKind kind = row.getKind(column);
+            boolean emptyText = kind == ExcelStreamedRow.CellKind.STRING && row.getText(column).isEmpty();
+            if (row.isFormula(column)) {
+                if (!emptyText) {
+                    cellTypeCounts[3]++;
+                }
+                continue;
+            }
+            switch (kind) {
+                case STRING -> {
+                    if (!emptyText) {
+                        cellTypeCounts[0]++;
+                    }
+                }
+                case NUMERIC, DATE -> cellTypeCounts[1]++;
+                case BOOLEAN -> cellTypeCounts[2]++;
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void profileBatch(ColumnSampleBatch batch, ColumnProfiler[] profilers) {
+        if (batch.size == 0) {
+            return;
+        }
+        IntStream.range(0, profilers.length).parallel().forEach(c -> profilers[c].accept(batch, c));
+        batch.clear();
+    }
+
+    private String resolveMode(String samplingMode, int sampleSize) {
+        if (sampleSize <= 0) {
+            return MODE_ALL;
+        }
+        if (samplingMode == null || samplingMode.isBlank()) {
+            return MODE_FIRST;
+        }
+        String mode = samplingMode.trim().toLowerCase(Locale.ROOT);
+        return switch (mode) {
+            case MODE_ALL, MODE_FIRST, MODE_RESERVOIR, MODE_STRIDE -> mode;
+            default -> throw new IllegalArgumentException("Unknown sampling mode: " + samplingMode
+                + " (expected first, reservoir or stride)");
+        };
+    }
+
+    private String describe(String mode, int sampleSize) {
+        return MODE_ALL.equals(mode) ? "all rows" : mode + " " + sampleSize;
+    }
+}
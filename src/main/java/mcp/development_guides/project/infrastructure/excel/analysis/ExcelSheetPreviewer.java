@@ -0,0 +1,190 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import mcp.development_guides.project.domain.model.*;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Vista previa de una hoja en una sola lectura que se detiene al cubrir su presupuesto de filas: primeras
+ * filas, encabezado detectado, rango usado, celdas combinadas y estadísticas por columna de las primeras filas de datos
+ */
+@Component
+public class ExcelSheetPreviewer {
+
+    private static final int DEFAULT_PREVIEW_ROWS = 20;
+    private static final int MAX_PREVIEW_ROWS = 500;
+
+    // Filas de datos sobre las que se calculan las estadísticas por columna
+    private static final int STATS_ROWS = 1000;
+
+    // Valores más frecuentes por columna en la vista previa
+    private static final int PREVIEW_TOP_VALUES = 3;
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    /**
+     * Obtiene la vista previa de una hoja (sheetName vacío = primera hoja) con hasta maxRows filas (por defecto 20)
+     */
+    public ExcelSheetPreview previewSheet(String filePath, String sheetName, int maxRows) {
+        int previewRows = maxRows > 0 ? Math.min(maxRows, MAX_PREVIEW_ROWS) : DEFAULT_PREVIEW_ROWS;
+        ExcelFileVersion version = ExcelFileVersion.of(filePath);
+
+        return streamingReader.executeWithStream(filePath, "Previewing sheet '" + sheetName + "'", (workbook, path) -> {
+            String sheet = sheetName != null && !sheetName.isBlank() ? sheetName : firstSheet(workbook);
+            ExcelTableSchema schema = tableReader.getTableSchema(workbook, version, sheet);
+            int[] columns = schema.columns().stream().mapToInt(ExcelTableColumn::index).toArray();
+            ColumnSampleBatch batch = new ColumnSampleBatch(columns, STATS_ROWS);
+            PreviewCollector collector = new PreviewCollector(schema, batch, previewRows);
+
+            workbook.streamSheet(sheet, collector, collector);
+
+            ColumnProfiler[] profilers = new ColumnProfiler[columns.length];
+            List<ExcelColumnProfile> stats = new ArrayList<>(columns.length);
+            for (int c = 0; c < columns.length; c++) {
+                profilers[c] = new ColumnProfiler(PREVIEW_TOP_VALUES);
+                profilers[c].accept(batch, c);
+                stats.add(profilers[c].toProfile(schema.columns().get(c).name(), columns[c], PREVIEW_TOP_VALUES));
+            }
+
+            System.out.println("👀 Previewed sheet '" + sheet + "': " + collector.rows.size() + " rows, stats over "
+                + batch.size + " data rows" + (collector.reachedEnd ? " (whole sheet)" : ""));
+            return new ExcelSheetPreview(sheet, collector.usedRange(), collector.usedRangeSource(), schema.headerRow(),
+                schema.columns(), collector.rows, stats, batch.size, collector.mergedRegions,
+                collector.reachedEnd || isLegacyFormat(filePath), collector.reachedEnd);
+        });
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * En .xls el modelo completo ya está cargado y las celdas combinadas se notifican antes de las filas
+     */
+    private boolean isLegacyFormat(String filePath) {
+        return filePath.toLowerCase().endsWith(".xls");
+    }
+
+    private String firstSheet(ExcelStreamingWorkbook workbook) {
+        List<String> names = workbook.getSheetNames();
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("Workbook has no sheets");
+        }
+        return names.get(0);
+    }
+
+    /**
+     * Recoge filas, estadísticas y estructura de la hoja; deja de leer cuando tiene las filas de la vista
+     * previa y las filas de datos de las estadísticas
+     */
+    private static final class PreviewCollector implements ExcelStreamingWorkbook.RowHandler, ExcelStreamingWorkbook.SheetLayoutHandler {
+
+        private final ExcelTableSchema schema;
+        private final ColumnSampleBatch batch;
+        private final int previewRows;
+        private final List<ExcelPreviewRow> rows = new ArrayList<>();
+        private final List<String> mergedRegions = new ArrayList<>();
+        private String dimension;
+        private boolean reachedEnd = true;
+        private int firstRow = -1;
+        private int lastRow = -1;
+        private int firstColumn = Integer.MAX_VALUE;
+        private int lastColumn = -1;
+
+        PreviewCollector(ExcelTableSchema schema, ColumnSampleBatch batch, int previewRows) {
+            this.schema = schema;
+            this.batch = batch;
+            this.previewRows = previewRows;
+        }
+
+        @Override
+        public void onDimension(String reference) {
+            dimension = reference;
+        }
+
+        @Override
+        public void onMergedRegion(String reference) {
+            mergedRegions.add(reference);
+        }
+
+        @Override
+        public boolean handleRow(ExcelStreamedRow row) {
+            if (row.isEmpty()) {
+                return true;
+            }
+            trackExtent(row);
+
+            if (rows.size() < previewRows) {
+                Object[] values = new Object[lastNonBlank(row) + 1];
+                for (int column = 0; column < values.length; column++) {
+                    values[column] = row.getValueAsObject(column);
+                }
+                rows.add(new ExcelPreviewRow(row.getRowIndex(), Arrays.asList(values)));
+            }
+            if (row.getRowIndex() >= schema.firstDataRow() && !batch.isFull()) {
+                batch.add(row);
+            }
+
+            boolean statsDone = batch.isFull() || batch.columns.length == 0;
+            if (rows.size() >= previewRows && statsDone) {
+                reachedEnd = false;
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Rango declarado en el archivo; si no existe, el observado en las filas leídas
+         */
+        String usedRange() {
+            if (dimension != null) {
+                return dimension;
+            }
+            if (lastRow < 0) {
+                return null;
+            }
+            return new ExcelRange(firstRow, firstColumn, lastRow, lastColumn).toExcelNotation();
+        }
+
+        String usedRangeSource() {
+            if (dimension != null) {
+                return "declared";
+            }
+            return reachedEnd ? "scanned" : "partial-scan";
+        }
+
+        private void trackExtent(ExcelStreamedRow row) {
+            if (firstRow < 0) {
+                firstRow = row.getRowIndex();
+            }
+            lastRow = row.getRowIndex();
+            int last = lastNonBlank(row);
+            lastColumn = Math.max(lastColumn, last);
+            for (int column = 0; column <= last && column < firstColumn; column++) {
+                if (!row.isBlank(column)) {
+                    firstColumn = column;
+                    break;
+                }
+            }
+        }
+
+        private static int lastNonBlank(ExcelStreamedRow row) {
+            int column = row.getColumnCount() - 1;
+            while (column >= 0 && row.isBlank(column)) {
+                column--;
+            }
+            return column;
+        }
+    }
+}
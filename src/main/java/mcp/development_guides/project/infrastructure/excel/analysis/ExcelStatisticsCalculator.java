@@ -0,0 +1,188 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import mcp.development_guides.project.domain.model.CellPosition;
+import mcp.development_guides.project.domain.model.ExcelNumericSummary;
+import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelCacheManager;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileWatcher;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelOffHeapSheetStore;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Estadísticas numéricas de columnas (suma, media, varianza, extremos, histograma) calculadas sobre
+ * búferes primitivos double[] con núcleos SIMD o escalares según la configuración
+ */
+@Component
+public class ExcelStatisticsCalculator {
+
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    // Región del gestor de caché con las columnas numéricas ya cargadas, para llamadas repetidas
+    private static final String COLUMN_REGION = "numeric-columns";
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    @Autowired
+    private ExcelFileWatcher fileWatcher;
+
+    @Autowired
+    private ExcelCacheManager cacheManager;
+
+    @Autowired
+    private ExcelOffHeapSheetStore offHeapStore;
+
+    @Value("${excel.analysis.vector-kernels:true}")
+    private boolean vectorKernelsEnabled;
+
+    private final NumericKernels scalarKernels = new ScalarNumericKernels();
+    private volatile NumericKernels vectorKernels;
+
+    @PostConstruct
+    public void registerCache() {
+        // Las columnas desalojadas se comprimen en el segundo nivel: restaurarlas evita releer la hoja
+        cacheManager.registerRegion(COLUMN_REGION,
+            value -> 16 + 8L * ((NumericColumnBuffer) value).values().length, true, 0);
+        fileWatcher.addListener(path -> cacheManager.removeIf(COLUMN_REGION, key -> ((String) key).startsWith(path + "::")));
+    }
+
+    /**
+     * Activa o desactiva en caliente los núcleos SIMD (si el módulo de vectores no está cargado se usa siempre el escalar)
+     */
+    public void setVectorKernelsEnabled(boolean enabled) {
+        this.vectorKernelsEnabled = enabled;
+    }
+
+    /**
+     * Devuelve los núcleos activos según la configuración y la disponibilidad de jdk.incubator.vector
+     */
+    public NumericKernels getKernels() {
+        if (!vectorKernelsEnabled || ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return scalarKernels;
+        }
+        if (vectorKernels == null) {
+            try {
+                // Se carga por reflexión para no resolver la clase cuando el módulo no está presente
+                vectorKernels = (NumericKernels) Class.forName(getClass().getPackageName() + ".VectorNumericKernels")
+                    .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                System.err.println("⚠️ Vector kernels unavailable, using scalar fallback: " + e.getMessage());
+                vectorKernelsEnabled = false;
+                return scalarKernels;
+            }
+        }
+        return vectorKernels;
+    }
+
+    /**
+     * Calcula el resumen estadístico de una columna (nombre de encabezado o letra), opcionalmente limitada a un rango A1
+     */
+    public ExcelNumericSummary summarizeColumn(String filePath, String sheetName, String column, String rangeNotation, int bins) {
+        NumericColumnBuffer buffer = loadColumn(filePath, sheetName, column, rangeNotation);
+        return summarize(column, buffer.values(), buffer.length(), bins);
+    }
+
+    /**
+     * Calcula el resumen estadístico sobre un búfer ya cargado
+     */
+    public ExcelNumericSummary summarize(String column, double[] values, int length, int bins) {
+        NumericKernels kernels = getKernels();
+        int binCount = Math.max(bins, 1);
+
+        if (length == 0) {
+            return new ExcelNumericSummary(column, 0, 0, null, null, null, null, null, List.of(), List.of(), kernels.name());
+        }
+
+        double sum = kernels.sum(values, length);
+        double mean = sum / length;
+        double min = kernels.min(values, length);
+        double max = kernels.max(values, length);
+        Double variance = length > 1 ? kernels.sumOfSquaredDeviations(values, length, mean) / (length - 1) : null;
+
+        long[] counts = kernels.histogram(values, length, min, max, binCount);
+        List<Long> histogram = new ArrayList<>(binCount);
+        List<Double> binEdges = new ArrayList<>(binCount + 1);
+        double width = (max - min) / binCount;
+        for (int i = 0; i < binCount; i++) {
+            histogram.add(counts[i]);
+            binEdges.add(min + width * i);
+        }
+        binEdges.add(max);
+
+        return new ExcelNumericSummary(column, length, sum, mean, variance,
+            variance != null ? Math.sqrt(variance) : null, min, max, binEdges, histogram, kernels.name());
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Carga en un búfer primitivo los valores numéricos de la columna, reutilizando la caché por versión de archivo
+     */
+    private NumericColumnBuffer loadColumn(String filePath, String sheetName, String column, String rangeNotation) {
+        ExcelFileVersion version = fileWatcher.currentVersion(filePath);
+        ExcelRange range = rangeNotation != null && !rangeNotation.isBlank() ? ExcelRange.fromExcelNotation(rangeNotation) : null;
+        String key = version.path() + "::" + version.size() + "::" + version.lastModified() + "::" + sheetName + "::" + column.toLowerCase() + "::" + (range != null ? range.toExcelNotation() : "");
+
+        NumericColumnBuffer cached = (NumericColumnBuffer) cacheManager.get(COLUMN_REGION, key);
+        if (cached != null) {
+            return cached;
+        }
+
+        int lastRow = range != null ? range.endPosition().row() : Integer.MAX_VALUE;
+        NumericColumnBuffer buffer = offHeapStore.query(filePath, sheetName, sheet -> {
+            // Hoja grande ya residente fuera del heap: se recorre solo el búfer de la columna
+            int columnIndex;
+            int firstRow;
+            if (range != null && CellPosition.isColumnLetters(column)) {
+                columnIndex = CellPosition.columnIndex(column);
+                firstRow = range.startPosition().row();
+            } else {
+                ExcelTableSchema schema = tableReader.getTableSchema(filePath, sheetName);
+                columnIndex = tableReader.resolveColumnIndex(schema, column);
+                firstRow = range != null ? range.startPosition().row() : schema.firstDataRow();
+            }
+            NumericColumnBuffer values = new NumericColumnBuffer(1024);
+            sheet.forEachNumber(columnIndex, firstRow, lastRow, values::add);
+            return values.trim();
+        }, () -> streamingReader.executeWithStream(filePath,
+            String.format("Loading numeric column '%s' from sheet '%s'", column, sheetName),
+            (workbook, path) -> {
+                int columnIndex;
+                int firstRow;
+                if (range != null && CellPosition.isColumnLetters(column)) {
+                    columnIndex = CellPosition.columnIndex(column);
+                    firstRow = range.startPosition().row();
+                } else {
+                    var schema = tableReader.getTableSchema(workbook, version, sheetName);
+                    columnIndex = tableReader.resolveColumnIndex(schema, column);
+                    firstRow = range != null ? range.startPosition().row() : schema.firstDataRow();
+                }
+                NumericColumnBuffer values = new NumericColumnBuffer(1024);
+                workbook.streamSheet(sheetName, row -> {
+                    if (row.getRowIndex() > lastRow) {
+                        return false;
+                    }
+                    if (row.getRowIndex() >= firstRow && row.isNumeric(columnIndex)) {
+                        values.add(row.getNumber(columnIndex));
+                    }
+                    return true;
+                });
+                return values.trim();
+            }));
+
+        cacheManager.put(COLUMN_REGION, key, buffer);
+        return buffer;
+    }
+}
@@ -0,0 +1,269 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import mcp.development_guides.project.domain.model.CellPosition;
+import mcp.development_guides.project.domain.model.ExcelCellChange;
+import mcp.development_guides.project.domain.model.ExcelDiffResult;
+import mcp.development_guides.project.domain.model.ExcelRowChange;
+import mcp.development_guides.project.domain.model.ExcelSheetDiff;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Comparación de workbooks u hojas mediante huellas de fila. La versión antigua se resume en arreglos
+ * primitivos (clave de alineación y huella por fila), la nueva se recorre en streaming comparando huellas
+ * y solo las filas cambiadas o eliminadas se vuelven a leer para obtener el detalle por celda
+ */
+@Component
+public class ExcelWorkbookDiffer {
+
+    // Filas con detalle que se devuelven por defecto
+    private static final int DEFAULT_MAX_CHANGES = 200;
+
+    // Constante para derivar claves distintas en apariciones repetidas de una misma clave
+    private static final long OCCURRENCE_SALT = 0x9E3779B97F4A7C15L;
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    /**
+     * Resumen de una hoja: posición de cada fila por clave de alineación, su huella e índice de fila
+     */
+    private static final class RowIndex {
+
+        private final LongIntHashMap positions = new LongIntHashMap(1024);
+        private final LongIntHashMap occurrences = new LongIntHashMap(16);
+        private long[] hashes = new long[1024];
+        private int[] rows = new int[1024];
+        private int size;
+
+        void add(long alignKey, long hash, int row) {
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            hashes[size] = hash;
+            rows[size] = row;
+            positions.put(alignKey, size++);
+        }
+    }
+
+    /**
+     * Forma de recorrer una hoja: primera fila de datos y columnas clave (vacío = alineación por posición)
+     */
+    private record SheetSide(ExcelStreamingWorkbook workbook, String sheetName, int firstRow, int[] keyIndexes) {
+
+        boolean byKey() {
+            return keyIndexes.length > 0;
+        }
+    }
+
+    /**
+     * Compara dos archivos (o dos hojas del mismo archivo). Sin nombre de hoja se comparan todas las hojas
+     * comunes por nombre; newSheetName vacío usa el mismo nombre. keyColumns (nombres de encabezado o letras)
+     * alinea filas por clave; vacío alinea por posición. maxChanges limita las filas con detalle (conteos completos)
+     */
+    public ExcelDiffResult diff(String oldFilePath, String newFilePath, String sheetName, String newSheetName,
+                                List<String> keyColumns, int maxChanges) {
+        String newFile = newFilePath != null && !newFilePath.isBlank() ? newFilePath : oldFilePath;
+        List<String> keys = keyColumns != null ? keyColumns : List.of();
+        int[] remainingChanges = {maxChanges > 0 ? maxChanges : DEFAULT_MAX_CHANGES};
+        ExcelFileVersion oldVersion = ExcelFileVersion.of(oldFilePath);
+        ExcelFileVersion newVersion = ExcelFileVersion.of(newFile);
+
+        return streamingReader.executeWithStream(oldFilePath,
+            String.format("Comparing with %s%s", newFile, sheetName != null && !sheetName.isBlank() ? " (sheet '" + sheetName + "')" : ""),
+            (oldWorkbook, path) -> {
+                try (ExcelStreamingWorkbook newWorkbook = ExcelStreamingWorkbook.open(newFile)) {
+                    List<String[]> pairs = new ArrayList<>();
+                    List<String> addedSheets = new ArrayList<>();
+                    List<String> removedSheets = new ArrayList<>();
+
+                    if (sheetName != null && !sheetName.isBlank()) {
+                        pairs.add(new String[]{sheetName, newSheetName != null && !newSheetName.isBlank() ? newSheetName : sheetName});
+                    } else {
+                        List<String> oldSheets = oldWorkbook.getSheetNames();
+                        List<String> newSheets = newWorkbook.getSheetNames();
+                        for (String name : oldSheets) {
+                            if (newSheets.contains(name)) {
+                                pairs.add(new String[]{name, name});
+                            } else {
+                                removedSheets.add(name);
+                            }
+                        }
+                        newSheets.stream().filter(name -> !oldSheets.contains(name)).forEach(addedSheets::add);
+                    }
+
+                    List<ExcelSheetDiff> sheets = new ArrayList<>();
+                    for (String[] pair : pairs) {
+                        List<String> sheetKeys = keys;
+                        // Al comparar todas las hojas, las que no tienen las columnas clave se alinean por posición
+                        if (pairs.size() > 1 && !keys.isEmpty()
+                                && !(hasColumns(oldWorkbook, oldVersion, pair[0], keys) && hasColumns(newWorkbook, newVersion, pair[1], keys))) {
+                            sheetKeys = List.of();
+                        }
+                        SheetSide oldSide = resolveSide(oldWorkbook, oldVersion, pair[0], sheetKeys);
+                        SheetSide newSide = resolveSide(newWorkbook, newVersion, pair[1], sheetKeys);
+                        sheets.add(diffSheets(oldSide, newSide, remainingChanges));
+                    }
+                    return new ExcelDiffResult(oldFilePath, newFile, addedSheets, removedSheets, sheets);
+                }
+            });
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private SheetSide resolveSide(ExcelStreamingWorkbook workbook, ExcelFileVersion version, String sheetName,
+                                  List<String> keys) throws Exception {
+        if (keys.isEmpty()) {
+            return new SheetSide(workbook, sheetName, 0, new int[0]);
+        }
+        int[] keyIndexes = new int[keys.size()];
+        for (int i = 0; i < keyIndexes.length; i++) {
+            keyIndexes[i] = tableReader.resolveColumnIndex(workbook, version, sheetName, null, keys.get(i));
+        }
+        int firstRow = tableReader.getTableSchema(workbook, version, sheetName).firstDataRow();
+        return new SheetSide(workbook, sheetName, firstRow, keyIndexes);
+    }
+
+    private boolean hasColumns(ExcelStreamingWorkbook workbook, ExcelFileVersion version, String sheetName,
+                               List<String> columns) throws Exception {
+        ExcelTableSchema schema = tableReader.getTableSchema(workbook, version, sheetName);
+        return columns.stream().allMatch(column -> schema.findColumn(column) != null);
+    }
+
+    /**
+     * Compara dos hojas: resume la antigua, recorre la nueva y relee solo las filas antiguas necesarias
+     */
+    private ExcelSheetDiff diffSheets(SheetSide oldSide, SheetSide newSide, int[] remainingChanges) throws Exception {
+        RowIndex oldIndex = new RowIndex();
+        streamRows(oldSide, row -> {
+            oldIndex.add(alignKey(row, oldSide, oldIndex.occurrences), row.fingerprint(), row.getRowIndex());
+            return true;
+        });
+
+        BitSet matched = new BitSet(oldIndex.size);
+        LongIntHashMap newOccurrences = new LongIntHashMap(16);
+        List<ExcelRowChange> changes = new ArrayList<>();
+        List<Object[]> changedNewValues = new ArrayList<>();
+        Map<Integer, Object[]> wantedOldRows = new HashMap<>();
+        long[] counts = new long[3]; // filas nuevas, añadidas, cambiadas
+
+        streamRows(newSide, row -> {
+            counts[0]++;
+            int position = oldIndex.positions.get(alignKey(row, newSide, newOccurrences));
+            if (position < 0) {
+                counts[1]++;
+                if (remainingChanges[0] > 0) {
+                    remainingChanges[0]--;
+                    changes.add(new ExcelRowChange("added", null, row.getRowIndex(), cellChanges(row.getRowIndex(), null, values(row))));
+                }
+                return true;
+            }
+            matched.set(position);
+            if (oldIndex.hashes[position] != row.fingerprint()) {
+                counts[2]++;
+                if (remainingChanges[0] > 0) {
+                    remainingChanges[0]--;
+                    int oldRow = oldIndex.rows[position];
+                    wantedOldRows.put(oldRow, null);
+                    changes.add(new ExcelRowChange("changed", oldRow, row.getRowIndex(), new ArrayList<>()));
+                    changedNewValues.add(values(row));
+                }
+            }
+            return true;
+        });
+
+        long removed = oldIndex.size - matched.cardinality();
+        List<Integer> removedRows = new ArrayList<>();
+        for (int position = matched.nextClearBit(0); position < oldIndex.size && remainingChanges[0] > 0;
+             position = matched.nextClearBit(position + 1)) {
+            remainingChanges[0]--;
+            removedRows.add(oldIndex.rows[position]);
+            wantedOldRows.put(oldIndex.rows[position], null);
+        }
+
+        // Segundo pase sobre la hoja antigua limitado a las filas con detalle
+        if (!wantedOldRows.isEmpty()) {
+            int lastWanted = Collections.max(wantedOldRows.keySet());
+            streamRows(oldSide, row -> {
+                if (wantedOldRows.containsKey(row.getRowIndex())) {
+                    wantedOldRows.put(row.getRowIndex(), values(row));
+                }
+                return row.getRowIndex() < lastWanted;
+            });
+        }
+
+        int changedPosition = 0;
+        for (int i = 0; i < changes.size(); i++) {
+            ExcelRowChange change = changes.get(i);
+            if (change.type().equals("changed")) {
+                Object[] newValues = changedNewValues.get(changedPosition++);
+                changes.set(i, new ExcelRowChange("changed", change.oldRow(), change.newRow(),
+                    cellChanges(change.newRow(), wantedOldRows.get(change.oldRow()), newValues)));
+            }
+        }
+        for (Integer oldRow : removedRows) {
+            changes.add(new ExcelRowChange("removed", oldRow, null, cellChanges(oldRow, wantedOldRows.get(oldRow), null)));
+        }
+
+        boolean truncated = changes.size() < counts[1] + counts[2] + removed;
+        System.out.println("🔍 Sheet '" + oldSide.sheetName() + "' vs '" + newSide.sheetName() + "': +" + counts[1]
+            + " -" + removed + " ~" + counts[2]);
+        return new ExcelSheetDiff(oldSide.sheetName(), newSide.sheetName(), oldSide.byKey() ? "key" : "position",
+            oldIndex.size, counts[0], counts[1], removed, counts[2], changes, truncated);
+    }
+
+    private void streamRows(SheetSide side, ExcelStreamingWorkbook.RowHandler handler) throws Exception {
+        side.workbook().streamSheet(side.sheetName(), row ->
+            row.getRowIndex() < side.firstRow() || row.isEmpty() || handler.handleRow(row));
+    }
+
+    /**
+     * Clave de alineación: índice de fila (por posición) o huella de las columnas clave; las apariciones
+     * repetidas de una clave se emparejan en orden de aparición
+     */
+    private long alignKey(ExcelStreamedRow row, SheetSide side, LongIntHashMap occurrences) {
+        if (!side.byKey()) {
+            return row.getRowIndex();
+        }
+        long key = row.fingerprint(side.keyIndexes());
+        int occurrence = occurrences.get(key) + 1;
+        occurrences.put(key, occurrence);
+        return occurrence == 0 ? key : ExcelStreamedRow.mix64(key + occurrence * OCCURRENCE_SALT);
+    }
+
+    private Object[] values(ExcelStreamedRow row) {
+        Object[] values = new Object[row.getColumnCount()];
+        for (int column = 0; column < values.length; column++) {
+            values[column] = row.getValueAsObject(column);
+        }
+        return values;
+    }
+
+    /**
+     * Celdas distintas entre las dos versiones de una fila (null = la fila no existe en esa versión)
+     */
+    private List<ExcelCellChange> cellChanges(int row, Object[] oldValues, Object[] newValues) {
+        int width = Math.max(oldValues != null ? oldValues.length : 0, newValues != null ? newValues.length : 0);
+        List<ExcelCellChange> cells = new ArrayList<>();
+        for (int column = 0; column < width; column++) {
+            Object oldValue = oldValues != null && column < oldValues.length ? oldValues[column] : null;
+            Object newValue = newValues != null && column < newValues.length ? newValues[column] : null;
+            if (!Objects.equals(oldValue, newValue)) {
+                cells.add(new ExcelCellChange(new CellPosition(row, column).toExcelNotation(), oldValue, newValue));
+            }
+        }
+        return cells;
+    }
+}
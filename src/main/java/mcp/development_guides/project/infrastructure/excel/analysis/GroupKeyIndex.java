@@ -0,0 +1,117 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Mapa de direccionamiento abierto (sondeo lineal) de claves de grupo a identificadores enteros
+ * consecutivos. La búsqueda acepta un CharSequence reutilizable, de modo que solo se crea un String
+ * cuando aparece un grupo nuevo
+ */
+public final class GroupKeyIndex {
+
+    private static final int EMPTY = -1;
+
+    private int[] slots;
+    private int[] hashes;
+    private String[] keys;
+    private int size;
+
+    public GroupKeyIndex(int expectedGroups) {
+        int capacity = Integer.highestOneBit(Math.max(expectedGroups, 8) * 2 - 1) << 1;
+        slots = new int[capacity];
+        Arrays.fill(slots, EMPTY);
+        hashes = new int[Math.max(expectedGroups, 8)];
+        keys = new String[Math.max(expectedGroups, 8)];
+    }
+
+    /**
+     * Número de grupos distintos registrados
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Clave del grupo con el identificador indicado
+     */
+    public String keyAt(int groupId) {
+        return keys[groupId];
+    }
+
+    /**
+     * Busca el identificador del grupo sin registrarlo; -1 si la clave no existe
+     */
+    public int find(CharSequence key) {
+        int hash = hash(key);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        while (slots[slot] != EMPTY) {
+            int groupId = slots[slot];
+            if (hashes[groupId] == hash && keys[groupId].contentEquals(key)) {
+                return groupId;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Devuelve el identificador del grupo para la clave, registrándolo si no existe.
+     * Un valor negativo (-(id + 1)) indica que el grupo se acaba de crear
+     */
+    public int getOrAdd(CharSequence key) {
+        int hash = hash(key);
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+
+        while (slots[slot] != EMPTY) {
+            int groupId = slots[slot];
+            if (hashes[groupId] == hash && keys[groupId].contentEquals(key)) {
+                return groupId;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int groupId = size++;
+        if (groupId == keys.length) {
+            keys = Arrays.copyOf(keys, keys.length * 2);
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        keys[groupId] = key.toString();
+        hashes[groupId] = hash;
+        slots[slot] = groupId;
+
+        // Mantener el factor de carga por debajo de 0.5
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return -(groupId + 1);
+    }
+
+    private void rehash(int capacity) {
+        int[] newSlots = new int[capacity];
+        Arrays.fill(newSlots, EMPTY);
+        int mask = capacity - 1;
+        for (int groupId = 0; groupId < size; groupId++) {
+            int slot = hashes[groupId] & mask;
+            while (newSlots[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            newSlots[slot] = groupId;
+        }
+        slots = newSlots;
+    }
+
+    private static int hash(CharSequence key) {
+        int hash = 0;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        // Mezcla de bits para repartir claves parecidas entre los slots
+        hash ^= (hash >>> 16);
+        hash *= 0x85ebca6b;
+        hash ^= (hash >>> 13);
+        return hash;
+    }
+}
@@ -0,0 +1,60 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+/**
+ * Estimador HyperLogLog del número de valores distintos a partir de huellas de 64 bits.
+ * Con precisión p usa 2^p registros de un byte; el error típico es 1.04 / sqrt(2^p)
+ */
+public final class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    /**
+     * Registra una huella (debe estar bien mezclada, p. ej. ExcelStreamedRow.fingerprint)
+     */
+    public void add(long hash) {
+        int register = (int) (hash >>> (Long.SIZE - precision));
+        // Posición del primer bit a 1 en los bits restantes (se añade un centinela para acotarla)
+        long remaining = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(remaining) + 1);
+        if (rank > registers[register]) {
+            registers[register] = rank;
+        }
+    }
+
+    /**
+     * Estimación del número de valores distintos registrados
+     */
+    public long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = switch (m) {
+            case 16 -> 0.673;
+            case 32 -> 0.697;
+            case 64 -> 0.709;
+            default -> 0.7213 / (1 + 1.079 / m);
+        };
+        double estimate = alpha * m * m / sum;
+
+        // Corrección para cardinalidades pequeñas (conteo lineal)
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
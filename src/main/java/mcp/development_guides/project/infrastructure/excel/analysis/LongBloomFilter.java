@@ -0,0 +1,47 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+/**
+ * Filtro de Bloom sobre huellas de 64 bits. Las posiciones se derivan por doble hash de las dos
+ * mitades de la huella, por lo que no se vuelve a recorrer el valor original
+ */
+public final class LongBloomFilter {
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Crea un filtro que ocupa como máximo maxBytes y se dimensiona para expectedItems elementos
+     */
+    public LongBloomFilter(long expectedItems, long maxBytes) {
+        long words = Math.max(maxBytes / Long.BYTES, 1);
+        bits = new long[(int) Math.min(words, Integer.MAX_VALUE - 8)];
+        bitCount = (long) bits.length * Long.SIZE;
+        // Número óptimo de funciones: (m / n) * ln 2
+        double ratio = (double) bitCount / Math.max(expectedItems, 1);
+        hashCount = (int) Math.max(1, Math.min(16, Math.round(ratio * Math.log(2))));
+    }
+
+    /**
+     * Registra la huella y devuelve true si ya podía estar presente (todos sus bits estaban activos)
+     */
+    public boolean put(long hash) {
+        int low = (int) hash;
+        int high = (int) (hash >>> 32);
+        boolean present = true;
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = ((low + (long) i * high) & Long.MAX_VALUE) % bitCount;
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            if ((bits[word] & mask) == 0) {
+                present = false;
+                bits[word] |= mask;
+            }
+        }
+        return present;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+}
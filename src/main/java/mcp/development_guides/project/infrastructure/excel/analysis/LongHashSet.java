@@ -0,0 +1,88 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+/**
+ * Conjunto de valores long con direccionamiento abierto (sondeo lineal) sobre un arreglo primitivo.
+ * El 0 se usa como marca de hueco y se registra aparte
+ */
+public final class LongHashSet {
+
+    // Bytes por elemento con el factor de carga máximo de 0.5 (dos slots de 8 bytes)
+    public static final int BYTES_PER_ENTRY = 16;
+
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet(int expectedSize) {
+        slots = new long[Integer.highestOneBit(Math.max(expectedSize, 8) * 2 - 1) << 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Añade el valor; devuelve false si ya estaba en el conjunto
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int mask = slots.length - 1;
+        int slot = spread(value) & mask;
+        while (slots[slot] != 0) {
+            if (slots[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        slots[slot] = value;
+        size++;
+
+        // Mantener el factor de carga por debajo de 0.5
+        if (size * 2 > slots.length) {
+            rehash(slots.length * 2);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        int slot = spread(value) & mask;
+        while (slots[slot] != 0) {
+            if (slots[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldSlots = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : oldSlots) {
+            if (value != 0) {
+                int slot = spread(value) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = value;
+            }
+        }
+    }
+
+    private static int spread(long value) {
+        return (int) (value ^ (value >>> 32));
+    }
+}
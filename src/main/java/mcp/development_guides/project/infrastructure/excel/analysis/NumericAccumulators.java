@@ -0,0 +1,94 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import java.util.Arrays;
+
+/**
+ * Acumuladores numéricos primitivos (conteo, suma, mínimo, máximo) para una matriz grupo × columna.
+ * Los valores se guardan en arreglos planos indexados por (grupo * columnas + columna)
+ */
+public final class NumericAccumulators {
+
+    private final int columns;
+    private long[] rowCounts;
+    private long[] counts;
+    private double[] sums;
+    private double[] mins;
+    private double[] maxs;
+
+    public NumericAccumulators(int columns, int expectedGroups) {
+        this.columns = columns;
+        int groups = Math.max(expectedGroups, 1);
+        rowCounts = new long[groups];
+        counts = new long[groups * columns];
+        sums = new double[groups * columns];
+        mins = new double[groups * columns];
+        maxs = new double[groups * columns];
+        Arrays.fill(mins, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, Double.NEGATIVE_INFINITY);
+    }
+
+    /**
+     * Registra una fila perteneciente al grupo
+     */
+    public void addRow(int group) {
+        ensureGroup(group);
+        rowCounts[group]++;
+    }
+
+    /**
+     * Acumula un valor numérico en la columna del grupo
+     */
+    public void add(int group, int column, double value) {
+        int slot = group * columns + column;
+        counts[slot]++;
+        sums[slot] += value;
+        if (value < mins[slot]) {
+            mins[slot] = value;
+        }
+        if (value > maxs[slot]) {
+            maxs[slot] = value;
+        }
+    }
+
+    public long rowCount(int group) {
+        return rowCounts[group];
+    }
+
+    public long count(int group, int column) {
+        return counts[group * columns + column];
+    }
+
+    public double sum(int group, int column) {
+        return sums[group * columns + column];
+    }
+
+    public double min(int group, int column) {
+        long count = count(group, column);
+        return count > 0 ? mins[group * columns + column] : Double.NaN;
+    }
+
+    public double max(int group, int column) {
+        long count = count(group, column);
+        return count > 0 ? maxs[group * columns + column] : Double.NaN;
+    }
+
+    public double average(int group, int column) {
+        long count = count(group, column);
+        return count > 0 ? sum(group, column) / count : Double.NaN;
+    }
+
+    private void ensureGroup(int group) {
+        if (group < rowCounts.length) {
+            return;
+        }
+        int groups = Math.max(rowCounts.length * 2, group + 1);
+        int oldSlots = counts.length;
+        rowCounts = Arrays.copyOf(rowCounts, groups);
+        counts = Arrays.copyOf(counts, groups * columns);
+        sums = Arrays.copyOf(sums, groups * columns);
+        mins = Arrays.copyOf(mins, groups * columns);
+        maxs = Arrays.copyOf(maxs, groups * columns);
+        Arrays.fill(mins, oldSlots, mins.length, Double.POSITIVE_INFINITY);
+        Arrays.fill(maxs, oldSlots, maxs.length, Double.NEGATIVE_INFINITY);
+    }
+}
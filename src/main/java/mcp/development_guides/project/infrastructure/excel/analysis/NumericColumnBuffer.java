@@ -0,0 +1,47 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Búfer primitivo creciente con los valores numéricos de una columna (las celdas no numéricas se omiten)
+ */
+public final class NumericColumnBuffer implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private double[] values;
+    private int length;
+
+    public NumericColumnBuffer(int initialCapacity) {
+        values = new double[Math.max(initialCapacity, 16)];
+    }
+
+    public void add(double value) {
+        if (length == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[length++] = value;
+    }
+
+    /**
+     * Arreglo subyacente; solo las primeras {@link #length()} posiciones son válidas
+     */
+    public double[] values() {
+        return values;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Ajusta la capacidad al número de valores para no retener memoria sobrante en caché
+     */
+    public NumericColumnBuffer trim() {
+        if (values.length != length) {
+            values = Arrays.copyOf(values, length);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,29 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+/**
+ * Núcleos numéricos sobre búferes primitivos de columna (double[]). Solo se procesan las
+ * primeras {@code length} posiciones del arreglo
+ */
+public interface NumericKernels {
+
+    double sum(double[] values, int length);
+
+    double min(double[] values, int length);
+
+    double max(double[] values, int length);
+
+    /**
+     * Suma de los cuadrados de las desviaciones respecto a la media (base de la varianza)
+     */
+    double sumOfSquaredDeviations(double[] values, int length, double mean);
+
+    /**
+     * Cuenta los valores en {@code bins} intervalos iguales entre min y max (max se incluye en el último)
+     */
+    long[] histogram(double[] values, int length, double min, double max, int bins);
+
+    /**
+     * Nombre de la implementación (para diagnóstico)
+     */
+    String name();
+}
@@ -0,0 +1,60 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+/**
+ * Implementación escalar de los núcleos numéricos (bucles simples, sin dependencias)
+ */
+public final class ScalarNumericKernels implements NumericKernels {
+
+    @Override
+    public double sum(double[] values, int length) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int length) {
+        double min = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int length) {
+        double max = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] values, int length, double mean) {
+        double sum = 0;
+        for (int i = 0; i < length; i++) {
+            double deviation = values[i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    @Override
+    public long[] histogram(double[] values, int length, double min, double max, int bins) {
+        long[] counts = new long[bins];
+        double scale = max > min ? bins / (max - min) : 0;
+        for (int i = 0; i < length; i++) {
+            int bin = (int) ((values[i] - min) * scale);
+            counts[Math.min(Math.max(bin, 0), bins - 1)]++;
+        }
+        return counts;
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
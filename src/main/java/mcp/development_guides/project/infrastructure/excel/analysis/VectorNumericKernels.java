@@ -0,0 +1,113 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Implementación SIMD de los núcleos numéricos con la API jdk.incubator.vector.
+ * Requiere arrancar la JVM con {@code --add-modules jdk.incubator.vector}; si el módulo no está
+ * disponible se usa ScalarNumericKernels (ver ExcelStatisticsCalculator)
+ */
+public final class VectorNumericKernels implements NumericKernels {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public double sum(double[] values, int length) {
+        DoubleVector accumulator = DoubleVector.zero(SPECIES);
+        int upperBound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            accumulator = accumulator.add(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double sum = accumulator.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    public double min(double[] values, int length) {
+        DoubleVector accumulator = DoubleVector.broadcast(SPECIES, Double.POSITIVE_INFINITY);
+        int upperBound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            accumulator = accumulator.min(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double min = accumulator.reduceLanes(VectorOperators.MIN);
+        for (; i < length; i++) {
+            min = Math.min(min, values[i]);
+        }
+        return min;
+    }
+
+    @Override
+    public double max(double[] values, int length) {
+        DoubleVector accumulator = DoubleVector.broadcast(SPECIES, Double.NEGATIVE_INFINITY);
+        int upperBound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            accumulator = accumulator.max(DoubleVector.fromArray(SPECIES, values, i));
+        }
+        double max = accumulator.reduceLanes(VectorOperators.MAX);
+        for (; i < length; i++) {
+            max = Math.max(max, values[i]);
+        }
+        return max;
+    }
+
+    @Override
+    public double sumOfSquaredDeviations(double[] values, int length, double mean) {
+        DoubleVector meanVector = DoubleVector.broadcast(SPECIES, mean);
+        DoubleVector accumulator = DoubleVector.zero(SPECIES);
+        int upperBound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector deviation = DoubleVector.fromArray(SPECIES, values, i).sub(meanVector);
+            accumulator = deviation.fma(deviation, accumulator);
+        }
+        double sum = accumulator.reduceLanes(VectorOperators.ADD);
+        for (; i < length; i++) {
+            double deviation = values[i] - mean;
+            sum += deviation * deviation;
+        }
+        return sum;
+    }
+
+    @Override
+    public long[] histogram(double[] values, int length, double min, double max, int bins) {
+        long[] counts = new long[bins];
+        double scale = max > min ? bins / (max - min) : 0;
+        DoubleVector minVector = DoubleVector.broadcast(SPECIES, min);
+        DoubleVector scaleVector = DoubleVector.broadcast(SPECIES, scale);
+        DoubleVector lastBin = DoubleVector.broadcast(SPECIES, bins - 1);
+        double[] lanes = new double[SPECIES.length()];
+
+        // El cálculo del intervalo se vectoriza; el incremento de contadores es escalar (posibles conflictos)
+        int upperBound = SPECIES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += SPECIES.length()) {
+            DoubleVector.fromArray(SPECIES, values, i)
+                .sub(minVector)
+                .mul(scaleVector)
+                .max(0)
+                .min(lastBin)
+                .intoArray(lanes, 0);
+            for (double lane : lanes) {
+                counts[(int) lane]++;
+            }
+        }
+        for (; i < length; i++) {
+            int bin = (int) ((values[i] - min) * scale);
+            counts[Math.min(Math.max(bin, 0), bins - 1)]++;
+        }
+        return counts;
+    }
+
+    @Override
+    public String name() {
+        return "vector(" + SPECIES.length() + " lanes)";
+    }
+}
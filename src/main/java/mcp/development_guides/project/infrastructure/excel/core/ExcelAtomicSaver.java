@@ -0,0 +1,240 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Guardado de workbooks a prueba de caídas: se escribe en un temporal junto al destino a través de un
+ * FileChannel con búfer reutilizado, se fuerza a disco y se sustituye el destino con un movimiento
+ * atómico, de modo que el archivo siempre existe con la versión anterior o con la nueva completa
+ */
+@Component
+public class ExcelAtomicSaver {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    // Búferes de salida que se conservan para reutilizar entre guardados
+    private static final int POOLED_BUFFERS = 4;
+
+    @Autowired
+    private ExcelFileWatcher fileWatcher;
+
+    @Value("${excel.save.buffer-bytes:262144}")
+    private int bufferBytes;
+
+    @Value("${excel.save.backup-generations:0}")
+    private int backupGenerations;
+
+    private final BlockingQueue<ByteBuffer> bufferPool = new ArrayBlockingQueue<>(POOLED_BUFFERS);
+
+    /**
+     * Ajusta cuántas copias anteriores se conservan (archivo.bak1 es la más reciente); 0 las desactiva
+     */
+    public void setBackupGenerations(int backupGenerations) {
+        this.backupGenerations = backupGenerations;
+    }
+
+    /**
+     * Guarda el workbook en el archivo de forma atómica (lo crea si no existe). El archivo resultante conserva
+     * los permisos del destino; uno nuevo recibe los permisos por defecto del proceso (umask)
+     */
+    public void save(Workbook workbook, File file) throws IOException {
+        Path target = file.toPath().toAbsolutePath();
+        Path directory = target.getParent();
+        Path tempFile = createTempFile(directory, target);
+        try {
+            copyPermissions(target, tempFile);
+
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+                 ChannelOutputStream outputStream = new ChannelOutputStream(channel, acquireBuffer())) {
+                workbook.write(outputStream);
+                outputStream.flush();
+                channel.force(true);
+            }
+
+            if (backupGenerations > 0 && Files.exists(target)) {
+                rotateBackups(target);
+            }
+            moveIntoPlace(tempFile, target);
+            syncDirectory(directory);
+            // Las cachés se invalidan ya, sin esperar al evento del vigilante (que puede no notar dos
+            // guardados dentro del mismo tick de la fecha de modificación)
+            fileWatcher.fileChanged(target.toString());
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Elimina los temporales que haya dejado un guardado interrumpido del archivo
+     */
+    public void deleteTempFiles(File file) {
+        Path target = file.toPath().toAbsolutePath();
+        String prefix = "." + target.getFileName() + ".";
+        try (DirectoryStream<Path> leftovers = Files.newDirectoryStream(target.getParent(), prefix + "*" + TEMP_SUFFIX)) {
+            for (Path leftover : leftovers) {
+                Files.deleteIfExists(leftover);
+                System.out.println("🧹 Removed incomplete save file: " + leftover);
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not clean temporary files of " + file.getPath() + ": " + e.getMessage());
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Crea el temporal junto al destino. No se usa Files.createTempFile porque lo crea con permisos 0600,
+     * que el movimiento atómico trasladaría al archivo guardado
+     */
+    private Path createTempFile(Path directory, Path target) throws IOException {
+        String prefix = "." + target.getFileName() + ".";
+        while (true) {
+            Path tempFile = directory.resolve(prefix + Long.toUnsignedString(ThreadLocalRandom.current().nextLong()) + TEMP_SUFFIX);
+            try {
+                return Files.createFile(tempFile);
+            } catch (FileAlreadyExistsException e) {
+                // Nombre ya usado por otro guardado: se prueba otro
+            }
+        }
+    }
+
+    /**
+     * Copia los permisos POSIX del destino existente al temporal (sin efecto en sistemas no POSIX)
+     */
+    private void copyPermissions(Path target, Path tempFile) throws IOException {
+        if (!Files.exists(target) || Files.getFileAttributeView(target, PosixFileAttributeView.class) == null) {
+            return;
+        }
+        try {
+            Files.setPosixFilePermissions(tempFile, Files.getPosixFilePermissions(target));
+        } catch (UnsupportedOperationException e) {
+            // El sistema de archivos del destino no admite permisos POSIX
+        }
+    }
+
+    private void moveIntoPlace(Path tempFile, Path target) throws IOException {
+        try {
+            Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Sistemas de archivos sin renombrado atómico: reemplazo simple como último recurso
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Desplaza las copias (bak1 -> bak2 ...) y conserva la versión actual como bak1. Se usa un enlace
+     * duro cuando es posible para no copiar el archivo; si no, una copia
+     */
+    private void rotateBackups(Path target) throws IOException {
+        String name = target.getFileName().toString();
+        Path oldest = target.resolveSibling(name + ".bak" + backupGenerations);
+        Files.deleteIfExists(oldest);
+        for (int generation = backupGenerations - 1; generation >= 1; generation--) {
+            Path backup = target.resolveSibling(name + ".bak" + generation);
+            if (Files.exists(backup)) {
+                Files.move(backup, target.resolveSibling(name + ".bak" + (generation + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Path newest = target.resolveSibling(name + ".bak1");
+        try {
+            Files.createLink(newest, target);
+        } catch (UnsupportedOperationException | IOException e) {
+            Files.copy(target, newest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Fuerza a disco la entrada de directorio del renombrado (no disponible en todos los sistemas)
+     */
+    private void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Windows no permite abrir directorios; el renombrado ya es atómico
+        }
+    }
+
+    private ByteBuffer acquireBuffer() {
+        ByteBuffer buffer = bufferPool.poll();
+        if (buffer == null || buffer.capacity() != bufferBytes) {
+            buffer = ByteBuffer.allocateDirect(bufferBytes);
+        }
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * OutputStream sobre un FileChannel con un búfer directo que vuelve al pool al cerrarse
+     */
+    private final class ChannelOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+        private ByteBuffer buffer;
+
+        ChannelOutputStream(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.put((byte) value);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    drain();
+                }
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (buffer == null) {
+                return;
+            }
+            try {
+                drain();
+            } finally {
+                bufferPool.offer(buffer);
+                buffer = null;
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
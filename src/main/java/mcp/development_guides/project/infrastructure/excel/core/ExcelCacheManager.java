@@ -0,0 +1,412 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Gestor único de las cachés en memoria (resultados, esquemas, columnas numéricas) con un presupuesto
+ * global de bytes. Cada región aporta su función de peso; al superar el presupuesto se desalojan las
+ * entradas menos usadas de cualquier región. Las de regiones con spill se serializan comprimidas en un
+ * segundo nivel fuera del heap (búferes directos), de donde se restauran mucho más rápido que releyendo
+ * el xlsx. Tras una recolección en la que el heap sigue por encima del umbral se libera la mitad del nivel 1
+ */
+@Component
+public class ExcelCacheManager {
+
+    // Tamaño mínimo de la entrada para que compense comprimirla al desalojar
+    private static final long MIN_SPILL_BYTES = 4096;
+
+    @Value("${excel.cache.max-bytes:0}")
+    private long maxBytes;
+
+    @Value("${excel.cache.spill-max-bytes:268435456}")
+    private long spillMaxBytes;
+
+    @Value("${excel.cache.heap-pressure-threshold:0.8}")
+    private double heapPressureThreshold;
+
+    private final Map<String, Region> regions = new ConcurrentHashMap<>();
+    private final LinkedHashMap<RegionKey, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LinkedHashMap<RegionKey, Spilled> spilled = new LinkedHashMap<>(64, 0.75f, true);
+    private long heapBytes;
+    private long offHeapBytes;
+    // Invalidaciones (removeIf) por región: un desalojo anterior a la última ya no puede pasar al segundo nivel
+    private final Map<String, Long> invalidations = new HashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong restores = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong spills = new AtomicLong();
+    private final AtomicLong spillDrops = new AtomicLong();
+    private final AtomicLong pressureEvents = new AtomicLong();
+
+    private final List<MemoryPoolMXBean> watchedPools = new ArrayList<>();
+    private final NotificationListener pressureListener = this::onMemoryNotification;
+
+    private record Region(String name, ToLongFunction<Object> weigher, boolean spillable, int maxEntries) {
+    }
+
+    private record RegionKey(String region, Object key) {
+    }
+
+    private record Entry(Object value, long weight) {
+    }
+
+    /**
+     * Entrada desalojada del primer nivel junto con las invalidaciones de su región en ese momento
+     */
+    private record Victim(RegionKey key, Entry entry, long generation) {
+    }
+
+    /**
+     * Entrada del segundo nivel: bytes serializados y comprimidos en un búfer directo
+     */
+    private record Spilled(ByteBuffer data, long originalWeight) {
+    }
+
+    /**
+     * Ajusta el presupuesto del primer nivel en bytes (0 = una cuarta parte del heap máximo)
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+        trimTo(budget());
+    }
+
+    /**
+     * Declara una región. weigher estima los bytes de cada valor; con spillable los valores
+     * Serializable desalojados pasan al segundo nivel; maxEntries > 0 limita además el número de entradas
+     */
+    public void registerRegion(String name, ToLongFunction<Object> weigher, boolean spillable, int maxEntries) {
+        regions.put(name, new Region(name, weigher, spillable, maxEntries));
+    }
+
+    /**
+     * Valor en caché o null. Si estaba en el segundo nivel se restaura y vuelve al primero
+     */
+    public Object get(String region, Object key) {
+        RegionKey regionKey = new RegionKey(region, key);
+        Spilled restored;
+        synchronized (this) {
+            Entry entry = entries.get(regionKey);
+            if (entry != null) {
+                hits.incrementAndGet();
+                return entry.value();
+            }
+            restored = spilled.remove(regionKey);
+            if (restored == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            offHeapBytes -= restored.data().capacity();
+        }
+
+        try {
+            Object value = decode(restored.data());
+            restores.incrementAndGet();
+            put(region, key, value);
+            return value;
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not restore spilled cache entry of region '" + region + "': " + e.getMessage());
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Guarda un valor y desaloja lo necesario para respetar el presupuesto
+     */
+    public void put(String region, Object key, Object value) {
+        Region definition = regions.get(region);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unknown cache region: " + region);
+        }
+        RegionKey regionKey = new RegionKey(region, key);
+        long weight = Math.max(definition.weigher().applyAsLong(value), 1);
+
+        List<Victim> victims = new ArrayList<>();
+        synchronized (this) {
+            Entry previous = entries.put(regionKey, new Entry(value, weight));
+            if (previous != null) {
+                heapBytes -= previous.weight();
+            }
+            Spilled stale = spilled.remove(regionKey);
+            if (stale != null) {
+                offHeapBytes -= stale.data().capacity();
+            }
+            heapBytes += weight;
+
+            if (definition.maxEntries() > 0) {
+                collectOverflow(definition, victims);
+            }
+            collectVictims(budget(), victims);
+        }
+        spill(victims);
+    }
+
+    /**
+     * Elimina de ambos niveles las entradas de la región cuya clave cumple la condición
+     */
+    public synchronized void removeIf(String region, Predicate<Object> keyPredicate) {
+        invalidations.merge(region, 1L, Long::sum);
+        Iterator<Map.Entry<RegionKey, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RegionKey, Entry> entry = iterator.next();
+            if (entry.getKey().region().equals(region) && keyPredicate.test(entry.getKey().key())) {
+                heapBytes -= entry.getValue().weight();
+                iterator.remove();
+            }
+        }
+        Iterator<Map.Entry<RegionKey, Spilled>> spilledIterator = spilled.entrySet().iterator();
+        while (spilledIterator.hasNext()) {
+            Map.Entry<RegionKey, Spilled> entry = spilledIterator.next();
+            if (entry.getKey().region().equals(region) && keyPredicate.test(entry.getKey().key())) {
+                offHeapBytes -= entry.getValue().data().capacity();
+                spilledIterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Número de entradas de una región en el primer nivel
+     */
+    public synchronized int size(String region) {
+        int count = 0;
+        for (RegionKey key : entries.keySet()) {
+            if (key.region().equals(region)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Métricas de ambos niveles
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hits", hits.get());
+        statistics.put("restoredFromSpill", restores.get());
+        statistics.put("misses", misses.get());
+        statistics.put("evictions", evictions.get());
+        statistics.put("spills", spills.get());
+        statistics.put("spillDrops", spillDrops.get());
+        statistics.put("heapPressureEvents", pressureEvents.get());
+        synchronized (this) {
+            statistics.put("entries", entries.size());
+            statistics.put("heapBytes", heapBytes);
+            statistics.put("budgetBytes", budget());
+            statistics.put("spilledEntries", spilled.size());
+            statistics.put("offHeapBytes", offHeapBytes);
+        }
+        return statistics;
+    }
+
+    /**
+     * Se suscribe a los avisos de umbral de uso tras GC de los pools del heap que los admiten
+     */
+    @PostConstruct
+    public void registerHeapPressureListener() {
+        if (heapPressureThreshold <= 0 || heapPressureThreshold >= 1) {
+            return;
+        }
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * heapPressureThreshold));
+                watchedPools.add(pool);
+            }
+        }
+        if (!watchedPools.isEmpty()) {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).addNotificationListener(pressureListener, null, null);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (watchedPools.isEmpty()) {
+            return;
+        }
+        try {
+            ((NotificationEmitter) ManagementFactory.getMemoryMXBean()).removeNotificationListener(pressureListener);
+        } catch (ListenerNotFoundException e) {
+            // Ya no estaba registrado
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private long budget() {
+        return maxBytes > 0 ? maxBytes : Runtime.getRuntime().maxMemory() / 4;
+    }
+
+    private void onMemoryNotification(Notification notification, Object handback) {
+        if (!MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+            return;
+        }
+        pressureEvents.incrementAndGet();
+        long target;
+        synchronized (this) {
+            target = heapBytes / 2;
+        }
+        System.out.println("🧯 Heap above " + Math.round(heapPressureThreshold * 100) + "% after GC, shrinking caches to " + target + " bytes");
+        trimTo(target);
+    }
+
+    private void trimTo(long target) {
+        List<Victim> victims = new ArrayList<>();
+        synchronized (this) {
+            collectVictims(target, victims);
+        }
+        spill(victims);
+    }
+
+    /**
+     * Saca del primer nivel las entradas menos usadas hasta quedar por debajo del objetivo
+     */
+    private void collectVictims(long target, List<Victim> victims) {
+        Iterator<Map.Entry<RegionKey, Entry>> iterator = entries.entrySet().iterator();
+        while (heapBytes > target && iterator.hasNext()) {
+            Map.Entry<RegionKey, Entry> eldest = iterator.next();
+            iterator.remove();
+            heapBytes -= eldest.getValue().weight();
+            evictions.incrementAndGet();
+            victims.add(victim(eldest));
+        }
+    }
+
+    private void collectOverflow(Region region, List<Victim> victims) {
+        int count = 0;
+        for (RegionKey key : entries.keySet()) {
+            if (key.region().equals(region.name())) {
+                count++;
+            }
+        }
+        Iterator<Map.Entry<RegionKey, Entry>> iterator = entries.entrySet().iterator();
+        while (count > region.maxEntries() && iterator.hasNext()) {
+            Map.Entry<RegionKey, Entry> entry = iterator.next();
+            if (entry.getKey().region().equals(region.name())) {
+                iterator.remove();
+                heapBytes -= entry.getValue().weight();
+                evictions.incrementAndGet();
+                victims.add(victim(entry));
+                count--;
+            }
+        }
+    }
+
+    private Victim victim(Map.Entry<RegionKey, Entry> entry) {
+        return new Victim(entry.getKey(), entry.getValue(), invalidations.getOrDefault(entry.getKey().region(), 0L));
+    }
+
+    /**
+     * Comprime los desalojados de regiones con spill (fuera del cerrojo, la serialización puede tardar)
+     */
+    private void spill(List<Victim> victims) {
+        if (spillMaxBytes <= 0) {
+            return;
+        }
+        for (Victim victim : victims) {
+            Region region = regions.get(victim.key().region());
+            Object value = victim.entry().value();
+            if (region == null || !region.spillable() || !(value instanceof Serializable)
+                    || victim.entry().weight() < MIN_SPILL_BYTES) {
+                continue;
+            }
+            ByteBuffer data;
+            try {
+                data = encode(value);
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not spill cache entry of region '" + region.name() + "': " + e.getMessage());
+                continue;
+            }
+            synchronized (this) {
+                // Si mientras tanto volvió a calcularse, la copia comprimida sobra; si se invalidó la región, ya no vale
+                if (entries.containsKey(victim.key()) || data.capacity() > spillMaxBytes
+                        || invalidations.getOrDefault(region.name(), 0L) != victim.generation()) {
+                    continue;
+                }
+                Spilled previous = spilled.put(victim.key(), new Spilled(data, victim.entry().weight()));
+                if (previous != null) {
+                    offHeapBytes -= previous.data().capacity();
+                }
+                offHeapBytes += data.capacity();
+                spills.incrementAndGet();
+
+                Iterator<Map.Entry<RegionKey, Spilled>> iterator = spilled.entrySet().iterator();
+                while (offHeapBytes > spillMaxBytes && iterator.hasNext()) {
+                    offHeapBytes -= iterator.next().getValue().data().capacity();
+                    iterator.remove();
+                    spillDrops.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private ByteBuffer encode(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (ObjectOutputStream output = new ObjectOutputStream(new DeflaterOutputStream(bytes, deflater, 64 * 1024))) {
+            output.writeObject(value);
+        } finally {
+            deflater.end();
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.size());
+        buffer.put(bytes.toByteArray()).flip();
+        return buffer;
+    }
+
+    private Object decode(ByteBuffer data) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream input = new ObjectInputStream(new InflaterInputStream(new ByteBufferInputStream(data.duplicate())))) {
+            return input.readObject();
+        }
+    }
+
+    /**
+     * InputStream de solo lectura sobre un ByteBuffer
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
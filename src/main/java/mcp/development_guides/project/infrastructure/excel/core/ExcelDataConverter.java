@@ -4,95 +4,145 @@ import mcp.development_guides.project.domain.model.ExcelCellData;
 import org.apache.poi.ss.usermodel.*;
 import org.springframework.stereotype.Component;
 
+import java.lang.ref.WeakReference;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
 /**
- * Convertidor de datos de celdas Excel - Lógica fundamental de conversión
+ * Convertidor de datos de celdas Excel - Lógica fundamental de conversión. Cada hilo reutiliza un contexto
+ * por workbook (clasificación de fecha por estilo, búfer de texto y evaluador de fórmulas), de modo que
+ * convertir una hoja entera no genera más objetos que los del propio resultado
  */
 @Component
 public class ExcelDataConverter {
 
+    // Formato de Date.toString
+    private static final DateTimeFormatter JAVA_DATE_FORMAT = DateTimeFormatter.ofPattern("EEE MMM dd HH:mm:ss zzz yyyy", Locale.US);
+
+    private final ThreadLocal<ConversionContext> contexts = ThreadLocal.withInitial(ConversionContext::new);
+
+    /**
+     * Recibe las celdas de un recorrido con visitSheet. text es un búfer reutilizado con el valor de la celda
+     * (mismas reglas que getCellValueAsString) y solo es válido durante la llamada
+     */
+    @FunctionalInterface
+    public interface CellValueSink {
+        void onCell(Cell cell, CharSequence text);
+    }
+
     /**
      * Convierte el valor de una celda a String
      */
     public String getCellValueAsString(Cell cell) {
-        switch (cell.getCellType()) {
-            case STRING:
-                return cell.getStringCellValue();
-            case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return cell.getDateCellValue().toString();
-                } else {
-                    double numericValue = cell.getNumericCellValue();
-                    // Si es un número entero, mostrarlo sin decimales
-                    if (numericValue == Math.floor(numericValue)) {
-                        return String.valueOf((long) numericValue);
-                    } else {
-                        return String.valueOf(numericValue);
-                    }
-                }
-            case BOOLEAN:
-                return String.valueOf(cell.getBooleanCellValue());
-            case FORMULA:
-                return evaluateFormula(cell);
-            case BLANK:
-            case _NONE:
-            case ERROR:
-            default:
-                return "";
+        ConversionContext context = context(cell.getSheet().getWorkbook());
+        StringBuilder text = context.text;
+        text.setLength(0);
+        appendCellValue(cell, context, text);
+        return text.toString();
+    }
+
+    /**
+     * Recorre las celdas existentes de la hoja, fila a fila, entregando su valor textual en un búfer
+     * reutilizado: no se crea ningún String ni registro por celda
+     */
+    public void visitSheet(Sheet sheet, CellValueSink sink) {
+        ConversionContext context = context(sheet.getWorkbook());
+        // Búfer propio del recorrido: el sumidero puede llamar a getCellValueAsString sin pisarlo
+        StringBuilder text = context.visitText;
+        for (Row row : sheet) {
+            for (Cell cell : row) {
+                text.setLength(0);
+                appendCellValue(cell, context, text);
+                sink.onCell(cell, text);
+            }
         }
     }
 
     /**
-     * Convierte una celda a un ExcelCellData con información detallada
+     * Convierte una celda a un ExcelCellData con información detallada. La dirección A1 no se construye
+     * aquí: el registro la calcula cuando se pide
      */
     public ExcelCellData getCellData(Cell cell) {
-        String value = getCellValueAsString(cell);
+        ConversionContext context = context(cell.getSheet().getWorkbook());
         String type = cell.getCellType().name();
-        String address = cell.getAddress().formatAsString();
         int row = cell.getRowIndex();
         int column = cell.getColumnIndex();
 
         // Información adicional según el tipo
         switch (cell.getCellType()) {
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
-                    return new ExcelCellData(row, column, value, type, address, cell.getDateCellValue());
-                } else {
-                    return new ExcelCellData(row, column, value, type, address, cell.getNumericCellValue());
+                double value = cell.getNumericCellValue();
+                if (context.isDateFormatted(cell, value)) {
+                    // El registro necesita el Date de todas formas: texto e instante salen de él
+                    Date date = DateUtil.getJavaDate(value, context.date1904);
+                    return new ExcelCellData(row, column, date.toString(), type, null, date);
                 }
+                StringBuilder text = context.text;
+                text.setLength(0);
+                appendNumber(value, text);
+                return new ExcelCellData(row, column, text.toString(), type, null, value);
             case FORMULA:
-                return ExcelCellData.withFormula(row, column, value, type, address, cell.getCellFormula());
+                return ExcelCellData.withFormula(row, column, getCellValueAsString(cell), type, null, cell.getCellFormula());
             default:
-                return new ExcelCellData(row, column, value, type, address);
+                return new ExcelCellData(row, column, getCellValueAsString(cell), type, null);
         }
     }
 
     /**
-     * Evalúa una fórmula y retorna su resultado como String
+     * Convierte una celda a un valor tipado compacto (String, Long, Double, Boolean o fecha ISO-8601)
      */
-    private String evaluateFormula(Cell cell) {
-        try {
-            FormulaEvaluator evaluator = cell.getSheet().getWorkbook()
-                .getCreationHelper().createFormulaEvaluator();
-            CellValue cellValue = evaluator.evaluate(cell);
+    public Object getCellValueAsObject(Cell cell) {
+        CellType type = cell.getCellType() == CellType.FORMULA
+            ? cell.getCachedFormulaResultType()
+            : cell.getCellType();
 
-            switch (cellValue.getCellType()) {
-                case NUMERIC:
-                    double numValue = cellValue.getNumberValue();
-                    if (numValue == Math.floor(numValue)) {
-                        return String.valueOf((long) numValue);
-                    } else {
-                        return String.valueOf(numValue);
-                    }
-                case STRING:
-                    return cellValue.getStringValue();
-                case BOOLEAN:
-                    return String.valueOf(cellValue.getBooleanValue());
-                default:
-                    return cell.getCellFormula();
-            }
-        } catch (Exception e) {
-            // Si no se puede evaluar, retornar la fórmula
-            return cell.getCellFormula();
+        switch (type) {
+            case STRING:
+                String text = cell.getStringCellValue();
+                return text.isEmpty() ? null : text;
+            case NUMERIC:
+                double numericValue = cell.getNumericCellValue();
+                if (context(cell.getSheet().getWorkbook()).isDateFormatted(cell, numericValue)) {
+                    return cell.getLocalDateTimeCellValue().toString();
+                }
+                if (numericValue == Math.floor(numericValue) && !Double.isInfinite(numericValue)) {
+                    return (long) numericValue;
+                }
+                return numericValue;
+            case BOOLEAN:
+                return cell.getBooleanCellValue();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Detecta el tipo de datos de una celda usando el resultado cacheado cuando es una fórmula
+     */
+    public String detectValueType(Cell cell) {
+        if (cell.getCellType() != CellType.FORMULA) {
+            return detectDataType(cell);
+        }
+        switch (cell.getCachedFormulaResultType()) {
+            case STRING:
+                return "TEXT";
+            case NUMERIC:
+                double value = cell.getNumericCellValue();
+                if (context(cell.getSheet().getWorkbook()).isDateFormatted(cell, value)) {
+                    return "DATE";
+                }
+                return value == Math.floor(value) ? "INTEGER" : "DECIMAL";
+            case BOOLEAN:
+                return "BOOLEAN";
+            case ERROR:
+                return "ERROR";
+            default:
+                return "EMPTY";
         }
     }
 
@@ -104,10 +154,10 @@ public class ExcelDataConverter {
             case STRING:
                 return "TEXT";
             case NUMERIC:
-                if (DateUtil.isCellDateFormatted(cell)) {
+                double value = cell.getNumericCellValue();
+                if (context(cell.getSheet().getWorkbook()).isDateFormatted(cell, value)) {
                     return "DATE";
                 } else {
-                    double value = cell.getNumericCellValue();
                     if (value == Math.floor(value)) {
                         return "INTEGER";
                     } else {
@@ -126,4 +176,168 @@ public class ExcelDataConverter {
                 return "UNKNOWN";
         }
     }
+
+    /**
+     * Añade el valor textual de una celda leída en streaming con las reglas de getCellValueAsString (fechas como
+     * Date.toString, errores vacíos). Sin workbook no se puede evaluar: una fórmula añade su resultado cacheado,
+     * numérico sin formato de fecha y de error con el código de error
+     */
+    public void appendStreamedValue(ExcelStreamedRow row, int column, boolean date1904, StringBuilder text) {
+        boolean formula = row.isFormula(column);
+        switch (row.getKind(column)) {
+            case STRING -> text.append(row.getText(column));
+            case NUMERIC -> appendNumber(row.getNumber(column), text);
+            case DATE -> {
+                if (formula) {
+                    appendNumber(row.getNumber(column), text);
+                } else {
+                    appendJavaDate(row.getNumber(column), date1904, text);
+                }
+            }
+            case BOOLEAN -> text.append(row.getNumber(column) != 0);
+            case ERROR -> {
+                if (formula) {
+                    text.append(row.getText(column));
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Añade el valor textual de la celda: fechas como Date.toString, enteros sin decimales, fórmulas evaluadas
+     */
+    private void appendCellValue(Cell cell, ConversionContext context, StringBuilder text) {
+        switch (cell.getCellType()) {
+            case STRING -> text.append(cell.getStringCellValue());
+            case NUMERIC -> {
+                double value = cell.getNumericCellValue();
+                if (context.isDateFormatted(cell, value)) {
+                    appendJavaDate(value, context.date1904, text);
+                } else {
+                    appendNumber(value, text);
+                }
+            }
+            case BOOLEAN -> text.append(cell.getBooleanCellValue());
+            case FORMULA -> appendFormulaResult(cell, context, text);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Añade la fecha con el mismo texto que DateUtil.getJavaDate(value, date1904).toString() en la zona por
+     * defecto actual, sin crear Date ni Calendar. Una hora local repetida (retraso de hora) se toma con el
+     * desfase posterior, como el Calendar indulgente de POI; una inexistente (adelanto) avanza
+     */
+    static void appendJavaDate(double value, boolean date1904, StringBuilder text) {
+        LocalDateTime localDateTime = DateUtil.getLocalDateTime(value, date1904);
+        ZonedDateTime dateTime = localDateTime.atZone(ZoneId.systemDefault()).withLaterOffsetAtOverlap();
+        JAVA_DATE_FORMAT.formatTo(dateTime, text);
+    }
+
+    /**
+     * Si es un número entero, se muestra sin decimales
+     */
+    static void appendNumber(double value, StringBuilder text) {
+        if (value == Math.floor(value)) {
+            text.append((long) value);
+        } else {
+            text.append(value);
+        }
+    }
+
+    /**
+     * Evalúa una fórmula y añade su resultado; si no se puede evaluar se añade la fórmula
+     */
+    private void appendFormulaResult(Cell cell, ConversionContext context, StringBuilder text) {
+        int start = text.length();
+        try {
+            CellValue cellValue = context.evaluator(cell.getSheet().getWorkbook()).evaluate(cell);
+
+            switch (cellValue.getCellType()) {
+                case NUMERIC -> appendNumber(cellValue.getNumberValue(), text);
+                case STRING -> text.append(cellValue.getStringValue());
+                case BOOLEAN -> text.append(cellValue.getBooleanValue());
+                default -> text.append(cell.getCellFormula());
+            }
+        } catch (Exception e) {
+            text.setLength(start);
+            text.append(cell.getCellFormula());
+        }
+    }
+
+    /**
+     * Contexto del hilo para el workbook; se reinicia (sin reservar memoria nueva) al cambiar de workbook
+     */
+    private ConversionContext context(Workbook workbook) {
+        ConversionContext context = contexts.get();
+        if (context.workbook.get() != workbook) {
+            context.reset(workbook);
+        }
+        return context;
+    }
+
+    /**
+     * Estado reutilizable de conversión de un hilo. El workbook y el evaluador se referencian de forma débil
+     * para no retener un workbook cerrado hasta la siguiente conversión del hilo
+     */
+    private static final class ConversionContext {
+
+        private static final byte UNKNOWN = 0;
+        private static final byte DATE = 1;
+        private static final byte NOT_DATE = 2;
+
+        private final StringBuilder text = new StringBuilder(64);
+        private final StringBuilder visitText = new StringBuilder(64);
+        private WeakReference<Workbook> workbook = new WeakReference<>(null);
+        private WeakReference<FormulaEvaluator> evaluator = new WeakReference<>(null);
+        private boolean date1904;
+
+        // Clasificación de fecha por índice de estilo (los estilos son del workbook)
+        private byte[] dateStyles = new byte[64];
+
+        private void reset(Workbook current) {
+            workbook = new WeakReference<>(current);
+            evaluator = new WeakReference<>(null);
+            date1904 = current instanceof Date1904Support support && support.isDate1904();
+            Arrays.fill(dateStyles, UNKNOWN);
+        }
+
+        /**
+         * Igual que DateUtil.isCellDateFormatted, pero el formato de cada estilo se analiza una sola vez
+         */
+        private boolean isDateFormatted(Cell cell, double value) {
+            if (!DateUtil.isValidExcelDate(value)) {
+                return false;
+            }
+            CellStyle style = cell.getCellStyle();
+            if (style == null) {
+                return false;
+            }
+            int index = style.getIndex() & 0xFFFF;
+            if (index >= dateStyles.length) {
+                dateStyles = Arrays.copyOf(dateStyles, Math.max(index + 1, dateStyles.length * 2));
+            }
+            byte state = dateStyles[index];
+            if (state == UNKNOWN) {
+                ExcelNumberFormat format = ExcelNumberFormat.from(style);
+                state = format != null && DateUtil.isADateFormat(format) ? DATE : NOT_DATE;
+                dateStyles[index] = state;
+            }
+            return state == DATE;
+        }
+
+        private FormulaEvaluator evaluator(Workbook current) {
+            FormulaEvaluator formulaEvaluator = evaluator.get();
+            if (formulaEvaluator == null) {
+                formulaEvaluator = current.getCreationHelper().createFormulaEvaluator();
+                evaluator = new WeakReference<>(formulaEvaluator);
+            }
+            return formulaEvaluator;
+        }
+    }
 }
@@ -0,0 +1,558 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.formula.EvaluationName;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.ptg.AbstractFunctionPtg;
+import org.apache.poi.ss.formula.ptg.Area3DPtg;
+import org.apache.poi.ss.formula.ptg.Area3DPxg;
+import org.apache.poi.ss.formula.ptg.AreaPtgBase;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.ptg.Ref3DPtg;
+import org.apache.poi.ss.formula.ptg.Ref3DPxg;
+import org.apache.poi.ss.formula.ptg.RefPtgBase;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Grafo de dependencias de las fórmulas de un workbook: las celdas y rangos que lee cada fórmula, obtenidos
+ * analizando su texto una sola vez, y el índice inverso para saber qué fórmulas leen una celda. Las celdas se
+ * identifican por nombre de hoja y posición, así el grafo sigue valiendo al volver a cargar el mismo archivo
+ */
+final class ExcelDependencyGraph {
+
+    // Rangos de hasta estas celdas se indexan celda a celda; los mayores van al índice de rangos
+    private static final int SMALL_RANGE_CELLS = 32;
+
+    // Nombres definidos que apuntan a otros nombres: profundidad máxima que se sigue
+    private static final int MAX_NAME_DEPTH = 8;
+
+    // Funciones cuyo resultado no depende solo de sus referencias: se recalculan siempre
+    private static final Set<String> VOLATILE_FUNCTIONS = Set.of(
+        "INDIRECT", "OFFSET", "NOW", "TODAY", "RAND", "RANDBETWEEN", "CELL", "INFO");
+
+    private final Map<String, SheetGraph> sheets = new HashMap<>();
+    private final Set<Node> volatileNodes = new LinkedHashSet<>();
+    private int pass;
+    private int size;
+
+    /**
+     * Rectángulo de celdas (índices base 0, extremos incluidos)
+     */
+    record Area(int firstRow, int lastRow, int firstColumn, int lastColumn) {
+
+        static Area cell(int row, int column) {
+            return new Area(row, row, column, column);
+        }
+
+        long cellCount() {
+            return (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+        }
+
+        boolean contains(int row, int column) {
+            return row >= firstRow && row <= lastRow && column >= firstColumn && column <= lastColumn;
+        }
+    }
+
+    /**
+     * Fórmula del grafo. Los campos dirty, pending y dirtyDependents solo se usan durante un recálculo
+     */
+    static final class Node {
+
+        final SheetGraph sheet;
+        final int row;
+        final int column;
+        final String signature;
+        final List<Precedent> precedents = new ArrayList<>(2);
+        boolean volatileFormula;
+        boolean uncached;
+        boolean removed;
+        int pass;
+
+        boolean dirty;
+        int pending;
+        List<Node> dirtyDependents;
+
+        private Node(SheetGraph sheet, int row, int column, String signature) {
+            this.sheet = sheet;
+            this.row = row;
+            this.column = column;
+            this.signature = signature;
+        }
+    }
+
+    private record Precedent(SheetGraph sheet, Area area) {
+    }
+
+    private record RangeEdge(Area area, Node node) {
+    }
+
+    /**
+     * Fórmulas de una hoja y quién lee sus celdas: las celdas sueltas y rangos pequeños en un mapa por
+     * posición, los rangos grandes en una lista con un índice de intervalos que se reconstruye al cambiar
+     */
+    static final class SheetGraph {
+
+        final String name;
+        private final Map<Long, Node> nodes = new HashMap<>();
+        private final Map<Long, List<Node>> cellDependents = new HashMap<>();
+        private final List<RangeEdge> ranges = new ArrayList<>();
+        private RangeIndex rangeIndex;
+
+        private SheetGraph(String name) {
+            this.name = name;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    Set<Node> volatileNodes() {
+        return volatileNodes;
+    }
+
+    SheetGraph sheet(String name) {
+        return sheets.get(name);
+    }
+
+    /**
+     * Todas las fórmulas del grafo
+     */
+    void forEachNode(Consumer<Node> action) {
+        for (SheetGraph sheet : sheets.values()) {
+            sheet.nodes.values().forEach(action);
+        }
+    }
+
+    /**
+     * Fórmula de una celda, o null si la celda no tiene fórmula en el grafo
+     */
+    Node node(SheetGraph sheet, int row, int column) {
+        return sheet.nodes.get(key(row, column));
+    }
+
+    /**
+     * Fórmulas situadas dentro del área
+     */
+    void nodesIn(SheetGraph sheet, Area area, Consumer<Node> action) {
+        if (area.cellCount() <= sheet.nodes.size()) {
+            for (int row = area.firstRow(); row <= area.lastRow(); row++) {
+                for (int column = area.firstColumn(); column <= area.lastColumn(); column++) {
+                    Node node = sheet.nodes.get(key(row, column));
+                    if (node != null) {
+                        action.accept(node);
+                    }
+                }
+            }
+        } else {
+            for (Node node : sheet.nodes.values()) {
+                if (area.contains(node.row, node.column)) {
+                    action.accept(node);
+                }
+            }
+        }
+    }
+
+    /**
+     * Fórmulas que leen alguna celda del área
+     */
+    void dependents(SheetGraph sheet, Area area, Consumer<Node> action) {
+        if (area.cellCount() <= sheet.cellDependents.size()) {
+            for (int row = area.firstRow(); row <= area.lastRow(); row++) {
+                for (int column = area.firstColumn(); column <= area.lastColumn(); column++) {
+                    List<Node> readers = sheet.cellDependents.get(key(row, column));
+                    if (readers != null) {
+                        readers.forEach(action);
+                    }
+                }
+            }
+        } else if (!sheet.cellDependents.isEmpty()) {
+            for (Map.Entry<Long, List<Node>> entry : sheet.cellDependents.entrySet()) {
+                long position = entry.getKey();
+                if (area.contains((int) (position >>> 16), (int) (position & 0xFFFF))) {
+                    entry.getValue().forEach(action);
+                }
+            }
+        }
+        if (!sheet.ranges.isEmpty()) {
+            if (sheet.rangeIndex == null) {
+                sheet.ranges.removeIf(edge -> edge.node().removed);
+                sheet.rangeIndex = new RangeIndex(sheet.ranges);
+            }
+            sheet.rangeIndex.overlapping(area, action);
+        }
+    }
+
+    /**
+     * Recorre todas las fórmulas del workbook y pone el grafo al día: solo se analizan las fórmulas nuevas o
+     * cuyo texto cambió. Informa de las fórmulas añadidas o cambiadas y de las que desaparecieron
+     */
+    void synchronize(Workbook workbook, FormulaParsingWorkbook parsing, EvaluationWorkbook evaluation,
+                     Consumer<Node> changed, Consumer<Node> removed) {
+        pass++;
+        for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            SheetGraph graph = sheets.computeIfAbsent(sheet.getSheetName(), SheetGraph::new);
+            for (Row row : sheet) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.FORMULA) {
+                        visit(graph, cell, sheetIndex, parsing, evaluation, changed);
+                    }
+                }
+            }
+        }
+        List<Node> missing = new ArrayList<>();
+        forEachNode(node -> {
+            if (node.pass != pass) {
+                missing.add(node);
+            }
+        });
+        for (Node node : missing) {
+            remove(node);
+            removed.accept(node);
+        }
+    }
+
+    /**
+     * Pone al día solo las fórmulas de un área de una hoja, para cuando se sabe qué celdas se modificaron
+     */
+    void synchronize(Sheet sheet, int sheetIndex, Area area, FormulaParsingWorkbook parsing, EvaluationWorkbook evaluation,
+                     Consumer<Node> changed, Consumer<Node> removed) {
+        pass++;
+        SheetGraph graph = sheets.computeIfAbsent(sheet.getSheetName(), SheetGraph::new);
+        int lastRow = Math.min(area.lastRow(), sheet.getLastRowNum());
+        for (int rowIndex = Math.max(area.firstRow(), sheet.getFirstRowNum()); rowIndex <= lastRow; rowIndex++) {
+            Row row = sheet.getRow(rowIndex);
+            if (row == null) {
+                continue;
+            }
+            int lastColumn = Math.min(area.lastColumn(), row.getLastCellNum() - 1);
+            if (lastColumn - area.firstColumn() < row.getPhysicalNumberOfCells()) {
+                for (int column = area.firstColumn(); column <= lastColumn; column++) {
+                    Cell cell = row.getCell(column);
+                    if (cell != null && cell.getCellType() == CellType.FORMULA) {
+                        visit(graph, cell, sheetIndex, parsing, evaluation, changed);
+                    }
+                }
+            } else {
+                for (Cell cell : row) {
+                    if (cell.getColumnIndex() >= area.firstColumn() && cell.getColumnIndex() <= lastColumn
+                            && cell.getCellType() == CellType.FORMULA) {
+                        visit(graph, cell, sheetIndex, parsing, evaluation, changed);
+                    }
+                }
+            }
+        }
+
+        List<Node> missing = new ArrayList<>();
+        nodesIn(graph, area, node -> {
+            if (node.pass != pass) {
+                missing.add(node);
+            }
+        });
+        for (Node node : missing) {
+            remove(node);
+            removed.accept(node);
+        }
+    }
+
+    static long key(int row, int column) {
+        // Las columnas caben en 16 bits en ambos formatos (16384 en xlsx, 256 en xls)
+        return ((long) row << 16) | column;
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private void visit(SheetGraph graph, Cell cell, int sheetIndex, FormulaParsingWorkbook parsing,
+                       EvaluationWorkbook evaluation, Consumer<Node> changed) {
+        long position = key(cell.getRowIndex(), cell.getColumnIndex());
+        String signature = signature(cell);
+        Node node = graph.nodes.get(position);
+        if (node != null && node.signature.equals(signature)) {
+            node.pass = pass;
+            node.uncached = isUncached(cell);
+            return;
+        }
+        if (node != null) {
+            remove(node);
+        }
+        Node created = new Node(graph, cell.getRowIndex(), cell.getColumnIndex(), signature);
+        created.pass = pass;
+        created.uncached = isUncached(cell);
+        graph.nodes.put(position, created);
+        size++;
+        parse(created, cell, sheetIndex, parsing, evaluation);
+        for (Precedent precedent : created.precedents) {
+            register(precedent, created);
+        }
+        if (created.volatileFormula) {
+            volatileNodes.add(created);
+        }
+        changed.accept(created);
+    }
+
+    /**
+     * Identidad del texto de una fórmula. En xlsx se toma del XML de la celda sin reconstruir las fórmulas
+     * compartidas, que POI solo sabe obtener volviendo a analizar la fórmula maestra
+     */
+    private static String signature(Cell cell) {
+        if (!(cell instanceof XSSFCell xssfCell)) {
+            return cell.getCellFormula();
+        }
+        CTCell ctCell = xssfCell.getCTCell();
+        CTCellFormula formula = ctCell.getF();
+        if (formula == null) {
+            return "F" + cell.getCellFormula();
+        }
+        STCellFormulaType.Enum type = formula.isSetT() ? formula.getT() : STCellFormulaType.NORMAL;
+        if (type == STCellFormulaType.SHARED && formula.isSetSi()) {
+            if (formula.isSetRef()) {
+                return "S" + formula.getSi() + "|" + formula.getRef() + "|" + formula.getStringValue();
+            }
+            CTCellFormula master = ((XSSFSheet) cell.getSheet()).getSharedFormula((int) formula.getSi());
+            return master != null
+                ? "s" + formula.getSi() + "|" + master.getRef() + "|" + master.getStringValue()
+                : "F" + cell.getCellFormula();
+        }
+        if (type == STCellFormulaType.ARRAY) {
+            return "A" + formula.getRef() + "|" + formula.getStringValue();
+        }
+        if (type == STCellFormulaType.DATA_TABLE) {
+            return "T" + formula.getRef();
+        }
+        return "F" + formula.getStringValue();
+    }
+
+    /**
+     * Fórmula guardada sin resultado (por ejemplo escrita en streaming o por otra herramienta)
+     */
+    private static boolean isUncached(Cell cell) {
+        return cell instanceof XSSFCell xssfCell && !xssfCell.getCTCell().isSetV();
+    }
+
+    private void parse(Node node, Cell cell, int sheetIndex, FormulaParsingWorkbook parsing, EvaluationWorkbook evaluation) {
+        if (node.signature.startsWith("T")) {
+            // Tablas de datos: sus entradas no están en la fórmula
+            node.volatileFormula = true;
+            return;
+        }
+        try {
+            Ptg[] tokens = FormulaParser.parse(cell.getCellFormula(), parsing, FormulaType.CELL, sheetIndex, cell.getRowIndex());
+            addPrecedents(node, tokens, evaluation, 0);
+        } catch (RuntimeException e) {
+            // Sin referencias conocidas la fórmula se recalcula siempre
+            node.volatileFormula = true;
+        }
+    }
+
+    private void addPrecedents(Node node, Ptg[] tokens, EvaluationWorkbook evaluation, int depth) {
+        for (Ptg token : tokens) {
+            switch (token) {
+                case Ref3DPxg ref -> {
+                    if (ref.getExternalWorkbookNumber() > 0) {
+                        continue;
+                    }
+                    if (ref.getLastSheetName() != null) {
+                        node.volatileFormula = true;
+                    } else {
+                        node.precedents.add(precedent(node, ref.getSheetName(), Area.cell(ref.getRow(), ref.getColumn())));
+                    }
+                }
+                case Area3DPxg area -> {
+                    if (area.getExternalWorkbookNumber() > 0) {
+                        continue;
+                    }
+                    if (area.getLastSheetName() != null) {
+                        node.volatileFormula = true;
+                    } else {
+                        node.precedents.add(precedent(node, area.getSheetName(), area(area)));
+                    }
+                }
+                case Ref3DPtg ref -> {
+                    String sheetName = internalSheetName(evaluation, ref.getExternSheetIndex());
+                    if (sheetName == null) {
+                        node.volatileFormula = true;
+                    } else {
+                        node.precedents.add(precedent(node, sheetName, Area.cell(ref.getRow(), ref.getColumn())));
+                    }
+                }
+                case Area3DPtg area -> {
+                    String sheetName = internalSheetName(evaluation, area.getExternSheetIndex());
+                    if (sheetName == null) {
+                        node.volatileFormula = true;
+                    } else {
+                        node.precedents.add(precedent(node, sheetName, area(area)));
+                    }
+                }
+                case RefPtgBase ref -> node.precedents.add(new Precedent(node.sheet, Area.cell(ref.getRow(), ref.getColumn())));
+                case AreaPtgBase area -> node.precedents.add(new Precedent(node.sheet, area(area)));
+                case NamePtg name -> {
+                    EvaluationName definition = evaluation.getName(name);
+                    if (definition == null || !definition.hasFormula() || depth >= MAX_NAME_DEPTH) {
+                        node.volatileFormula = true;
+                    } else {
+                        addPrecedents(node, definition.getNameDefinition(), evaluation, depth + 1);
+                    }
+                }
+                case AbstractFunctionPtg function -> {
+                    if (VOLATILE_FUNCTIONS.contains(function.getName())) {
+                        node.volatileFormula = true;
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static Area area(AreaPtgBase area) {
+        return new Area(area.getFirstRow(), area.getLastRow(), area.getFirstColumn(), area.getLastColumn());
+    }
+
+    /**
+     * Hoja del propio workbook a la que apunta una referencia 3D de xls; null si es de otro libro o abarca
+     * varias hojas
+     */
+    private static String internalSheetName(EvaluationWorkbook evaluation, int externSheetIndex) {
+        EvaluationWorkbook.ExternalSheet sheet = evaluation.getExternalSheet(externSheetIndex);
+        if (sheet == null) {
+            int sheetIndex = evaluation.convertFromExternSheetIndex(externSheetIndex);
+            return sheetIndex >= 0 ? evaluation.getSheetName(sheetIndex) : null;
+        }
+        if (sheet.getWorkbookName() != null || sheet instanceof EvaluationWorkbook.ExternalSheetRange range
+                && !range.getFirstSheetName().equals(range.getLastSheetName())) {
+            return null;
+        }
+        return sheet.getSheetName();
+    }
+
+    private Precedent precedent(Node node, String sheetName, Area area) {
+        return new Precedent(sheets.computeIfAbsent(sheetName, SheetGraph::new), area);
+    }
+
+    private static void register(Precedent precedent, Node node) {
+        SheetGraph sheet = precedent.sheet();
+        Area area = precedent.area();
+        if (area.cellCount() <= SMALL_RANGE_CELLS) {
+            for (int row = area.firstRow(); row <= area.lastRow(); row++) {
+                for (int column = area.firstColumn(); column <= area.lastColumn(); column++) {
+                    sheet.cellDependents.computeIfAbsent(key(row, column), position -> new ArrayList<>(2)).add(node);
+                }
+            }
+        } else {
+            sheet.ranges.add(new RangeEdge(area, node));
+            sheet.rangeIndex = null;
+        }
+    }
+
+    private void remove(Node node) {
+        node.removed = true;
+        node.sheet.nodes.remove(key(node.row, node.column));
+        volatileNodes.remove(node);
+        size--;
+        for (Precedent precedent : node.precedents) {
+            SheetGraph sheet = precedent.sheet();
+            Area area = precedent.area();
+            if (area.cellCount() <= SMALL_RANGE_CELLS) {
+                for (int row = area.firstRow(); row <= area.lastRow(); row++) {
+                    for (int column = area.firstColumn(); column <= area.lastColumn(); column++) {
+                        long position = key(row, column);
+                        List<Node> readers = sheet.cellDependents.get(position);
+                        if (readers != null && readers.remove(node) && readers.isEmpty()) {
+                            sheet.cellDependents.remove(position);
+                        }
+                    }
+                }
+            } else {
+                // La arista se descarta al reconstruir el índice
+                sheet.rangeIndex = null;
+            }
+        }
+    }
+
+    /**
+     * Índice de intervalos sobre los rangos grandes de una hoja: ordenados por primera fila y con un árbol de
+     * máximos de la última fila, de modo que una consulta solo baja por las ramas que pueden solaparse
+     */
+    private static final class RangeIndex {
+
+        private final RangeEdge[] edges;
+        private final int[] firstRows;
+        private final int[] maxLastRow;
+
+        private RangeIndex(List<RangeEdge> ranges) {
+            edges = ranges.toArray(new RangeEdge[0]);
+            Arrays.sort(edges, (left, right) -> Integer.compare(left.area().firstRow(), right.area().firstRow()));
+            firstRows = new int[edges.length];
+            for (int i = 0; i < edges.length; i++) {
+                firstRows[i] = edges[i].area().firstRow();
+            }
+            maxLastRow = new int[Math.max(1, 4 * edges.length)];
+            if (edges.length > 0) {
+                build(1, 0, edges.length);
+            }
+        }
+
+        private int build(int node, int from, int to) {
+            if (to - from == 1) {
+                return maxLastRow[node] = edges[from].area().lastRow();
+            }
+            int middle = (from + to) >>> 1;
+            return maxLastRow[node] = Math.max(build(2 * node, from, middle), build(2 * node + 1, middle, to));
+        }
+
+        private void overlapping(Area area, Consumer<Node> action) {
+            // Solo pueden solaparse los rangos que empiezan antes de que acabe el área
+            int limit = Arrays.binarySearch(firstRows, area.lastRow() + 1);
+            limit = limit < 0 ? -limit - 1 : lowerBound(area.lastRow() + 1, limit);
+            if (limit > 0) {
+                query(1, 0, edges.length, limit, area, action);
+            }
+        }
+
+        private int lowerBound(int value, int found) {
+            while (found > 0 && firstRows[found - 1] == value) {
+                found--;
+            }
+            return found;
+        }
+
+        private void query(int node, int from, int to, int limit, Area area, Consumer<Node> action) {
+            if (from >= limit || maxLastRow[node] < area.firstRow()) {
+                return;
+            }
+            if (to - from == 1) {
+                Area range = edges[from].area();
+                if (range.firstColumn() <= area.lastColumn() && range.lastColumn() >= area.firstColumn()
+                        && !edges[from].node().removed) {
+                    action.accept(edges[from].node());
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            query(2 * node, from, middle, limit, area, action);
+            query(2 * node + 1, middle, to, limit, area, action);
+        }
+    }
+}
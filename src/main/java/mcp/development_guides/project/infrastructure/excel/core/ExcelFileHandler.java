@@ -18,10 +18,11 @@ public class ExcelFileHandler {
     }
 
     /**
-     * Ejecuta una operación con un workbook y maneja automáticamente el cierre de recursos
+     * Ejecuta una operación con un workbook y maneja automáticamente el cierre de recursos.
+     * El archivo se abre en modo solo lectura para que el cierre no lo reescriba en disco
      */
     public <T> T executeWithWorkbook(String filePath, String operation, WorkbookOperation<T> workbookOperation) {
-        try (Workbook workbook = WorkbookFactory.create(new java.io.File(filePath))) {
+        try (Workbook workbook = WorkbookFactory.create(new java.io.File(filePath), null, true)) {
             System.out.println("📖 " + operation + " from: " + filePath);
             T result = workbookOperation.execute(workbook, filePath);
             System.out.println("✅ Operation completed successfully");
@@ -0,0 +1,23 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import java.io.File;
+
+/**
+ * Identidad de una versión concreta de un archivo Excel (ruta absoluta + tamaño + fecha de modificación)
+ */
+public record ExcelFileVersion(
+        String path,
+        long size,
+        long lastModified
+) {
+    /**
+     * Obtiene la versión actual de un archivo en disco
+     */
+    public static ExcelFileVersion of(String filePath) {
+        File file = new File(filePath).getAbsoluteFile();
+        if (!file.exists()) {
+            throw new IllegalArgumentException("File does not exist: " + filePath);
+        }
+        return new ExcelFileVersion(file.toPath().normalize().toString(), file.length(), file.lastModified());
+    }
+}
@@ -0,0 +1,184 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Vigila con WatchService los directorios de los archivos que tienen datos en caché. Cuando un archivo
+ * cambia se avisa a las cachés registradas para que lo descarten, y mientras no llegue ningún evento
+ * su versión se sirve de memoria sin consultar el sistema de archivos
+ */
+@Component
+public class ExcelFileWatcher {
+
+    @Value("${excel.cache.watch.enabled:true}")
+    private boolean enabled;
+
+    private final Map<Path, WatchKey> watchedDirectories = new ConcurrentHashMap<>();
+    private final Set<Path> watchedFiles = ConcurrentHashMap.newKeySet();
+    private final Map<Path, ExcelFileVersion> knownVersions = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> listeners = new CopyOnWriteArrayList<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private volatile WatchService watchService;
+    private volatile boolean eventsTrusted;
+
+    /**
+     * Registra una acción a ejecutar (en el hilo del vigilante) con la ruta absoluta del archivo que cambió
+     */
+    public void addListener(Consumer<String> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Versión actual del archivo. Si ya está vigilado y no ha llegado ningún evento desde la última
+     * consulta se devuelve la versión conocida; si no, se consulta el disco y se empieza a vigilar
+     */
+    public ExcelFileVersion currentVersion(String filePath) {
+        Path path = Path.of(filePath).toAbsolutePath().normalize();
+        if (eventsTrusted) {
+            ExcelFileVersion known = knownVersions.get(path);
+            if (known != null) {
+                return known;
+            }
+        }
+
+        if (!enabled || !watch(path)) {
+            return ExcelFileVersion.of(filePath);
+        }
+        // Si llega un cambio mientras se consulta el disco, la versión leída puede estar ya obsoleta
+        long sequence = changeSequence.get();
+        ExcelFileVersion version = ExcelFileVersion.of(filePath);
+        synchronized (knownVersions) {
+            if (changeSequence.get() == sequence) {
+                knownVersions.put(path, version);
+            }
+        }
+        return version;
+    }
+
+    /**
+     * Olvida la versión conocida de un archivo y avisa a las cachés (guardados propios)
+     */
+    public void fileChanged(String filePath) {
+        notifyChange(Path.of(filePath).toAbsolutePath().normalize());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        WatchService service = watchService;
+        if (service != null) {
+            try {
+                service.close();
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not close file watcher: " + e.getMessage());
+            }
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private boolean watch(Path file) {
+        if (watchedFiles.contains(file)) {
+            return true;
+        }
+        Path directory = file.getParent();
+        try {
+            WatchService service = getWatchService();
+            watchedDirectories.computeIfAbsent(directory, dir -> {
+                try {
+                    return dir.register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            watchedFiles.add(file);
+            return true;
+        } catch (Exception e) {
+            System.err.println("⚠️ Could not watch directory " + directory + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    private synchronized WatchService getWatchService() throws IOException {
+        if (watchService == null) {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            // Las implementaciones por sondeo (p. ej. macOS) avisan con segundos de retraso: en ese caso los
+            // eventos solo sirven para desalojar y la versión se sigue consultando en cada llamada
+            eventsTrusted = !service.getClass().getSimpleName().contains("Polling");
+
+            Thread thread = new Thread(() -> processEvents(service), "excel-file-watch");
+            thread.setDaemon(true);
+            thread.start();
+            watchService = service;
+            System.out.println("👀 File watcher started" + (eventsTrusted ? "" : " (polling mode)"));
+        }
+        return watchService;
+    }
+
+    private void processEvents(WatchService service) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            Path directory = (Path) key.watchable();
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    // Se perdieron eventos: cualquier archivo del directorio puede haber cambiado
+                    for (Path file : watchedFiles) {
+                        if (file.getParent().equals(directory)) {
+                            notifyChange(file);
+                        }
+                    }
+                    continue;
+                }
+                Path file = directory.resolve((Path) event.context());
+                if (watchedFiles.contains(file)) {
+                    notifyChange(file);
+                }
+            }
+
+            if (!key.reset()) {
+                // El directorio ya no existe o no es accesible
+                watchedDirectories.remove(directory);
+                for (Path file : watchedFiles) {
+                    if (file.getParent().equals(directory)) {
+                        watchedFiles.remove(file);
+                        notifyChange(file);
+                    }
+                }
+            }
+        }
+    }
+
+    private void notifyChange(Path file) {
+        synchronized (knownVersions) {
+            changeSequence.incrementAndGet();
+            knownVersions.remove(file);
+        }
+        String path = file.toString();
+        for (Consumer<String> listener : listeners) {
+            try {
+                listener.accept(path);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Cache invalidation failed for " + path + ": " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,686 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelDependencyGraph.Area;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelDependencyGraph.Node;
+import org.apache.poi.hssf.usermodel.HSSFEvaluationWorkbook;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.formula.EvaluationCell;
+import org.apache.poi.ss.formula.EvaluationName;
+import org.apache.poi.ss.formula.EvaluationSheet;
+import org.apache.poi.ss.formula.EvaluationWorkbook;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaParsingWorkbook;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.formula.SheetIdentifier;
+import org.apache.poi.ss.formula.WorkbookEvaluator;
+import org.apache.poi.ss.formula.eval.BlankEval;
+import org.apache.poi.ss.formula.eval.BoolEval;
+import org.apache.poi.ss.formula.eval.ErrorEval;
+import org.apache.poi.ss.formula.eval.NumberEval;
+import org.apache.poi.ss.formula.eval.StringEval;
+import org.apache.poi.ss.formula.eval.ValueEval;
+import org.apache.poi.ss.formula.ptg.NamePtg;
+import org.apache.poi.ss.formula.ptg.NameXPtg;
+import org.apache.poi.ss.formula.ptg.Ptg;
+import org.apache.poi.ss.formula.udf.UDFFinder;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.FormulaEvaluator;
+import org.apache.poi.ss.usermodel.Name;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Table;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.AreaReference;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Recálculo incremental de fórmulas antes de guardar. Los escritores anotan qué celdas cambian en cada
+ * workbook abierto; al guardar solo se evalúan las fórmulas que dependen, directa o transitivamente, de esas
+ * celdas, y su resultado queda como valor en caché. El grafo de dependencias de cada archivo se conserva entre
+ * escrituras y solo se vuelve a analizar la parte que cambió
+ */
+@Component
+public class ExcelFormulaRecalculator {
+
+    @Value("${excel.recalc.enabled:true}")
+    private boolean enabled;
+
+    @Value("${excel.recalc.max-graphs:8}")
+    private int maxGraphs;
+
+    private final Map<Workbook, ChangeSet> changes = Collections.synchronizedMap(new WeakHashMap<>());
+    private final Map<String, GraphEntry> graphs = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Celdas modificadas en un workbook abierto, por hoja, y si hubo cambios de estructura
+     */
+    private static final class ChangeSet {
+
+        private final Map<String, List<Area>> areas = new LinkedHashMap<>();
+        private boolean structure;
+    }
+
+    /**
+     * Grafo de un archivo y la versión del archivo con la que coincide; pending es el workbook recalculado
+     * que está a punto de guardarse
+     */
+    private static final class GraphEntry {
+
+        private ExcelDependencyGraph graph = new ExcelDependencyGraph();
+        private boolean built;
+        private ExcelFileVersion version;
+        private WeakReference<Workbook> pending;
+    }
+
+    /**
+     * Activa o desactiva el recálculo al guardar
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ajusta cuántos grafos de dependencias (uno por archivo) se conservan en memoria
+     */
+    public void setMaxGraphs(int maxGraphs) {
+        this.maxGraphs = maxGraphs;
+    }
+
+    /**
+     * Anota que cambió el valor o la fórmula de una celda
+     */
+    public void markChanged(Sheet sheet, int row, int column) {
+        mark(sheet, Area.cell(row, column));
+    }
+
+    /**
+     * Anota que cambiaron los valores o fórmulas de un rango
+     */
+    public void markChanged(Sheet sheet, ExcelRange range) {
+        mark(sheet, new Area(range.startPosition().row(), range.endPosition().row(),
+            range.startPosition().column(), range.endPosition().column()));
+    }
+
+    /**
+     * Anota un cambio de estructura (filas o columnas desplazadas, hojas creadas, renombradas o eliminadas):
+     * el siguiente recálculo revisa todas las fórmulas del workbook en lugar de solo las áreas anotadas
+     */
+    public void markStructureChanged(Workbook workbook) {
+        if (enabled) {
+            synchronized (changes) {
+                changes.computeIfAbsent(workbook, key -> new ChangeSet()).structure = true;
+            }
+        }
+    }
+
+    /**
+     * Recalcula las fórmulas afectadas por los cambios anotados en el workbook y guarda sus resultados en las
+     * celdas. Se llama justo antes de guardar. Si el recálculo incremental falla se evalúan todas las fórmulas
+     * del workbook, para no guardar resultados obsoletos; si tampoco es posible se lanza la excepción y la
+     * escritura falla
+     */
+    public void recalculate(Workbook workbook, String filePath) {
+        ChangeSet changeSet = changes.remove(workbook);
+        if (!enabled || !(workbook instanceof XSSFWorkbook || workbook instanceof HSSFWorkbook)) {
+            return;
+        }
+        String path = new File(filePath).getAbsolutePath();
+        GraphEntry entry;
+        synchronized (graphs) {
+            entry = graphs.get(path);
+            if (entry == null && changeSet != null) {
+                entry = new GraphEntry();
+                graphs.put(path, entry);
+                while (graphs.size() > Math.max(1, maxGraphs)) {
+                    graphs.remove(graphs.keySet().iterator().next());
+                }
+            }
+        }
+        if (entry == null) {
+            return;
+        }
+
+        synchronized (entry) {
+            boolean current = entry.version != null && entry.version.equals(currentVersion(filePath));
+            entry.pending = null;
+            if (changeSet == null) {
+                // Sin cambios de valores el grafo sigue valiendo para la versión que se va a guardar
+                if (current) {
+                    entry.pending = new WeakReference<>(workbook);
+                }
+                return;
+            }
+            try {
+                recalculate(workbook, filePath, entry, changeSet, current);
+                entry.pending = new WeakReference<>(workbook);
+            } catch (RuntimeException e) {
+                System.err.println("⚠️ Incremental formula recalculation failed, evaluating every formula");
+                System.err.println("   File: " + filePath);
+                System.err.println("   Error: " + e.getMessage());
+                entry.graph = new ExcelDependencyGraph();
+                entry.built = false;
+                entry.version = null;
+                recalculateAll(workbook, filePath);
+            }
+        }
+    }
+
+    /**
+     * Registra que el workbook se guardó en el archivo: si es el que se acaba de recalcular, el grafo pasa a
+     * corresponder a la nueva versión del archivo; si no, queda pendiente de revisar en el siguiente recálculo
+     */
+    public void saved(Workbook workbook, String filePath) {
+        if (!enabled) {
+            return;
+        }
+        GraphEntry entry;
+        synchronized (graphs) {
+            entry = graphs.get(new File(filePath).getAbsolutePath());
+        }
+        if (entry == null) {
+            return;
+        }
+        synchronized (entry) {
+            boolean recalculated = entry.pending != null && entry.pending.get() == workbook;
+            entry.pending = null;
+            entry.version = recalculated ? currentVersion(filePath) : null;
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private void mark(Sheet sheet, Area area) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (changes) {
+            changes.computeIfAbsent(sheet.getWorkbook(), key -> new ChangeSet())
+                .areas.computeIfAbsent(sheet.getSheetName(), key -> new ArrayList<>()).add(area);
+        }
+    }
+
+    /**
+     * Evalúa todas las fórmulas del workbook con el evaluador de POI. Como en el recálculo incremental, una
+     * fórmula que no se puede evaluar conserva su valor anterior
+     */
+    private static void recalculateAll(Workbook workbook, String filePath) {
+        long start = System.nanoTime();
+        int formulas = 0;
+        int failed = 0;
+        try {
+            FormulaEvaluator evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            for (Sheet sheet : workbook) {
+                for (Row row : sheet) {
+                    for (Cell cell : row) {
+                        if (cell.getCellType() != CellType.FORMULA) {
+                            continue;
+                        }
+                        formulas++;
+                        try {
+                            evaluator.evaluateFormulaCell(cell);
+                        } catch (RuntimeException e) {
+                            failed++;
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error recalculating formulas");
+            System.err.println("   File: " + filePath);
+            System.err.println("   Error: " + e.getMessage());
+            throw new RuntimeException("Failed to recalculate formulas of " + filePath, e);
+        }
+        System.out.println("🧮 Recalculated all " + formulas + " formulas in " + (System.nanoTime() - start) / 1_000_000
+            + " ms: " + filePath + (failed > 0 ? " (" + failed + " kept their previous value)" : ""));
+    }
+
+    private static ExcelFileVersion currentVersion(String filePath) {
+        return new File(filePath).exists() ? ExcelFileVersion.of(filePath) : null;
+    }
+
+    /**
+     * Pone el grafo al día y evalúa las fórmulas sucias. Si el grafo corresponde al archivo cargado basta con
+     * revisar las áreas anotadas; tras un cambio de estructura se revisan todas las fórmulas, y si el archivo
+     * cambió por otra vía (o es la primera vez) también, sin poder saber qué valores cambiaron
+     */
+    private void recalculate(Workbook workbook, String filePath, GraphEntry entry, ChangeSet changeSet, boolean current) {
+        long start = System.nanoTime();
+        ExcelDependencyGraph graph = entry.graph;
+        EvaluationWorkbook evaluation = workbook instanceof XSSFWorkbook xssf
+            ? XSSFEvaluationWorkbook.create(xssf)
+            : HSSFEvaluationWorkbook.create((HSSFWorkbook) workbook);
+        FormulaParsingWorkbook parsing = (FormulaParsingWorkbook) evaluation;
+
+        List<Node> dirty = new ArrayList<>();
+        ArrayDeque<Node> queue = new ArrayDeque<>();
+        Consumer<Node> seed = node -> {
+            if (!node.dirty) {
+                node.dirty = true;
+                dirty.add(node);
+                queue.add(node);
+            }
+        };
+        List<Node> removed = new ArrayList<>();
+        String reason;
+
+        try {
+            if (current && !changeSet.structure) {
+                reason = "changed cells";
+                for (Map.Entry<String, List<Area>> sheetAreas : changeSet.areas.entrySet()) {
+                    Sheet sheet = workbook.getSheet(sheetAreas.getKey());
+                    if (sheet != null) {
+                        int sheetIndex = workbook.getSheetIndex(sheet);
+                        for (Area area : sheetAreas.getValue()) {
+                            graph.synchronize(sheet, sheetIndex, area, parsing, evaluation, seed, removed::add);
+                        }
+                    }
+                }
+            } else if (!entry.built || current) {
+                reason = entry.built ? "structure change" : "first build";
+                // En la primera construcción se supone que los resultados guardados en el archivo eran correctos
+                Consumer<Node> changed = entry.built ? seed : node -> { };
+                graph.synchronize(workbook, parsing, evaluation, changed, removed::add);
+                graph.forEachNode(node -> {
+                    if (node.uncached) {
+                        seed.accept(node);
+                    }
+                });
+            } else {
+                reason = "file changed outside tracked writes";
+                graph.synchronize(workbook, parsing, evaluation, node -> { }, removed::add);
+                graph.forEachNode(seed);
+            }
+            entry.built = true;
+
+            for (Map.Entry<String, List<Area>> sheetAreas : changeSet.areas.entrySet()) {
+                ExcelDependencyGraph.SheetGraph sheetGraph = graph.sheet(sheetAreas.getKey());
+                if (sheetGraph != null) {
+                    for (Area area : sheetAreas.getValue()) {
+                        graph.nodesIn(sheetGraph, area, seed);
+                        graph.dependents(sheetGraph, area, seed);
+                    }
+                }
+            }
+            for (Node node : removed) {
+                graph.dependents(node.sheet, Area.cell(node.row, node.column), seed);
+            }
+            graph.volatileNodes().forEach(seed);
+
+            // Cierre transitivo, registrando las aristas entre fórmulas sucias para ordenarlas
+            while (!queue.isEmpty()) {
+                Node node = queue.poll();
+                graph.dependents(node.sheet, Area.cell(node.row, node.column), dependent -> {
+                    seed.accept(dependent);
+                    if (node.dirtyDependents == null) {
+                        node.dirtyDependents = new ArrayList<>(2);
+                    }
+                    node.dirtyDependents.add(dependent);
+                    dependent.pending++;
+                });
+            }
+
+            int failed = evaluate(workbook, evaluation, graph, order(dirty));
+            System.out.println("🧮 Recalculated " + dirty.size() + " of " + graph.size() + " formulas (" + reason + ") in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms: " + filePath
+                + (failed > 0 ? " (" + failed + " kept their previous value)" : ""));
+        } finally {
+            for (Node node : dirty) {
+                node.dirty = false;
+                node.pending = 0;
+                node.dirtyDependents = null;
+            }
+        }
+    }
+
+    /**
+     * Orden topológico de las fórmulas sucias: cada una se evalúa después de las que lee, así el evaluador
+     * encuentra sus entradas ya calculadas y no recorre cadenas largas de forma recursiva. Las que forman
+     * ciclos quedan al final
+     */
+    private static List<Node> order(List<Node> dirty) {
+        List<Node> order = new ArrayList<>(dirty.size());
+        for (Node node : dirty) {
+            if (node.pending == 0) {
+                order.add(node);
+            }
+        }
+        for (int i = 0; i < order.size(); i++) {
+            Node node = order.get(i);
+            if (node.dirtyDependents != null) {
+                for (Node dependent : node.dirtyDependents) {
+                    if (--dependent.pending == 0) {
+                        order.add(dependent);
+                    }
+                }
+            }
+        }
+        if (order.size() < dirty.size()) {
+            for (Node node : dirty) {
+                if (node.pending > 0) {
+                    order.add(node);
+                }
+            }
+        }
+        return order;
+    }
+
+    /**
+     * Evalúa las fórmulas en orden y guarda cada resultado en su celda; devuelve cuántas no se pudieron evaluar
+     */
+    private static int evaluate(Workbook workbook, EvaluationWorkbook evaluation, ExcelDependencyGraph graph, List<Node> order) {
+        RecalculationWorkbook recalculation = new RecalculationWorkbook(workbook, evaluation, graph);
+        WorkbookEvaluator evaluator = new WorkbookEvaluator(recalculation, null, null);
+        int failed = 0;
+        for (Node node : order) {
+            int sheetIndex = workbook.getSheetIndex(node.sheet.name);
+            Row row = sheetIndex >= 0 ? workbook.getSheetAt(sheetIndex).getRow(node.row) : null;
+            Cell cell = row != null ? row.getCell(node.column) : null;
+            if (cell == null || cell.getCellType() != CellType.FORMULA) {
+                continue;
+            }
+            try {
+                store(cell, evaluator.evaluate(new RecalculationCell(cell, recalculation.getSheet(sheetIndex), false)));
+            } catch (RuntimeException e) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    private static void store(Cell cell, ValueEval value) {
+        switch (value) {
+            case NumberEval number -> cell.setCellValue(number.getNumberValue());
+            case StringEval text -> cell.setCellValue(text.getStringValue());
+            case BoolEval bool -> cell.setCellValue(bool.getBooleanValue());
+            case ErrorEval error -> cell.setCellErrorValue((byte) error.getErrorCode());
+            case BlankEval blank -> cell.setCellValue(0);
+            default -> throw new IllegalStateException("Unexpected formula result: " + value);
+        }
+    }
+
+    /**
+     * Workbook que ve el evaluador: delega en el de POI, pero sus hojas presentan las fórmulas que no hay que
+     * recalcular como valores (su resultado en caché), de modo que solo se evalúan las fórmulas sucias
+     */
+    private static final class RecalculationWorkbook implements EvaluationWorkbook, FormulaParsingWorkbook {
+
+        private final Workbook workbook;
+        private final EvaluationWorkbook delegate;
+        private final FormulaParsingWorkbook parsing;
+        private final ExcelDependencyGraph graph;
+        private final RecalculationSheet[] sheets;
+
+        private RecalculationWorkbook(Workbook workbook, EvaluationWorkbook delegate, ExcelDependencyGraph graph) {
+            this.workbook = workbook;
+            this.delegate = delegate;
+            this.parsing = (FormulaParsingWorkbook) delegate;
+            this.graph = graph;
+            this.sheets = new RecalculationSheet[workbook.getNumberOfSheets()];
+        }
+
+        @Override
+        public RecalculationSheet getSheet(int sheetIndex) {
+            if (sheets[sheetIndex] == null) {
+                Sheet sheet = workbook.getSheetAt(sheetIndex);
+                sheets[sheetIndex] = new RecalculationSheet(sheet, sheetIndex, graph.sheet(sheet.getSheetName()), graph);
+            }
+            return sheets[sheetIndex];
+        }
+
+        @Override
+        public int getSheetIndex(EvaluationSheet sheet) {
+            return sheet instanceof RecalculationSheet recalculationSheet ? recalculationSheet.index : delegate.getSheetIndex(sheet);
+        }
+
+        @Override
+        public Ptg[] getFormulaTokens(EvaluationCell evaluationCell) {
+            Cell cell = ((RecalculationCell) evaluationCell).cell;
+            return FormulaParser.parse(cell.getCellFormula(), parsing, FormulaType.CELL,
+                getSheetIndex(evaluationCell.getSheet()), cell.getRowIndex());
+        }
+
+        @Override
+        public String getSheetName(int sheetIndex) {
+            return delegate.getSheetName(sheetIndex);
+        }
+
+        @Override
+        public int getSheetIndex(String sheetName) {
+            return delegate.getSheetIndex(sheetName);
+        }
+
+        @Override
+        public ExternalSheet getExternalSheet(int externSheetIndex) {
+            return delegate.getExternalSheet(externSheetIndex);
+        }
+
+        @Override
+        public ExternalSheet getExternalSheet(String firstSheetName, String lastSheetName, int externalWorkbookNumber) {
+            return delegate.getExternalSheet(firstSheetName, lastSheetName, externalWorkbookNumber);
+        }
+
+        @Override
+        public int convertFromExternSheetIndex(int externSheetIndex) {
+            return delegate.convertFromExternSheetIndex(externSheetIndex);
+        }
+
+        @Override
+        public ExternalName getExternalName(int externSheetIndex, int externNameIndex) {
+            return delegate.getExternalName(externSheetIndex, externNameIndex);
+        }
+
+        @Override
+        public ExternalName getExternalName(String nameName, String sheetName, int externalWorkbookNumber) {
+            return delegate.getExternalName(nameName, sheetName, externalWorkbookNumber);
+        }
+
+        @Override
+        public EvaluationName getName(NamePtg namePtg) {
+            return delegate.getName(namePtg);
+        }
+
+        @Override
+        public EvaluationName getName(String name, int sheetIndex) {
+            return delegate.getName(name, sheetIndex);
+        }
+
+        @Override
+        public String resolveNameXText(NameXPtg ptg) {
+            return delegate.resolveNameXText(ptg);
+        }
+
+        @Override
+        public UDFFinder getUDFFinder() {
+            return delegate.getUDFFinder();
+        }
+
+        @Override
+        public SpreadsheetVersion getSpreadsheetVersion() {
+            return delegate.getSpreadsheetVersion();
+        }
+
+        @Override
+        public void clearAllCachedResultValues() {
+            delegate.clearAllCachedResultValues();
+        }
+
+        @Override
+        public Name createName() {
+            return parsing.createName();
+        }
+
+        @Override
+        public Table getTable(String name) {
+            return parsing.getTable(name);
+        }
+
+        @Override
+        public Ptg getNameXPtg(String name, SheetIdentifier sheet) {
+            return parsing.getNameXPtg(name, sheet);
+        }
+
+        @Override
+        public Ptg get3DReferencePtg(CellReference cell, SheetIdentifier sheet) {
+            return parsing.get3DReferencePtg(cell, sheet);
+        }
+
+        @Override
+        public Ptg get3DReferencePtg(AreaReference area, SheetIdentifier sheet) {
+            return parsing.get3DReferencePtg(area, sheet);
+        }
+
+        @Override
+        public int getExternalSheetIndex(String sheetName) {
+            return parsing.getExternalSheetIndex(sheetName);
+        }
+
+        @Override
+        public int getExternalSheetIndex(String workbookName, String sheetName) {
+            return parsing.getExternalSheetIndex(workbookName, sheetName);
+        }
+    }
+
+    /**
+     * Hoja que ve el evaluador. Las celdas se leen directamente de la hoja de POI, sin el índice de todas
+     * las celdas que construye XSSFEvaluationSheet
+     */
+    private static final class RecalculationSheet implements EvaluationSheet {
+
+        private final Sheet sheet;
+        private final int index;
+        private final ExcelDependencyGraph.SheetGraph sheetGraph;
+        private final ExcelDependencyGraph graph;
+
+        private RecalculationSheet(Sheet sheet, int index, ExcelDependencyGraph.SheetGraph sheetGraph, ExcelDependencyGraph graph) {
+            this.sheet = sheet;
+            this.index = index;
+            this.sheetGraph = sheetGraph;
+            this.graph = graph;
+        }
+
+        @Override
+        public EvaluationCell getCell(int rowIndex, int columnIndex) {
+            Row row = sheet.getRow(rowIndex);
+            Cell cell = row != null ? row.getCell(columnIndex) : null;
+            if (cell == null) {
+                return null;
+            }
+            boolean frozen = false;
+            if (cell.getCellType() == CellType.FORMULA) {
+                Node node = sheetGraph != null ? graph.node(sheetGraph, rowIndex, columnIndex) : null;
+                frozen = node == null || !node.dirty;
+            }
+            return new RecalculationCell(cell, this, frozen);
+        }
+
+        @Override
+        public void clearAllCachedResultValues() {
+        }
+
+        @Override
+        public int getLastRowNum() {
+            return sheet.getLastRowNum();
+        }
+
+        @Override
+        public boolean isRowHidden(int rowIndex) {
+            Row row = sheet.getRow(rowIndex);
+            return row != null && row.getZeroHeight();
+        }
+    }
+
+    /**
+     * Celda que ve el evaluador; una fórmula congelada se presenta como su resultado en caché
+     */
+    private static final class RecalculationCell implements EvaluationCell {
+
+        private final Cell cell;
+        private final RecalculationSheet sheet;
+        private final boolean frozen;
+
+        private RecalculationCell(Cell cell, RecalculationSheet sheet, boolean frozen) {
+            this.cell = cell;
+            this.sheet = sheet;
+            this.frozen = frozen;
+        }
+
+        @Override
+        public Object getIdentityKey() {
+            return cell;
+        }
+
+        @Override
+        public EvaluationSheet getSheet() {
+            return sheet;
+        }
+
+        @Override
+        public int getRowIndex() {
+            return cell.getRowIndex();
+        }
+
+        @Override
+        public int getColumnIndex() {
+            return cell.getColumnIndex();
+        }
+
+        @Override
+        public CellType getCellType() {
+            return frozen ? cell.getCachedFormulaResultType() : cell.getCellType();
+        }
+
+        @Override
+        public double getNumericCellValue() {
+            return cell.getNumericCellValue();
+        }
+
+        @Override
+        public String getStringCellValue() {
+            return cell.getStringCellValue();
+        }
+
+        @Override
+        public boolean getBooleanCellValue() {
+            return cell.getBooleanCellValue();
+        }
+
+        @Override
+        public int getErrorCellValue() {
+            return cell.getErrorCellValue();
+        }
+
+        @Override
+        public CellRangeAddress getArrayFormulaRange() {
+            return cell.getArrayFormulaRange();
+        }
+
+        @Override
+        public boolean isPartOfArrayFormulaGroup() {
+            return !frozen && cell.isPartOfArrayFormulaGroup();
+        }
+
+        @Override
+        public CellType getCachedFormulaResultType() {
+            return cell.getCachedFormulaResultType();
+        }
+    }
+}
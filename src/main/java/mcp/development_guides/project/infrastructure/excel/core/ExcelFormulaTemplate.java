@@ -0,0 +1,411 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fórmula A1 analizada una sola vez y separada en texto literal y referencias (celdas, columnas A:C y
+ * filas 1:3). Sirve para rellenar: render desplaza las partes relativas de cada referencia igual que
+ * Excel al copiar la fórmula, sin volver a analizar el texto en cada celda
+ */
+public final class ExcelFormulaTemplate {
+
+    private static final int CELL = 0;
+    private static final int COLUMN = 1;
+    private static final int ROW = 2;
+
+    private final String formula;
+    private final List<Part> parts;
+    private final boolean relative;
+    private final int maxRow;
+    private final int maxColumn;
+
+    /**
+     * Literal (reference null) o referencia; en los rangos la segunda referencia va en rangeEnd
+     */
+    private record Part(String literal, Reference reference, Reference rangeEnd) {
+    }
+
+    private record Reference(int kind, int row, boolean rowAbsolute, int column, boolean columnAbsolute) {
+    }
+
+    private ExcelFormulaTemplate(String formula, List<Part> parts, SpreadsheetVersion version) {
+        this.formula = formula;
+        this.parts = parts;
+        this.relative = parts.stream().anyMatch(part -> part.reference() != null
+            && (isRelative(part.reference()) || part.rangeEnd() != null && isRelative(part.rangeEnd())));
+        this.maxRow = version.getLastRowIndex();
+        this.maxColumn = version.getLastColumnIndex();
+    }
+
+    /**
+     * Analiza la fórmula (con o sin '=' inicial) para los límites de filas y columnas de la versión indicada
+     */
+    public static ExcelFormulaTemplate compile(String formula, SpreadsheetVersion version) {
+        if (formula == null || formula.isBlank()) {
+            throw new IllegalArgumentException("Formula cannot be null or empty");
+        }
+        String text = formula.strip();
+        if (text.startsWith("=")) {
+            text = text.substring(1);
+        }
+        return new ExcelFormulaTemplate(text, new Tokenizer(text).tokenize(), version);
+    }
+
+    /**
+     * Fórmula original, sin '=' inicial
+     */
+    public String getFormula() {
+        return formula;
+    }
+
+    /**
+     * Indica si alguna referencia tiene partes relativas; si no, todas las celdas reciben el mismo texto
+     */
+    public boolean isRelative() {
+        return relative;
+    }
+
+    /**
+     * Texto de la fórmula copiada rowOffset filas y columnOffset columnas más allá. Las referencias que
+     * quedan fuera de la hoja (o los rangos con algún extremo fuera) se escriben como #REF!, como en Excel
+     */
+    public String render(int rowOffset, int columnOffset, StringBuilder buffer) {
+        if (!relative || rowOffset == 0 && columnOffset == 0) {
+            return formula;
+        }
+        buffer.setLength(0);
+        for (Part part : parts) {
+            if (part.reference() == null) {
+                buffer.append(part.literal());
+                continue;
+            }
+            if (!fits(part.reference(), rowOffset, columnOffset)
+                    || part.rangeEnd() != null && !fits(part.rangeEnd(), rowOffset, columnOffset)) {
+                buffer.append("#REF!");
+                continue;
+            }
+            appendReference(part.reference(), rowOffset, columnOffset, buffer);
+            if (part.rangeEnd() != null) {
+                buffer.append(':');
+                appendReference(part.rangeEnd(), rowOffset, columnOffset, buffer);
+            }
+        }
+        return buffer.toString();
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private static boolean isRelative(Reference reference) {
+        return reference.kind() != COLUMN && !reference.rowAbsolute() || reference.kind() != ROW && !reference.columnAbsolute();
+    }
+
+    private boolean fits(Reference reference, int rowOffset, int columnOffset) {
+        if (reference.kind() != COLUMN && !reference.rowAbsolute()) {
+            int row = reference.row() + rowOffset;
+            if (row < 0 || row > maxRow) {
+                return false;
+            }
+        }
+        if (reference.kind() != ROW && !reference.columnAbsolute()) {
+            int column = reference.column() + columnOffset;
+            return column >= 0 && column <= maxColumn;
+        }
+        return true;
+    }
+
+    private static void appendReference(Reference reference, int rowOffset, int columnOffset, StringBuilder buffer) {
+        if (reference.kind() != ROW) {
+            if (reference.columnAbsolute()) {
+                buffer.append('$');
+            }
+            appendColumn(reference.columnAbsolute() ? reference.column() : reference.column() + columnOffset, buffer);
+        }
+        if (reference.kind() != COLUMN) {
+            if (reference.rowAbsolute()) {
+                buffer.append('$');
+            }
+            buffer.append((reference.rowAbsolute() ? reference.row() : reference.row() + rowOffset) + 1);
+        }
+    }
+
+    /**
+     * Letras de la columna (base 0) escritas directamente en el búfer
+     */
+    private static void appendColumn(int column, StringBuilder buffer) {
+        int start = buffer.length();
+        int value = column + 1;
+        while (value > 0) {
+            int remainder = (value - 1) % 26;
+            buffer.insert(start, (char) ('A' + remainder));
+            value = (value - 1) / 26;
+        }
+    }
+
+    /**
+     * Recorre la fórmula una vez: cadenas, nombres de hoja entre comillas, corchetes de tablas o libros
+     * externos, funciones y nombres se copian tal cual; solo las referencias A1 se convierten en partes
+     */
+    private static final class Tokenizer {
+
+        private final String text;
+        private final List<Part> parts = new ArrayList<>();
+        private final StringBuilder literal = new StringBuilder();
+        private int position;
+
+        private Tokenizer(String text) {
+            this.text = text;
+        }
+
+        private List<Part> tokenize() {
+            while (position < text.length()) {
+                char current = text.charAt(position);
+                if (current == '"' || current == '\'') {
+                    copyQuoted(current);
+                } else if (current == '[') {
+                    copyBracketed();
+                } else if (Character.isDigit(current) || current == '$' && nextIsDigit(position + 1)) {
+                    readNumberOrRows();
+                } else if (isIdentifierStart(current)) {
+                    readIdentifier();
+                } else {
+                    literal.append(current);
+                    position++;
+                }
+            }
+            flushLiteral();
+            return parts;
+        }
+
+        private void copyQuoted(char quote) {
+            int end = position + 1;
+            while (end < text.length()) {
+                if (text.charAt(end) == quote) {
+                    // Comilla doblada: escape dentro de la cadena o del nombre de hoja
+                    if (end + 1 < text.length() && text.charAt(end + 1) == quote) {
+                        end += 2;
+                        continue;
+                    }
+                    break;
+                }
+                end++;
+            }
+            end = Math.min(end + 1, text.length());
+            literal.append(text, position, end);
+            position = end;
+        }
+
+        private void copyBracketed() {
+            int depth = 0;
+            int end = position;
+            while (end < text.length()) {
+                char current = text.charAt(end++);
+                if (current == '[') {
+                    depth++;
+                } else if (current == ']' && --depth == 0) {
+                    break;
+                }
+            }
+            literal.append(text, position, end);
+            position = end;
+        }
+
+        /**
+         * Número literal, o rango de filas (1:3, $1:$3) si los dígitos van seguidos de ':' y otra fila
+         */
+        private void readNumberOrRows() {
+            int start = position;
+            Reference first = parseRowReference(start);
+            if (first != null && !previousIsIdentifierPart(start)) {
+                int colon = skipRowReference(start);
+                if (colon < text.length() && text.charAt(colon) == ':') {
+                    Reference second = parseRowReference(colon + 1);
+                    int end = second != null ? skipRowReference(colon + 1) : -1;
+                    if (second != null && (end >= text.length() || !isIdentifierPart(text.charAt(end)))) {
+                        addReference(first, second);
+                        position = end;
+                        return;
+                    }
+                }
+            }
+            int end = text.charAt(start) == '$' ? start + 1 : start;
+            while (end < text.length() && (Character.isDigit(text.charAt(end)) || text.charAt(end) == '.')) {
+                end++;
+            }
+            // Exponente de notación científica (1E+3)
+            if (end < text.length() && (text.charAt(end) == 'E' || text.charAt(end) == 'e')) {
+                int exponent = end + 1;
+                if (exponent < text.length() && (text.charAt(exponent) == '+' || text.charAt(exponent) == '-')) {
+                    exponent++;
+                }
+                if (exponent < text.length() && Character.isDigit(text.charAt(exponent))) {
+                    end = exponent;
+                    while (end < text.length() && Character.isDigit(text.charAt(end))) {
+                        end++;
+                    }
+                }
+            }
+            literal.append(text, start, end);
+            position = end;
+        }
+
+        private void readIdentifier() {
+            int start = position;
+            int end = start + 1;
+            while (end < text.length() && isIdentifierPart(text.charAt(end))) {
+                end++;
+            }
+            String identifier = text.substring(start, end);
+            char next = end < text.length() ? text.charAt(end) : '\0';
+            position = end;
+
+            // Funciones, nombres de hoja y nombres de tabla no son referencias
+            if (next == '(' || next == '!' || next == '[') {
+                literal.append(identifier);
+                return;
+            }
+            Reference cell = parseCellReference(identifier);
+            if (cell != null) {
+                addReference(cell, next == ':' ? peekSecond(CELL) : null);
+                return;
+            }
+            Reference column = parseColumnReference(identifier);
+            if (column != null && next == ':') {
+                Reference second = peekSecond(COLUMN);
+                if (second != null) {
+                    addReference(column, second);
+                    return;
+                }
+            }
+            literal.append(identifier);
+        }
+
+        /**
+         * Si tras ':' viene una referencia del tipo indicado la consume y la devuelve
+         */
+        private Reference peekSecond(int kind) {
+            int start = position + 1;
+            int end = start;
+            while (end < text.length() && isIdentifierPart(text.charAt(end))) {
+                end++;
+            }
+            if (end == start || end < text.length() && (text.charAt(end) == '(' || text.charAt(end) == '!')) {
+                return null;
+            }
+            String identifier = text.substring(start, end);
+            Reference reference = kind == CELL ? parseCellReference(identifier) : parseColumnReference(identifier);
+            if (reference != null) {
+                position = end;
+            }
+            return reference;
+        }
+
+        private void addReference(Reference reference, Reference rangeEnd) {
+            flushLiteral();
+            parts.add(new Part(null, reference, rangeEnd));
+        }
+
+        private void flushLiteral() {
+            if (!literal.isEmpty()) {
+                parts.add(new Part(literal.toString(), null, null));
+                literal.setLength(0);
+            }
+        }
+
+        private static Reference parseCellReference(String identifier) {
+            int index = 0;
+            boolean columnAbsolute = identifier.charAt(index) == '$';
+            if (columnAbsolute) {
+                index++;
+            }
+            int column = 0;
+            int letters = 0;
+            while (index < identifier.length() && Character.isLetter(identifier.charAt(index)) && letters < 4) {
+                column = column * 26 + (Character.toUpperCase(identifier.charAt(index)) - 'A' + 1);
+                index++;
+                letters++;
+            }
+            if (letters == 0 || letters > 3 || index >= identifier.length()) {
+                return null;
+            }
+            boolean rowAbsolute = identifier.charAt(index) == '$';
+            if (rowAbsolute) {
+                index++;
+            }
+            int digitsStart = index;
+            long row = 0;
+            while (index < identifier.length() && Character.isDigit(identifier.charAt(index)) && index - digitsStart < 8) {
+                row = row * 10 + (identifier.charAt(index) - '0');
+                index++;
+            }
+            if (index == digitsStart || index != identifier.length() || row < 1
+                    || row > SpreadsheetVersion.EXCEL2007.getMaxRows() || column > SpreadsheetVersion.EXCEL2007.getMaxColumns()) {
+                return null;
+            }
+            return new Reference(CELL, (int) row - 1, rowAbsolute, column - 1, columnAbsolute);
+        }
+
+        private static Reference parseColumnReference(String identifier) {
+            int index = identifier.charAt(0) == '$' ? 1 : 0;
+            if (identifier.length() - index < 1 || identifier.length() - index > 3) {
+                return null;
+            }
+            int column = 0;
+            for (int i = index; i < identifier.length(); i++) {
+                if (!Character.isLetter(identifier.charAt(i))) {
+                    return null;
+                }
+                column = column * 26 + (Character.toUpperCase(identifier.charAt(i)) - 'A' + 1);
+            }
+            if (column > SpreadsheetVersion.EXCEL2007.getMaxColumns()) {
+                return null;
+            }
+            return new Reference(COLUMN, 0, false, column - 1, index == 1);
+        }
+
+        private Reference parseRowReference(int start) {
+            int index = start;
+            boolean absolute = index < text.length() && text.charAt(index) == '$';
+            if (absolute) {
+                index++;
+            }
+            int digitsStart = index;
+            long row = 0;
+            while (index < text.length() && Character.isDigit(text.charAt(index)) && index - digitsStart < 8) {
+                row = row * 10 + (text.charAt(index) - '0');
+                index++;
+            }
+            if (index == digitsStart || row < 1 || row > SpreadsheetVersion.EXCEL2007.getMaxRows()
+                    || index < text.length() && (text.charAt(index) == '.' || Character.isLetter(text.charAt(index)))) {
+                return null;
+            }
+            return new Reference(ROW, (int) row - 1, absolute, 0, false);
+        }
+
+        private int skipRowReference(int start) {
+            int index = text.charAt(start) == '$' ? start + 1 : start;
+            while (index < text.length() && Character.isDigit(text.charAt(index))) {
+                index++;
+            }
+            return index;
+        }
+
+        private boolean nextIsDigit(int index) {
+            return index < text.length() && Character.isDigit(text.charAt(index));
+        }
+
+        private boolean previousIsIdentifierPart(int index) {
+            return index > 0 && (isIdentifierPart(text.charAt(index - 1)) || text.charAt(index - 1) == '.');
+        }
+
+        private static boolean isIdentifierStart(char current) {
+            return Character.isLetter(current) || current == '_' || current == '\\' || current == '$';
+        }
+
+        private static boolean isIdentifierPart(char current) {
+            return Character.isLetterOrDigit(current) || current == '_' || current == '.' || current == '$' || current == '\\' || current == '?';
+        }
+    }
+}
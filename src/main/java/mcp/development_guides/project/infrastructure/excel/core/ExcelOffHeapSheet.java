@@ -0,0 +1,577 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import mcp.development_guides.project.domain.model.CellPosition;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Copia columnar de una hoja en memoria directa (fuera del heap). Cada columna guarda un byte con el tipo
+ * de celda (y una marca de fórmula) y 8 bytes con el valor por fila: el número (también fechas y booleanos 1/0)
+ * o el identificador del texto en el diccionario compartido de la hoja. Las lecturas de texto siguen las reglas
+ * de ExcelDataConverter.getCellValueAsString; como aquí solo está el resultado cacheado, las que alcanzan una
+ * fórmula devuelven null para que se use el modelo completo de POI, que la evalúa. La instancia es la arena de la hoja: mientras haya
+ * usuarios (retain/close) sus búferes siguen vivos; al retirarla y quedar sin usuarios se sueltan todos a la vez.
+ * La misma disposición se guarda como instantánea binaria (writeSnapshot) y se puede abrir sobre un archivo
+ * proyectado en memoria (mapSnapshot) sin volver a leer el XML
+ */
+public final class ExcelOffHeapSheet implements AutoCloseable {
+
+    private static final ExcelStreamedRow.CellKind[] KINDS = ExcelStreamedRow.CellKind.values();
+    private static final byte BLANK = (byte) ExcelStreamedRow.CellKind.BLANK.ordinal();
+    private static final int INITIAL_ROWS = 1024;
+
+    // Bit del byte de tipo que marca una celda con fórmula; el resto es el ordinal de CellKind
+    private static final byte FORMULA_FLAG = (byte) 0x80;
+    private static final byte KIND_MASK = 0x7F;
+
+    private static final int SNAPSHOT_MAGIC = 0x58534E50;
+    private static final int SNAPSHOT_VERSION = 2;
+    private static final int SNAPSHOT_HEADER_BYTES = 40;
+
+    // Marcas de la cabecera de la instantánea
+    private static final int SNAPSHOT_DATE_1904 = 1;
+    private static final int SNAPSHOT_HAS_FORMULAS = 2;
+
+    // Diccionario vacío compartido por las hojas ya liberadas
+    private static final OffHeapStringDictionary RELEASED_DICTIONARY = new OffHeapStringDictionary();
+
+    private final String sheetName;
+    private ByteBuffer[] kinds = new ByteBuffer[0];
+    private ByteBuffer[] values = new ByteBuffer[0];
+    // Índice de filas: Row.getLastCellNum de cada fila (última celda presente + 1), 4 bytes por fila
+    private ByteBuffer rowLengths = ByteBuffer.allocateDirect(INITIAL_ROWS << 2);
+    private OffHeapStringDictionary dictionary = new OffHeapStringDictionary();
+    private int rowCapacity = INITIAL_ROWS;
+    private int rowCount;
+    private int columnCount;
+    private long cellCount;
+    private boolean date1904;
+    private boolean hasFormulas;
+    private boolean mapped;
+
+    // Límite de memoria directa durante la carga y bytes del diccionario en la última comprobación
+    private long maxBytes = Long.MAX_VALUE;
+    private long dictionaryBytes;
+
+    private int users;
+    private boolean retired;
+    private boolean released;
+
+    private ExcelOffHeapSheet(String sheetName) {
+        this.sheetName = sheetName;
+    }
+
+    /**
+     * Carga la hoja en un único pase de streaming. Solo la lectura del XML crea objetos; una vez cargada,
+     * lecturas, búsquedas y agregaciones trabajan sobre los búferes directos. La carga se interrumpe con
+     * IllegalStateException antes de que la memoria directa reservada supere maxBytes
+     */
+    public static ExcelOffHeapSheet load(ExcelStreamingWorkbook workbook, String sheetName, long maxBytes) throws Exception {
+        ExcelOffHeapSheet sheet = new ExcelOffHeapSheet(sheetName);
+        sheet.date1904 = workbook.isDate1904();
+        sheet.maxBytes = maxBytes;
+        workbook.streamSheet(sheetName, row -> {
+            sheet.append(row);
+            return true;
+        });
+        return sheet;
+    }
+
+    /**
+     * Abre una instantánea escrita con writeSnapshot sobre su contenido proyectado en memoria. Las columnas y
+     * el diccionario son vistas del archivo, así que abrirla no copia ni interpreta las celdas
+     */
+    public static ExcelOffHeapSheet mapSnapshot(String sheetName, ByteBuffer snapshot) {
+        if (snapshot.capacity() < SNAPSHOT_HEADER_BYTES || snapshot.getInt(0) != SNAPSHOT_MAGIC
+            || snapshot.getInt(4) != SNAPSHOT_VERSION) {
+            throw new IllegalArgumentException("Not a sheet snapshot");
+        }
+        int rows = snapshot.getInt(8);
+        int columns = snapshot.getInt(12);
+        int textCount = snapshot.getInt(24);
+        int textBytes = snapshot.getInt(28);
+        int slotCount = snapshot.getInt(32);
+        long expected = SNAPSHOT_HEADER_BYTES + (rows << 2) + columns * (rows * 9L)
+            + OffHeapStringDictionary.snapshotBytes(textCount, textBytes, slotCount);
+        if (expected != snapshot.capacity()) {
+            throw new IllegalArgumentException("Truncated sheet snapshot");
+        }
+
+        ExcelOffHeapSheet sheet = new ExcelOffHeapSheet(sheetName);
+        int position = SNAPSHOT_HEADER_BYTES;
+        sheet.rowLengths = snapshot.slice(position, rows << 2);
+        position += rows << 2;
+        sheet.kinds = new ByteBuffer[columns];
+        sheet.values = new ByteBuffer[columns];
+        for (int column = 0; column < columns; column++) {
+            sheet.kinds[column] = snapshot.slice(position, rows);
+            sheet.values[column] = snapshot.slice(position + rows, rows << 3);
+            position += rows * 9;
+        }
+        sheet.dictionary = OffHeapStringDictionary.map(snapshot, position, textCount, textBytes, slotCount);
+        sheet.rowCapacity = rows;
+        sheet.rowCount = rows;
+        sheet.columnCount = columns;
+        sheet.cellCount = snapshot.getLong(16);
+        int flags = snapshot.getInt(36);
+        sheet.date1904 = (flags & SNAPSHOT_DATE_1904) != 0;
+        sheet.hasFormulas = (flags & SNAPSHOT_HAS_FORMULAS) != 0;
+        sheet.mapped = true;
+        return sheet;
+    }
+
+    /**
+     * Escribe la hoja como instantánea: cabecera, índice de filas, tipos y valores de cada columna y
+     * diccionario, recortando la capacidad sobrante de los búferes
+     */
+    public void writeSnapshot(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(SNAPSHOT_HEADER_BYTES);
+        header.putInt(SNAPSHOT_MAGIC).putInt(SNAPSHOT_VERSION).putInt(rowCount).putInt(columnCount).putLong(cellCount);
+        dictionary.writeSnapshotHeader(header);
+        header.putInt((date1904 ? SNAPSHOT_DATE_1904 : 0) | (hasFormulas ? SNAPSHOT_HAS_FORMULAS : 0));
+        header.clear();
+        OffHeapStringDictionary.writeFully(channel, header);
+        OffHeapStringDictionary.writeFully(channel, rowLengths.slice(0, rowCount << 2));
+        for (int column = 0; column < columnCount; column++) {
+            OffHeapStringDictionary.writeFully(channel, kinds[column].slice(0, rowCount));
+            OffHeapStringDictionary.writeFully(channel, values[column].slice(0, rowCount << 3));
+        }
+        dictionary.writeSnapshot(channel);
+    }
+
+    public String getSheetName() {
+        return sheetName;
+    }
+
+    /**
+     * Indica si la hoja se abrió desde una instantánea proyectada en memoria
+     */
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * Número de filas como Sheet.getLastRowNum + 1: índice de la última fila presente, con o sin datos, + 1
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Número de columnas (índice de la última columna con datos o fórmula + 1)
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Celdas con valor guardadas
+     */
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Indica si alguna celda de la hoja contiene una fórmula
+     */
+    public boolean hasFormulas() {
+        return hasFormulas;
+    }
+
+    /**
+     * Indica si el workbook de origen usa el sistema de fechas de 1904
+     */
+    public boolean isDate1904() {
+        return date1904;
+    }
+
+    /**
+     * Textos distintos del diccionario de la hoja
+     */
+    public int getDistinctTextCount() {
+        return dictionary.size();
+    }
+
+    /**
+     * Bytes de memoria directa reservados por la hoja
+     */
+    public long getOffHeapBytes() {
+        long bytes = dictionary.offHeapBytes() + rowLengths.capacity();
+        for (int column = 0; column < kinds.length; column++) {
+            bytes += kinds[column].capacity() + values[column].capacity();
+        }
+        return bytes;
+    }
+
+    /**
+     * Longitud de la fila según el índice de filas, como Row.getLastCellNum (última celda presente + 1);
+     * 0 si la fila no tiene celdas
+     */
+    public int getRowLength(int row) {
+        return row >= 0 && row < rowCount ? rowLengths.getInt(row << 2) : 0;
+    }
+
+    public ExcelStreamedRow.CellKind getKind(int row, int column) {
+        return KINDS[kind(row, column)];
+    }
+
+    /**
+     * Indica si la celda contiene una fórmula (su tipo y valor son los del resultado cacheado)
+     */
+    public boolean isFormula(int row, int column) {
+        return row >= 0 && row < rowCount && column >= 0 && column < columnCount
+            && (kinds[column].get(row) & FORMULA_FLAG) != 0;
+    }
+
+    /**
+     * Valor numérico de la celda (fechas y booleanos incluidos); NaN si no es numérica
+     */
+    public double getNumber(int row, int column) {
+        byte kind = kind(row, column);
+        return kind == BLANK || isTextKind(kind) ? Double.NaN : values[column].getDouble(row << 3);
+    }
+
+    /**
+     * Añade el valor textual de una celda sin fórmula con las reglas de ExcelDataConverter.getCellValueAsString:
+     * fechas como Date.toString (con el sistema de fechas del workbook), enteros sin decimales y errores vacíos
+     */
+    public void appendValue(int row, int column, StringBuilder builder) {
+        byte kind = kind(row, column);
+        if (kind == BLANK) {
+            return;
+        }
+        if (kind == ExcelStreamedRow.CellKind.STRING.ordinal()) {
+            dictionary.appendTo((int) values[column].getLong(row << 3), builder);
+            return;
+        }
+        if (kind == ExcelStreamedRow.CellKind.ERROR.ordinal()) {
+            return;
+        }
+        double value = values[column].getDouble(row << 3);
+        switch (KINDS[kind]) {
+            case NUMERIC -> ExcelDataConverter.appendNumber(value, builder);
+            case DATE -> {
+                // Como en ExcelDataConverter, un número fuera del rango de fechas se muestra como número
+                if (DateUtil.isValidExcelDate(value)) {
+                    ExcelDataConverter.appendJavaDate(value, date1904, builder);
+                } else {
+                    ExcelDataConverter.appendNumber(value, builder);
+                }
+            }
+            case BOOLEAN -> builder.append(value != 0);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Copia el rango como texto ("" en celdas vacías), reutilizando un único StringBuilder. Devuelve null si
+     * el rango contiene alguna fórmula
+     */
+    public Object[][] readRange(int startRow, int startColumn, int endRow, int endColumn) {
+        Object[][] result = new Object[endRow - startRow + 1][endColumn - startColumn + 1];
+        StringBuilder builder = new StringBuilder(32);
+        for (int row = startRow; row <= endRow; row++) {
+            for (int column = startColumn; column <= endColumn; column++) {
+                if (isFormula(row, column)) {
+                    return null;
+                }
+                builder.setLength(0);
+                appendValue(row, column, builder);
+                result[row - startRow][column - startColumn] = builder.toString();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copia una fila como texto hasta su última celda presente (vacía si la fila no tiene celdas). Devuelve
+     * null si la fila contiene alguna fórmula
+     */
+    public String[] readRow(int row) {
+        String[] result = new String[getRowLength(row)];
+        StringBuilder builder = new StringBuilder(32);
+        for (int column = 0; column < result.length; column++) {
+            if (isFormula(row, column)) {
+                return null;
+            }
+            builder.setLength(0);
+            appendValue(row, column, builder);
+            result[column] = builder.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Copia una columna como texto desde la primera fila hasta la última presente de la hoja. Devuelve null si
+     * la columna contiene alguna fórmula
+     */
+    public String[] readColumn(int column) {
+        String[] result = new String[rowCount];
+        StringBuilder builder = new StringBuilder(32);
+        for (int row = 0; row < rowCount; row++) {
+            if (isFormula(row, column)) {
+                return null;
+            }
+            builder.setLength(0);
+            appendValue(row, column, builder);
+            result[row] = builder.toString();
+        }
+        return result;
+    }
+
+    /**
+     * Vuelca en el acumulador las celdas de su rango, columna a columna: números, fechas y booleanos se copian
+     * sin pasar por texto y cada texto se decodifica una vez por racha de filas con el mismo identificador
+     */
+    public void readTyped(ExcelTypedRangeBuilder builder) {
+        int lastColumn = Math.min(builder.getLastColumn(), columnCount - 1);
+        int lastRow = Math.min(builder.getLastRow(), rowCount - 1);
+        StringBuilder text = new StringBuilder(32);
+        for (int column = Math.max(builder.getFirstColumn(), 0); column <= lastColumn; column++) {
+            ByteBuffer columnKinds = kinds[column];
+            ByteBuffer columnValues = values[column];
+            long previousId = -1;
+            String previousText = null;
+            for (int row = Math.max(builder.getFirstRow(), 0); row <= lastRow; row++) {
+                byte kind = (byte) (columnKinds.get(row) & KIND_MASK);
+                if (kind == BLANK) {
+                    continue;
+                }
+                if (isTextKind(kind)) {
+                    long id = columnValues.getLong(row << 3);
+                    if (id != previousId) {
+                        text.setLength(0);
+                        dictionary.appendTo((int) id, text);
+                        previousText = text.toString();
+                        previousId = id;
+                    }
+                    builder.setText(row, column, previousText);
+                } else {
+                    builder.setNumber(row, column, KINDS[kind], columnValues.getDouble(row << 3));
+                }
+            }
+        }
+    }
+
+    /**
+     * Añade a matches, en orden de filas, las celdas cuyo valor textual (appendValue) es exactamente needle.
+     * El texto se busca una vez en el diccionario y después cada celda se compara por identificador o por
+     * número; solo las fechas se formatean, y únicamente si needle puede ser una. Devuelve false sin buscar si
+     * la hoja tiene fórmulas o needle está vacío (coincidiría con celdas vacías, que aquí no se guardan)
+     */
+    public boolean find(String needle, List<CellPosition> matches) {
+        if (needle == null || needle.isEmpty() || hasFormulas) {
+            return false;
+        }
+        long textId = dictionary.find(needle.getBytes(StandardCharsets.UTF_8));
+        double number = parseCanonicalNumber(needle);
+        double bool = "true".equals(needle) ? 1 : "false".equals(needle) ? 0 : Double.NaN;
+        // Date.toString mide al menos 28 caracteres ("Wed Mar 15 06:00:00 UTC 2023")
+        boolean dateLike = needle.length() >= 28;
+
+        byte stringKind = (byte) ExcelStreamedRow.CellKind.STRING.ordinal();
+        byte numericKind = (byte) ExcelStreamedRow.CellKind.NUMERIC.ordinal();
+        byte dateKind = (byte) ExcelStreamedRow.CellKind.DATE.ordinal();
+        byte booleanKind = (byte) ExcelStreamedRow.CellKind.BOOLEAN.ordinal();
+        StringBuilder dateText = new StringBuilder(32);
+        for (int row = 0; row < rowCount; row++) {
+            for (int column = 0; column < columnCount; column++) {
+                byte kind = kinds[column].get(row);
+                boolean match;
+                if (kind == stringKind) {
+                    match = values[column].getLong(row << 3) == textId;
+                } else if (kind == numericKind) {
+                    match = values[column].getDouble(row << 3) == number;
+                } else if (kind == dateKind) {
+                    double value = values[column].getDouble(row << 3);
+                    if (!DateUtil.isValidExcelDate(value)) {
+                        match = value == number;
+                    } else if (dateLike) {
+                        dateText.setLength(0);
+                        ExcelDataConverter.appendJavaDate(value, date1904, dateText);
+                        match = needle.contentEquals(dateText);
+                    } else {
+                        match = false;
+                    }
+                } else {
+                    match = kind == booleanKind && values[column].getDouble(row << 3) == bool;
+                }
+                if (match) {
+                    matches.add(new CellPosition(row, column));
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Entrega al consumidor los números de la columna entre las filas indicadas (ambas incluidas), en orden.
+     * Las celdas de fecha cuentan como números, igual que en la lectura en streaming
+     */
+    public void forEachNumber(int column, int firstRow, int lastRow, DoubleConsumer consumer) {
+        if (column < 0 || column >= columnCount) {
+            return;
+        }
+        byte numericKind = (byte) ExcelStreamedRow.CellKind.NUMERIC.ordinal();
+        byte dateKind = (byte) ExcelStreamedRow.CellKind.DATE.ordinal();
+        ByteBuffer columnKinds = kinds[column];
+        ByteBuffer columnValues = values[column];
+        int end = Math.min(lastRow, rowCount - 1);
+        for (int row = Math.max(firstRow, 0); row <= end; row++) {
+            byte kind = (byte) (columnKinds.get(row) & KIND_MASK);
+            if (kind == numericKind || kind == dateKind) {
+                consumer.accept(columnValues.getDouble(row << 3));
+            }
+        }
+    }
+
+    /**
+     * Registra un usuario de la hoja; devuelve false si sus búferes ya se liberaron
+     */
+    synchronized boolean retain() {
+        if (released) {
+            return false;
+        }
+        users++;
+        return true;
+    }
+
+    /**
+     * Marca la hoja para liberarse cuando su último usuario termine
+     */
+    synchronized void retire() {
+        retired = true;
+        releaseIfUnused();
+    }
+
+    /**
+     * Termina el uso registrado con retain
+     */
+    @Override
+    public synchronized void close() {
+        users--;
+        releaseIfUnused();
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private void releaseIfUnused() {
+        if (retired && users <= 0 && !released) {
+            // Sin referencias, el recolector devuelve la memoria directa de todos los búferes de la hoja
+            released = true;
+            kinds = new ByteBuffer[0];
+            values = new ByteBuffer[0];
+            rowLengths = ByteBuffer.allocate(0);
+            dictionary = RELEASED_DICTIONARY;
+            rowCount = 0;
+            columnCount = 0;
+        }
+    }
+
+    private byte kind(int row, int column) {
+        if (row < 0 || row >= rowCount || column < 0 || column >= columnCount) {
+            return BLANK;
+        }
+        return (byte) (kinds[column].get(row) & KIND_MASK);
+    }
+
+    private static boolean isTextKind(byte kind) {
+        return kind == ExcelStreamedRow.CellKind.STRING.ordinal() || kind == ExcelStreamedRow.CellKind.ERROR.ordinal();
+    }
+
+    private void append(ExcelStreamedRow row) {
+        int rowIndex = row.getRowIndex();
+        if (rowIndex >= rowCapacity) {
+            growRows(rowIndex + 1);
+        }
+        for (int column = 0; column < row.getColumnCount(); column++) {
+            ExcelStreamedRow.CellKind kind = row.getKind(column);
+            boolean formula = row.isFormula(column);
+            if (kind == ExcelStreamedRow.CellKind.BLANK && !formula) {
+                continue;
+            }
+            if (column >= kinds.length) {
+                addColumns(column + 1);
+            }
+            kinds[column].put(rowIndex, (byte) (formula ? kind.ordinal() | FORMULA_FLAG : kind.ordinal()));
+            hasFormulas |= formula;
+            columnCount = Math.max(columnCount, column + 1);
+            if (kind == ExcelStreamedRow.CellKind.BLANK) {
+                continue;
+            }
+            if (kind == ExcelStreamedRow.CellKind.STRING || kind == ExcelStreamedRow.CellKind.ERROR) {
+                values[column].putLong(rowIndex << 3, dictionary.intern(row.getText(column)));
+            } else {
+                values[column].putDouble(rowIndex << 3, row.getNumber(column));
+            }
+            cellCount++;
+        }
+        // Las filas sin valores también cuentan, igual que en Sheet.getLastRowNum y Row.getLastCellNum
+        rowLengths.putInt(rowIndex << 2, row.getLastCellNum());
+        rowCount = rowIndex + 1;
+        // El diccionario crece por su cuenta: se comprueba el límite cuando ha reservado más memoria
+        if (dictionary.offHeapBytes() != dictionaryBytes) {
+            dictionaryBytes = dictionary.offHeapBytes();
+            ensureBudget(0);
+        }
+    }
+
+    private void growRows(int required) {
+        int capacity = rowCapacity;
+        while (capacity < required) {
+            capacity *= 2;
+        }
+        ensureBudget(((long) capacity - rowCapacity) * (kinds.length * 9L + 4));
+        for (int column = 0; column < kinds.length; column++) {
+            kinds[column] = OffHeapStringDictionary.grow(kinds[column], capacity, rowCapacity);
+            values[column] = OffHeapStringDictionary.grow(values[column], capacity << 3, rowCapacity << 3);
+        }
+        rowLengths = OffHeapStringDictionary.grow(rowLengths, capacity << 2, rowCapacity << 2);
+        rowCapacity = capacity;
+    }
+
+    private void addColumns(int count) {
+        int existing = kinds.length;
+        ensureBudget((long) (count - existing) * rowCapacity * 9);
+        kinds = Arrays.copyOf(kinds, count);
+        values = Arrays.copyOf(values, count);
+        for (int column = existing; column < count; column++) {
+            // Los búferes directos nacen a cero: tipo 0 = BLANK
+            kinds[column] = ByteBuffer.allocateDirect(rowCapacity);
+            values[column] = ByteBuffer.allocateDirect(rowCapacity << 3);
+        }
+    }
+
+    /**
+     * Corta la carga si reservar additional bytes más dejaría la hoja por encima del límite
+     */
+    private void ensureBudget(long additional) {
+        if (getOffHeapBytes() + additional > maxBytes) {
+            throw new IllegalStateException("Sheet '" + sheetName + "' needs more than the off-heap limit of "
+                + maxBytes + " bytes");
+        }
+    }
+
+    /**
+     * Número cuyo texto canónico (entero sin decimales o Double.toString) es exactamente needle; NaN si no hay
+     */
+    private static double parseCanonicalNumber(String needle) {
+        try {
+            double value = Double.parseDouble(needle);
+            String canonical = value == Math.floor(value) && !Double.isInfinite(value)
+                ? Long.toString((long) value)
+                : Double.toString(value);
+            return canonical.equals(needle) ? value : Double.NaN;
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Almacén de hojas grandes cargadas fuera del heap (ExcelOffHeapSheet), por versión de archivo y hoja.
+ * Solo se usa con archivos de al menos excel.offheap.min-file-bytes; el total residente se limita a
+ * excel.offheap.max-bytes desalojando las hojas menos usadas. Los cambios de archivo retiran sus hojas.
+ * Cada hoja cargada se guarda además como instantánea, que se proyecta en memoria en las cargas siguientes
+ */
+@Component
+public class ExcelOffHeapSheetStore {
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelFileWatcher fileWatcher;
+
+    @Autowired
+    private ExcelSheetSnapshotStore snapshotStore;
+
+    @Value("${excel.offheap.enabled:true}")
+    private boolean enabled;
+
+    @Value("${excel.offheap.max-bytes:1073741824}")
+    private long maxBytes;
+
+    @Value("${excel.offheap.min-file-bytes:8388608}")
+    private long minFileBytes;
+
+    private final LinkedHashMap<SheetKey, ExcelOffHeapSheet> sheets = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<SheetKey, CompletableFuture<ExcelOffHeapSheet>> loading = new ConcurrentHashMap<>();
+    private long residentBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private record SheetKey(ExcelFileVersion version, String sheetName) {
+    }
+
+    @PostConstruct
+    public void register() {
+        fileWatcher.addListener(path -> retireIf(key -> key.version().path().equals(path)));
+    }
+
+    /**
+     * Tamaño mínimo del archivo (bytes) para cargar sus hojas fuera del heap; 0 las carga siempre
+     */
+    public void setMinFileBytes(long minFileBytes) {
+        this.minFileBytes = minFileBytes;
+    }
+
+    /**
+     * Memoria directa máxima (bytes) de las hojas residentes; una hoja que no cabe se deja de cargar
+     */
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Ejecuta la operación sobre la copia fuera del heap de la hoja (cargándola si hace falta). Si el almacén
+     * está desactivado, el archivo es pequeño o la carga falla se usa fallback, que informa de sus propios errores.
+     * También se usa cuando la operación devuelve null: la copia no puede dar el mismo resultado que POI (p. ej.
+     * porque alcanza fórmulas, que solo el modelo completo evalúa)
+     */
+    public <T> T query(String filePath, String sheetName, Function<ExcelOffHeapSheet, T> operation, Supplier<T> fallback) {
+        if (!enabled) {
+            return fallback.get();
+        }
+        ExcelFileVersion version;
+        try {
+            version = fileWatcher.currentVersion(filePath);
+        } catch (IllegalArgumentException e) {
+            return fallback.get();
+        }
+        if (version.size() < minFileBytes) {
+            return fallback.get();
+        }
+
+        ExcelOffHeapSheet sheet = acquire(new SheetKey(version, sheetName), filePath);
+        if (sheet == null) {
+            return fallback.get();
+        }
+        T result;
+        try {
+            result = operation.apply(sheet);
+        } finally {
+            sheet.close();
+        }
+        return result != null ? result : fallback.get();
+    }
+
+    /**
+     * Hojas residentes, memoria directa usada frente al límite y contadores de cargas y desalojos
+     */
+    public synchronized Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("residentSheets", sheets.size());
+        statistics.put("residentBytes", residentBytes);
+        statistics.put("maxBytes", maxBytes);
+        statistics.put("hits", hits.get());
+        statistics.put("loads", loads.get());
+        statistics.put("evictions", evictions.get());
+        statistics.put("snapshots", snapshotStore.getStatistics());
+        return statistics;
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Devuelve la hoja ya registrada como en uso (el llamante debe cerrarla), o null si no se pudo cargar:
+     * error de lectura, hoja mayor que excel.offheap.max-bytes o falta de memoria directa
+     */
+    private ExcelOffHeapSheet acquire(SheetKey key, String filePath) {
+        while (true) {
+            synchronized (this) {
+                ExcelOffHeapSheet resident = sheets.get(key);
+                if (resident != null && resident.retain()) {
+                    hits.incrementAndGet();
+                    return resident;
+                }
+            }
+
+            CompletableFuture<ExcelOffHeapSheet> future = new CompletableFuture<>();
+            CompletableFuture<ExcelOffHeapSheet> running = loading.putIfAbsent(key, future);
+            if (running != null) {
+                try {
+                    running.join();
+                } catch (CompletionException e) {
+                    return null;
+                }
+                // La carga compartida ya está en el mapa (o se desalojó): se vuelve a buscar
+                continue;
+            }
+
+            try {
+                // Primero la instantánea por hash de contenido; si no existe se lee el XML y se guarda una
+                ExcelOffHeapSheet sheet = snapshotStore.open(key.version(), key.sheetName());
+                if (sheet == null) {
+                    ExcelOffHeapSheet parsed = streamingReader.executeWithStream(filePath,
+                        "Loading sheet '" + key.sheetName() + "' off-heap",
+                        (workbook, path) -> ExcelOffHeapSheet.load(workbook, key.sheetName(), maxBytes));
+                    sheet = snapshotStore.write(key.version(), parsed);
+                }
+                loads.incrementAndGet();
+                sheet.retain();
+                admit(key, sheet);
+                System.out.println("🧊 Sheet '" + key.sheetName() + "' stored off-heap" + (sheet.isMapped() ? " (mapped)" : "") + ": "
+                    + sheet.getCellCount() + " cells, " + sheet.getDistinctTextCount() + " distinct texts, " + sheet.getOffHeapBytes() + " bytes");
+                future.complete(sheet);
+                return sheet;
+            } catch (RuntimeException e) {
+                future.completeExceptionally(e);
+                return null;
+            } catch (OutOfMemoryError e) {
+                // Sin memoria directa para la copia: la consulta sigue por POI
+                System.err.println("⚠️ Not enough direct memory to load sheet '" + key.sheetName() + "' off-heap: " + e.getMessage());
+                future.completeExceptionally(e);
+                return null;
+            } finally {
+                loading.remove(key, future);
+            }
+        }
+    }
+
+    /**
+     * Registra la hoja y desaloja las menos usadas hasta respetar el límite. Una hoja mayor que el límite
+     * no se guarda: se libera en cuanto termina la consulta que la cargó
+     */
+    private synchronized void admit(SheetKey key, ExcelOffHeapSheet sheet) {
+        // Las versiones anteriores del mismo archivo ya no pueden volver a consultarse
+        retireIf(other -> other.version().path().equals(key.version().path()) && !other.version().equals(key.version()));
+
+        long bytes = sheet.getOffHeapBytes();
+        if (bytes > maxBytes) {
+            sheet.retire();
+            return;
+        }
+        Iterator<Map.Entry<SheetKey, ExcelOffHeapSheet>> iterator = sheets.entrySet().iterator();
+        while (residentBytes + bytes > maxBytes && iterator.hasNext()) {
+            ExcelOffHeapSheet victim = iterator.next().getValue();
+            iterator.remove();
+            residentBytes -= victim.getOffHeapBytes();
+            victim.retire();
+            evictions.incrementAndGet();
+        }
+        sheets.put(key, sheet);
+        residentBytes += bytes;
+    }
+
+    private synchronized void retireIf(Predicate<SheetKey> predicate) {
+        Iterator<Map.Entry<SheetKey, ExcelOffHeapSheet>> iterator = sheets.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<SheetKey, ExcelOffHeapSheet> entry = iterator.next();
+            if (predicate.test(entry.getKey())) {
+                iterator.remove();
+                residentBytes -= entry.getValue().getOffHeapBytes();
+                entry.getValue().retire();
+            }
+        }
+    }
+}
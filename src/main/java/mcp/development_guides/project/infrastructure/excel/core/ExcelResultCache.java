@@ -0,0 +1,218 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Memoriza resultados de herramientas de solo lectura por (herramienta, argumentos, versión del archivo)
+ * en la región "results" del gestor de caché. Las peticiones idénticas simultáneas comparten un único
+ * cálculo y los errores no se guardan. Cuando el vigilante de archivos detecta un cambio se descartan
+ * los resultados del archivo y, si está activado, los más recientes se vuelven a calcular en segundo plano
+ */
+@Component
+public class ExcelResultCache {
+
+    private static final String REGION = "results";
+
+    // Resultados recientes por archivo que se recalculan tras un cambio
+    private static final int PREFETCH_ENTRIES_PER_FILE = 8;
+
+    @Autowired
+    private ExcelFileWatcher fileWatcher;
+
+    @Autowired
+    private ExcelCacheManager cacheManager;
+
+    @Value("${excel.cache.results.max-entries:256}")
+    private int maxEntries;
+
+    @Value("${excel.cache.watch.prefetch:false}")
+    private boolean prefetchEnabled;
+
+    @Value("${excel.cache.watch.prefetch-delay-ms:250}")
+    private long prefetchDelayMs;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong prefetches = new AtomicLong();
+
+    // Cálculos en curso, para que las peticiones idénticas simultáneas esperen al primero
+    private final Map<ResultKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    // Cómo recalcular cada resultado reciente (los valores viven en el gestor de caché)
+    private final LinkedHashMap<ResultKey, Supplier<?>> loaders = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ResultKey, Supplier<?>> eldest) {
+            return size() > Math.max(maxEntries, 0);
+        }
+    };
+
+    // Recalculados pendientes por archivo: se agrupan los eventos que llegan dentro del retardo
+    private final Map<String, List<Map.Entry<ResultKey, Supplier<?>>>> pendingPrefetches = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService prefetcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "excel-cache-prefetch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private record ResultKey(String tool, ExcelFileVersion version, List<Object> arguments) {
+    }
+
+    @PostConstruct
+    public void register() {
+        cacheManager.registerRegion(REGION, ExcelSizeEstimator::estimate, true, maxEntries);
+        fileWatcher.addListener(this::onFileChanged);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        prefetcher.shutdownNow();
+    }
+
+    /**
+     * Activa o desactiva el recálculo en segundo plano de los resultados de archivos modificados
+     */
+    public void setPrefetchEnabled(boolean prefetchEnabled) {
+        this.prefetchEnabled = prefetchEnabled;
+    }
+
+    /**
+     * Devuelve el resultado memorizado para la versión actual del archivo o lo calcula con loader.
+     * Los argumentos deben tener equals por valor (cadenas, números, listas, records)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String tool, String filePath, Supplier<T> loader, Object... arguments) {
+        if (maxEntries <= 0) {
+            return loader.get();
+        }
+        ExcelFileVersion version;
+        try {
+            version = fileWatcher.currentVersion(filePath);
+        } catch (IllegalArgumentException e) {
+            // Sin archivo no hay versión que cachear: el propio lector informa del error
+            return loader.get();
+        }
+
+        ResultKey key = new ResultKey(tool, version, Arrays.asList(arguments));
+        Object cached = cacheManager.get(REGION, key);
+        if (cached != null) {
+            hits.incrementAndGet();
+            touchLoader(key, loader);
+            return (T) cached;
+        }
+
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, future);
+        if (running != null) {
+            hits.incrementAndGet();
+            try {
+                return (T) running.join();
+            } catch (CompletionException e) {
+                // El cálculo compartido falló: se reintenta sin caché para obtener el error propio
+                return loader.get();
+            }
+        }
+
+        misses.incrementAndGet();
+        try {
+            T result = loader.get();
+            // Los resultados de versiones anteriores del archivo ya no pueden volver a usarse
+            cacheManager.removeIf(REGION, other -> ((ResultKey) other).version().path().equals(version.path())
+                && !((ResultKey) other).version().equals(version));
+            if (result != null) {
+                cacheManager.put(REGION, key, result);
+                touchLoader(key, loader);
+            }
+            future.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Métricas de los resultados memorizados y del gestor de caché que los almacena
+     */
+    public Map<String, Object> getStatistics() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("hits", hitCount);
+        statistics.put("misses", missCount);
+        statistics.put("invalidations", invalidations.get());
+        statistics.put("prefetches", prefetches.get());
+        statistics.put("entries", cacheManager.size(REGION));
+        statistics.put("maxEntries", maxEntries);
+        statistics.put("hitRate", hitCount + missCount > 0 ? (double) hitCount / (hitCount + missCount) : 0.0);
+        statistics.put("cacheManager", cacheManager.getStatistics());
+        return statistics;
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private void touchLoader(ResultKey key, Supplier<?> loader) {
+        synchronized (loaders) {
+            loaders.put(key, loader);
+        }
+    }
+
+    private void onFileChanged(String path) {
+        cacheManager.removeIf(REGION, key -> ((ResultKey) key).version().path().equals(path));
+
+        // Los más recientes quedan al final por el orden de acceso
+        List<Map.Entry<ResultKey, Supplier<?>>> removed = new ArrayList<>();
+        synchronized (loaders) {
+            Iterator<Map.Entry<ResultKey, Supplier<?>>> iterator = loaders.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<ResultKey, Supplier<?>> entry = iterator.next();
+                if (entry.getKey().version().path().equals(path)) {
+                    removed.add(Map.entry(entry.getKey(), entry.getValue()));
+                    iterator.remove();
+                }
+            }
+        }
+        if (removed.isEmpty()) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        if (!prefetchEnabled) {
+            return;
+        }
+
+        List<Map.Entry<ResultKey, Supplier<?>>> recent =
+            new ArrayList<>(removed.subList(Math.max(removed.size() - PREFETCH_ENTRIES_PER_FILE, 0), removed.size()));
+        if (pendingPrefetches.put(path, recent) == null) {
+            prefetcher.schedule(() -> prefetch(path), prefetchDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void prefetch(String path) {
+        List<Map.Entry<ResultKey, Supplier<?>>> pending = pendingPrefetches.remove(path);
+        if (pending == null) {
+            return;
+        }
+        for (Map.Entry<ResultKey, Supplier<?>> entry : pending) {
+            ResultKey key = entry.getKey();
+            try {
+                get(key.tool(), path, entry.getValue(), key.arguments().toArray());
+                prefetches.incrementAndGet();
+            } catch (RuntimeException e) {
+                // El archivo puede estar a medio escribir o haberse borrado: se calculará en la próxima llamada
+                System.err.println("⚠️ Background refresh of " + key.tool() + " failed for " + path + ": " + e.getMessage());
+            }
+        }
+        System.out.println("🔥 Refreshed " + pending.size() + " cached results of: " + path);
+    }
+}
@@ -0,0 +1,288 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Instantáneas binarias de hojas ya interpretadas, guardadas en un directorio de caché y identificadas por
+ * el hash SHA-256 del contenido del archivo Excel más el nombre de la hoja. Se abren con FileChannel.map,
+ * de modo que tras un reinicio una hoja de un archivo sin cambios está disponible sin leer su XML
+ */
+@Component
+public class ExcelSheetSnapshotStore {
+
+    private static final String SNAPSHOT_SUFFIX = ".xsnap";
+
+    // Hash de contenido por versión (ruta + tamaño + fecha), para no releer el archivo entero tras reiniciar
+    private static final String HASH_INDEX = "content-hashes.log";
+    private static final int HASH_INDEX_ENTRIES = 4096;
+
+    private static final int HASH_BUFFER_BYTES = 1 << 20;
+
+    @Value("${excel.snapshot.enabled:true}")
+    private boolean enabled;
+
+    @Value("${excel.snapshot.dir:}")
+    private String snapshotDirectory;
+
+    @Value("${excel.snapshot.max-bytes:4294967296}")
+    private long maxBytes;
+
+    private Path directory;
+
+    private final LinkedHashMap<ExcelFileVersion, String> contentHashes = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<ExcelFileVersion, String> eldest) {
+            return size() > HASH_INDEX_ENTRIES;
+        }
+    };
+
+    private final AtomicLong opened = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong hashed = new AtomicLong();
+    private final AtomicLong pruned = new AtomicLong();
+
+    /**
+     * Prepara el directorio de instantáneas y carga el índice de hashes de contenido
+     */
+    @PostConstruct
+    public void init() {
+        directory = snapshotDirectory != null && !snapshotDirectory.isBlank()
+            ? Path.of(snapshotDirectory)
+            : Path.of(System.getProperty("java.io.tmpdir"), "excel-mcp-snapshots");
+        try {
+            Files.createDirectories(directory);
+            loadHashIndex();
+        } catch (IOException e) {
+            System.err.println("⚠️ Sheet snapshots disabled, cannot use directory " + directory + ": " + e.getMessage());
+            enabled = false;
+        }
+    }
+
+    /**
+     * Cambia el directorio de instantáneas (se crea si no existe)
+     */
+    public void setSnapshotDirectory(String snapshotDirectory) {
+        this.snapshotDirectory = snapshotDirectory;
+        synchronized (contentHashes) {
+            contentHashes.clear();
+        }
+        init();
+    }
+
+    /**
+     * Abre la instantánea de la hoja para esa versión del archivo, o null si no existe o no es válida
+     */
+    public ExcelOffHeapSheet open(ExcelFileVersion version, String sheetName) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            String hash = contentHash(version);
+            if (hash == null) {
+                return null;
+            }
+            Path snapshot = snapshotPath(hash, sheetName);
+            if (!Files.exists(snapshot)) {
+                return null;
+            }
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                if (channel.size() > Integer.MAX_VALUE) {
+                    return null;
+                }
+                // La proyección sigue siendo válida después de cerrar el canal
+                ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                ExcelOffHeapSheet sheet = ExcelOffHeapSheet.mapSnapshot(sheetName, mapped);
+                Files.setLastModifiedTime(snapshot, FileTime.fromMillis(System.currentTimeMillis()));
+                opened.incrementAndGet();
+                System.out.println("🗺️ Sheet '" + sheetName + "' mapped from snapshot: " + snapshot.getFileName());
+                return sheet;
+            } catch (IllegalArgumentException e) {
+                System.err.println("⚠️ Discarding invalid sheet snapshot " + snapshot + ": " + e.getMessage());
+                Files.deleteIfExists(snapshot);
+                return null;
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not open sheet snapshot for " + version.path() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Guarda la hoja como instantánea de esa versión del archivo y la devuelve abierta desde el archivo
+     * proyectado. Si no se puede guardar devuelve la hoja original
+     */
+    public ExcelOffHeapSheet write(ExcelFileVersion version, ExcelOffHeapSheet sheet) {
+        if (!enabled) {
+            return sheet;
+        }
+        Path tempFile = null;
+        try {
+            String hash = contentHash(version);
+            if (hash == null) {
+                return sheet;
+            }
+            Path snapshot = snapshotPath(hash, sheet.getSheetName());
+            tempFile = Files.createTempFile(directory, "." + snapshot.getFileName() + ".", ".tmp");
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                sheet.writeSnapshot(channel);
+                channel.force(true);
+            }
+            try {
+                Files.move(tempFile, snapshot, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, snapshot, StandardCopyOption.REPLACE_EXISTING);
+            }
+            written.incrementAndGet();
+            prune(snapshot);
+
+            ExcelOffHeapSheet mapped = open(version, sheet.getSheetName());
+            return mapped != null ? mapped : sheet;
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not write sheet snapshot for " + version.path() + ": " + e.getMessage());
+            return sheet;
+        } finally {
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // Un temporal huérfano no afecta a las lecturas
+                }
+            }
+        }
+    }
+
+    /**
+     * Instantáneas abiertas y escritas, hashes calculados y archivos eliminados por superar el límite
+     */
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("enabled", enabled);
+        statistics.put("directory", String.valueOf(directory));
+        statistics.put("opened", opened.get());
+        statistics.put("written", written.get());
+        statistics.put("contentHashesComputed", hashed.get());
+        statistics.put("pruned", pruned.get());
+        statistics.put("maxBytes", maxBytes);
+        return statistics;
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private Path snapshotPath(String hash, String sheetName) {
+        return directory.resolve(hash + "-" + HexFormat.of().formatHex(sheetName.getBytes(StandardCharsets.UTF_8)) + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * SHA-256 del contenido del archivo. Se memoriza por versión y se anota en el índice del directorio; si
+     * el archivo cambia mientras se calcula devuelve null
+     */
+    private String contentHash(ExcelFileVersion version) throws IOException {
+        synchronized (contentHashes) {
+            String known = contentHashes.get(version);
+            if (known != null) {
+                return known;
+            }
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_BYTES);
+        try (FileChannel channel = FileChannel.open(Path.of(version.path()), StandardOpenOption.READ)) {
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+        }
+        if (!ExcelFileVersion.of(version.path()).equals(version)) {
+            return null;
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        hashed.incrementAndGet();
+
+        synchronized (contentHashes) {
+            contentHashes.put(version, hash);
+            String line = version.path().replace('\t', ' ') + "\t" + version.size() + "\t" + version.lastModified() + "\t" + hash + "\n";
+            Files.writeString(directory.resolve(HASH_INDEX), line, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+        return hash;
+    }
+
+    /**
+     * Carga el índice de hashes; si ha crecido mucho se reescribe solo con las entradas vigentes
+     */
+    private void loadHashIndex() throws IOException {
+        Path index = directory.resolve(HASH_INDEX);
+        if (!Files.exists(index)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(index, StandardCharsets.UTF_8);
+        synchronized (contentHashes) {
+            for (String line : lines) {
+                String[] fields = line.split("\t");
+                if (fields.length == 4) {
+                    try {
+                        contentHashes.put(new ExcelFileVersion(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2])), fields[3]);
+                    } catch (NumberFormatException e) {
+                        // Línea incompleta de una escritura interrumpida
+                    }
+                }
+            }
+            if (lines.size() > 2 * HASH_INDEX_ENTRIES) {
+                StringBuilder compacted = new StringBuilder();
+                for (Map.Entry<ExcelFileVersion, String> entry : contentHashes.entrySet()) {
+                    ExcelFileVersion version = entry.getKey();
+                    compacted.append(version.path()).append('\t').append(version.size()).append('\t')
+                        .append(version.lastModified()).append('\t').append(entry.getValue()).append('\n');
+                }
+                Files.writeString(index, compacted, StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    /**
+     * Elimina las instantáneas usadas hace más tiempo hasta respetar excel.snapshot.max-bytes
+     */
+    private void prune(Path keep) throws IOException {
+        List<File> snapshots;
+        try (Stream<Path> files = Files.list(directory)) {
+            snapshots = new ArrayList<>(files.filter(path -> path.toString().endsWith(SNAPSHOT_SUFFIX))
+                .map(Path::toFile)
+                .toList());
+        }
+        long total = snapshots.stream().mapToLong(File::length).sum();
+        snapshots.sort(Comparator.comparingLong(File::lastModified));
+        for (File snapshot : snapshots) {
+            if (total <= maxBytes) {
+                break;
+            }
+            if (snapshot.toPath().equals(keep)) {
+                continue;
+            }
+            total -= snapshot.length();
+            if (snapshot.delete()) {
+                pruned.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Estimación aproximada del tamaño en memoria (bytes) de los resultados que se guardan en caché.
+ * Las colecciones y arreglos grandes se estiman a partir de una muestra de sus primeros elementos
+ */
+public final class ExcelSizeEstimator {
+
+    private static final int OBJECT_HEADER = 16;
+    private static final int REFERENCE = 8;
+    private static final int SAMPLED_ELEMENTS = 32;
+    private static final int MAX_DEPTH = 8;
+
+    private ExcelSizeEstimator() {
+    }
+
+    public static long estimate(Object value) {
+        return estimate(value, 0);
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private static long estimate(Object value, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (depth > MAX_DEPTH) {
+            return OBJECT_HEADER;
+        }
+        return switch (value) {
+            case String s -> OBJECT_HEADER + 24 + s.length();
+            case Number n -> OBJECT_HEADER + 8;
+            case Boolean b -> OBJECT_HEADER;
+            case Character c -> OBJECT_HEADER;
+            case Enum<?> e -> 0;
+            case Date d -> OBJECT_HEADER + 8;
+            case double[] array -> OBJECT_HEADER + 8L * array.length;
+            case long[] array -> OBJECT_HEADER + 8L * array.length;
+            case int[] array -> OBJECT_HEADER + 4L * array.length;
+            case byte[] array -> OBJECT_HEADER + array.length;
+            case Object[] array -> OBJECT_HEADER + (long) REFERENCE * array.length
+                + sampled(Arrays.asList(array).iterator(), array.length, depth);
+            case Collection<?> collection -> OBJECT_HEADER * 2 + (long) REFERENCE * collection.size()
+                + sampled(collection.iterator(), collection.size(), depth);
+            case Map<?, ?> map -> OBJECT_HEADER * 2 + 32L * map.size()
+                + sampled(map.keySet().iterator(), map.size(), depth)
+                + sampled(map.values().iterator(), map.size(), depth);
+            case Record record -> recordSize(record, depth);
+            default -> value.getClass().isArray()
+                ? OBJECT_HEADER + 8L * Array.getLength(value)
+                : OBJECT_HEADER + 4L * REFERENCE;
+        };
+    }
+
+    /**
+     * Mide los primeros elementos y extrapola al total
+     */
+    private static long sampled(Iterator<?> iterator, int size, int depth) {
+        long sampledBytes = 0;
+        int sampled = 0;
+        while (sampled < SAMPLED_ELEMENTS && iterator.hasNext()) {
+            sampledBytes += estimate(iterator.next(), depth + 1);
+            sampled++;
+        }
+        return sampled == 0 ? 0 : sampledBytes * size / sampled;
+    }
+
+    private static long recordSize(Record record, int depth) {
+        long size = OBJECT_HEADER;
+        for (RecordComponent component : record.getClass().getRecordComponents()) {
+            size += REFERENCE;
+            if (!component.getType().isPrimitive()) {
+                try {
+                    size += estimate(component.getAccessor().invoke(record), depth + 1);
+                } catch (ReflectiveOperationException e) {
+                    size += OBJECT_HEADER;
+                }
+            }
+        }
+        return size;
+    }
+}
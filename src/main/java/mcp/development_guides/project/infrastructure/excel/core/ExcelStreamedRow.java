@@ -0,0 +1,331 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+
+import java.util.Arrays;
+
+/**
+ * Fila reutilizable producida por la lectura en streaming. Los valores se guardan en arreglos
+ * primitivos por columna y la misma instancia se recicla para cada fila, por lo que no debe
+ * conservarse fuera del manejador que la recibe
+ */
+public final class ExcelStreamedRow {
+
+    /**
+     * Tipo del valor de una celda leída en streaming (las fórmulas se reportan por su resultado cacheado)
+     */
+    public enum CellKind {
+        BLANK,
+        NUMERIC,
+        DATE,
+        STRING,
+        BOOLEAN,
+        ERROR
+    }
+
+    private static final CellKind[] KINDS = CellKind.values();
+
+    private static final long FINGERPRINT_SEED = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private int rowIndex;
+    private int columnCount;
+    private int lastCellNum;
+    private byte[] kinds = new byte[16];
+    private double[] numbers = new double[16];
+    private String[] texts = new String[16];
+    private boolean[] formulas = new boolean[16];
+    private int[] styles = new int[16];
+
+    /**
+     * Índice (base 0) de la fila en la hoja
+     */
+    public int getRowIndex() {
+        return rowIndex;
+    }
+
+    /**
+     * Número de columnas ocupadas (índice de la última celda con valor + 1)
+     */
+    public int getColumnCount() {
+        return columnCount;
+    }
+
+    /**
+     * Número de celdas de la fila como Row.getLastCellNum: índice de la última celda presente, con o sin
+     * valor, + 1 (0 si la fila no tiene celdas)
+     */
+    public int getLastCellNum() {
+        return lastCellNum;
+    }
+
+    /**
+     * Indica si la fila no contiene ninguna celda con valor
+     */
+    public boolean isEmpty() {
+        for (int i = 0; i < columnCount; i++) {
+            if (kinds[i] != CellKind.BLANK.ordinal()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public CellKind getKind(int column) {
+        return column < columnCount ? KINDS[kinds[column]] : CellKind.BLANK;
+    }
+
+    public boolean isBlank(int column) {
+        return getKind(column) == CellKind.BLANK;
+    }
+
+    /**
+     * Indica si la celda contiene un número (las fechas también son números en Excel)
+     */
+    public boolean isNumeric(int column) {
+        CellKind kind = getKind(column);
+        return kind == CellKind.NUMERIC || kind == CellKind.DATE;
+    }
+
+    /**
+     * Indica si la celda contiene una fórmula (su valor es el resultado cacheado)
+     */
+    public boolean isFormula(int column) {
+        return column < columnCount && formulas[column];
+    }
+
+    /**
+     * Valor numérico de la celda (también para fechas y booleanos: 1/0); NaN si no es numérica
+     */
+    public double getNumber(int column) {
+        CellKind kind = getKind(column);
+        return kind == CellKind.NUMERIC || kind == CellKind.DATE || kind == CellKind.BOOLEAN
+            ? numbers[column]
+            : Double.NaN;
+    }
+
+    /**
+     * Índice del estilo de una celda numérica o de fecha (0 = estilo por defecto), para aplicar su formato
+     */
+    public int getStyleIndex(int column) {
+        return isNumeric(column) ? styles[column] : 0;
+    }
+
+    /**
+     * Texto de la celda para celdas de texto o error; null en otro caso
+     */
+    public String getText(int column) {
+        CellKind kind = getKind(column);
+        return kind == CellKind.STRING || kind == CellKind.ERROR ? texts[column] : null;
+    }
+
+    /**
+     * Convierte el valor a un objeto tipado compacto con las mismas reglas que ExcelDataConverter
+     */
+    public Object getValueAsObject(int column) {
+        switch (getKind(column)) {
+            case STRING:
+                return texts[column];
+            case NUMERIC:
+                double value = numbers[column];
+                if (value == Math.floor(value) && !Double.isInfinite(value)) {
+                    return (long) value;
+                }
+                return value;
+            case DATE:
+                return DateUtil.getLocalDateTime(numbers[column]).toString();
+            case BOOLEAN:
+                return numbers[column] != 0;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Valor tipado para ExcelStreamingWriter: números como Double, fechas como LocalDateTime y errores como FormulaError
+     */
+    public Object getWritableValue(int column) {
+        return switch (getKind(column)) {
+            case NUMERIC -> numbers[column];
+            case DATE -> DateUtil.getLocalDateTime(numbers[column]);
+            case BOOLEAN -> numbers[column] != 0;
+            case STRING -> texts[column];
+            case ERROR -> FormulaError.forString(texts[column]);
+            case BLANK -> null;
+        };
+    }
+
+    /**
+     * Nombre del tipo de datos de la celda con las mismas categorías que ExcelDataConverter.detectDataType
+     */
+    public String getTypeName(int column) {
+        switch (getKind(column)) {
+            case STRING:
+                return "TEXT";
+            case NUMERIC:
+                double value = numbers[column];
+                return value == Math.floor(value) ? "INTEGER" : "DECIMAL";
+            case DATE:
+                return "DATE";
+            case BOOLEAN:
+                return "BOOLEAN";
+            case ERROR:
+                return "ERROR";
+            default:
+                return "EMPTY";
+        }
+    }
+
+    /**
+     * Convierte el valor a String con las mismas reglas que ExcelDataConverter
+     */
+    public String getValueAsString(int column) {
+        StringBuilder builder = new StringBuilder();
+        appendValue(column, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Añade el valor textual de la celda a un StringBuilder sin crear objetos intermedios
+     */
+    public void appendValue(int column, StringBuilder builder) {
+        switch (getKind(column)) {
+            case STRING, ERROR -> builder.append(texts[column]);
+            case NUMERIC -> {
+                double value = numbers[column];
+                if (value == Math.floor(value) && !Double.isInfinite(value)) {
+                    builder.append((long) value);
+                } else {
+                    builder.append(value);
+                }
+            }
+            case DATE -> builder.append(DateUtil.getLocalDateTime(numbers[column]));
+            case BOOLEAN -> builder.append(numbers[column] != 0);
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Huella de 64 bits de las columnas indicadas. Distingue tipos (el número 1 y el texto "1" no
+     * coinciden) y el orden de las columnas; el texto se compara exactamente
+     */
+    public long fingerprint(int[] columns) {
+        long hash = FINGERPRINT_SEED;
+        for (int column : columns) {
+            hash = fingerprintCell(hash, column);
+        }
+        return hash;
+    }
+
+    /**
+     * Huella de 64 bits de toda la fila; las celdas vacías del final no cuentan
+     */
+    public long fingerprint() {
+        int lastColumn = columnCount - 1;
+        while (lastColumn >= 0 && kinds[lastColumn] == CellKind.BLANK.ordinal()) {
+            lastColumn--;
+        }
+        long hash = FINGERPRINT_SEED;
+        for (int column = 0; column <= lastColumn; column++) {
+            hash = fingerprintCell(hash, column);
+        }
+        return hash;
+    }
+
+    private long fingerprintCell(long hash, int column) {
+        CellKind kind = getKind(column);
+        hash = mix64(hash ^ (kind.ordinal() + 1L));
+        switch (kind) {
+            case NUMERIC, DATE, BOOLEAN -> {
+                // 0.0 y -0.0 se consideran el mismo valor
+                double value = numbers[column] == 0 ? 0 : numbers[column];
+                hash = mix64(hash ^ Double.doubleToLongBits(value));
+            }
+            case STRING, ERROR -> {
+                String text = texts[column];
+                for (int i = 0; i < text.length(); i++) {
+                    hash = (hash ^ text.charAt(i)) * FNV_PRIME;
+                }
+                hash = mix64(hash ^ text.length());
+            }
+            default -> {
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Finalizador de MurmurHash3 para repartir los bits de una huella
+     */
+    public static long mix64(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    // MÉTODOS DE LLENADO (usados por ExcelStreamingWorkbook)
+
+    void reset(int rowIndex) {
+        Arrays.fill(kinds, 0, columnCount, (byte) CellKind.BLANK.ordinal());
+        Arrays.fill(texts, 0, columnCount, null);
+        Arrays.fill(formulas, 0, columnCount, false);
+        this.rowIndex = rowIndex;
+        this.columnCount = 0;
+        this.lastCellNum = 0;
+    }
+
+    void markCell(int column) {
+        lastCellNum = Math.max(lastCellNum, column + 1);
+    }
+
+    void setNumber(int column, double value, boolean date, int styleIndex) {
+        ensureCapacity(column);
+        kinds[column] = (byte) (date ? CellKind.DATE : CellKind.NUMERIC).ordinal();
+        numbers[column] = value;
+        styles[column] = styleIndex;
+    }
+
+    void setText(int column, String value) {
+        ensureCapacity(column);
+        kinds[column] = (byte) CellKind.STRING.ordinal();
+        texts[column] = value;
+    }
+
+    void setBoolean(int column, boolean value) {
+        ensureCapacity(column);
+        kinds[column] = (byte) CellKind.BOOLEAN.ordinal();
+        numbers[column] = value ? 1 : 0;
+    }
+
+    void setError(int column, String value) {
+        ensureCapacity(column);
+        kinds[column] = (byte) CellKind.ERROR.ordinal();
+        texts[column] = value;
+    }
+
+    void setFormula(int column) {
+        ensureCapacity(column);
+        formulas[column] = true;
+    }
+
+    private void ensureCapacity(int column) {
+        if (column >= kinds.length) {
+            int newLength = Math.max(kinds.length * 2, column + 1);
+            int oldLength = kinds.length;
+            kinds = Arrays.copyOf(kinds, newLength);
+            Arrays.fill(kinds, oldLength, newLength, (byte) CellKind.BLANK.ordinal());
+            numbers = Arrays.copyOf(numbers, newLength);
+            texts = Arrays.copyOf(texts, newLength);
+            formulas = Arrays.copyOf(formulas, newLength);
+            styles = Arrays.copyOf(styles, newLength);
+        }
+        if (column >= columnCount) {
+            columnCount = column + 1;
+        }
+    }
+}
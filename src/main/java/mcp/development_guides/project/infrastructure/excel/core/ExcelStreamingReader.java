@@ -0,0 +1,45 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Lector en streaming de archivos Excel - recorre las hojas fila a fila sin cargar el modelo completo
+ */
+@Component
+public class ExcelStreamingReader {
+
+    /**
+     * Interface funcional para operaciones sobre un workbook abierto en streaming
+     */
+    @FunctionalInterface
+    public interface StreamingOperation<T> {
+        T execute(ExcelStreamingWorkbook workbook, String filePath) throws Exception;
+    }
+
+    /**
+     * Ejecuta una operación con un workbook en streaming y maneja automáticamente el cierre de recursos
+     */
+    public <T> T executeWithStream(String filePath, String operation, StreamingOperation<T> streamingOperation) {
+        try (ExcelStreamingWorkbook workbook = ExcelStreamingWorkbook.open(filePath)) {
+            System.out.println("🌊 " + operation + " from: " + filePath);
+            T result = streamingOperation.execute(workbook, filePath);
+            System.out.println("✅ Streaming operation completed successfully");
+            return result;
+        } catch (Exception e) {
+            System.err.println("❌ Error during streaming operation: " + operation);
+            System.err.println("   File: " + filePath);
+            System.err.println("   Error: " + e.getMessage());
+            throw new RuntimeException("Failed to execute Excel streaming operation: " + operation, e);
+        }
+    }
+
+    /**
+     * Recorre las filas de una hoja en un único pase
+     */
+    public void streamSheet(String filePath, String sheetName, ExcelStreamingWorkbook.RowHandler handler) {
+        executeWithStream(filePath, "Streaming sheet '" + sheetName + "'", (workbook, path) -> {
+            workbook.streamSheet(sheetName, handler);
+            return null;
+        });
+    }
+}
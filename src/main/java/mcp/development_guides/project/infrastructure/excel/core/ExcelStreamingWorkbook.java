@@ -0,0 +1,496 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Workbook abierto para lectura en streaming. En archivos .xlsx recorre el XML de cada hoja con SAX
+ * sin construir el modelo de celdas; otros formatos se recorren sobre el modelo de POI en solo lectura
+ */
+public final class ExcelStreamingWorkbook implements AutoCloseable {
+
+    /**
+     * Recibe las filas de una hoja en orden; devolver false detiene la lectura
+     */
+    @FunctionalInterface
+    public interface RowHandler {
+        boolean handleRow(ExcelStreamedRow row) throws Exception;
+    }
+
+    /**
+     * Recibe la información de estructura de la hoja que aparece en el XML: la dimensión declarada
+     * (antes de las filas) y las celdas combinadas (después de las filas, solo si se llega al final)
+     */
+    public interface SheetLayoutHandler {
+        default void onDimension(String reference) {
+        }
+
+        default void onMergedRegion(String reference) {
+        }
+    }
+
+    private static final SheetLayoutHandler NO_LAYOUT = new SheetLayoutHandler() {
+    };
+
+    // Bytes de XML por fila supuestos al estimar el tamaño de hojas .xls
+    private static final long ESTIMATED_ROW_BYTES = 256;
+
+    private final OPCPackage opcPackage;
+    private final Workbook workbook;
+    private final XSSFReader reader;
+    private final Map<String, PackagePart> sheetParts = new LinkedHashMap<>();
+    private volatile ReadOnlySharedStringsTable sharedStrings;
+    private volatile String[] sharedStringCache;
+    private volatile StylesTable styles;
+    private volatile byte[] dateStyleCache;
+    private volatile Boolean date1904;
+
+    private ExcelStreamingWorkbook(OPCPackage opcPackage, Workbook workbook) throws Exception {
+        this.opcPackage = opcPackage;
+        this.workbook = workbook;
+        this.reader = opcPackage != null ? new XSSFReader(opcPackage) : null;
+
+        if (reader != null) {
+            XSSFReader.SheetIterator iterator = (XSSFReader.SheetIterator) reader.getSheetsData();
+            while (iterator.hasNext()) {
+                // Solo interesa la parte de la hoja: su flujo se cierra sin leerlo
+                InputStream sheetData = iterator.next();
+                try {
+                    sheetParts.put(iterator.getSheetName(), iterator.getSheetPart());
+                } finally {
+                    sheetData.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Abre un archivo Excel para lectura en streaming
+     */
+    public static ExcelStreamingWorkbook open(String filePath) throws Exception {
+        File file = new File(filePath);
+        if (filePath.toLowerCase().endsWith(".xls")) {
+            return new ExcelStreamingWorkbook(null, WorkbookFactory.create(file, null, true));
+        }
+        return new ExcelStreamingWorkbook(OPCPackage.open(file, PackageAccess.READ), null);
+    }
+
+    /**
+     * Obtiene los nombres de las hojas en orden
+     */
+    public List<String> getSheetNames() {
+        if (workbook != null) {
+            List<String> names = new ArrayList<>();
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                names.add(workbook.getSheetName(i));
+            }
+            return names;
+        }
+        return new ArrayList<>(sheetParts.keySet());
+    }
+
+    /**
+     * Tamaño aproximado de los datos de una hoja: bytes del XML descomprimido en .xlsx o una
+     * estimación a partir del número de filas en .xls. Sirve para comparar hojas sin recorrerlas
+     */
+    public long estimateSheetSize(String sheetName) {
+        if (workbook != null) {
+            Sheet sheet = workbook.getSheet(sheetName);
+            if (sheet == null) {
+                throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in workbook");
+            }
+            return (sheet.getLastRowNum() + 1L) * ESTIMATED_ROW_BYTES;
+        }
+        PackagePart sheetPart = sheetParts.get(sheetName);
+        if (sheetPart == null) {
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in workbook");
+        }
+        return Math.max(sheetPart.getSize(), 0);
+    }
+
+    /**
+     * Recorre las filas no vacías de una hoja, en orden, hasta el final o hasta que el manejador devuelva false.
+     * En .xlsx se pueden recorrer hojas distintas desde varios hilos a la vez
+     */
+    public void streamSheet(String sheetName, RowHandler handler) throws Exception {
+        streamSheet(sheetName, handler, NO_LAYOUT);
+    }
+
+    /**
+     * Recorre las filas de una hoja notificando además su dimensión y sus celdas combinadas
+     */
+    public void streamSheet(String sheetName, RowHandler handler, SheetLayoutHandler layoutHandler) throws Exception {
+        if (workbook != null) {
+            streamUserModelSheet(sheetName, handler, layoutHandler);
+            return;
+        }
+
+        PackagePart sheetPart = sheetParts.get(sheetName);
+        if (sheetPart == null) {
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in workbook");
+        }
+
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(new SheetHandler(handler, layoutHandler));
+        try (InputStream sheetData = sheetPart.getInputStream()) {
+            xmlReader.parse(new InputSource(sheetData));
+        } catch (StopReading stop) {
+            // El manejador pidió detener la lectura
+        } catch (SAXException e) {
+            if (e.getException() != null) {
+                throw e.getException();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Formato de número (índice y cadena) de un estilo, tal como lo usa DataFormatter
+     */
+    public ExcelNumberFormat getNumberFormat(int styleIndex) throws Exception {
+        if (workbook != null) {
+            return styleIndex < workbook.getNumCellStyles()
+                ? ExcelNumberFormat.from(workbook.getCellStyleAt(styleIndex))
+                : null;
+        }
+        if (dateStyleCache == null) {
+            loadStyles();
+        }
+        if (styles == null || styleIndex >= styles.getNumCellStyles()) {
+            return null;
+        }
+        XSSFCellStyle style = styles.getStyleAt(styleIndex);
+        return style != null ? new ExcelNumberFormat(style.getDataFormat(), style.getDataFormatString()) : null;
+    }
+
+    /**
+     * Indica si el workbook usa el sistema de fechas de 1904. En .xlsx se lee solo la cabecera de workbook.xml
+     */
+    public boolean isDate1904() throws Exception {
+        Boolean known = date1904;
+        if (known == null) {
+            known = workbook != null ? workbook instanceof Date1904Support support && support.isDate1904() : readDate1904();
+            date1904 = known;
+        }
+        return known;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (workbook != null) {
+            workbook.close();
+        }
+        if (opcPackage != null) {
+            opcPackage.revert();
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Recorre una hoja de un formato sin soporte SAX convirtiendo cada fila del modelo de POI
+     */
+    private void streamUserModelSheet(String sheetName, RowHandler handler, SheetLayoutHandler layoutHandler) throws Exception {
+        Sheet sheet = workbook.getSheet(sheetName);
+        if (sheet == null) {
+            throw new IllegalArgumentException("Sheet '" + sheetName + "' not found in workbook");
+        }
+        // El modelo ya está en memoria: las celdas combinadas se notifican antes de las filas
+        for (CellRangeAddress region : sheet.getMergedRegions()) {
+            layoutHandler.onMergedRegion(region.formatAsString());
+        }
+
+        ExcelStreamedRow streamedRow = new ExcelStreamedRow();
+        for (Row row : sheet) {
+            streamedRow.reset(row.getRowNum());
+            for (Cell cell : row) {
+                int column = cell.getColumnIndex();
+                streamedRow.markCell(column);
+                CellType type = cell.getCellType();
+                if (type == CellType.FORMULA) {
+                    streamedRow.setFormula(column);
+                    type = cell.getCachedFormulaResultType();
+                }
+                switch (type) {
+                    case STRING -> streamedRow.setText(column, cell.getStringCellValue());
+                    case NUMERIC -> streamedRow.setNumber(column, cell.getNumericCellValue(), DateUtil.isCellDateFormatted(cell),
+                        cell.getCellStyle().getIndex() & 0xFFFF);
+                    case BOOLEAN -> streamedRow.setBoolean(column, cell.getBooleanCellValue());
+                    case ERROR -> streamedRow.setError(column, FormulaError.forInt(cell.getErrorCellValue()).getString());
+                    default -> {
+                    }
+                }
+            }
+            if (!handler.handleRow(streamedRow)) {
+                return;
+            }
+        }
+    }
+
+    private boolean readDate1904() throws Exception {
+        boolean[] result = new boolean[1];
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(new DefaultHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+                if ("workbookPr".equals(localName)) {
+                    String value = attributes.getValue("date1904");
+                    result[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                    throw new StopReading();
+                }
+                // workbookPr va antes de la lista de hojas: si no ha aparecido, no existe
+                if ("sheets".equals(localName)) {
+                    throw new StopReading();
+                }
+            }
+        });
+        try (InputStream workbookData = reader.getWorkbookData()) {
+            xmlReader.parse(new InputSource(workbookData));
+        } catch (StopReading stop) {
+            // Ya se ha leído lo necesario
+        }
+        return result[0];
+    }
+
+    /**
+     * Obtiene una cadena compartida, cacheando el String para no crear objetos por celda.
+     * Varias hojas pueden recorrerse en paralelo: la tabla se carga una sola vez y las escrituras
+     * concurrentes en la caché solo pueden guardar el mismo String
+     */
+    private String sharedString(int index) throws Exception {
+        String[] cache = sharedStringCache;
+        if (cache == null) {
+            cache = loadSharedStrings();
+        }
+        if (index >= cache.length) {
+            return sharedStrings.getItemAt(index).getString();
+        }
+        String value = cache[index];
+        if (value == null) {
+            value = sharedStrings.getItemAt(index).getString();
+            cache[index] = value;
+        }
+        return value;
+    }
+
+    private synchronized String[] loadSharedStrings() throws Exception {
+        if (sharedStringCache == null) {
+            sharedStrings = new ReadOnlySharedStringsTable(opcPackage, false);
+            sharedStringCache = new String[sharedStrings.getUniqueCount()];
+        }
+        return sharedStringCache;
+    }
+
+    /**
+     * Indica si un índice de estilo corresponde a un formato de fecha (cacheado por estilo)
+     */
+    private boolean isDateStyle(int styleIndex) throws Exception {
+        byte[] cache = dateStyleCache;
+        if (cache == null) {
+            cache = loadStyles();
+        }
+        if (styleIndex >= cache.length) {
+            return computeDateStyle(styleIndex);
+        }
+        byte cached = cache[styleIndex];
+        if (cached == 0) {
+            cached = (byte) (computeDateStyle(styleIndex) ? 1 : 2);
+            cache[styleIndex] = cached;
+        }
+        return cached == 1;
+    }
+
+    private synchronized byte[] loadStyles() throws Exception {
+        if (dateStyleCache == null) {
+            styles = reader.getStylesTable();
+            dateStyleCache = new byte[styles != null ? styles.getNumCellStyles() : 0];
+        }
+        return dateStyleCache;
+    }
+
+    private boolean computeDateStyle(int styleIndex) {
+        if (styles == null || styleIndex >= styles.getNumCellStyles()) {
+            return false;
+        }
+        XSSFCellStyle style = styles.getStyleAt(styleIndex);
+        return style != null && DateUtil.isADateFormat(style.getDataFormat(), style.getDataFormatString());
+    }
+
+    /**
+     * Excepción usada para abortar el parseo SAX cuando el manejador ya no necesita más filas
+     */
+    private static final class StopReading extends SAXException {
+
+        private static final long serialVersionUID = 1L;
+
+        StopReading() {
+            super("Streaming stopped by handler");
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+
+    /**
+     * Manejador SAX del XML de una hoja (sheetData/row/c/v)
+     */
+    private final class SheetHandler extends DefaultHandler {
+
+        private final RowHandler handler;
+        private final SheetLayoutHandler layoutHandler;
+        private final ExcelStreamedRow row = new ExcelStreamedRow();
+        private final StringBuilder text = new StringBuilder();
+        private int nextRowIndex = 0;
+        private int nextColumn = 0;
+        private int column;
+        private String cellType;
+        private int styleIndex;
+        private boolean collectingText;
+        private boolean hasValue;
+        private boolean inRow;
+
+        SheetHandler(RowHandler handler, SheetLayoutHandler layoutHandler) {
+            this.handler = handler;
+            this.layoutHandler = layoutHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            switch (localName) {
+                case "row" -> {
+                    String reference = attributes.getValue("r");
+                    int rowIndex = reference != null ? Integer.parseInt(reference) - 1 : nextRowIndex;
+                    row.reset(rowIndex);
+                    nextRowIndex = rowIndex + 1;
+                    nextColumn = 0;
+                    inRow = true;
+                }
+                case "c" -> {
+                    String reference = attributes.getValue("r");
+                    column = reference != null ? parseColumn(reference) : nextColumn;
+                    nextColumn = column + 1;
+                    row.markCell(column);
+                    cellType = attributes.getValue("t");
+                    String style = attributes.getValue("s");
+                    styleIndex = style != null ? Integer.parseInt(style) : 0;
+                    hasValue = false;
+                    text.setLength(0);
+                }
+                case "v", "t" -> {
+                    collectingText = true;
+                    if ("v".equals(localName)) {
+                        text.setLength(0);
+                    }
+                }
+                case "f" -> row.setFormula(column);
+                case "dimension" -> layoutHandler.onDimension(attributes.getValue("ref"));
+                case "mergeCell" -> layoutHandler.onMergedRegion(attributes.getValue("ref"));
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            switch (localName) {
+                case "v", "t" -> {
+                    collectingText = false;
+                    hasValue = true;
+                }
+                case "c" -> {
+                    if (hasValue) {
+                        storeCell();
+                    }
+                }
+                case "row" -> {
+                    inRow = false;
+                    try {
+                        if (!handler.handleRow(row)) {
+                            throw new StopReading();
+                        }
+                    } catch (SAXException e) {
+                        throw e;
+                    } catch (Exception e) {
+                        throw new SAXException(e);
+                    }
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collectingText && inRow) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void storeCell() throws SAXException {
+            try {
+                if (cellType == null || "n".equals(cellType)) {
+                    if (text.length() > 0) {
+                        row.setNumber(column, Double.parseDouble(text.toString()), isDateStyle(styleIndex), styleIndex);
+                    }
+                } else if ("s".equals(cellType)) {
+                    row.setText(column, sharedString(parseIndex(text)));
+                } else if ("inlineStr".equals(cellType) || "str".equals(cellType)) {
+                    row.setText(column, text.toString());
+                } else if ("b".equals(cellType)) {
+                    row.setBoolean(column, text.length() > 0 && text.charAt(0) == '1');
+                } else if ("e".equals(cellType)) {
+                    row.setError(column, text.toString());
+                } else if ("d".equals(cellType)) {
+                    row.setText(column, text.toString());
+                }
+            } catch (SAXException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new SAXException(e);
+            }
+        }
+
+        private int parseColumn(String reference) {
+            int result = 0;
+            for (int i = 0; i < reference.length(); i++) {
+                char c = reference.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                result = result * 26 + (c - 'A' + 1);
+            }
+            return result - 1;
+        }
+
+        private int parseIndex(CharSequence value) {
+            int result = 0;
+            for (int i = 0; i < value.length(); i++) {
+                result = result * 10 + (value.charAt(i) - '0');
+            }
+            return result;
+        }
+    }
+}
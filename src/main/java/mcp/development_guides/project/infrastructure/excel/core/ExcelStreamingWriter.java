@@ -0,0 +1,520 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import mcp.development_guides.project.domain.model.ExcelColumnData;
+import mcp.development_guides.project.domain.model.ExcelRange;
+import org.apache.poi.hssf.usermodel.HSSFCell;
+import org.apache.poi.ss.formula.FormulaParser;
+import org.apache.poi.ss.formula.FormulaType;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.ss.util.CellRangeAddress;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFCell;
+import org.apache.poi.xssf.usermodel.XSSFEvaluationWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCell;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTCellFormula;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.STCellFormulaType;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Escritor de bloques de filas. Las hojas nuevas de archivos .xlsx se escriben en streaming (SXSSF)
+ * con una ventana fija de filas en memoria; las hojas existentes se actualizan con el modelo completo
+ * conservando el estilo de las celdas ya presentes
+ */
+@Component
+public class ExcelStreamingWriter {
+
+    // Filas que SXSSF mantiene en memoria antes de volcarlas al archivo temporal
+    private static final int ROW_ACCESS_WINDOW = 500;
+
+    // XSSFSheet.onReadCell (privado de paquete) registra el grupo de una fórmula compartida igual que al leer
+    // el archivo; sin él, POI no encuentra la celda maestra del grupo hasta volver a cargar el workbook
+    private static final MethodHandle REGISTER_SHARED_FORMULA = sharedFormulaRegistration();
+
+    @Autowired
+    private ExcelAtomicSaver atomicSaver;
+
+    @Autowired
+    private ExcelWriteCoordinator writeCoordinator;
+
+    @Autowired
+    private ExcelFormulaRecalculator formulaRecalculator;
+
+    /**
+     * Escribe las filas a partir de (startRow, startColumn) y devuelve el número de filas escritas.
+     * Valores admitidos: null (celda vacía), String, Number, Boolean, Date, LocalDate, LocalDateTime y FormulaError
+     */
+    public long writeRows(String filePath, String sheetName, int startRow, int startColumn, Iterator<Object[]> rows) {
+        try (RowSink sink = openSheet(filePath, sheetName, startRow, startColumn, false)) {
+            while (rows.hasNext()) {
+                sink.write(rows.next());
+            }
+            return sink.commit();
+        }
+    }
+
+    /**
+     * Escribe columnas tipadas a partir de (startRow, startColumn), con una fila de cabecera previa si alguna
+     * columna la trae, y devuelve el número de filas escritas (cabecera incluida)
+     */
+    public long writeColumns(String filePath, String sheetName, int startRow, int startColumn, List<ExcelColumnData> columns) {
+        try (RowSink sink = openSheet(filePath, sheetName, startRow, startColumn, false)) {
+            if (columns.stream().anyMatch(column -> column.header() != null)) {
+                sink.write(columns.stream().map(ExcelColumnData::header).toArray());
+            }
+            sink.writeColumns(columns);
+            return sink.commit();
+        }
+    }
+
+    /**
+     * Abre una hoja para escribir filas una a una; los cambios solo se guardan al llamar a commit().
+     * Si el archivo no existe se crea un .xlsx nuevo; con replaceSheet la hoja existente se sustituye
+     * por una vacía en la misma posición. El archivo queda reservado en ExcelWriteCoordinator hasta cerrar
+     * el destino, de modo que las escrituras encoladas no se intercalan entre la carga y el guardado
+     */
+    public RowSink openSheet(String filePath, String sheetName, int startRow, int startColumn, boolean replaceSheet) {
+        File file = new File(filePath);
+        ExcelWriteCoordinator.FileLock fileLock = writeCoordinator.lockFile(filePath);
+        Workbook workbook = null;
+        try {
+            if (file.exists()) {
+                try (InputStream inputStream = new FileInputStream(file)) {
+                    workbook = WorkbookFactory.create(inputStream);
+                }
+            } else {
+                workbook = new XSSFWorkbook();
+            }
+
+            int sheetPosition = workbook.getSheetIndex(sheetName);
+            if (sheetPosition >= 0 && replaceSheet) {
+                workbook.removeSheetAt(sheetPosition);
+            }
+
+            if (workbook.getSheet(sheetName) == null && workbook instanceof XSSFWorkbook xssfWorkbook) {
+                System.out.println("🌊 Streaming rows into new sheet '" + sheetName + "' of: " + filePath);
+                SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(xssfWorkbook, ROW_ACCESS_WINDOW);
+                Sheet sheet = streamingWorkbook.createSheet(sheetName);
+                if (sheetPosition >= 0) {
+                    streamingWorkbook.setSheetOrder(sheetName, sheetPosition);
+                }
+                return new RowSink(atomicSaver, formulaRecalculator, fileLock, file, streamingWorkbook, sheet, startRow, startColumn);
+            }
+
+            System.out.println("✏️ Writing rows into sheet '" + sheetName + "' of: " + filePath);
+            Sheet sheet = workbook.getSheet(sheetName);
+            if (sheet == null) {
+                sheet = workbook.createSheet(sheetName);
+                if (sheetPosition >= 0) {
+                    workbook.setSheetOrder(sheetName, sheetPosition);
+                }
+                // Las fórmulas que nombraban la hoja (o la sustituida) pasan a leer la nueva
+                formulaRecalculator.markStructureChanged(workbook);
+            }
+            return new RowSink(atomicSaver, formulaRecalculator, fileLock, file, workbook, sheet, startRow, startColumn);
+
+        } catch (Exception e) {
+            System.err.println("❌ Error opening sheet '" + sheetName + "' for writing");
+            System.err.println("   File: " + filePath);
+            System.err.println("   Error: " + e.getMessage());
+            if (workbook != null) {
+                try {
+                    workbook.close();
+                } catch (Exception ignored) {
+                    // El error original es el relevante
+                }
+            }
+            fileLock.close();
+            throw new RuntimeException("Failed to open sheet '" + sheetName + "' for writing", e);
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Acceso a XSSFSheet.onReadCell; null si esta versión de POI no lo permite, y entonces los rellenos de
+     * fórmulas se escriben celda a celda
+     */
+    private static MethodHandle sharedFormulaRegistration() {
+        try {
+            Method method = XSSFSheet.class.getDeclaredMethod("onReadCell", XSSFCell.class);
+            method.setAccessible(true);
+            return MethodHandles.lookup().unreflect(method);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            System.err.println("⚠️ Shared formulas are not available, formula fills will be written per cell: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Destino de filas abierto sobre una hoja. Si se cierra sin commit() los cambios se descartan; al
+     * cerrarse libera la reserva del archivo
+     */
+    public static final class RowSink implements AutoCloseable {
+
+        private final ExcelAtomicSaver atomicSaver;
+        private final ExcelFormulaRecalculator formulaRecalculator;
+        private final ExcelWriteCoordinator.FileLock fileLock;
+        private final File file;
+        private final Workbook workbook;
+        private final Sheet sheet;
+        private final int startRow;
+        private final int startColumn;
+        private CellStyle dateStyle;
+        private long written;
+        // Ancho máximo de las filas escritas: con written delimita el bloque que se anota para el recálculo
+        private int writtenColumns;
+        private boolean closed;
+
+        private RowSink(ExcelAtomicSaver atomicSaver, ExcelFormulaRecalculator formulaRecalculator,
+                        ExcelWriteCoordinator.FileLock fileLock, File file, Workbook workbook,
+                        Sheet sheet, int startRow, int startColumn) {
+            this.atomicSaver = atomicSaver;
+            this.formulaRecalculator = formulaRecalculator;
+            this.fileLock = fileLock;
+            this.file = file;
+            this.workbook = workbook;
+            this.sheet = sheet;
+            this.startRow = startRow;
+            this.startColumn = startColumn;
+        }
+
+        /**
+         * Escribe la siguiente fila a continuación de la anterior
+         */
+        public void write(Object[] values) {
+            int rowIndex = startRow + (int) written;
+            Row row = sheet.getRow(rowIndex);
+            if (row == null) {
+                row = sheet.createRow(rowIndex);
+            }
+
+            for (int i = 0; i < values.length; i++) {
+                Object value = values[i];
+                Cell cell = row.getCell(startColumn + i);
+                if (value == null) {
+                    // No se crean celdas solo para dejarlas vacías
+                    if (cell != null) {
+                        cell.setBlank();
+                    }
+                    continue;
+                }
+                if (cell == null) {
+                    cell = row.createCell(startColumn + i);
+                } else {
+                    removeFormula(cell);
+                }
+
+                switch (value) {
+                    case String s -> cell.setCellValue(s);
+                    case Number n -> cell.setCellValue(n.doubleValue());
+                    case Boolean b -> cell.setCellValue(b);
+                    case FormulaError error -> cell.setCellErrorValue(error.getCode());
+                    case Date d -> cell.setCellValue(d);
+                    case LocalDateTime d -> cell.setCellValue(d);
+                    case LocalDate d -> cell.setCellValue(d);
+                    default -> cell.setCellValue(value.toString());
+                }
+
+                // Las fechas necesitan un formato de fecha para no mostrarse como número de serie
+                if ((value instanceof Date || value instanceof LocalDateTime || value instanceof LocalDate)
+                        && !DateUtil.isADateFormat(cell.getCellStyle().getDataFormat(), cell.getCellStyle().getDataFormatString())) {
+                    cell.setCellStyle(dateStyle());
+                }
+            }
+            writtenColumns = Math.max(writtenColumns, values.length);
+            written++;
+        }
+
+        /**
+         * Escribe las columnas a continuación de la última fila, celda a celda desde sus arreglos primitivos:
+         * sin objetos por valor y con un único estilo por columna (su numberFormat, o el de fecha en columnas
+         * DATE cuyas celdas no tengan ya uno)
+         */
+        public void writeColumns(List<ExcelColumnData> columns) {
+            int rowCount = columns.isEmpty() ? 0 : columns.get(0).rowCount();
+            boolean date1904 = isDate1904();
+            CellStyle[] styles = new CellStyle[columns.size()];
+            byte[][] nullBitmaps = new byte[columns.size()][];
+            for (int i = 0; i < columns.size(); i++) {
+                ExcelColumnData column = columns.get(i);
+                if (column.rowCount() != rowCount) {
+                    throw new IllegalArgumentException("All columns must have the same number of rows: column " + i
+                        + " has " + column.rowCount() + ", expected " + rowCount);
+                }
+                nullBitmaps[i] = column.nullBitmap();
+                if (column.numberFormat() != null && !column.numberFormat().isBlank()) {
+                    styles[i] = workbook.createCellStyle();
+                    styles[i].setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat(column.numberFormat()));
+                }
+            }
+
+            for (int offset = 0; offset < rowCount; offset++) {
+                int rowIndex = startRow + (int) written;
+                Row row = sheet.getRow(rowIndex);
+                if (row == null) {
+                    row = sheet.createRow(rowIndex);
+                }
+                for (int i = 0; i < styles.length; i++) {
+                    ExcelColumnData column = columns.get(i);
+                    int columnIndex = startColumn + i;
+                    byte[] nulls = nullBitmaps[i];
+                    boolean blank = (offset >>> 3) < nulls.length && (nulls[offset >>> 3] & (1 << (offset & 7))) != 0;
+                    if (!blank && "TEXT".equals(column.type())) {
+                        blank = column.indexes()[offset] < 0;
+                    }
+                    Cell cell = row.getCell(columnIndex);
+                    if (blank) {
+                        if (cell != null) {
+                            cell.setBlank();
+                        }
+                        continue;
+                    }
+                    boolean created = cell == null;
+                    if (created) {
+                        cell = row.createCell(columnIndex);
+                    } else {
+                        removeFormula(cell);
+                    }
+
+                    switch (column.type()) {
+                        case "NUMBER" -> cell.setCellValue(column.values()[offset]);
+                        case "BOOLEAN" -> cell.setCellValue(column.values()[offset] != 0);
+                        case "DATE" -> {
+                            cell.setCellValue(DateUtil.getExcelDate(toUtcDateTime(column.values()[offset]), date1904));
+                            // Solo las celdas que ya existían pueden traer su propio formato de fecha
+                            if (styles[i] == null && (created
+                                    || !DateUtil.isADateFormat(cell.getCellStyle().getDataFormat(), cell.getCellStyle().getDataFormatString()))) {
+                                cell.setCellStyle(dateStyle());
+                            }
+                        }
+                        default -> cell.setCellValue(column.dictionary()[column.indexes()[offset]]);
+                    }
+                    if (styles[i] != null) {
+                        cell.setCellStyle(styles[i]);
+                    }
+                }
+                written++;
+            }
+            if (rowCount > 0) {
+                writtenColumns = Math.max(writtenColumns, styles.length);
+            }
+        }
+
+        /**
+         * Rellena rowCount x columnCount celdas a continuación de la última fila con la fórmula, desplazada
+         * en cada celda como al copiarla en Excel; la fórmula se analiza una sola vez. En hojas .xlsx ya
+         * existentes se guarda como fórmula compartida (la celda superior izquierda lleva el texto y el resto
+         * solo el identificador del grupo); en streaming y en .xls cada celda recibe su texto desplazado.
+         * Devuelve la estrategia usada: shared-formula, streamed o per-cell
+         */
+        public String writeFormulas(String formula, int rowCount, int columnCount) {
+            ExcelFormulaTemplate template = ExcelFormulaTemplate.compile(formula, workbook.getSpreadsheetVersion());
+            int firstRow = startRow + (int) written;
+            String strategy;
+            if (sheet instanceof XSSFSheet xssfSheet && REGISTER_SHARED_FORMULA != null) {
+                writeSharedFormula(xssfSheet, template, firstRow, rowCount, columnCount);
+                strategy = "shared-formula";
+            } else {
+                if (workbook instanceof SXSSFWorkbook streamingWorkbook) {
+                    // SXSSF guarda el texto sin analizarlo: se valida una vez antes de escribir
+                    FormulaParser.parse(template.getFormula(), XSSFEvaluationWorkbook.create(streamingWorkbook.getXSSFWorkbook()),
+                        FormulaType.CELL, workbook.getSheetIndex(sheet), firstRow);
+                }
+                StringBuilder buffer = new StringBuilder(template.getFormula().length() + 16);
+                for (int rowOffset = 0; rowOffset < rowCount; rowOffset++) {
+                    Row row = sheet.getRow(firstRow + rowOffset);
+                    if (row == null) {
+                        row = sheet.createRow(firstRow + rowOffset);
+                    }
+                    for (int columnOffset = 0; columnOffset < columnCount; columnOffset++) {
+                        Cell cell = row.getCell(startColumn + columnOffset);
+                        if (cell == null) {
+                            cell = row.createCell(startColumn + columnOffset);
+                        }
+                        cell.setCellFormula(template.render(rowOffset, columnOffset, buffer));
+                    }
+                }
+                strategy = workbook instanceof SXSSFWorkbook ? "streamed" : "per-cell";
+            }
+            written += rowCount;
+            writtenColumns = Math.max(writtenColumns, columnCount);
+            // Sin valores en caché: Excel recalcula al abrir
+            workbook.setForceFormulaRecalculation(true);
+            return strategy;
+        }
+
+        /**
+         * Indica si la hoja se escribe en streaming (hoja nueva de un .xlsx)
+         */
+        public boolean isStreaming() {
+            return workbook instanceof SXSSFWorkbook;
+        }
+
+        /**
+         * Número de filas escritas hasta el momento
+         */
+        public long getRowsWritten() {
+            return written;
+        }
+
+        /**
+         * Recalcula las fórmulas que dependen del bloque escrito, guarda el workbook de forma atómica y devuelve
+         * el número de filas escritas. En streaming (SXSSF) las filas ya volcadas no se pueden evaluar: el archivo
+         * se marca para que Excel recalcule todas las fórmulas al abrirlo, y los lectores ven hasta entonces los
+         * resultados anteriores en caché
+         */
+        public long commit() {
+            try {
+                if (workbook instanceof SXSSFWorkbook) {
+                    workbook.setForceFormulaRecalculation(true);
+                } else if (written > 0 && writtenColumns > 0) {
+                    formulaRecalculator.markChanged(sheet, new ExcelRange(startRow, startColumn,
+                        startRow + (int) written - 1, startColumn + writtenColumns - 1));
+                }
+                formulaRecalculator.recalculate(workbook, file.getPath());
+                atomicSaver.save(workbook, file);
+                formulaRecalculator.saved(workbook, file.getPath());
+                close();
+                System.out.println("💾 " + written + " rows written to: " + file.getPath());
+                return written;
+            } catch (Exception e) {
+                System.err.println("❌ Error saving rows to sheet '" + sheet.getSheetName() + "'");
+                System.err.println("   File: " + file.getPath());
+                System.err.println("   Error: " + e.getMessage());
+                throw new RuntimeException("Failed to write rows to sheet '" + sheet.getSheetName() + "'", e);
+            }
+        }
+
+        /**
+         * Fórmula compartida sobre el bloque: la celda maestra se escribe con setCellFormula (único análisis)
+         * y recibe el rango y el identificador libre; las demás solo el identificador. Las fórmulas previas
+         * del bloque se eliminan antes para que POI reasigne los grupos compartidos que las usaban. Al final el
+         * grupo se registra en la hoja, de modo que el recálculo del commit puede leer las fórmulas del bloque
+         */
+        private void writeSharedFormula(XSSFSheet xssfSheet, ExcelFormulaTemplate template, int firstRow, int rowCount, int columnCount) {
+            String ref = new CellRangeAddress(firstRow, firstRow + rowCount - 1, startColumn, startColumn + columnCount - 1).formatAsString();
+            int sharedIndex = 0;
+            while (xssfSheet.getSharedFormula(sharedIndex) != null) {
+                sharedIndex++;
+            }
+            XSSFCell master = null;
+
+            for (int rowOffset = 0; rowOffset < rowCount; rowOffset++) {
+                Row row = xssfSheet.getRow(firstRow + rowOffset);
+                if (row == null) {
+                    row = xssfSheet.createRow(firstRow + rowOffset);
+                }
+                for (int columnOffset = 0; columnOffset < columnCount; columnOffset++) {
+                    XSSFCell cell = (XSSFCell) row.getCell(startColumn + columnOffset);
+                    if (cell == null) {
+                        cell = (XSSFCell) row.createCell(startColumn + columnOffset);
+                    } else if (cell.getCellType() == CellType.FORMULA) {
+                        cell.removeFormula();
+                    }
+
+                    CTCell ctCell = cell.getCTCell();
+                    CTCellFormula sharedFormula;
+                    if (rowOffset == 0 && columnOffset == 0) {
+                        cell.setCellFormula(template.getFormula());
+                        sharedFormula = ctCell.getF();
+                        sharedFormula.setRef(ref);
+                        master = cell;
+                    } else {
+                        sharedFormula = ctCell.isSetF() ? ctCell.getF() : ctCell.addNewF();
+                    }
+                    sharedFormula.setT(STCellFormulaType.SHARED);
+                    sharedFormula.setSi(sharedIndex);
+                    if (ctCell.isSetV()) {
+                        ctCell.unsetV();
+                    }
+                    if (ctCell.isSetIs()) {
+                        ctCell.unsetIs();
+                    }
+                    if (ctCell.isSetT()) {
+                        ctCell.unsetT();
+                    }
+                }
+            }
+            try {
+                REGISTER_SHARED_FORMULA.invoke(xssfSheet, master);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Could not register shared formula " + ref + ": " + e.getMessage(), e);
+            }
+        }
+
+        /**
+         * Quita la fórmula de una celda que va a recibir un valor: sobre una fórmula setCellValue solo cambiaría
+         * su valor en caché. En .xlsx removeFormula reasigna además los grupos de fórmulas compartidas; en .xls
+         * la celda se vacía, porque removeFormula no sustituye el registro de fórmula que se guarda
+         */
+        private static void removeFormula(Cell cell) {
+            if (cell.getCellType() != CellType.FORMULA) {
+                return;
+            }
+            if (cell instanceof HSSFCell) {
+                cell.setBlank();
+            } else {
+                cell.removeFormula();
+            }
+        }
+
+        /**
+         * Sistema de fechas del workbook; las hojas SXSSF lo toman del XSSFWorkbook que envuelven
+         */
+        private boolean isDate1904() {
+            Workbook model = workbook instanceof SXSSFWorkbook streaming ? streaming.getXSSFWorkbook() : workbook;
+            return model instanceof Date1904Support support && support.isDate1904();
+        }
+
+        /**
+         * Fecha y hora UTC de unos milisegundos epoch, como las devuelve excel_read_range_typed
+         */
+        private static LocalDateTime toUtcDateTime(double epochMillis) {
+            long millis = (long) epochMillis;
+            return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000L), (int) Math.floorMod(millis, 1000L) * 1_000_000,
+                ZoneOffset.UTC);
+        }
+
+        private CellStyle dateStyle() {
+            if (dateStyle == null) {
+                dateStyle = workbook.createCellStyle();
+                dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+            }
+            return dateStyle;
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                if (workbook instanceof SXSSFWorkbook streamingWorkbook) {
+                    streamingWorkbook.dispose();
+                }
+                workbook.close();
+            } catch (Exception e) {
+                System.err.println("⚠️ Could not close workbook: " + e.getMessage());
+            } finally {
+                fileLock.close();
+            }
+        }
+    }
+}
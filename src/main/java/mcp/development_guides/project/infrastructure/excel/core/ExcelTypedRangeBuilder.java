@@ -0,0 +1,245 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import mcp.development_guides.project.domain.model.ExcelTypedColumn;
+import mcp.development_guides.project.domain.model.ExcelTypedRange;
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Acumula un rango por columnas en arreglos primitivos (tipo por celda, número y, solo si hay textos, índice
+ * en un diccionario por columna) y al final decide el tipo de cada columna. Sirve tanto para la lectura en
+ * streaming como para las hojas fuera del heap
+ */
+public final class ExcelTypedRangeBuilder {
+
+    private static final byte BLANK = (byte) ExcelStreamedRow.CellKind.BLANK.ordinal();
+    private static final byte NUMERIC = (byte) ExcelStreamedRow.CellKind.NUMERIC.ordinal();
+    private static final byte DATE = (byte) ExcelStreamedRow.CellKind.DATE.ordinal();
+    private static final byte STRING = (byte) ExcelStreamedRow.CellKind.STRING.ordinal();
+    private static final byte BOOLEAN = (byte) ExcelStreamedRow.CellKind.BOOLEAN.ordinal();
+
+    private static final long DAY_MILLISECONDS = 86_400_000L;
+
+    // Día 0 del calendario Excel de 1900 en días desde 1970-01-01
+    private static final long EPOCH_DAY_1900 = -25_567L;
+
+    // Día 0 del calendario Excel de 1904 (1904-01-01) en días desde 1970-01-01
+    private static final long EPOCH_DAY_1904 = -24_107L;
+
+    private final int firstRow;
+    private final int firstColumn;
+    private final int rowCount;
+    private final boolean date1904;
+    private final ColumnBuffer[] columns;
+
+    /**
+     * Rango de rowCount filas y columnCount columnas a partir de firstRow/firstColumn (índices base 0). Las
+     * fechas se convierten con el sistema del workbook (date1904)
+     */
+    public ExcelTypedRangeBuilder(int firstRow, int firstColumn, int rowCount, int columnCount, boolean date1904) {
+        this.firstRow = firstRow;
+        this.firstColumn = firstColumn;
+        this.rowCount = rowCount;
+        this.date1904 = date1904;
+        this.columns = new ColumnBuffer[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            columns[i] = new ColumnBuffer(rowCount);
+        }
+    }
+
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public int getFirstColumn() {
+        return firstColumn;
+    }
+
+    /**
+     * Última fila del rango (incluida)
+     */
+    public int getLastRow() {
+        return firstRow + rowCount - 1;
+    }
+
+    /**
+     * Última columna del rango (incluida)
+     */
+    public int getLastColumn() {
+        return firstColumn + columns.length - 1;
+    }
+
+    /**
+     * Guarda un número, fecha (número de serie Excel) o booleano (1/0) de la fila y columna de la hoja
+     */
+    public void setNumber(int row, int column, ExcelStreamedRow.CellKind kind, double value) {
+        ColumnBuffer buffer = columns[column - firstColumn];
+        buffer.kinds[row - firstRow] = (byte) kind.ordinal();
+        buffer.values[row - firstRow] = value;
+    }
+
+    /**
+     * Guarda un texto (o error) de la fila y columna de la hoja; los textos repetidos comparten índice
+     */
+    public void setText(int row, int column, String text) {
+        ColumnBuffer buffer = columns[column - firstColumn];
+        buffer.kinds[row - firstRow] = STRING;
+        buffer.indexes()[row - firstRow] = buffer.intern(text);
+    }
+
+    /**
+     * Copia las celdas de la fila que caen dentro del rango
+     */
+    public void accept(ExcelStreamedRow row) {
+        int rowIndex = row.getRowIndex();
+        if (rowIndex < firstRow || rowIndex > getLastRow()) {
+            return;
+        }
+        int last = Math.min(getLastColumn(), row.getColumnCount() - 1);
+        for (int column = firstColumn; column <= last; column++) {
+            ExcelStreamedRow.CellKind kind = row.getKind(column);
+            switch (kind) {
+                case NUMERIC, DATE, BOOLEAN -> setNumber(rowIndex, column, kind, row.getNumber(column));
+                case STRING, ERROR -> setText(rowIndex, column, row.getText(column));
+                default -> {
+                }
+            }
+        }
+    }
+
+    /**
+     * Cierra el rango: cada columna se devuelve con su tipo si todas sus celdas con valor lo comparten, y
+     * como TEXT (valores con las reglas de ExcelStreamedRow) si mezcla tipos
+     */
+    public ExcelTypedRange build(String sheetName) {
+        List<ExcelTypedColumn> result = new ArrayList<>(columns.length);
+        for (int i = 0; i < columns.length; i++) {
+            result.add(columns[i].build(firstColumn + i, date1904));
+        }
+        return new ExcelTypedRange(sheetName, firstRow, firstColumn, rowCount, result);
+    }
+
+    /**
+     * Milisegundos epoch de un número de serie Excel (sistema 1900 o 1904) tomando la fecha y hora como UTC,
+     * con el mismo redondeo que DateUtil.getLocalDateTime
+     */
+    static long toEpochMillis(double serial, boolean date1904) {
+        int wholeDays = (int) Math.floor(serial);
+        int millisecondsInDay = (int) ((serial - wholeDays) * DAY_MILLISECONDS + 0.5);
+        if (date1904) {
+            return (EPOCH_DAY_1904 + wholeDays) * DAY_MILLISECONDS + millisecondsInDay;
+        }
+        // El año 1900 de Excel incluye un 29 de febrero inexistente: a partir del día 61 se resta uno
+        int dayAdjust = wholeDays < 61 ? 0 : -1;
+        return (EPOCH_DAY_1900 + wholeDays + dayAdjust - 1) * DAY_MILLISECONDS + millisecondsInDay;
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private static final class ColumnBuffer {
+
+        private final byte[] kinds;
+        private final double[] values;
+        private int[] indexes;
+        private Map<String, Integer> dictionaryIndex;
+        private List<String> dictionary;
+
+        private ColumnBuffer(int rowCount) {
+            kinds = new byte[rowCount];
+            values = new double[rowCount];
+        }
+
+        private int[] indexes() {
+            if (indexes == null) {
+                indexes = new int[kinds.length];
+                dictionaryIndex = new HashMap<>();
+                dictionary = new ArrayList<>();
+            }
+            return indexes;
+        }
+
+        private int intern(String text) {
+            Integer known = dictionaryIndex.get(text);
+            if (known != null) {
+                return known;
+            }
+            int index = dictionary.size();
+            dictionary.add(text);
+            dictionaryIndex.put(text, index);
+            return index;
+        }
+
+        private ExcelTypedColumn build(int column, boolean date1904) {
+            byte common = BLANK;
+            boolean mixed = false;
+            int nullCount = 0;
+            byte[] bitmap = new byte[(kinds.length + 7) >>> 3];
+            for (int row = 0; row < kinds.length; row++) {
+                byte kind = kinds[row];
+                if (kind == BLANK) {
+                    bitmap[row >>> 3] |= (byte) (1 << (row & 7));
+                    nullCount++;
+                } else if (common == BLANK) {
+                    common = kind;
+                } else if (kind != common) {
+                    mixed = true;
+                }
+            }
+            String nulls = nullCount > 0 ? Base64.getEncoder().encodeToString(bitmap) : null;
+
+            if (common == BLANK) {
+                return new ExcelTypedColumn(column, "EMPTY", nullCount, nulls, null, null, null);
+            }
+            if (mixed || common == STRING) {
+                return buildText(column, nullCount, nulls, date1904);
+            }
+            if (common == DATE) {
+                for (int row = 0; row < kinds.length; row++) {
+                    if (kinds[row] != BLANK) {
+                        values[row] = toEpochMillis(values[row], date1904);
+                    }
+                }
+            }
+            String type = common == NUMERIC ? "NUMBER" : common == DATE ? "DATE" : "BOOLEAN";
+            return new ExcelTypedColumn(column, type, nullCount, nulls, values, null, null);
+        }
+
+        /**
+         * Columna de textos: las celdas no textuales (columna mixta) se pasan a texto y entran al diccionario
+         */
+        private ExcelTypedColumn buildText(int column, int nullCount, String nulls, boolean date1904) {
+            int[] rowIndexes = indexes();
+            StringBuilder text = new StringBuilder(32);
+            for (int row = 0; row < kinds.length; row++) {
+                byte kind = kinds[row];
+                if (kind == BLANK) {
+                    rowIndexes[row] = -1;
+                } else if (kind != STRING) {
+                    text.setLength(0);
+                    appendValue(kind, values[row], date1904, text);
+                    rowIndexes[row] = intern(text.toString());
+                }
+            }
+            return new ExcelTypedColumn(column, "TEXT", nullCount, nulls, null, dictionary.toArray(new String[0]), rowIndexes);
+        }
+
+        private static void appendValue(byte kind, double value, boolean date1904, StringBuilder text) {
+            if (kind == NUMERIC) {
+                if (value == Math.floor(value) && !Double.isInfinite(value)) {
+                    text.append((long) value);
+                } else {
+                    text.append(value);
+                }
+            } else if (kind == DATE) {
+                text.append(DateUtil.getLocalDateTime(value, date1904));
+            } else {
+                text.append(value != 0);
+            }
+        }
+    }
+}
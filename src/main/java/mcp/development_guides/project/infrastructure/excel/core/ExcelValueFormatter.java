@@ -0,0 +1,141 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.ExcelNumberFormat;
+import org.springframework.stereotype.Component;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Valores de celda tal como los muestra Excel (porcentajes, moneda, fechas y formatos personalizados) mediante
+ * DataFormatter de POI. Cada hilo reutiliza su DataFormatter y una caché de formatos compilados por cadena de
+ * formato; por workbook solo se guarda qué formato corresponde a cada índice de estilo
+ */
+@Component
+public class ExcelValueFormatter {
+
+    // Formatos distintos recordados por hilo; al superarlo se empieza de nuevo
+    private static final int MAX_FORMATS = 1024;
+
+    // Últimos valores formateados recordados por formato (caché de asignación directa)
+    private static final int MEMO_SLOTS = 256;
+
+    private final ThreadLocal<FormattingContext> contexts = ThreadLocal.withInitial(FormattingContext::new);
+
+    /**
+     * Texto con formato de una celda leída en streaming: números y fechas con el formato de su estilo,
+     * booleanos como TRUE/FALSE y el resto igual que su valor
+     */
+    public String formatStreamedValue(ExcelStreamingWorkbook workbook, ExcelStreamedRow row, int column) {
+        switch (row.getKind(column)) {
+            case NUMERIC, DATE -> {
+                try {
+                    return context(workbook).format(workbook, row.getStyleIndex(column), row.getNumber(column));
+                } catch (Exception e) {
+                    throw new RuntimeException("Failed to format cell value: " + e.getMessage(), e);
+                }
+            }
+            case BOOLEAN -> {
+                return row.getNumber(column) != 0 ? "TRUE" : "FALSE";
+            }
+            case STRING, ERROR -> {
+                return row.getText(column);
+            }
+            default -> {
+                return "";
+            }
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private FormattingContext context(ExcelStreamingWorkbook workbook) throws Exception {
+        FormattingContext context = contexts.get();
+        if (context.workbook.get() != workbook) {
+            context.reset(workbook);
+        }
+        return context;
+    }
+
+    /**
+     * Formato ya resuelto: si es de fecha se decide una vez y los últimos valores formateados se reutilizan,
+     * ya que las columnas suelen repetir importes, fechas o categorías numéricas
+     */
+    private static final class CompiledFormat {
+
+        private final int index;
+        private final String format;
+        private final boolean date1904;
+        private final long[] memoKeys = new long[MEMO_SLOTS];
+        private final String[] memoTexts = new String[MEMO_SLOTS];
+
+        private CompiledFormat(int index, String format, boolean date1904) {
+            this.index = index;
+            this.format = format;
+            this.date1904 = date1904;
+        }
+
+        private String format(DataFormatter formatter, double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            int slot = (int) (ExcelStreamedRow.mix64(bits) & (MEMO_SLOTS - 1));
+            String text = memoTexts[slot];
+            if (text != null && memoKeys[slot] == bits) {
+                return text;
+            }
+            text = formatter.formatRawCellContents(value, index, format, date1904);
+            memoKeys[slot] = bits;
+            memoTexts[slot] = text;
+            return text;
+        }
+    }
+
+    private record FormatKey(int index, String format, boolean date1904) {
+    }
+
+    /**
+     * Estado de formateo de un hilo: DataFormatter y formatos compilados se conservan entre workbooks, y la
+     * tabla estilo → formato se reinicia al cambiar de workbook. El workbook se referencia de forma débil
+     */
+    private static final class FormattingContext {
+
+        private final DataFormatter formatter = new DataFormatter();
+        private final Map<FormatKey, CompiledFormat> formats = new HashMap<>();
+        private WeakReference<ExcelStreamingWorkbook> workbook = new WeakReference<>(null);
+        private boolean date1904;
+        private CompiledFormat[] byStyle = new CompiledFormat[64];
+
+        private void reset(ExcelStreamingWorkbook current) throws Exception {
+            workbook = new WeakReference<>(current);
+            date1904 = current.isDate1904();
+            Arrays.fill(byStyle, null);
+        }
+
+        private String format(ExcelStreamingWorkbook current, int styleIndex, double value) throws Exception {
+            if (styleIndex >= byStyle.length) {
+                byStyle = Arrays.copyOf(byStyle, Math.max(styleIndex + 1, byStyle.length * 2));
+            }
+            CompiledFormat compiled = byStyle[styleIndex];
+            if (compiled == null) {
+                compiled = compile(current.getNumberFormat(styleIndex));
+                byStyle[styleIndex] = compiled;
+            }
+            return compiled.format(formatter, value);
+        }
+
+        private CompiledFormat compile(ExcelNumberFormat numberFormat) {
+            int index = numberFormat != null ? numberFormat.getIdx() : 0;
+            String format = numberFormat != null && numberFormat.getFormat() != null ? numberFormat.getFormat() : "General";
+            // Fuera de los formatos de fecha el sistema 1904 no cambia el texto
+            boolean dates1904 = date1904 && DateUtil.isADateFormat(index, format);
+            if (formats.size() >= MAX_FORMATS) {
+                formats.clear();
+            }
+            return formats.computeIfAbsent(new FormatKey(index, format, dates1904),
+                key -> new CompiledFormat(key.index(), key.format(), key.date1904()));
+        }
+    }
+}
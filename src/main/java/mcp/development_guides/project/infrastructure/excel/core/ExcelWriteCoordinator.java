@@ -0,0 +1,450 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import mcp.development_guides.project.domain.model.ExcelWriteStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Cola de escritura por archivo con confirmación en grupo (group commit). Las modificaciones que llegan
+ * casi a la vez sobre el mismo archivo se aplican con una sola carga y un solo guardado; cada llamante
+ * recibe su resultado solo cuando el grupo está en disco. Un diario (write-ahead) registra cada grupo
+ * antes de tocar el archivo y su confirmación después, para detectar y limpiar grupos interrumpidos
+ */
+@Component
+public class ExcelWriteCoordinator {
+
+    private static final String JOURNAL_PREFIX = "write-journal";
+    private static final String JOURNAL_SUFFIX = ".log";
+
+    // Diarios abiertos por este proceso (uno por instancia): forma parte del nombre junto al pid
+    private static final AtomicLong JOURNAL_SEQUENCE = new AtomicLong();
+
+    // Tamaño del diario a partir del cual se compacta cuando no hay grupos en curso
+    private static final long JOURNAL_COMPACT_BYTES = 1 << 20;
+
+    @Autowired
+    private ExcelAtomicSaver atomicSaver;
+
+    @Autowired
+    private ExcelFormulaRecalculator formulaRecalculator;
+
+    @Value("${excel.write.group-commit-window-ms:2}")
+    private long groupCommitWindowMs;
+
+    @Value("${excel.write.max-group-size:256}")
+    private int maxGroupSize;
+
+    @Value("${excel.write.journal-dir:}")
+    private String journalDirectory;
+
+    private final Map<String, FileQueue> queues = new ConcurrentHashMap<>();
+    private final AtomicLong groupSequence = new AtomicLong();
+    private final AtomicLong groupsInFlight = new AtomicLong();
+    private final ExecutorService committers = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "excel-group-commit");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private File journal;
+    private FileChannel journalChannel;
+
+    /**
+     * Escritura pendiente de un llamante
+     */
+    private record PendingWrite(String operation, ExcelFileHandler.WorkbookOperation<ExcelWriteStatus> workbookOperation,
+                                CompletableFuture<ExcelWriteStatus> acknowledgement) {
+    }
+
+    /**
+     * Cola de escrituras de un archivo; committing indica que hay un hilo vaciándola. El cerrojo cubre cada
+     * grupo (carga, cambios y guardado) y las escrituras que guardan el archivo por su cuenta
+     */
+    private static final class FileQueue {
+        private final List<PendingWrite> pending = new ArrayList<>();
+        private final ReentrantLock fileLock = new ReentrantLock();
+        private boolean committing;
+    }
+
+    /**
+     * Reserva de un archivo obtenida con lockFile; se libera al cerrarla, desde el mismo hilo
+     */
+    public static final class FileLock implements AutoCloseable {
+
+        private final ReentrantLock lock;
+        private boolean released;
+
+        private FileLock(ReentrantLock lock) {
+            this.lock = lock;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Ajusta la ventana (ms) durante la que se acumulan escrituras antes de confirmar un grupo
+     */
+    public void setGroupCommitWindowMs(long groupCommitWindowMs) {
+        this.groupCommitWindowMs = groupCommitWindowMs;
+    }
+
+    /**
+     * Abre el diario de este proceso y revisa los que dejaron otros procesos ya terminados. Cada proceso
+     * escribe en su propio diario y lo mantiene bloqueado mientras vive: un diario que se puede bloquear es
+     * de un proceso que terminó, y sus grupos sin confirmación nunca se reconocieron a sus llamantes, así que
+     * solo se eliminan sus archivos temporales y se informa de las operaciones perdidas. Los diarios de
+     * procesos vivos no se tocan. Se puede volver a llamar para revisar los diarios de procesos terminados después
+     */
+    @PostConstruct
+    public synchronized void recover() {
+        File directory = journalDirectory != null && !journalDirectory.isBlank()
+            ? new File(journalDirectory)
+            : new File(System.getProperty("java.io.tmpdir"), "excel-mcp-journal");
+        directory.mkdirs();
+
+        if (journalChannel == null) {
+            try {
+                openJournal(directory);
+            } catch (IOException e) {
+                System.err.println("⚠️ Could not open write journal: " + e.getMessage());
+                return;
+            }
+        }
+        try (DirectoryStream<Path> journals = Files.newDirectoryStream(directory.toPath(), JOURNAL_PREFIX + "*" + JOURNAL_SUFFIX)) {
+            for (Path other : journals) {
+                if (!other.equals(journal.toPath())) {
+                    recoverJournal(other);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not recover write journals: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Libera el diario de este proceso; sin grupos en curso se elimina
+     */
+    @PreDestroy
+    public synchronized void shutdown() {
+        committers.shutdown();
+        if (journalChannel == null) {
+            return;
+        }
+        try {
+            journalChannel.close();
+            if (groupsInFlight.get() == 0) {
+                Files.deleteIfExists(journal.toPath());
+            }
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not close write journal: " + e.getMessage());
+        } finally {
+            journalChannel = null;
+        }
+    }
+
+    /**
+     * Encola una modificación del archivo y espera a que su grupo se guarde. Devuelve false si la operación
+     * falla o devuelve false (en ese caso sus cambios no se guardan y el resto del grupo no se ve afectado)
+     */
+    public boolean submit(String filePath, String operation, ExcelFileHandler.WorkbookOperation<Boolean> workbookOperation) {
+        return submitWrite(filePath, operation, (workbook, path) ->
+            Boolean.TRUE.equals(workbookOperation.execute(workbook, path)) ? ExcelWriteStatus.UPDATED : ExcelWriteStatus.FAILED)
+            != ExcelWriteStatus.FAILED;
+    }
+
+    /**
+     * Como submit, pero la operación informa si modificó algo: si ninguna escritura del grupo devuelve
+     * UPDATED el workbook se descarta sin guardar
+     */
+    public ExcelWriteStatus submitWrite(String filePath, String operation,
+                                        ExcelFileHandler.WorkbookOperation<ExcelWriteStatus> workbookOperation) {
+        FileQueue queue = queue(filePath);
+        PendingWrite write = new PendingWrite(operation, workbookOperation, new CompletableFuture<>());
+
+        synchronized (queue) {
+            queue.pending.add(write);
+            if (!queue.committing) {
+                queue.committing = true;
+                committers.execute(() -> drain(filePath, queue));
+            }
+        }
+
+        try {
+            return write.acknowledgement().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ExcelWriteStatus.FAILED;
+        } catch (ExecutionException e) {
+            return ExcelWriteStatus.FAILED;
+        }
+    }
+
+    /**
+     * Reserva el archivo para una escritura que lo carga y guarda por su cuenta (RowSink, lotes): espera al
+     * grupo en curso y los siguientes no se cargan hasta cerrar la reserva, así ninguno pisa el guardado del
+     * otro. Mientras se tiene no se debe llamar a submit sobre el mismo archivo desde el mismo hilo
+     */
+    public FileLock lockFile(String filePath) {
+        ReentrantLock lock = queue(filePath).fileLock;
+        lock.lock();
+        return new FileLock(lock);
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private FileQueue queue(String filePath) {
+        return queues.computeIfAbsent(new File(filePath).getAbsolutePath(), path -> new FileQueue());
+    }
+
+    /**
+     * Confirma grupos mientras haya escrituras pendientes. Las que llegan durante un guardado forman el
+     * siguiente grupo, por lo que con más carga los grupos crecen en lugar de encolarse guardados
+     */
+    private void drain(String filePath, FileQueue queue) {
+        while (true) {
+            if (groupCommitWindowMs > 0) {
+                try {
+                    Thread.sleep(groupCommitWindowMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            List<PendingWrite> group;
+            synchronized (queue) {
+                if (queue.pending.isEmpty()) {
+                    queue.committing = false;
+                    return;
+                }
+                int size = Math.min(queue.pending.size(), Math.max(maxGroupSize, 1));
+                group = new ArrayList<>(queue.pending.subList(0, size));
+                queue.pending.subList(0, size).clear();
+            }
+
+            queue.fileLock.lock();
+            try {
+                commitGroup(filePath, group);
+            } catch (Exception e) {
+                System.err.println("❌ Error during group commit of " + group.size() + " writes");
+                System.err.println("   File: " + filePath);
+                System.err.println("   Error: " + e.getMessage());
+                for (PendingWrite write : group) {
+                    write.acknowledgement().complete(ExcelWriteStatus.FAILED);
+                }
+            } finally {
+                queue.fileLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Aplica el grupo sobre una sola carga del workbook. Si alguna operación falla se vuelve a cargar y
+     * se repiten solo las correctas, para no guardar cambios parciales de la fallida. Si ninguna cambia
+     * nada no se guarda
+     */
+    private void commitGroup(String filePath, List<PendingWrite> group) throws Exception {
+        File file = new File(filePath);
+        List<PendingWrite> applied = new ArrayList<>(group);
+        Map<PendingWrite, ExcelWriteStatus> statuses = new HashMap<>();
+
+        while (!applied.isEmpty()) {
+            try (Workbook workbook = load(file)) {
+                List<PendingWrite> failed = new ArrayList<>();
+                for (PendingWrite write : applied) {
+                    System.out.println(write.operation());
+                    ExcelWriteStatus status = apply(workbook, filePath, write);
+                    if (status == ExcelWriteStatus.FAILED) {
+                        failed.add(write);
+                    } else {
+                        statuses.put(write, status);
+                    }
+                }
+                if (failed.isEmpty()) {
+                    if (statuses.containsValue(ExcelWriteStatus.UPDATED)) {
+                        save(workbook, file, applied);
+                    } else {
+                        System.out.println("⏭️ No changes to save, file left untouched: " + filePath);
+                    }
+                    break;
+                }
+                for (PendingWrite write : failed) {
+                    write.acknowledgement().complete(ExcelWriteStatus.FAILED);
+                }
+                applied.removeAll(failed);
+                statuses.clear();
+            }
+        }
+
+        for (PendingWrite write : applied) {
+            write.acknowledgement().complete(statuses.get(write));
+        }
+        if (group.size() > 1) {
+            System.out.println("📦 Group commit: " + applied.size() + " of " + group.size() + " writes saved in one pass to: " + filePath);
+        }
+    }
+
+    private ExcelWriteStatus apply(Workbook workbook, String filePath, PendingWrite write) {
+        try {
+            ExcelWriteStatus status = write.workbookOperation().execute(workbook, filePath);
+            return status != null ? status : ExcelWriteStatus.FAILED;
+        } catch (Exception e) {
+            System.err.println("❌ Error during operation: " + write.operation());
+            System.err.println("   File: " + filePath);
+            System.err.println("   Error: " + e.getMessage());
+            return ExcelWriteStatus.FAILED;
+        }
+    }
+
+    private Workbook load(File file) throws Exception {
+        // Se carga en memoria para poder reemplazar el archivo mientras el workbook sigue abierto
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return WorkbookFactory.create(inputStream);
+        }
+    }
+
+    /**
+     * Registra el grupo en el diario, recalcula las fórmulas afectadas, guarda de forma atómica y registra la
+     * confirmación
+     */
+    private void save(Workbook workbook, File file, List<PendingWrite> group) throws Exception {
+        String groupId = Long.toString(groupSequence.incrementAndGet());
+        StringBuilder operations = new StringBuilder();
+        for (PendingWrite write : group) {
+            operations.append(operations.isEmpty() ? "" : " | ").append(write.operation().replace('\n', ' '));
+        }
+
+        groupsInFlight.incrementAndGet();
+        try {
+            appendJournal("BEGIN\t" + groupId + "\t" + file.getAbsolutePath() + "\t" + operations);
+
+            formulaRecalculator.recalculate(workbook, file.getPath());
+            atomicSaver.save(workbook, file);
+            formulaRecalculator.saved(workbook, file.getPath());
+
+            appendJournal("COMMIT\t" + groupId);
+            System.out.println("💾 Changes saved successfully to: " + file.getPath());
+        } finally {
+            groupsInFlight.decrementAndGet();
+        }
+    }
+
+    private synchronized void appendJournal(String line) throws IOException {
+        if (journalChannel == null) {
+            recover();
+            if (journalChannel == null) {
+                throw new IOException("Write journal is not available");
+            }
+        }
+        ByteBuffer entry = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        while (entry.hasRemaining()) {
+            journalChannel.write(entry, journalChannel.size());
+        }
+        journalChannel.force(false);
+        // Todas las entradas anteriores están confirmadas: el diario se puede vaciar
+        if (line.startsWith("COMMIT") && groupsInFlight.get() == 1 && journalChannel.size() > JOURNAL_COMPACT_BYTES) {
+            journalChannel.truncate(0);
+        }
+    }
+
+    /**
+     * Crea y bloquea el diario de este proceso (write-journal-pid-n.log). Si existe, es de un proceso
+     * anterior con el mismo pid que ya terminó: se revisa antes de vaciarlo
+     */
+    private void openJournal(File directory) throws IOException {
+        long pid = ProcessHandle.current().pid();
+        while (true) {
+            File candidate = new File(directory, JOURNAL_PREFIX + "-" + pid + "-" + JOURNAL_SEQUENCE.incrementAndGet() + JOURNAL_SUFFIX);
+            FileChannel channel = FileChannel.open(candidate.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            java.nio.channels.FileLock lock = tryLock(channel);
+            if (lock == null) {
+                channel.close();
+                continue;
+            }
+            reportOpenGroups(candidate.toPath(), channel);
+            channel.truncate(0);
+            journal = candidate;
+            journalChannel = channel;
+            return;
+        }
+    }
+
+    /**
+     * Revisa el diario de otro proceso si ya terminó (su bloqueo está libre) y después lo elimina
+     */
+    private void recoverJournal(Path path) {
+        try {
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                if (tryLock(channel) == null) {
+                    return;
+                }
+                reportOpenGroups(path, channel);
+                channel.truncate(0);
+            }
+            Files.deleteIfExists(path);
+        } catch (NoSuchFileException e) {
+            // Otro proceso lo revisó y eliminó a la vez
+        } catch (IOException e) {
+            System.err.println("⚠️ Could not recover write journal " + path + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Bloqueo exclusivo del diario; null si lo tiene otro proceso o esta misma JVM
+     */
+    private static java.nio.channels.FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Grupos con BEGIN y sin COMMIT del diario: se eliminan sus temporales y se informa de ellos
+     */
+    private void reportOpenGroups(Path path, FileChannel channel) throws IOException {
+        ByteBuffer content = ByteBuffer.allocate((int) Math.min(channel.size(), Integer.MAX_VALUE - 8));
+        while (content.hasRemaining()) {
+            // Lectura posicional: avanza la posición del búfer, no la del canal
+            if (channel.read(content, content.position()) <= 0) {
+                break;
+            }
+        }
+        Map<String, String> openGroups = new LinkedHashMap<>();
+        for (String line : new String(content.array(), 0, content.position(), StandardCharsets.UTF_8).split("\n")) {
+            String[] fields = line.split("\t", 3);
+            if (fields.length >= 3 && "BEGIN".equals(fields[0])) {
+                openGroups.put(fields[1], fields[2]);
+            } else if (fields.length >= 2 && "COMMIT".equals(fields[0])) {
+                openGroups.remove(fields[1]);
+            }
+        }
+        for (Map.Entry<String, String> group : openGroups.entrySet()) {
+            String filePath = group.getValue().split("\t", 2)[0];
+            atomicSaver.deleteTempFiles(new File(filePath));
+            System.err.println("⚠️ Group " + group.getKey() + " was interrupted before commit, writes not applied: " + group.getValue());
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Diccionario de cadenas fuera del heap: los textos distintos se guardan una sola vez en UTF-8 y las celdas
+ * solo guardan su identificador. La tabla hash (direccionamiento abierto) también vive en memoria directa,
+ * así que buscar o recorrer cadenas no crea objetos
+ */
+final class OffHeapStringDictionary {
+
+    private static final int EMPTY = 0;
+
+    // Cabecera en la instantánea: número de textos, bytes de texto y ranuras de la tabla hash
+    static final int SNAPSHOT_HEADER_BYTES = 12;
+
+    private ByteBuffer bytes = ByteBuffer.allocateDirect(1 << 16);
+    private int bytesUsed;
+
+    // Por identificador: desplazamiento, longitud y hash (3 enteros)
+    private ByteBuffer entries = ByteBuffer.allocateDirect(12 * 1024);
+    private int size;
+
+    // Ranuras con identificador + 1 (0 = libre); capacidad potencia de dos con carga máxima 1/2
+    private ByteBuffer slots = ByteBuffer.allocateDirect(4 * 2048);
+    private int slotMask = 2047;
+
+    OffHeapStringDictionary() {
+    }
+
+    /**
+     * Diccionario de solo lectura sobre las secciones de una instantánea (entradas, texto y ranuras)
+     */
+    static OffHeapStringDictionary map(ByteBuffer snapshot, int position, int size, int bytesUsed, int slotCount) {
+        OffHeapStringDictionary dictionary = new OffHeapStringDictionary();
+        dictionary.entries = snapshot.slice(position, size * 12);
+        dictionary.bytes = snapshot.slice(position + size * 12, bytesUsed);
+        dictionary.slots = snapshot.slice(position + size * 12 + bytesUsed, slotCount * 4);
+        dictionary.size = size;
+        dictionary.bytesUsed = bytesUsed;
+        dictionary.slotMask = slotCount - 1;
+        return dictionary;
+    }
+
+    /**
+     * Devuelve el identificador del texto, añadiéndolo si aún no existe (solo durante la carga)
+     */
+    int intern(String text) {
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(encoded);
+        int slot = hash & slotMask;
+        while (true) {
+            int stored = slots.getInt(slot << 2);
+            if (stored == EMPTY) {
+                break;
+            }
+            if (entryHash(stored - 1) == hash && matches(stored - 1, encoded)) {
+                return stored - 1;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+
+        int id = size++;
+        ensureBytes(encoded.length);
+        bytes.put(bytesUsed, encoded);
+        ensureEntries();
+        entries.putInt(id * 12, bytesUsed);
+        entries.putInt(id * 12 + 4, encoded.length);
+        entries.putInt(id * 12 + 8, hash);
+        bytesUsed += encoded.length;
+        slots.putInt(slot << 2, id + 1);
+        if (size * 2 > slotMask + 1) {
+            rehash();
+        }
+        return id;
+    }
+
+    /**
+     * Identificador de un texto ya codificado en UTF-8, o -1 si ninguna celda lo contiene
+     */
+    int find(byte[] encoded) {
+        int hash = hash(encoded);
+        int slot = hash & slotMask;
+        while (true) {
+            int stored = slots.getInt(slot << 2);
+            if (stored == EMPTY) {
+                return -1;
+            }
+            if (entryHash(stored - 1) == hash && matches(stored - 1, encoded)) {
+                return stored - 1;
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    /**
+     * Decodifica el texto directamente sobre el StringBuilder, sin cadenas ni arreglos intermedios
+     */
+    void appendTo(int id, StringBuilder builder) {
+        int position = entries.getInt(id * 12);
+        int end = position + entries.getInt(id * 12 + 4);
+        while (position < end) {
+            int first = bytes.get(position++) & 0xFF;
+            if (first < 0x80) {
+                builder.append((char) first);
+            } else if (first < 0xE0) {
+                builder.append((char) (((first & 0x1F) << 6) | (bytes.get(position++) & 0x3F)));
+            } else if (first < 0xF0) {
+                builder.append((char) (((first & 0x0F) << 12) | ((bytes.get(position++) & 0x3F) << 6)
+                    | (bytes.get(position++) & 0x3F)));
+            } else {
+                int codePoint = ((first & 0x07) << 18) | ((bytes.get(position++) & 0x3F) << 12)
+                    | ((bytes.get(position++) & 0x3F) << 6) | (bytes.get(position++) & 0x3F);
+                builder.appendCodePoint(codePoint);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Bytes reservados fuera del heap (texto, entradas y tabla hash)
+     */
+    long offHeapBytes() {
+        return (long) bytes.capacity() + entries.capacity() + slots.capacity();
+    }
+
+    void writeSnapshotHeader(ByteBuffer header) {
+        header.putInt(size).putInt(bytesUsed).putInt(slotMask + 1);
+    }
+
+    /**
+     * Bytes que ocupan en la instantánea las secciones escritas por writeSnapshot
+     */
+    static long snapshotBytes(int size, int bytesUsed, int slotCount) {
+        return size * 12L + bytesUsed + slotCount * 4L;
+    }
+
+    /**
+     * Escribe solo la parte usada de entradas, texto y tabla hash, en ese orden
+     */
+    void writeSnapshot(FileChannel channel) throws IOException {
+        writeFully(channel, entries.slice(0, size * 12));
+        writeFully(channel, bytes.slice(0, bytesUsed));
+        writeFully(channel, slots.slice(0, (slotMask + 1) * 4));
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private int entryHash(int id) {
+        return entries.getInt(id * 12 + 8);
+    }
+
+    private boolean matches(int id, byte[] encoded) {
+        if (entries.getInt(id * 12 + 4) != encoded.length) {
+            return false;
+        }
+        int offset = entries.getInt(id * 12);
+        for (int i = 0; i < encoded.length; i++) {
+            if (bytes.get(offset + i) != encoded[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int hash(byte[] encoded) {
+        int hash = 0x811c9dc5;
+        for (byte value : encoded) {
+            hash = (hash ^ (value & 0xFF)) * 0x01000193;
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private void ensureBytes(int extra) {
+        if (bytesUsed + extra > bytes.capacity()) {
+            long capacity = Math.max((long) bytes.capacity() * 2, (long) bytesUsed + extra);
+            bytes = grow(bytes, (int) Math.min(capacity, Integer.MAX_VALUE - 8), bytesUsed);
+        }
+    }
+
+    private void ensureEntries() {
+        if (size * 12 > entries.capacity()) {
+            entries = grow(entries, entries.capacity() * 2, (size - 1) * 12);
+        }
+    }
+
+    private void rehash() {
+        int capacity = (slotMask + 1) * 2;
+        ByteBuffer rehashed = ByteBuffer.allocateDirect(capacity * 4);
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = entryHash(id) & mask;
+            while (rehashed.getInt(slot << 2) != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            rehashed.putInt(slot << 2, id + 1);
+        }
+        slots = rehashed;
+        slotMask = mask;
+    }
+
+    static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    static ByteBuffer grow(ByteBuffer buffer, int capacity, int used) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity);
+        grown.put(0, buffer, 0, used);
+        return grown;
+    }
+}
@@ -3,12 +3,20 @@ package mcp.development_guides.project.infrastructure.excel.reader;
 import mcp.development_guides.project.domain.model.CellPosition;
 import mcp.development_guides.project.domain.model.ExcelCellData;
 import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelRangeRequest;
+import mcp.development_guides.project.domain.model.ExcelRangeValues;
+import mcp.development_guides.project.domain.model.ExcelTypedRange;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelDataConverter;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelOffHeapSheetStore;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelTypedRangeBuilder;
 import org.apache.poi.ss.usermodel.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 /**
  * Lector especializado en celdas individuales y rangos de celdas
  */
@@ -21,6 +29,15 @@ public class ExcelCellReader {
     @Autowired
     private ExcelDataConverter dataConverter;
 
+    @Autowired
+    private ExcelOffHeapSheetStore offHeapStore;
+
+    @Autowired
+    private ExcelMultiRangeReader multiRangeReader;
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
     /**
      * Lee el valor de una celda específica
      */
@@ -82,30 +99,82 @@ public class ExcelCellReader {
      * Lee un rango de celdas
      */
     public Object[][] readRange(String filePath, String sheetName, int startRow, int startColumn, int endRow, int endColumn) {
-        return fileHandler.executeWithWorkbook(filePath,
-            String.format("Reading range [%d,%d to %d,%d] from sheet '%s'", startRow, startColumn, endRow, endColumn, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-
-                int rowCount = endRow - startRow + 1;
-                int colCount = endColumn - startColumn + 1;
-                Object[][] result = new Object[rowCount][colCount];
+        // En archivos grandes se lee de la copia fuera del heap en lugar de cargar el workbook completo
+        return offHeapStore.query(filePath, sheetName,
+            sheet -> sheet.readRange(startRow, startColumn, endRow, endColumn),
+            () -> readRangeFromWorkbook(filePath, sheetName, startRow, startColumn, endRow, endColumn));
+    }
 
-                for (int rowIndex = startRow; rowIndex <= endRow; rowIndex++) {
-                    for (int colIndex = startColumn; colIndex <= endColumn; colIndex++) {
-                        String value = getCellValue(sheet, rowIndex, colIndex);
-                        result[rowIndex - startRow][colIndex - startColumn] = value;
-                    }
-                }
+    /**
+     * Lee un rango de celdas; con formatted los valores se devuelven como los muestra Excel (porcentajes,
+     * moneda, fechas...), leyendo la hoja en streaming con el formato de número de cada celda
+     */
+    public Object[][] readRange(String filePath, String sheetName, int startRow, int startColumn, int endRow, int endColumn,
+                                boolean formatted) {
+        if (!formatted) {
+            return readRange(filePath, sheetName, startRow, startColumn, endRow, endColumn);
+        }
+        String range = new CellPosition(startRow, startColumn).toExcelNotation() + ":"
+            + new CellPosition(endRow, endColumn).toExcelNotation();
+        ExcelRangeValues values = multiRangeReader.readMany(filePath, List.of(new ExcelRangeRequest(sheetName, range)), true).get(0);
+        if (values.error() != null) {
+            throw new RuntimeException("Failed to read formatted range " + range + " from sheet '" + sheetName + "': " + values.error());
+        }
+        return values.values();
+    }
 
-                return result;
-            });
+    /**
+     * Lee un rango por columnas con valores tipados: números, fechas (milisegundos epoch) y booleanos en
+     * arreglos double[], textos como diccionario más índices y las celdas vacías en un mapa de bits
+     */
+    public ExcelTypedRange readTypedRange(String filePath, String sheetName, int startRow, int startColumn, int endRow, int endColumn) {
+        if (startRow < 0 || startColumn < 0 || endRow < startRow || endColumn < startColumn) {
+            throw new IllegalArgumentException(String.format("Invalid range [%d,%d to %d,%d]", startRow, startColumn, endRow, endColumn));
+        }
+        return offHeapStore.query(filePath, sheetName,
+            sheet -> {
+                ExcelTypedRangeBuilder builder = new ExcelTypedRangeBuilder(startRow, startColumn, endRow - startRow + 1,
+                    endColumn - startColumn + 1, sheet.isDate1904());
+                sheet.readTyped(builder);
+                return builder.build(sheetName);
+            },
+            () -> streamingReader.executeWithStream(filePath,
+                String.format("Reading typed range [%d,%d to %d,%d] from sheet '%s'", startRow, startColumn, endRow, endColumn, sheetName),
+                (workbook, path) -> {
+                    ExcelTypedRangeBuilder builder = new ExcelTypedRangeBuilder(startRow, startColumn, endRow - startRow + 1,
+                        endColumn - startColumn + 1, workbook.isDate1904());
+                    workbook.streamSheet(sheetName, row -> {
+                        if (row.getRowIndex() > endRow) {
+                            return false;
+                        }
+                        builder.accept(row);
+                        return true;
+                    });
+                    return builder.build(sheetName);
+                }));
     }
 
     /**
      * Lee una fila completa
      */
     public String[] readRow(String filePath, String sheetName, int rowIndex) {
+        // El índice de filas de la copia fuera del heap da la longitud de la fila sin recorrerla
+        return offHeapStore.query(filePath, sheetName, sheet -> sheet.readRow(rowIndex),
+            () -> readRowFromWorkbook(filePath, sheetName, rowIndex));
+    }
+
+    /**
+     * Lee una columna completa
+     */
+    public String[] readColumn(String filePath, String sheetName, int columnIndex) {
+        return offHeapStore.query(filePath, sheetName, sheet -> sheet.readColumn(columnIndex),
+            () -> readColumnFromWorkbook(filePath, sheetName, columnIndex));
+    }
+
+    /**
+     * Lee una fila completa cargando el workbook con el modelo completo de POI
+     */
+    private String[] readRowFromWorkbook(String filePath, String sheetName, int rowIndex) {
         return fileHandler.executeWithWorkbook(filePath,
             String.format("Reading row %d from sheet '%s'", rowIndex, sheetName),
             (workbook, path) -> {
@@ -116,7 +185,8 @@ public class ExcelCellReader {
                     return new String[0];
                 }
 
-                int lastColumn = row.getLastCellNum();
+                // Una fila sin celdas devuelve -1
+                int lastColumn = Math.max(row.getLastCellNum(), 0);
                 String[] result = new String[lastColumn];
 
                 for (int colIndex = 0; colIndex < lastColumn; colIndex++) {
@@ -128,14 +198,15 @@ public class ExcelCellReader {
     }
 
     /**
-     * Lee una columna completa
+     * Lee una columna completa cargando el workbook con el modelo completo de POI
      */
-    public String[] readColumn(String filePath, String sheetName, int columnIndex) {
+    private String[] readColumnFromWorkbook(String filePath, String sheetName, int columnIndex) {
         return fileHandler.executeWithWorkbook(filePath,
             String.format("Reading column %d from sheet '%s'", columnIndex, sheetName),
             (workbook, path) -> {
                 Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                int lastRow = sheet.getLastRowNum();
+                // En una hoja sin filas HSSF devuelve 0 como última fila
+                int lastRow = sheet.getPhysicalNumberOfRows() == 0 ? -1 : sheet.getLastRowNum();
                 String[] result = new String[lastRow + 1];
 
                 for (int rowIndex = 0; rowIndex <= lastRow; rowIndex++) {
@@ -146,6 +217,30 @@ public class ExcelCellReader {
             });
     }
 
+    /**
+     * Lee un rango de celdas cargando el workbook con el modelo completo de POI
+     */
+    private Object[][] readRangeFromWorkbook(String filePath, String sheetName, int startRow, int startColumn, int endRow, int endColumn) {
+        return fileHandler.executeWithWorkbook(filePath,
+            String.format("Reading range [%d,%d to %d,%d] from sheet '%s'", startRow, startColumn, endRow, endColumn, sheetName),
+            (workbook, path) -> {
+                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+
+                int rowCount = endRow - startRow + 1;
+                int colCount = endColumn - startColumn + 1;
+                Object[][] result = new Object[rowCount][colCount];
+
+                for (int rowIndex = startRow; rowIndex <= endRow; rowIndex++) {
+                    for (int colIndex = startColumn; colIndex <= endColumn; colIndex++) {
+                        String value = getCellValue(sheet, rowIndex, colIndex);
+                        result[rowIndex - startRow][colIndex - startColumn] = value;
+                    }
+                }
+
+                return result;
+            });
+    }
+
     /**
      * Obtiene el valor de una celda específica dentro de una hoja
      */
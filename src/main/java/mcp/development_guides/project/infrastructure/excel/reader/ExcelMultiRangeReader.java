@@ -0,0 +1,231 @@
+package mcp.development_guides.project.infrastructure.excel.reader;
+
+import mcp.development_guides.project.domain.model.CellPosition;
+import mcp.development_guides.project.domain.model.ExcelRangeRequest;
+import mcp.development_guides.project.domain.model.ExcelRangeValues;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelDataConverter;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelValueFormatter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.IntFunction;
+
+/**
+ * Lectura de varios rangos (de una o varias hojas) abriendo el archivo una sola vez. Cada hoja se
+ * recorre en streaming una única vez para todos sus rangos y las hojas de un .xlsx se leen en paralelo
+ */
+@Component
+public class ExcelMultiRangeReader {
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelValueFormatter valueFormatter;
+
+    @Autowired
+    private ExcelDataConverter dataConverter;
+
+    /**
+     * Lee los rangos solicitados y devuelve un resultado por petición en el mismo orden. Los errores de
+     * una petición (hoja inexistente, rango inválido) se informan en su resultado sin afectar al resto.
+     * Los valores siguen las reglas de texto de excel_read_range, salvo que las fórmulas devuelven su
+     * resultado cacheado en lugar de recalcularse
+     */
+    public List<ExcelRangeValues> readMany(String filePath, List<ExcelRangeRequest> requests) {
+        return readMany(filePath, requests, false);
+    }
+
+    /**
+     * Igual que readMany, pero con formatted los valores se devuelven como los muestra Excel según el formato
+     * de número de cada celda
+     */
+    public List<ExcelRangeValues> readMany(String filePath, List<ExcelRangeRequest> requests, boolean formatted) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one range must be requested");
+        }
+
+        ExcelRangeValues[] results = new ExcelRangeValues[requests.size()];
+        Map<String, List<RangeBlock>> blocksBySheet = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            ExcelRangeRequest request = requests.get(i);
+            try {
+                blocksBySheet.computeIfAbsent(request.sheetName(), name -> new ArrayList<>())
+                    .add(RangeBlock.parse(i, request.range()));
+            } catch (IllegalArgumentException e) {
+                results[i] = new ExcelRangeValues(request.sheetName(), request.range(), 0, 0, new String[0][], e.getMessage());
+            }
+        }
+
+        boolean parallel = !filePath.toLowerCase().endsWith(".xls") && blocksBySheet.size() > 1;
+        streamingReader.executeWithStream(filePath,
+            String.format("Reading %d %sranges from %d sheets%s", requests.size(), formatted ? "formatted " : "",
+                blocksBySheet.size(), parallel ? " in parallel" : ""),
+            (workbook, path) -> {
+                Set<String> sheetNames = new HashSet<>(workbook.getSheetNames());
+                boolean date1904 = workbook.isDate1904();
+                var sheets = parallel ? blocksBySheet.entrySet().parallelStream() : blocksBySheet.entrySet().stream();
+                sheets.forEach(entry -> readSheet(workbook, sheetNames, entry.getKey(), entry.getValue(), requests, results, formatted, date1904));
+                return null;
+            });
+        return Arrays.asList(results);
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private void readSheet(ExcelStreamingWorkbook workbook, Set<String> sheetNames, String sheetName,
+                           List<RangeBlock> blocks, List<ExcelRangeRequest> requests, ExcelRangeValues[] results,
+                           boolean formatted, boolean date1904) {
+        String error = null;
+        if (!sheetNames.contains(sheetName)) {
+            error = "Sheet '" + sheetName + "' not found in workbook";
+        } else {
+            int lastNeededRow = blocks.stream().mapToInt(RangeBlock::lastRow).max().orElse(-1);
+            try {
+                workbook.streamSheet(sheetName, row -> {
+                    if (row.getRowIndex() > lastNeededRow) {
+                        return false;
+                    }
+                    for (RangeBlock block : blocks) {
+                        block.accept(row, formatted
+                            ? column -> valueFormatter.formatStreamedValue(workbook, row, column)
+                            : column -> streamedValue(row, column, date1904));
+                    }
+                    return true;
+                });
+            } catch (Exception e) {
+                error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            }
+        }
+
+        for (RangeBlock block : blocks) {
+            ExcelRangeRequest request = requests.get(block.requestIndex);
+            results[block.requestIndex] = error != null
+                ? new ExcelRangeValues(sheetName, request.range(), block.firstRow, block.firstColumn, new String[0][], error)
+                : new ExcelRangeValues(sheetName, request.range(), block.firstRow, block.firstColumn, block.toValues(), null);
+        }
+    }
+
+    private String streamedValue(ExcelStreamedRow row, int column, boolean date1904) {
+        StringBuilder text = new StringBuilder();
+        dataConverter.appendStreamedValue(row, column, date1904, text);
+        return text.toString();
+    }
+
+    /**
+     * Bloque rectangular pedido; las filas o columnas completas dejan abierto su extremo (Integer.MAX_VALUE)
+     * y se ajustan a lo que exista en la hoja
+     */
+    private static final class RangeBlock {
+
+        private final int requestIndex;
+        private final int firstRow;
+        private final int lastRow;
+        private final int firstColumn;
+        private final int lastColumn;
+        private final List<String[]> rows = new ArrayList<>();
+
+        private RangeBlock(int requestIndex, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+            this.requestIndex = requestIndex;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.firstColumn = firstColumn;
+            this.lastColumn = lastColumn;
+        }
+
+        int lastRow() {
+            return lastRow;
+        }
+
+        /**
+         * Interpreta "A1:D10", "B2", "C:C", "A:C", "5:5" o "2:4"
+         */
+        static RangeBlock parse(int requestIndex, String notation) {
+            String[] parts = notation.trim().replace("$", "").toUpperCase(Locale.ROOT).split(":");
+            if (parts.length > 2) {
+                throw new IllegalArgumentException("Invalid range reference: " + notation);
+            }
+            String start = parts[0];
+            String end = parts.length == 2 ? parts[1] : parts[0];
+
+            if (CellPosition.isColumnLetters(start) && CellPosition.isColumnLetters(end)) {
+                return ordered(requestIndex, notation, 0, Integer.MAX_VALUE,
+                    CellPosition.columnIndex(start), CellPosition.columnIndex(end));
+            }
+            if (start.matches("[0-9]+") && end.matches("[0-9]+")) {
+                return ordered(requestIndex, notation, Integer.parseInt(start) - 1, Integer.parseInt(end) - 1,
+                    0, Integer.MAX_VALUE);
+            }
+            CellPosition from = CellPosition.fromExcelNotation(start);
+            CellPosition to = CellPosition.fromExcelNotation(end);
+            return ordered(requestIndex, notation, from.row(), to.row(), from.column(), to.column());
+        }
+
+        private static RangeBlock ordered(int requestIndex, String notation, int firstRow, int lastRow, int firstColumn, int lastColumn) {
+            if (firstRow < 0 || firstRow > lastRow || firstColumn > lastColumn) {
+                throw new IllegalArgumentException("Invalid range reference: " + notation);
+            }
+            return new RangeBlock(requestIndex, firstRow, lastRow, firstColumn, lastColumn);
+        }
+
+        void accept(ExcelStreamedRow row, IntFunction<String> cellText) {
+            int rowIndex = row.getRowIndex();
+            if (rowIndex < firstRow || rowIndex > lastRow) {
+                return;
+            }
+            int last = lastColumn;
+            if (last == Integer.MAX_VALUE) {
+                last = row.getColumnCount() - 1;
+                while (last >= firstColumn && row.isBlank(last)) {
+                    last--;
+                }
+            }
+            String[] values = new String[Math.max(last - firstColumn + 1, 0)];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = cellText.apply(firstColumn + i);
+            }
+            int offset = rowIndex - firstRow;
+            while (rows.size() <= offset) {
+                rows.add(null);
+            }
+            rows.set(offset, values);
+        }
+
+        /**
+         * Matriz final con celdas vacías como "": los extremos cerrados se respetan y los abiertos
+         * llegan hasta la última fila o columna con datos
+         */
+        String[][] toValues() {
+            int rowCount = lastRow == Integer.MAX_VALUE ? rows.size() : lastRow - firstRow + 1;
+            int width = 0;
+            if (lastColumn != Integer.MAX_VALUE) {
+                width = lastColumn - firstColumn + 1;
+            } else {
+                for (String[] row : rows) {
+                    if (row != null) {
+                        width = Math.max(width, row.length);
+                    }
+                }
+            }
+
+            String[][] values = new String[rowCount][];
+            for (int i = 0; i < rowCount; i++) {
+                String[] row = i < rows.size() ? rows.get(i) : null;
+                if (row != null && row.length == width) {
+                    values[i] = row;
+                    continue;
+                }
+                values[i] = new String[width];
+                Arrays.fill(values[i], "");
+                if (row != null) {
+                    System.arraycopy(row, 0, values[i], 0, row.length);
+                }
+            }
+            return values;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package mcp.development_guides.project.infrastructure.excel.reader;
 
+import mcp.development_guides.project.domain.model.CellPosition;
 import mcp.development_guides.project.domain.model.ExcelCellData;
 import mcp.development_guides.project.domain.model.ExcelSheetData;
 import mcp.development_guides.project.domain.model.ExcelSheetInfo;
@@ -63,6 +64,23 @@ public class ExcelSheetReader {
         });
     }
 
+    /**
+     * Busca las celdas cuyo valor textual es exactamente searchValue. Se compara sobre el búfer reutilizado
+     * del convertidor, sin crear registros ni cadenas por celda
+     */
+    public List<CellPosition> findValue(String filePath, String sheetName, String searchValue) {
+        return fileHandler.executeWithWorkbook(filePath, "Finding value in sheet '" + sheetName + "'", (workbook, path) -> {
+            Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+            List<CellPosition> matches = new ArrayList<>();
+            dataConverter.visitSheet(sheet, (cell, text) -> {
+                if (searchValue.contentEquals(text)) {
+                    matches.add(new CellPosition(cell.getRowIndex(), cell.getColumnIndex()));
+                }
+            });
+            return matches;
+        });
+    }
+
     /**
      * Obtiene información básica de todas las hojas (compatibilidad)
      */
@@ -180,8 +198,7 @@ public class ExcelSheetReader {
             // Inicializamos celdas vacías hasta la columna necesaria
             while (rowData.size() < columnCount) {
                 int currentColumn = rowData.size();
-                rowData.add(new ExcelCellData(row.getRowNum(), currentColumn, "", "BLANK",
-                        String.format("%c%d", 'A' + currentColumn, row.getRowNum() + 1)));
+                rowData.add(new ExcelCellData(row.getRowNum(), currentColumn, "", "BLANK", null));
             }
 
             // Llenamos las celdas con datos
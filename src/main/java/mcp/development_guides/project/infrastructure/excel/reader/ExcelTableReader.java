@@ -0,0 +1,309 @@
+package mcp.development_guides.project.infrastructure.excel.reader;
+
+import mcp.development_guides.project.domain.model.CellPosition;
+import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelTableColumn;
+import mcp.development_guides.project.domain.model.ExcelTableData;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelCacheManager;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileWatcher;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelSizeEstimator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Lector especializado en hojas con estructura de tabla (fila de encabezado + filas de datos)
+ */
+@Component
+public class ExcelTableReader {
+
+    // Filas que se examinan para localizar el encabezado
+    private static final int HEADER_SCAN_ROWS = 30;
+
+    // Filas de datos que se examinan para inferir el tipo de cada columna
+    private static final int TYPE_SAMPLE_ROWS = 200;
+
+    // Región del gestor de caché con los esquemas detectados por archivo y hoja
+    private static final String SCHEMA_REGION = "table-schemas";
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelFileWatcher fileWatcher;
+
+    @Autowired
+    private ExcelCacheManager cacheManager;
+
+    /**
+     * Esquema detectado, válido mientras no cambie la versión del archivo
+     */
+    private record CachedSchema(ExcelFileVersion version, ExcelTableSchema schema) {
+    }
+
+    /**
+     * Muestra de las primeras filas de una hoja usada para detectar el esquema
+     */
+    private record SampledRow(int rowIndex, Object[] values, String[] types) {
+        int nonEmptyCount() {
+            int count = 0;
+            for (Object value : values) {
+                if (value != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    @PostConstruct
+    public void registerCache() {
+        cacheManager.registerRegion(SCHEMA_REGION, ExcelSizeEstimator::estimate, false, 0);
+        // Al cambiar el archivo se descartan sus esquemas sin esperar a la próxima consulta
+        fileWatcher.addListener(path -> cacheManager.removeIf(SCHEMA_REGION, key -> ((String) key).startsWith(path + "::")));
+    }
+
+    /**
+     * Lee una hoja como tabla compacta: esquema una sola vez y filas como arreglos de valores
+     */
+    public ExcelTableData readTable(String filePath, String sheetName, int offset, int limit) {
+        ExcelFileVersion version = ExcelFileVersion.of(filePath);
+        return streamingReader.executeWithStream(filePath, "Reading table from sheet '" + sheetName + "'", (workbook, path) -> {
+            ExcelTableSchema schema = getTableSchema(workbook, version, sheetName);
+            List<ExcelTableColumn> columns = schema.columns();
+
+            int firstRow = schema.firstDataRow() + Math.max(offset, 0);
+            int lastRow = limit > 0 ? firstRow + limit - 1 : Integer.MAX_VALUE;
+            List<Object[]> rows = new ArrayList<>();
+            int[] lastSeenRow = {schema.firstDataRow() - 1};
+
+            workbook.streamSheet(sheetName, row -> {
+                int rowIndex = row.getRowIndex();
+                if (rowIndex >= schema.firstDataRow()) {
+                    lastSeenRow[0] = rowIndex;
+                }
+                if (rowIndex < firstRow || rowIndex > lastRow) {
+                    return true;
+                }
+                // Las filas ausentes en el XML se devuelven vacías para conservar la posición
+                while (firstRow + rows.size() < rowIndex) {
+                    rows.add(new Object[columns.size()]);
+                }
+                Object[] values = new Object[columns.size()];
+                for (int i = 0; i < values.length; i++) {
+                    values[i] = row.getValueAsObject(columns.get(i).index());
+                }
+                rows.add(values);
+                return true;
+            });
+
+            int totalRows = Math.max(lastSeenRow[0] - schema.firstDataRow() + 1, 0);
+            return new ExcelTableData(schema, totalRows, Math.max(offset, 0), rows);
+        });
+    }
+
+    /**
+     * Obtiene el esquema de tabla de una hoja, usando la caché si el archivo no ha cambiado
+     */
+    public ExcelTableSchema getTableSchema(String filePath, String sheetName) {
+        ExcelFileVersion version = fileWatcher.currentVersion(filePath);
+        CachedSchema cached = (CachedSchema) cacheManager.get(SCHEMA_REGION, cacheKey(version, sheetName));
+        if (cached != null && cached.version().equals(version)) {
+            return cached.schema();
+        }
+        return streamingReader.executeWithStream(filePath, "Detecting table schema of sheet '" + sheetName + "'",
+            (workbook, path) -> getTableSchema(workbook, version, sheetName));
+    }
+
+    /**
+     * Obtiene el esquema de tabla usando un workbook ya abierto en streaming (lee solo las primeras filas)
+     */
+    public ExcelTableSchema getTableSchema(ExcelStreamingWorkbook workbook, ExcelFileVersion version, String sheetName) throws Exception {
+        String key = cacheKey(version, sheetName);
+        CachedSchema cached = (CachedSchema) cacheManager.get(SCHEMA_REGION, key);
+        if (cached != null && cached.version().equals(version)) {
+            return cached.schema();
+        }
+
+        ExcelTableSchema schema = detectSchema(sheetName, sampleRows(workbook, sheetName));
+        cacheManager.put(SCHEMA_REGION, key, new CachedSchema(version, schema));
+        System.out.println("🧭 Table schema detected for sheet '" + sheetName + "' (header row " + schema.headerRow() + ")");
+        return schema;
+    }
+
+    /**
+     * Resuelve una referencia de columna (nombre del encabezado o letra de columna) a su índice absoluto
+     */
+    public int resolveColumnIndex(ExcelTableSchema schema, String columnReference) {
+        ExcelTableColumn column = schema.findColumn(columnReference);
+        if (column != null) {
+            return column.index();
+        }
+        if (CellPosition.isColumnLetters(columnReference)) {
+            return CellPosition.columnIndex(columnReference);
+        }
+        throw new IllegalArgumentException("Column '" + columnReference + "' not found in sheet '" + schema.sheetName() + "'");
+    }
+
+    /**
+     * Resuelve una referencia de columna dentro de un rango A1 (por letra) o, sin rango o con un nombre,
+     * contra el esquema de tabla detectado; valida que la columna quede dentro del rango
+     */
+    public int resolveColumnIndex(ExcelStreamingWorkbook workbook, ExcelFileVersion version, String sheetName,
+                                  ExcelRange range, String columnReference) throws Exception {
+        int index = range != null && CellPosition.isColumnLetters(columnReference)
+            ? CellPosition.columnIndex(columnReference)
+            : resolveColumnIndex(getTableSchema(workbook, version, sheetName), columnReference);
+
+        if (range != null && (index < range.startPosition().column() || index > range.endPosition().column())) {
+            throw new IllegalArgumentException("Column '" + columnReference + "' is outside range " + range.toExcelNotation());
+        }
+        return index;
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Lee en streaming las primeras filas de la hoja y se detiene al completar la muestra
+     */
+    private List<SampledRow> sampleRows(ExcelStreamingWorkbook workbook, String sheetName) throws Exception {
+        List<SampledRow> sample = new ArrayList<>();
+        workbook.streamSheet(sheetName, row -> {
+            if (row.isEmpty()) {
+                return true;
+            }
+            Object[] values = new Object[row.getColumnCount()];
+            String[] types = new String[row.getColumnCount()];
+            for (int column = 0; column < values.length; column++) {
+                values[column] = row.getValueAsObject(column);
+                types[column] = row.getTypeName(column);
+            }
+            sample.add(new SampledRow(row.getRowIndex(), values, types));
+            return sample.size() < HEADER_SCAN_ROWS + TYPE_SAMPLE_ROWS;
+        });
+        return sample;
+    }
+
+    /**
+     * Detecta la fila de encabezado, los nombres de columna y el tipo de datos de cada columna
+     */
+    private ExcelTableSchema detectSchema(String sheetName, List<SampledRow> sample) {
+        if (sample.isEmpty()) {
+            return new ExcelTableSchema(sheetName, -1, 0, List.of());
+        }
+
+        int scanLimit = Math.min(sample.size(), HEADER_SCAN_ROWS);
+
+        // Ancho máximo observado para descartar títulos o notas de una sola celda
+        int maxWidth = 0;
+        for (int i = 0; i < scanLimit; i++) {
+            maxWidth = Math.max(maxWidth, sample.get(i).nonEmptyCount());
+        }
+
+        int headerPosition = -1;
+        for (int i = 0; i < scanLimit - 1; i++) {
+            SampledRow row = sample.get(i);
+            if (row.nonEmptyCount() * 2 >= maxWidth && isTextOnly(row)) {
+                headerPosition = i;
+                break;
+            }
+        }
+
+        List<ExcelTableColumn> columns = new ArrayList<>();
+        int firstDataPosition = headerPosition + 1;
+        if (headerPosition >= 0) {
+            SampledRow header = sample.get(headerPosition);
+            Set<String> seen = new HashSet<>();
+            int firstColumn = firstNonEmpty(header.values());
+            int lastColumn = lastNonEmpty(header.values());
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                Object value = header.values()[column];
+                String name = value != null ? value.toString().trim() : "";
+                if (name.isEmpty()) {
+                    name = CellPosition.columnLetters(column);
+                }
+                String uniqueName = name;
+                for (int suffix = 2; !seen.add(uniqueName.toLowerCase()); suffix++) {
+                    uniqueName = name + "_" + suffix;
+                }
+                columns.add(new ExcelTableColumn(uniqueName, column, inferColumnType(sample, firstDataPosition, column)));
+            }
+        } else {
+            int width = 0;
+            for (int i = 0; i < scanLimit; i++) {
+                width = Math.max(width, sample.get(i).values().length);
+            }
+            for (int column = 0; column < width; column++) {
+                columns.add(new ExcelTableColumn(CellPosition.columnLetters(column), column, inferColumnType(sample, 0, column)));
+            }
+        }
+
+        int headerRow = headerPosition >= 0 ? sample.get(headerPosition).rowIndex() : -1;
+        int firstDataRow = headerPosition >= 0 ? headerRow + 1 : sample.get(0).rowIndex();
+        return new ExcelTableSchema(sheetName, headerRow, firstDataRow, columns);
+    }
+
+    /**
+     * Infiere el tipo de una columna a partir de la muestra de filas de datos
+     */
+    private String inferColumnType(List<SampledRow> sample, int firstDataPosition, int column) {
+        Set<String> types = new HashSet<>();
+        int lastPosition = Math.min(sample.size(), firstDataPosition + TYPE_SAMPLE_ROWS);
+
+        for (int i = firstDataPosition; i < lastPosition; i++) {
+            SampledRow row = sample.get(i);
+            if (column < row.values().length && row.values()[column] != null) {
+                types.add(row.types()[column]);
+            }
+        }
+
+        if (types.isEmpty()) {
+            return "EMPTY";
+        }
+        if (types.size() == 1) {
+            return types.iterator().next();
+        }
+        if (types.size() == 2 && types.contains("INTEGER") && types.contains("DECIMAL")) {
+            return "DECIMAL";
+        }
+        return "MIXED";
+    }
+
+    private boolean isTextOnly(SampledRow row) {
+        for (int column = 0; column < row.values().length; column++) {
+            if (row.values()[column] != null && !"TEXT".equals(row.types()[column])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int firstNonEmpty(Object[] values) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private int lastNonEmpty(Object[] values) {
+        for (int i = values.length - 1; i >= 0; i--) {
+            if (values[i] != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+
+    private String cacheKey(ExcelFileVersion version, String sheetName) {
+        return version.path() + "::" + sheetName;
+    }
+}
@@ -2,12 +2,26 @@ package mcp.development_guides.project.infrastructure.excel.specialized;
 
 import mcp.development_guides.project.application.service.TemplateService;
 import mcp.development_guides.project.domain.model.*;
+import mcp.development_guides.project.infrastructure.excel.analysis.ExcelAggregator;
+import mcp.development_guides.project.infrastructure.excel.analysis.ExcelColumnProfiler;
+import mcp.development_guides.project.infrastructure.excel.analysis.ExcelSheetPreviewer;
+import mcp.development_guides.project.infrastructure.excel.analysis.ExcelStatisticsCalculator;
+import mcp.development_guides.project.infrastructure.excel.analysis.ExcelWorkbookDiffer;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelOffHeapSheetStore;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelResultCache;
 import mcp.development_guides.project.infrastructure.excel.reader.ExcelCellReader;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelMultiRangeReader;
 import mcp.development_guides.project.infrastructure.excel.reader.ExcelSheetReader;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import mcp.development_guides.project.infrastructure.excel.transform.ExcelRangeSorter;
+import mcp.development_guides.project.infrastructure.excel.transform.ExcelRowDeduplicator;
+import mcp.development_guides.project.infrastructure.excel.transform.ExcelSheetJoiner;
+import mcp.development_guides.project.infrastructure.excel.writer.ExcelBatchExecutor;
 import mcp.development_guides.project.infrastructure.excel.writer.ExcelCellWriter;
 import mcp.development_guides.project.infrastructure.excel.writer.ExcelSheetWriter;
 import mcp.development_guides.project.infrastructure.excel.writer.ExcelFormatWriter;
+import mcp.development_guides.project.infrastructure.excel.writer.ExcelRangeFiller;
 import mcp.development_guides.project.infrastructure.excel.writer.ExcelStructureEditor;
 import mcp.development_guides.project.infrastructure.excel.writer.ExcelFileWriter;
 import org.apache.poi.ss.usermodel.BorderStyle;
@@ -20,6 +34,7 @@ import org.springframework.stereotype.Service;
 import java.awt.Color;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,6 +49,12 @@ public class ExcelMCPService {
     @Autowired
     private ExcelFileHandler fileHandler;
 
+    @Autowired
+    private ExcelResultCache resultCache;
+
+    @Autowired
+    private ExcelOffHeapSheetStore offHeapStore;
+
     // DEPENDENCIAS READER
     @Autowired
     private ExcelCellReader cellReader;
@@ -41,6 +62,12 @@ public class ExcelMCPService {
     @Autowired
     private ExcelSheetReader sheetReader;
 
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    @Autowired
+    private ExcelMultiRangeReader multiRangeReader;
+
     // DEPENDENCIAS WRITER (AMPLIADAS)
     @Autowired
     private ExcelCellWriter cellWriter;
@@ -54,9 +81,41 @@ public class ExcelMCPService {
     @Autowired
     private ExcelStructureEditor structureEditor;
 
+    @Autowired
+    private ExcelRangeFiller rangeFiller;
+
     @Autowired
     private ExcelFileWriter fileWriter;
 
+    @Autowired
+    private ExcelBatchExecutor batchExecutor;
+
+    // DEPENDENCIAS DE TRANSFORMACIÓN
+    @Autowired
+    private ExcelRangeSorter rangeSorter;
+
+    @Autowired
+    private ExcelSheetJoiner sheetJoiner;
+
+    @Autowired
+    private ExcelRowDeduplicator rowDeduplicator;
+
+    // DEPENDENCIAS DE ANÁLISIS
+    @Autowired
+    private ExcelAggregator aggregator;
+
+    @Autowired
+    private ExcelStatisticsCalculator statisticsCalculator;
+
+    @Autowired
+    private ExcelWorkbookDiffer workbookDiffer;
+
+    @Autowired
+    private ExcelColumnProfiler columnProfiler;
+
+    @Autowired
+    private ExcelSheetPreviewer sheetPreviewer;
+
     // TEMPLATES
     @Autowired
     private TemplateService templateService;
@@ -107,16 +166,23 @@ public class ExcelMCPService {
         });
     }
 
+    @Tool(name = "excel_preview_sheet", description = "Quick preview of a sheet (sheetName empty = first sheet) in one partial read: first maxRows rows (default 20), detected header and columns, used range, merged regions and cheap per-column stats over the first data rows. Stops reading as soon as the preview is complete, so it is near-instant on huge sheets")
+    public ExcelSheetPreview previewSheet(String filePath, String sheetName, int maxRows) {
+        return resultCache.get("excel_preview_sheet", filePath,
+            () -> sheetPreviewer.previewSheet(filePath, sheetName, maxRows), sheetName, maxRows);
+    }
+
     // ==================== HERRAMIENTAS DE LECTURA ====================
 
     @Tool(name = "excel_read_sheet", description = "Read a specific sheet from an Excel file using modern record-based structure")
     public ExcelSheetData readSheetData(String filePath, String sheetName) {
-        return sheetReader.readSheetData(filePath, sheetName);
+        return resultCache.get("excel_read_sheet", filePath, () -> sheetReader.readSheetData(filePath, sheetName), sheetName);
     }
 
     @Tool(name = "excel_read_sheet_by_index", description = "Read a specific sheet from an Excel file by index using modern record-based structure")
     public ExcelSheetData readSheetDataByIndex(String filePath, int sheetIndex) {
-        return sheetReader.readSheetDataByIndex(filePath, sheetIndex);
+        return resultCache.get("excel_read_sheet_by_index", filePath,
+            () -> sheetReader.readSheetDataByIndex(filePath, sheetIndex), sheetIndex);
     }
 
     @Tool(name = "excel_read_cell", description = "Read a specific cell value from an Excel file")
@@ -129,19 +195,35 @@ public class ExcelMCPService {
         return cellReader.readCellData(filePath, sheetName, row, column);
     }
 
-    @Tool(name = "excel_read_range", description = "Read a range of cells from an Excel file")
-    public Object[][] readRange(String filePath, String sheetName, int startRow, int startColumn, int endRow, int endColumn) {
-        return cellReader.readRange(filePath, sheetName, startRow, startColumn, endRow, endColumn);
+    @Tool(name = "excel_read_range", description = "Read a range of cells from an Excel file. With formatted=true values come back as Excel displays them (percentages, currency, dates and custom number formats applied) instead of raw values")
+    public Object[][] readRange(String filePath, String sheetName, int startRow, int startColumn, int endRow, int endColumn,
+                                boolean formatted) {
+        return resultCache.get("excel_read_range", filePath,
+            () -> cellReader.readRange(filePath, sheetName, startRow, startColumn, endRow, endColumn, formatted),
+            sheetName, startRow, startColumn, endRow, endColumn, formatted);
+    }
+
+    @Tool(name = "excel_read_range_typed", description = "Read a range column by column with typed values instead of text. Each column has a type: NUMBER, DATE and BOOLEAN columns return values as a number array (dates as epoch milliseconds of the date-time taken as UTC, booleans 1/0), TEXT columns (also columns mixing types) return a dictionary of distinct strings plus one index per row (-1 = blank), EMPTY columns have no values. nulls is a Base64 bitmap of blank rows (bit i of byte i/8, least significant first), null when there are none")
+    public ExcelTypedRange readRangeTyped(String filePath, String sheetName, int startRow, int startColumn, int endRow, int endColumn) {
+        return resultCache.get("excel_read_range_typed", filePath,
+            () -> cellReader.readTypedRange(filePath, sheetName, startRow, startColumn, endRow, endColumn),
+            sheetName, startRow, startColumn, endRow, endColumn);
     }
 
     @Tool(name = "excel_read_row", description = "Read a complete row from an Excel file")
     public String[] readRow(String filePath, String sheetName, int rowIndex) {
-        return cellReader.readRow(filePath, sheetName, rowIndex);
+        return resultCache.get("excel_read_row", filePath, () -> cellReader.readRow(filePath, sheetName, rowIndex), sheetName, rowIndex);
     }
 
     @Tool(name = "excel_read_column", description = "Read a complete column from an Excel file")
     public String[] readColumn(String filePath, String sheetName, int columnIndex) {
-        return cellReader.readColumn(filePath, sheetName, columnIndex);
+        return resultCache.get("excel_read_column", filePath,
+            () -> cellReader.readColumn(filePath, sheetName, columnIndex), sheetName, columnIndex);
+    }
+
+    @Tool(name = "excel_read_many", description = "Read several ranges in one call, opening the file once. Each request has a sheetName and an A1 range: a block (A1:D10), a single cell (B2), whole columns (C:C, A:C) or whole rows (5:5). Sheets are read in parallel; results come back in request order with values as text, rendered like excel_read_range (empty string for blank and error cells), or an error per request. Formula cells return their cached result instead of being recalculated. formatted=true returns the values as Excel displays them with each cell's number format")
+    public List<ExcelRangeValues> readMany(String filePath, List<ExcelRangeRequest> requests, boolean formatted) {
+        return resultCache.get("excel_read_many", filePath, () -> multiRangeReader.readMany(filePath, requests, formatted), requests, formatted);
     }
 
     @Tool(name = "excel_get_sheet_names", description = "Get all sheet names from an Excel file")
@@ -151,46 +233,57 @@ public class ExcelMCPService {
 
     @Tool(name = "excel_get_sheets_summary", description = "Get summary information of all sheets using modern record structure")
     public List<ExcelSheetInfo> getSheetsSummary(String filePath) {
-        return sheetReader.getSheetsSummaryAsRecords(filePath);
+        return resultCache.get("excel_get_sheets_summary", filePath, () -> sheetReader.getSheetsSummaryAsRecords(filePath));
+    }
+
+    @Tool(name = "excel_read_table", description = "Read a sheet as a table: detects the header row and returns the column schema once plus rows as compact value arrays (offset/limit page the data rows, limit <= 0 reads all)")
+    public ExcelTableData readTable(String filePath, String sheetName, int offset, int limit) {
+        return resultCache.get("excel_read_table", filePath,
+            () -> tableReader.readTable(filePath, sheetName, offset, limit), sheetName, offset, limit);
     }
 
     // ==================== HERRAMIENTAS DE ESCRITURA DE CELDAS ====================
 
-    @Tool(name = "excel_modify_cells", description = "Modify multiple cells in a sheet with different types of content (text, numbers, formulas, booleans) in a single operation")
-    public boolean modifyCells(String filePath, String sheetName, List<CellModification> modifications) {
+    @Tool(name = "excel_modify_cells", description = "Modify multiple cells in a sheet with different types of content (text, numbers, formulas, booleans) in a single operation. Returns UPDATED, UNCHANGED (every cell already had the requested value, the file is not rewritten) or FAILED")
+    public ExcelWriteStatus modifyCells(String filePath, String sheetName, List<CellModification> modifications) {
         return cellWriter.modifyCells(filePath, sheetName, modifications);
     }
 
+    @Tool(name = "excel_batch", description = "Run an ordered list of operations against one loaded workbook with a single save. Each operation has a type (WRITE_CELL, WRITE_FORMULA, WRITE_ROWS, CLEAR_RANGE, FORMAT, INSERT_ROW, DELETE_ROW, INSERT_COLUMN, DELETE_COLUMN, MERGE, UNMERGE, COPY_RANGE, MOVE_RANGE, CREATE_SHEET, DELETE_SHEET, RENAME_SHEET, COPY_SHEET, CLEAR_SHEET), a sheet and the fields it needs: range (A1 cell or range), target (A1 cell or new sheet name), index (0-based row/column), value, rows, and for FORMAT bold/italic/fontColor/backgroundColor/borderStyle/borderColor/numberFormat/horizontalAlignment/verticalAlignment. All or nothing: if one operation fails nothing is saved. Returns per-operation status and timings")
+    public ExcelBatchResult executeBatch(String filePath, List<ExcelBatchOperation> operations) {
+        return batchExecutor.execute(filePath, operations);
+    }
+
     // ==================== HERRAMIENTAS DE FORMATO Y ESTILO ====================
 
-    @Tool(name = "excel_format_text", description = "Apply text formatting (bold, italic, color) to a cell")
-    public boolean formatCellText(String filePath, String sheetName, int row, int column,
+    @Tool(name = "excel_format_text", description = "Apply text formatting (bold, italic, color) to a cell. Returns UPDATED, UNCHANGED (the cell already looks like that, the file is not rewritten) or FAILED")
+    public ExcelWriteStatus formatCellText(String filePath, String sheetName, int row, int column,
                                  boolean bold, boolean italic, String textColorHex) {
         Color textColor = textColorHex != null ? Color.decode(textColorHex) : null;
         return formatWriter.formatText(filePath, sheetName, row, column, bold, italic, textColor);
     }
 
-    @Tool(name = "excel_set_background_color", description = "Set background color of a cell")
-    public boolean setCellBackgroundColor(String filePath, String sheetName, int row, int column, String colorHex) {
+    @Tool(name = "excel_set_background_color", description = "Set background color of a cell. Returns UPDATED, UNCHANGED or FAILED")
+    public ExcelWriteStatus setCellBackgroundColor(String filePath, String sheetName, int row, int column, String colorHex) {
         Color backgroundColor = Color.decode(colorHex);
         return formatWriter.setBackgroundColor(filePath, sheetName, row, column, backgroundColor);
     }
 
-    @Tool(name = "excel_set_borders", description = "Set borders around a cell")
-    public boolean setCellBorders(String filePath, String sheetName, int row, int column,
+    @Tool(name = "excel_set_borders", description = "Set borders around a cell. Returns UPDATED, UNCHANGED or FAILED")
+    public ExcelWriteStatus setCellBorders(String filePath, String sheetName, int row, int column,
                                  String borderStyle, String borderColorHex) {
         BorderStyle style = BorderStyle.valueOf(borderStyle.toUpperCase());
         Color borderColor = borderColorHex != null ? Color.decode(borderColorHex) : null;
         return formatWriter.setBorders(filePath, sheetName, row, column, style, borderColor);
     }
 
-    @Tool(name = "excel_set_number_format", description = "Set number format for a cell (e.g., currency, percentage)")
-    public boolean setCellNumberFormat(String filePath, String sheetName, int row, int column, String formatPattern) {
+    @Tool(name = "excel_set_number_format", description = "Set number format for a cell (e.g., currency, percentage). Returns UPDATED, UNCHANGED or FAILED")
+    public ExcelWriteStatus setCellNumberFormat(String filePath, String sheetName, int row, int column, String formatPattern) {
         return formatWriter.setNumberFormat(filePath, sheetName, row, column, formatPattern);
     }
 
-    @Tool(name = "excel_set_alignment", description = "Set text alignment for a cell")
-    public boolean setCellAlignment(String filePath, String sheetName, int row, int column,
+    @Tool(name = "excel_set_alignment", description = "Set text alignment for a cell. Returns UPDATED, UNCHANGED or FAILED")
+    public ExcelWriteStatus setCellAlignment(String filePath, String sheetName, int row, int column,
                                    String horizontal, String vertical) {
         HorizontalAlignment hAlign = horizontal != null ? HorizontalAlignment.valueOf(horizontal.toUpperCase()) : null;
         VerticalAlignment vAlign = vertical != null ? VerticalAlignment.valueOf(vertical.toUpperCase()) : null;
@@ -326,45 +419,108 @@ public class ExcelMCPService {
         return sheetWriter.writeRows(filePath, sheetName, startRow, data);
     }
 
-    // ==================== FUNCIONES ESPECIALIZADAS ESPECÍFICAS ====================
+    @Tool(name = "excel_write_columns", description = "Write a table column by column with typed primitive payloads, in the same shape excel_read_range_typed returns: each column has a type (NUMBER, DATE as epoch milliseconds of the date-time taken as UTC, BOOLEAN as 1/0 in values; TEXT as dictionary + indexes, -1 = blank), an optional Base64 nulls bitmap of blank rows, an optional numberFormat applied once to the whole column and an optional header (a header row is written first when any column has one). All columns must have the same number of rows. New sheets of .xlsx files are written in streaming. Returns the number of rows written")
+    public long writeColumns(String filePath, String sheetName, int startRow, int startColumn, List<ExcelColumnData> columns) {
+        return sheetWriter.writeColumns(filePath, sheetName, startRow, startColumn, columns);
+    }
 
-    @Tool(name = "excel_analyze_data_types", description = "Analyze and return data types for all cells in a sheet")
-    public Map<String, Object> analyzeDataTypes(String filePath, String sheetName) {
-        ExcelSheetData sheetData = sheetReader.readSheetData(filePath, sheetName);
-        Map<String, Object> analysis = new HashMap<>();
+    @Tool(name = "excel_fill", description = "Fill an A1 range in one pass. fillType: formula (value is the formula of the top-left cell; every other cell gets it with its relative references shifted, like Excel fill-down/fill-right; written as one shared formula on existing .xlsx sheets), linear (number series from value, adding step, default 1), date (series from an ISO date or date-time value, adding step units of unit: day, weekday, month or year) or constant (value in every cell; numbers and true/false keep their type). For series, direction down (default) or right sets the axis the series advances along; the other axis repeats it. Formula cells carry no cached values: Excel recalculates them on open")
+    public ExcelFillResult fill(String filePath, String sheetName, String range, String fillType, String value,
+                                Double step, String unit, String direction) {
+        return rangeFiller.fill(filePath, sheetName, range, fillType, value, step, unit, direction);
+    }
 
-        Map<String, Integer> typeCount = new HashMap<>();
-        int totalCells = 0;
+    @Tool(name = "excel_sort_range", description = "Sort a table (range empty: data rows below the detected header, header stays) or an A1 range by one or more keys ({column: header name or letter, order: asc|desc}). Numbers/dates < text (case-insensitive) < booleans < errors; blanks always last. Results are written in place, or to targetSheetName when given. Formulas in the sorted block are replaced by their cached values. Only values move: cell formatting (fills, fonts, borders, number formats) stays with its position and is not reordered with the rows; dates get a date format where the target cell has none")
+    public ExcelSortResult sortRange(String filePath, String sheetName, String range, List<ExcelSortKey> keys, String targetSheetName) {
+        return rangeSorter.sortRange(filePath, sheetName, range, keys, targetSheetName);
+    }
 
-        for (List<ExcelCellData> row : sheetData.rows()) {
-            for (ExcelCellData cell : row) {
-                if (!cell.value().isEmpty()) {
-                    typeCount.merge(cell.type(), 1, Integer::sum);
-                    totalCells++;
-                }
-            }
-        }
+    @Tool(name = "excel_join", description = "VLOOKUP-style hash join of two tables (header detected) in the same or different files. Keys are header names or letters (same count on both sides, compared by value text). joinType: inner, left or anti (left rows without match). Right file and target file default to the left file; the result is written with a header row to targetSheetName, which is replaced if it exists")
+    public ExcelJoinResult join(String leftFilePath, String leftSheetName, List<String> leftKeys,
+                                String rightFilePath, String rightSheetName, List<String> rightKeys,
+                                String joinType, String targetFilePath, String targetSheetName) {
+        return sheetJoiner.join(leftFilePath, leftSheetName, leftKeys, rightFilePath, rightSheetName, rightKeys,
+            joinType, targetFilePath, targetSheetName);
+    }
 
-        analysis.put("sheetName", sheetName);
-        analysis.put("totalCells", totalCells);
-        analysis.put("typeDistribution", typeCount);
-        analysis.put("sheetInfo", sheetData.info());
+    @Tool(name = "excel_dedupe_rows", description = "Find duplicate rows in a table (range empty) or an A1 range by fingerprinting the key columns (header names or letters; empty = all columns). The first occurrence is kept; with remove=true the duplicates are deleted, the rows below move up and formulas in the block are replaced by their cached values. Only values move up: cell formatting stays with its position. Returns the duplicate row indexes (0-based, up to 1000)")
+    public ExcelDedupeResult dedupeRows(String filePath, String sheetName, String range, List<String> keyColumns, boolean remove) {
+        return rowDeduplicator.dedupeRows(filePath, sheetName, range, keyColumns, remove);
+    }
 
-        return analysis;
+    // ==================== FUNCIONES ESPECIALIZADAS ESPECÍFICAS ====================
+
+    @Tool(name = "excel_analyze_data_types", description = "Analyze the data types of a sheet. totalCells and typeDistribution count the non-empty cells by cell type (STRING, NUMERIC, BOOLEAN, FORMULA) over the whole sheet; when first sampling stops early they only cover the rows read and typeDistributionComplete is false. columns profiles each column of the table: type distribution, null ratio, distinct-count estimate, min/max and most frequent values. sampleSize <= 0 profiles every row; otherwise samplingMode is first (default, the first N data rows), reservoir (uniform random sample) or stride (evenly spaced rows)")
+    public Map<String, Object> analyzeDataTypes(String filePath, String sheetName, String samplingMode, int sampleSize) {
+        // El muestreo reservoir es aleatorio: solo se memorizan los modos deterministas
+        if ("reservoir".equalsIgnoreCase(samplingMode) && sampleSize > 0) {
+            return buildDataTypeAnalysis(filePath, sheetName, samplingMode, sampleSize);
+        }
+        return resultCache.get("excel_analyze_data_types", filePath,
+            () -> buildDataTypeAnalysis(filePath, sheetName, samplingMode, sampleSize), sheetName, samplingMode, sampleSize);
     }
 
     @Tool(name = "excel_find_value", description = "Find all occurrences of a specific value in a sheet")
     public List<CellPosition> findValue(String filePath, String sheetName, String searchValue) {
-        ExcelSheetData sheetData = sheetReader.readSheetData(filePath, sheetName);
-        return sheetData.rows().stream()
-            .flatMap(List::stream)
-            .filter(cell -> cell.value().equals(searchValue))
-            .map(cell -> new CellPosition(cell.row(), cell.column()))
-            .toList();
+        return resultCache.get("excel_find_value", filePath, () -> offHeapStore.query(filePath, sheetName, sheet -> {
+            // Hojas grandes: se compara por identificador de texto o por número sobre la copia fuera del heap
+            List<CellPosition> matches = new ArrayList<>();
+            return sheet.find(searchValue, matches) ? matches : null;
+        }, () -> sheetReader.findValue(filePath, sheetName, searchValue)), sheetName, searchValue);
+    }
+
+    @Tool(name = "excel_aggregate", description = "Compute sum/avg/min/max/count over columns in a single streaming pass, optionally grouped by key columns. Columns are header names or letters; range is an optional A1 range of data cells (empty = whole table below the detected header); functions empty = all")
+    public ExcelAggregationResult aggregate(String filePath, String sheetName, String range, List<String> valueColumns,
+                                            List<String> groupByColumns, List<String> functions) {
+        return resultCache.get("excel_aggregate", filePath,
+            () -> aggregator.aggregate(filePath, sheetName, range, valueColumns, groupByColumns, functions),
+            sheetName, range, valueColumns, groupByColumns, functions);
+    }
+
+    @Tool(name = "excel_column_stats", description = "Numeric summary of a column (count, sum, mean, sample variance, standard deviation, min, max and an equal-width histogram). Column is a header name or letter; range is an optional A1 range (empty = whole table)")
+    public ExcelNumericSummary columnStatistics(String filePath, String sheetName, String column, String range, int bins) {
+        return resultCache.get("excel_column_stats", filePath,
+            () -> statisticsCalculator.summarizeColumn(filePath, sheetName, column, range, bins), sheetName, column, range, bins);
+    }
+
+    @Tool(name = "excel_diff", description = "Compare two workbooks (sheetName empty = all sheets with the same name) or two sheets (newFilePath empty = same file, newSheetName empty = same name). Rows are aligned by keyColumns (header names or letters) or by position when empty. Returns counts plus added, removed and changed rows with only the differing cells (up to maxChanges rows, default 200)")
+    public ExcelDiffResult diff(String oldFilePath, String newFilePath, String sheetName, String newSheetName,
+                                List<String> keyColumns, int maxChanges) {
+        return workbookDiffer.diff(oldFilePath, newFilePath, sheetName, newSheetName, keyColumns, maxChanges);
+    }
+
+    @Tool(name = "excel_cache_stats", description = "Hit/miss statistics of the in-memory cache of read-only tool results (entries are keyed by tool, arguments and file path + size + modification time), plus the shared cache manager: heap bytes against the budget, evictions, entries spilled off-heap and restored, and heap-pressure events; offHeapSheets reports the large sheets held in direct memory for find/read/stats")
+    public Map<String, Object> getCacheStatistics() {
+        Map<String, Object> statistics = new LinkedHashMap<>(resultCache.getStatistics());
+        statistics.put("offHeapSheets", offHeapStore.getStatistics());
+        return statistics;
     }
 
     @Tool(name = "excel_validate_file", description = "Validate if an Excel file exists and is accessible")
     public boolean validateExcelFile(String filePath) {
         return fileHandler.validateExcelFile(filePath);
     }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Resume el perfil de columnas en el formato de excel_analyze_data_types
+     */
+    private Map<String, Object> buildDataTypeAnalysis(String filePath, String sheetName, String samplingMode, int sampleSize) {
+        ExcelSheetProfile profile = columnProfiler.profileSheet(filePath, sheetName, samplingMode, sampleSize);
+        Map<String, Object> analysis = new HashMap<>();
+
+        // totalCells y typeDistribution cuentan las celdas no vacías por tipo; en first solo las filas leídas
+        analysis.put("sheetName", sheetName);
+        analysis.put("totalCells", profile.totalCells());
+        analysis.put("typeDistribution", profile.cellTypeDistribution());
+        analysis.put("typeDistributionComplete", profile.cellCountsComplete());
+        analysis.put("samplingMode", profile.samplingMode());
+        analysis.put("rowsScanned", profile.rowsScanned());
+        analysis.put("rowsProfiled", profile.rowsProfiled());
+        analysis.put("complete", profile.complete());
+        analysis.put("columns", profile.columns());
+
+        return analysis;
+    }
 }
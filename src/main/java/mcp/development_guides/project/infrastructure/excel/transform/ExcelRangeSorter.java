@@ -0,0 +1,356 @@
+package mcp.development_guides.project.infrastructure.excel.transform;
+
+import mcp.development_guides.project.domain.model.CellPosition;
+import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelSortKey;
+import mcp.development_guides.project.domain.model.ExcelSortResult;
+import mcp.development_guides.project.domain.model.ExcelTableColumn;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWriter;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Ordenación multi-clave de rangos o tablas. Ordena en memoria mientras las filas caben en el
+ * presupuesto configurado; por encima vuelca tramos ordenados a archivos temporales y los combina
+ * con una mezcla de k vías al escribir el resultado. Solo se reordenan valores: el formato de cada
+ * celda se queda en su posición
+ */
+@Component
+public class ExcelRangeSorter {
+
+    // Tamaño del búfer de lectura/escritura de cada tramo volcado a disco
+    private static final int RUN_BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    @Value("${excel.sort.memory-budget-bytes:67108864}")
+    private long memoryBudgetBytes;
+
+    /**
+     * Parámetros de la ordenación resueltos contra la hoja
+     */
+    private record SortPlan(int headerRow, Object[] header, int firstRow, int lastRow, int firstColumn, int width,
+                            int[] keyColumns, boolean[] descending) {
+    }
+
+    /**
+     * Filas leídas y ordenadas: en memoria o repartidas en tramos volcados a disco
+     */
+    private record SortInput(List<SortRow> rows, List<Path> runs, long rowCount) {
+    }
+
+    /**
+     * Ajusta el presupuesto de memoria (en bytes estimados) a partir del cual se vuelcan tramos a disco
+     */
+    public void setMemoryBudgetBytes(long memoryBudgetBytes) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Ordena las filas de datos de una tabla (rangeNotation vacío, el encabezado no se mueve) o de un
+     * rango A1, y escribe el resultado en la misma posición o en otra hoja si se indica targetSheetName
+     */
+    public ExcelSortResult sortRange(String filePath, String sheetName, String rangeNotation,
+                                     List<ExcelSortKey> keys, String targetSheetName) {
+        if (keys == null || keys.isEmpty()) {
+            throw new IllegalArgumentException("At least one sort key is required");
+        }
+        ExcelFileVersion version = ExcelFileVersion.of(filePath);
+        ExcelRange range = rangeNotation != null && !rangeNotation.isBlank() ? ExcelRange.fromExcelNotation(rangeNotation) : null;
+        String target = targetSheetName != null && !targetSheetName.isBlank() ? targetSheetName : sheetName;
+
+        SortPlan[] plan = new SortPlan[1];
+        SortInput input = streamingReader.executeWithStream(filePath,
+            String.format("Reading rows to sort by %s in sheet '%s'", keys, sheetName),
+            (workbook, path) -> {
+                plan[0] = buildPlan(workbook, version, sheetName, range, keys);
+                return readAndSortRuns(workbook, sheetName, plan[0]);
+            });
+
+        SortPlan sortPlan = plan[0];
+        SortRowComparator comparator = new SortRowComparator(sortPlan.keyColumns(), sortPlan.descending());
+        try (SortedRows sortedRows = new SortedRows(input, comparator, sortPlan.width())) {
+            boolean withHeader = sortPlan.header() != null && !target.equals(sheetName);
+            Iterator<Object[]> output = withHeader ? prepend(sortPlan.header(), sortedRows) : sortedRows;
+            int startRow = withHeader ? sortPlan.headerRow() : sortPlan.firstRow();
+
+            long written = streamingWriter.writeRows(filePath, target, startRow, sortPlan.firstColumn(), output);
+            String writtenRange = written > 0
+                ? new ExcelRange(startRow, sortPlan.firstColumn(), startRow + (int) written - 1,
+                    sortPlan.firstColumn() + sortPlan.width() - 1).toExcelNotation()
+                : "";
+            System.out.println("🔀 Sorted " + input.rowCount() + " rows" +
+                (input.runs().isEmpty() ? " in memory" : " with " + input.runs().size() + " spilled runs"));
+            return new ExcelSortResult(sheetName, target, writtenRange, input.rowCount(), input.runs().size());
+        } finally {
+            for (Path run : input.runs()) {
+                try {
+                    Files.deleteIfExists(run);
+                } catch (IOException e) {
+                    System.err.println("⚠️ Could not delete sort run " + run + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Resuelve el bloque de filas y columnas a ordenar y la posición relativa de cada clave
+     */
+    private SortPlan buildPlan(ExcelStreamingWorkbook workbook, ExcelFileVersion version, String sheetName,
+                               ExcelRange range, List<ExcelSortKey> keys) throws Exception {
+        ExcelTableSchema schema = null;
+        int headerRow = -1;
+        Object[] header = null;
+        int firstRow, lastRow, firstColumn, width;
+
+        if (range != null) {
+            firstRow = range.startPosition().row();
+            lastRow = range.endPosition().row();
+            firstColumn = range.startPosition().column();
+            width = range.getColumnCount();
+        } else {
+            schema = tableReader.getTableSchema(workbook, version, sheetName);
+            if (schema.columns().isEmpty()) {
+                throw new IllegalArgumentException("Sheet '" + sheetName + "' has no table to sort");
+            }
+            List<ExcelTableColumn> columns = schema.columns();
+            firstRow = schema.firstDataRow();
+            lastRow = Integer.MAX_VALUE;
+            firstColumn = columns.get(0).index();
+            width = columns.get(columns.size() - 1).index() - firstColumn + 1;
+            if (schema.hasHeader()) {
+                headerRow = schema.headerRow();
+                header = new Object[width];
+                for (ExcelTableColumn column : columns) {
+                    header[column.index() - firstColumn] = column.name();
+                }
+            }
+        }
+
+        int[] keyColumns = new int[keys.size()];
+        boolean[] descending = new boolean[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            ExcelSortKey key = keys.get(i);
+            int column;
+            if (range != null && CellPosition.isColumnLetters(key.column())) {
+                column = CellPosition.columnIndex(key.column());
+            } else {
+                if (schema == null) {
+                    schema = tableReader.getTableSchema(workbook, version, sheetName);
+                }
+                column = tableReader.resolveColumnIndex(schema, key.column());
+            }
+            if (column < firstColumn || column >= firstColumn + width) {
+                throw new IllegalArgumentException("Sort column '" + key.column() + "' is outside the sorted block");
+            }
+            keyColumns[i] = column - firstColumn;
+            descending[i] = key.isDescending();
+        }
+
+        return new SortPlan(headerRow, header, firstRow, lastRow, firstColumn, width, keyColumns, descending);
+    }
+
+    /**
+     * Lee las filas del bloque; cada vez que se supera el presupuesto ordena el tramo acumulado y lo vuelca a disco
+     */
+    private SortInput readAndSortRuns(ExcelStreamingWorkbook workbook, String sheetName, SortPlan plan) throws Exception {
+        SortRowComparator comparator = new SortRowComparator(plan.keyColumns(), plan.descending());
+        List<SortRow> chunk = new ArrayList<>();
+        List<Path> runs = new ArrayList<>();
+        long[] chunkBytes = {0};
+        long[] sequence = {0};
+
+        try {
+            workbook.streamSheet(sheetName, row -> {
+                int rowIndex = row.getRowIndex();
+                if (rowIndex < plan.firstRow()) {
+                    return true;
+                }
+                if (rowIndex > plan.lastRow()) {
+                    return false;
+                }
+                // Las filas ausentes en el XML cuentan como filas vacías para conservar el bloque completo
+                while (plan.firstRow() + sequence[0] <= rowIndex) {
+                    SortRow sortRow = plan.firstRow() + sequence[0] == rowIndex
+                        ? SortRow.copyOf(row, plan.firstColumn(), plan.width(), sequence[0])
+                        : SortRow.empty(plan.width(), sequence[0]);
+                    chunk.add(sortRow);
+                    chunkBytes[0] += sortRow.estimatedBytes();
+                    sequence[0]++;
+
+                    if (chunkBytes[0] > memoryBudgetBytes) {
+                        runs.add(spillRun(chunk, comparator));
+                        chunk.clear();
+                        chunkBytes[0] = 0;
+                    }
+                }
+                return true;
+            });
+
+            if (!runs.isEmpty() && !chunk.isEmpty()) {
+                runs.add(spillRun(chunk, comparator));
+                chunk.clear();
+            } else {
+                chunk.sort(comparator);
+            }
+        } catch (Exception e) {
+            for (Path run : runs) {
+                Files.deleteIfExists(run);
+            }
+            throw e;
+        }
+        return new SortInput(chunk, runs, sequence[0]);
+    }
+
+    /**
+     * Ordena un tramo en memoria y lo escribe en un archivo temporal
+     */
+    private Path spillRun(List<SortRow> chunk, SortRowComparator comparator) throws IOException {
+        chunk.sort(comparator);
+        Path run = Files.createTempFile("excel-sort-", ".run");
+        try (DataOutputStream output = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(run), RUN_BUFFER_SIZE))) {
+            output.writeInt(chunk.size());
+            for (SortRow row : chunk) {
+                row.writeTo(output);
+            }
+        }
+        System.out.println("💽 Spilled sorted run of " + chunk.size() + " rows to " + run);
+        return run;
+    }
+
+    private Iterator<Object[]> prepend(Object[] first, Iterator<Object[]> rest) {
+        return new Iterator<>() {
+            private boolean firstPending = true;
+
+            @Override
+            public boolean hasNext() {
+                return firstPending || rest.hasNext();
+            }
+
+            @Override
+            public Object[] next() {
+                if (firstPending) {
+                    firstPending = false;
+                    return first;
+                }
+                return rest.next();
+            }
+        };
+    }
+
+    /**
+     * Recorre las filas ordenadas: directamente desde memoria o mezclando los tramos con una cola de prioridad
+     */
+    private static final class SortedRows implements Iterator<Object[]>, AutoCloseable {
+
+        private final Iterator<SortRow> memoryRows;
+        private final PriorityQueue<RunReader> heads;
+        private final List<RunReader> readers = new ArrayList<>();
+
+        SortedRows(SortInput input, SortRowComparator comparator, int width) {
+            if (input.runs().isEmpty()) {
+                memoryRows = input.rows().iterator();
+                heads = null;
+                return;
+            }
+            memoryRows = null;
+            heads = new PriorityQueue<>(input.runs().size(), (left, right) -> comparator.compare(left.head, right.head));
+            try {
+                for (Path run : input.runs()) {
+                    RunReader reader = new RunReader(run, width);
+                    readers.add(reader);
+                    if (reader.advance()) {
+                        heads.add(reader);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException("Could not open sorted runs", e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return memoryRows != null ? memoryRows.hasNext() : !heads.isEmpty();
+        }
+
+        @Override
+        public Object[] next() {
+            if (memoryRows != null) {
+                return memoryRows.next().toValues();
+            }
+            RunReader reader = heads.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            SortRow row = reader.head;
+            try {
+                if (reader.advance()) {
+                    heads.add(reader);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read sorted run", e);
+            }
+            return row.toValues();
+        }
+
+        @Override
+        public void close() {
+            for (RunReader reader : readers) {
+                try {
+                    reader.input.close();
+                } catch (IOException e) {
+                    System.err.println("⚠️ Could not close sort run: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Lector secuencial de un tramo volcado a disco; head es la fila actual del tramo
+     */
+    private static final class RunReader {
+
+        private final DataInputStream input;
+        private final int width;
+        private int remaining;
+        private SortRow head;
+
+        RunReader(Path run, int width) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), RUN_BUFFER_SIZE));
+            this.width = width;
+            this.remaining = input.readInt();
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0) {
+                head = null;
+                return false;
+            }
+            head = SortRow.readFrom(input, width);
+            remaining--;
+            return true;
+        }
+    }
+}
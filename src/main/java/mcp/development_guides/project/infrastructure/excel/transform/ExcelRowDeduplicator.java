@@ -0,0 +1,260 @@
+package mcp.development_guides.project.infrastructure.excel.transform;
+
+import mcp.development_guides.project.domain.model.ExcelDedupeResult;
+import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelTableColumn;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.analysis.LongBloomFilter;
+import mcp.development_guides.project.infrastructure.excel.analysis.LongHashSet;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWriter;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Detección y eliminación de filas duplicadas mediante huellas de 64 bits de las columnas clave.
+ * Con pocos valores distintos basta un conjunto primitivo en un solo pase; si se supera el presupuesto
+ * de memoria se hace un pase previo con filtro de Bloom y solo se guardan exactas las huellas candidatas.
+ * Al eliminar duplicados solo suben los valores: el formato de cada celda se queda en su posición
+ */
+@Component
+public class ExcelRowDeduplicator {
+
+    // Filas duplicadas que se devuelven como máximo en el informe
+    private static final int MAX_REPORTED_ROWS = 1000;
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    @Value("${excel.dedupe.memory-budget-bytes:67108864}")
+    private long memoryBudgetBytes;
+
+    /**
+     * Bloque de filas y columnas analizado y columnas clave (índices absolutos)
+     */
+    private record DedupeBlock(int firstRow, int lastRow, int firstColumn, int width, int[] keyIndexes) {
+    }
+
+    /**
+     * Filas duplicadas (por posición relativa al inicio del bloque) y estrategia usada
+     */
+    private record Detection(BitSet duplicates, long rowsScanned, String strategy) {
+    }
+
+    /**
+     * Ajusta el presupuesto de memoria (en bytes) del conjunto exacto de huellas
+     */
+    public void setMemoryBudgetBytes(long memoryBudgetBytes) {
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    /**
+     * Detecta filas duplicadas según las columnas clave (vacío = todas las columnas del bloque) en una
+     * tabla (rangeNotation vacío) o un rango A1. Se conserva la primera aparición; con remove las
+     * duplicadas se eliminan del bloque desplazando hacia arriba las filas siguientes
+     */
+    public ExcelDedupeResult dedupeRows(String filePath, String sheetName, String rangeNotation,
+                                        List<String> keyColumns, boolean remove) {
+        ExcelFileVersion version = ExcelFileVersion.of(filePath);
+        ExcelRange range = rangeNotation != null && !rangeNotation.isBlank() ? ExcelRange.fromExcelNotation(rangeNotation) : null;
+        List<String> keys = keyColumns != null ? keyColumns : List.of();
+
+        DedupeBlock[] block = new DedupeBlock[1];
+        Detection detection = streamingReader.executeWithStream(filePath,
+            String.format("Detecting duplicate rows by %s in sheet '%s'", keys.isEmpty() ? "all columns" : keys, sheetName),
+            (workbook, path) -> {
+                block[0] = resolveBlock(workbook, version, sheetName, range, keys);
+                return detectDuplicates(workbook, sheetName, block[0]);
+            });
+
+        BitSet duplicates = detection.duplicates();
+        long duplicateCount = duplicates.cardinality();
+        List<Integer> duplicateRows = new ArrayList<>();
+        for (int i = duplicates.nextSetBit(0); i >= 0 && duplicateRows.size() < MAX_REPORTED_ROWS; i = duplicates.nextSetBit(i + 1)) {
+            duplicateRows.add(block[0].firstRow() + i);
+        }
+        System.out.println("🔁 Found " + duplicateCount + " duplicate rows in " + detection.rowsScanned()
+            + " rows (" + detection.strategy() + ")");
+
+        boolean removed = false;
+        if (remove && duplicateCount > 0) {
+            removeDuplicates(filePath, sheetName, block[0], duplicates);
+            removed = true;
+        }
+
+        return new ExcelDedupeResult(sheetName, keys, detection.rowsScanned(), duplicateCount, duplicateRows,
+            duplicateCount > duplicateRows.size(), removed, detection.strategy());
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private DedupeBlock resolveBlock(ExcelStreamingWorkbook workbook, ExcelFileVersion version, String sheetName,
+                                     ExcelRange range, List<String> keys) throws Exception {
+        int firstRow, lastRow, firstColumn, width;
+        if (range != null) {
+            firstRow = range.startPosition().row();
+            lastRow = range.endPosition().row();
+            firstColumn = range.startPosition().column();
+            width = range.getColumnCount();
+        } else {
+            ExcelTableSchema schema = tableReader.getTableSchema(workbook, version, sheetName);
+            if (schema.columns().isEmpty()) {
+                throw new IllegalArgumentException("Sheet '" + sheetName + "' has no table to deduplicate");
+            }
+            List<ExcelTableColumn> columns = schema.columns();
+            firstRow = schema.firstDataRow();
+            lastRow = Integer.MAX_VALUE;
+            firstColumn = columns.get(0).index();
+            width = columns.get(columns.size() - 1).index() - firstColumn + 1;
+        }
+
+        int[] keyIndexes;
+        if (keys.isEmpty()) {
+            keyIndexes = new int[width];
+            for (int i = 0; i < width; i++) {
+                keyIndexes[i] = firstColumn + i;
+            }
+        } else {
+            keyIndexes = new int[keys.size()];
+            for (int i = 0; i < keyIndexes.length; i++) {
+                keyIndexes[i] = tableReader.resolveColumnIndex(workbook, version, sheetName, range, keys.get(i));
+            }
+        }
+        return new DedupeBlock(firstRow, lastRow, firstColumn, width, keyIndexes);
+    }
+
+    /**
+     * Primer intento con un conjunto exacto de huellas; si supera el presupuesto se repite con filtro de Bloom
+     */
+    private Detection detectDuplicates(ExcelStreamingWorkbook workbook, String sheetName, DedupeBlock block) throws Exception {
+        long maxExactKeys = Math.max(memoryBudgetBytes / LongHashSet.BYTES_PER_ENTRY, 1);
+        LongHashSet seen = new LongHashSet(1024);
+        BitSet duplicates = new BitSet();
+        long[] rowsScanned = {0};
+        boolean[] overflow = {false};
+
+        streamKeyRows(workbook, sheetName, block, (row, position) -> {
+            rowsScanned[0]++;
+            if (!seen.add(row.fingerprint(block.keyIndexes()))) {
+                duplicates.set(position);
+            } else if (seen.size() > maxExactKeys) {
+                overflow[0] = true;
+                return false;
+            }
+            return true;
+        });
+        if (!overflow[0]) {
+            return new Detection(duplicates, rowsScanned[0], "hash-set");
+        }
+
+        System.out.println("⚠️ Distinct keys exceed the memory budget, switching to Bloom filter pre-pass");
+        long filterBytes = memoryBudgetBytes / 2;
+        LongBloomFilter filter = new LongBloomFilter(filterBytes * 8 / 10, filterBytes);
+        LongHashSet candidates = new LongHashSet(1024);
+        streamKeyRows(workbook, sheetName, block, (row, position) -> {
+            long hash = row.fingerprint(block.keyIndexes());
+            if (filter.put(hash)) {
+                candidates.add(hash);
+            }
+            return true;
+        });
+
+        // Segundo pase: solo las huellas candidatas (duplicados reales y falsos positivos) se comprueban de forma exacta
+        LongHashSet seenCandidates = new LongHashSet(candidates.size());
+        duplicates.clear();
+        rowsScanned[0] = 0;
+        streamKeyRows(workbook, sheetName, block, (row, position) -> {
+            rowsScanned[0]++;
+            long hash = row.fingerprint(block.keyIndexes());
+            if (candidates.contains(hash) && !seenCandidates.add(hash)) {
+                duplicates.set(position);
+            }
+            return true;
+        });
+        return new Detection(duplicates, rowsScanned[0], "bloom-two-pass");
+    }
+
+    /**
+     * Manejador de filas del bloque con su posición relativa al inicio
+     */
+    @FunctionalInterface
+    private interface BlockRowHandler {
+        boolean handle(ExcelStreamedRow row, int position) throws Exception;
+    }
+
+    /**
+     * Recorre las filas del bloque cuyas columnas clave no están todas vacías
+     */
+    private void streamKeyRows(ExcelStreamingWorkbook workbook, String sheetName, DedupeBlock block,
+                               BlockRowHandler handler) throws Exception {
+        workbook.streamSheet(sheetName, row -> {
+            int rowIndex = row.getRowIndex();
+            if (rowIndex < block.firstRow()) {
+                return true;
+            }
+            if (rowIndex > block.lastRow()) {
+                return false;
+            }
+            for (int keyIndex : block.keyIndexes()) {
+                if (!row.isBlank(keyIndex)) {
+                    return handler.handle(row, rowIndex - block.firstRow());
+                }
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Reescribe el bloque sin las filas duplicadas y vacía las filas que quedan libres al final
+     */
+    private void removeDuplicates(String filePath, String sheetName, DedupeBlock block, BitSet duplicates) {
+        Object[] blank = new Object[block.width()];
+        try (ExcelStreamingWriter.RowSink sink = streamingWriter.openSheet(filePath, sheetName, block.firstRow(), block.firstColumn(), false)) {
+            streamingReader.streamSheet(filePath, sheetName, new ExcelStreamingWorkbook.RowHandler() {
+                private int nextRow = block.firstRow();
+
+                @Override
+                public boolean handleRow(ExcelStreamedRow row) {
+                    int rowIndex = row.getRowIndex();
+                    if (rowIndex < block.firstRow()) {
+                        return true;
+                    }
+                    if (rowIndex > block.lastRow()) {
+                        return false;
+                    }
+                    // Las filas ausentes en el XML se conservan como filas vacías
+                    for (; nextRow < rowIndex; nextRow++) {
+                        sink.write(blank);
+                    }
+                    nextRow = rowIndex + 1;
+                    if (!duplicates.get(rowIndex - block.firstRow())) {
+                        Object[] values = new Object[block.width()];
+                        for (int i = 0; i < values.length; i++) {
+                            values[i] = row.getWritableValue(block.firstColumn() + i);
+                        }
+                        sink.write(values);
+                    }
+                    return true;
+                }
+            });
+
+            for (int i = 0; i < duplicates.cardinality(); i++) {
+                sink.write(blank);
+            }
+            sink.commit();
+        }
+    }
+}
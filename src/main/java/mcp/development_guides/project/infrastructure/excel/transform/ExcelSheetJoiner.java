@@ -0,0 +1,334 @@
+package mcp.development_guides.project.infrastructure.excel.transform;
+
+import mcp.development_guides.project.domain.model.ExcelJoinResult;
+import mcp.development_guides.project.domain.model.ExcelTableColumn;
+import mcp.development_guides.project.domain.model.ExcelTableSchema;
+import mcp.development_guides.project.infrastructure.excel.analysis.GroupKeyIndex;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileVersion;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWorkbook;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWriter;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * Combinación (hash join) entre dos tablas de la misma hoja, de hojas distintas o de archivos distintos.
+ * La tabla de hash se construye sobre el lado más pequeño y el lado mayor se recorre en streaming,
+ * de modo que la memoria queda acotada por el lado de construcción
+ */
+@Component
+public class ExcelSheetJoiner {
+
+    private static final List<String> SUPPORTED_JOIN_TYPES = List.of("inner", "left", "anti");
+
+    // Separador entre las partes de una clave compuesta
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    @Autowired
+    private ExcelStreamingReader streamingReader;
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @Autowired
+    private ExcelTableReader tableReader;
+
+    /**
+     * Lado de la combinación ya resuelto: esquema, columnas clave y columnas que pasan al resultado
+     */
+    private record JoinSide(ExcelStreamingWorkbook workbook, String sheetName, ExcelTableSchema schema,
+                            int[] keyIndexes, int[] outputIndexes) {
+    }
+
+    /**
+     * Filas del lado de construcción agrupadas por clave en cadenas (head/next) en orden de lectura
+     */
+    private static final class BuildTable {
+
+        private final GroupKeyIndex keys = new GroupKeyIndex(1024);
+        private final List<Object[]> rows = new ArrayList<>();
+        private int[] heads = new int[1024];
+        private int[] tails = new int[1024];
+        private int[] next = new int[1024];
+
+        void add(CharSequence key, Object[] values) {
+            int row = rows.size();
+            rows.add(values);
+            if (row == next.length) {
+                next = Arrays.copyOf(next, row * 2);
+            }
+            next[row] = -1;
+            // Las filas con clave vacía se guardan pero nunca coinciden
+            if (key == null) {
+                return;
+            }
+
+            int group = keys.getOrAdd(key);
+            if (group < 0) {
+                group = -group - 1;
+                if (group == heads.length) {
+                    heads = Arrays.copyOf(heads, group * 2);
+                    tails = Arrays.copyOf(tails, group * 2);
+                }
+                heads[group] = row;
+            } else {
+                next[tails[group]] = row;
+            }
+            tails[group] = row;
+        }
+
+        int firstMatch(CharSequence key) {
+            int group = key != null ? keys.find(key) : -1;
+            return group >= 0 ? heads[group] : -1;
+        }
+
+        int nextMatch(int row) {
+            return next[row];
+        }
+
+        Object[] row(int row) {
+            return rows.get(row);
+        }
+
+        int size() {
+            return rows.size();
+        }
+    }
+
+    /**
+     * Combina la tabla izquierda con la derecha por sus columnas clave (nombre de encabezado o letra) y
+     * escribe el resultado con encabezado en targetSheetName (se reemplaza si existe).
+     * joinType: inner (solo coincidencias), left (todas las filas izquierdas) o anti (filas izquierdas sin coincidencia)
+     */
+    public ExcelJoinResult join(String leftFilePath, String leftSheetName, List<String> leftKeys,
+                                String rightFilePath, String rightSheetName, List<String> rightKeys,
+                                String joinType, String targetFilePath, String targetSheetName) {
+        String type = normalizeJoinType(joinType);
+        if (leftKeys == null || leftKeys.isEmpty() || rightKeys == null || leftKeys.size() != rightKeys.size()) {
+            throw new IllegalArgumentException("Left and right key lists must be non-empty and of the same length");
+        }
+        if (targetSheetName == null || targetSheetName.isBlank()) {
+            throw new IllegalArgumentException("Target sheet name is required");
+        }
+        String rightFile = rightFilePath != null && !rightFilePath.isBlank() ? rightFilePath : leftFilePath;
+        String targetFile = targetFilePath != null && !targetFilePath.isBlank() ? targetFilePath : leftFilePath;
+        if ((isSameFile(targetFile, leftFilePath) && targetSheetName.equals(leftSheetName))
+                || (isSameFile(targetFile, rightFile) && targetSheetName.equals(rightSheetName))) {
+            throw new IllegalArgumentException("Target sheet must be different from the joined sheets");
+        }
+
+        ExcelFileVersion leftVersion = ExcelFileVersion.of(leftFilePath);
+        ExcelFileVersion rightVersion = ExcelFileVersion.of(rightFile);
+
+        return streamingReader.executeWithStream(leftFilePath,
+            String.format("Joining '%s' with '%s' (%s join on %s = %s)", leftSheetName, rightSheetName, type, leftKeys, rightKeys),
+            (leftWorkbook, path) -> {
+                try (ExcelStreamingWorkbook rightWorkbook = ExcelStreamingWorkbook.open(rightFile)) {
+                    ExcelTableSchema leftSchema = tableReader.getTableSchema(leftWorkbook, leftVersion, leftSheetName);
+                    ExcelTableSchema rightSchema = tableReader.getTableSchema(rightWorkbook, rightVersion, rightSheetName);
+
+                    int[] rightKeyIndexes = resolveAll(rightSchema, rightKeys);
+                    JoinSide left = new JoinSide(leftWorkbook, leftSheetName, leftSchema,
+                        resolveAll(leftSchema, leftKeys), allColumns(leftSchema, new int[0]));
+                    JoinSide right = new JoinSide(rightWorkbook, rightSheetName, rightSchema, rightKeyIndexes,
+                        type.equals("anti") ? new int[0] : allColumns(rightSchema, rightKeyIndexes));
+
+                    List<String> columns = outputColumns(left, right);
+                    boolean buildLeft = leftWorkbook.estimateSheetSize(leftSheetName) < rightWorkbook.estimateSheetSize(rightSheetName);
+                    JoinSide build = buildLeft ? left : right;
+                    JoinSide probe = buildLeft ? right : left;
+
+                    BuildTable table = buildTable(build);
+                    System.out.println("🧱 Built hash table on " + (buildLeft ? "left" : "right") + " side: "
+                        + table.size() + " rows, " + table.keys.size() + " distinct keys");
+
+                    try (ExcelStreamingWriter.RowSink sink = streamingWriter.openSheet(targetFile, targetSheetName, 0, 0, true)) {
+                        sink.write(columns.toArray());
+                        long probeRows = buildLeft
+                            ? probeWithLeftBuild(table, left, right, type, sink)
+                            : probeWithRightBuild(table, left, right, type, sink);
+                        long written = sink.commit() - 1;
+                        return new ExcelJoinResult(targetFile, targetSheetName, type, buildLeft ? "left" : "right",
+                            table.size(), probeRows, written, columns);
+                    }
+                }
+            });
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Carga el lado de construcción en la tabla de hash
+     */
+    private BuildTable buildTable(JoinSide side) throws Exception {
+        BuildTable table = new BuildTable();
+        StringBuilder key = new StringBuilder();
+        streamDataRows(side, row -> {
+            table.add(buildKey(row, side.keyIndexes(), key), values(row, side.outputIndexes()));
+            return true;
+        });
+        return table;
+    }
+
+    /**
+     * Construcción sobre la tabla derecha: se recorre la izquierda y se emite cada fila con sus coincidencias
+     */
+    private long probeWithRightBuild(BuildTable table, JoinSide left, JoinSide right, String type,
+                                     ExcelStreamingWriter.RowSink sink) throws Exception {
+        StringBuilder key = new StringBuilder();
+        Object[] noMatch = new Object[right.outputIndexes().length];
+        long[] probeRows = {0};
+
+        streamDataRows(left, row -> {
+            probeRows[0]++;
+            int match = table.firstMatch(buildKey(row, left.keyIndexes(), key));
+            if (match < 0) {
+                if (!type.equals("inner")) {
+                    sink.write(concat(values(row, left.outputIndexes()), noMatch));
+                }
+                return true;
+            }
+            if (type.equals("anti")) {
+                return true;
+            }
+            Object[] leftValues = values(row, left.outputIndexes());
+            for (; match >= 0; match = table.nextMatch(match)) {
+                sink.write(concat(leftValues, table.row(match)));
+            }
+            return true;
+        });
+        return probeRows[0];
+    }
+
+    /**
+     * Construcción sobre la tabla izquierda: se recorre la derecha marcando las filas izquierdas que
+     * coinciden; al final se emiten las no emparejadas (left/anti). El resultado sigue el orden de la derecha
+     */
+    private long probeWithLeftBuild(BuildTable table, JoinSide left, JoinSide right, String type,
+                                    ExcelStreamingWriter.RowSink sink) throws Exception {
+        StringBuilder key = new StringBuilder();
+        BitSet matched = new BitSet(table.size());
+        long[] probeRows = {0};
+
+        streamDataRows(right, row -> {
+            probeRows[0]++;
+            int match = table.firstMatch(buildKey(row, right.keyIndexes(), key));
+            if (match < 0) {
+                return true;
+            }
+            Object[] rightValues = type.equals("anti") ? null : values(row, right.outputIndexes());
+            for (; match >= 0; match = table.nextMatch(match)) {
+                matched.set(match);
+                if (rightValues != null) {
+                    sink.write(concat(table.row(match), rightValues));
+                }
+            }
+            return true;
+        });
+
+        if (!type.equals("inner")) {
+            Object[] noMatch = new Object[right.outputIndexes().length];
+            for (int row = matched.nextClearBit(0); row < table.size(); row = matched.nextClearBit(row + 1)) {
+                sink.write(concat(table.row(row), noMatch));
+            }
+        }
+        return probeRows[0];
+    }
+
+    /**
+     * Recorre las filas de datos no vacías de un lado (debajo del encabezado detectado)
+     */
+    private void streamDataRows(JoinSide side, ExcelStreamingWorkbook.RowHandler handler) throws Exception {
+        int firstRow = side.schema().firstDataRow();
+        side.workbook().streamSheet(side.sheetName(), row ->
+            row.getRowIndex() < firstRow || row.isEmpty() || handler.handleRow(row));
+    }
+
+    /**
+     * Construye la clave de la fila; null si alguna parte está vacía (las claves vacías no coinciden)
+     */
+    private CharSequence buildKey(ExcelStreamedRow row, int[] keyIndexes, StringBuilder key) {
+        key.setLength(0);
+        for (int keyIndex : keyIndexes) {
+            if (row.isBlank(keyIndex)) {
+                return null;
+            }
+            row.appendValue(keyIndex, key);
+            key.append(KEY_SEPARATOR);
+        }
+        return key;
+    }
+
+    private Object[] values(ExcelStreamedRow row, int[] indexes) {
+        Object[] values = new Object[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            values[i] = row.getWritableValue(indexes[i]);
+        }
+        return values;
+    }
+
+    private Object[] concat(Object[] left, Object[] right) {
+        Object[] values = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, values, left.length, right.length);
+        return values;
+    }
+
+    private int[] resolveAll(ExcelTableSchema schema, List<String> references) {
+        int[] indexes = new int[references.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = tableReader.resolveColumnIndex(schema, references.get(i));
+        }
+        return indexes;
+    }
+
+    /**
+     * Índices de todas las columnas de la tabla excepto las excluidas
+     */
+    private int[] allColumns(ExcelTableSchema schema, int[] excluded) {
+        return schema.columns().stream()
+            .mapToInt(ExcelTableColumn::index)
+            .filter(index -> Arrays.stream(excluded).noneMatch(e -> e == index))
+            .toArray();
+    }
+
+    /**
+     * Nombres de las columnas del resultado; las columnas derechas que repiten un nombre se prefijan con su hoja
+     */
+    private List<String> outputColumns(JoinSide left, JoinSide right) {
+        List<String> columns = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (JoinSide side : List.of(left, right)) {
+            for (int index : side.outputIndexes()) {
+                ExcelTableColumn column = side.schema().columns().stream()
+                    .filter(c -> c.index() == index).findFirst().orElseThrow();
+                String name = column.name();
+                if (!seen.add(name.toLowerCase())) {
+                    name = side.sheetName() + "." + name;
+                    seen.add(name.toLowerCase());
+                }
+                columns.add(name);
+            }
+        }
+        return columns;
+    }
+
+    private String normalizeJoinType(String joinType) {
+        String type = joinType != null && !joinType.isBlank() ? joinType.trim().toLowerCase() : "inner";
+        if (type.equals("left_anti") || type.equals("left-anti")) {
+            type = "anti";
+        }
+        if (!SUPPORTED_JOIN_TYPES.contains(type)) {
+            throw new IllegalArgumentException("Unsupported join type '" + joinType + "'. Supported: " + SUPPORTED_JOIN_TYPES);
+        }
+        return type;
+    }
+
+    private boolean isSameFile(String first, String second) {
+        return new File(first).getAbsoluteFile().equals(new File(second).getAbsoluteFile());
+    }
+}
@@ -0,0 +1,160 @@
+package mcp.development_guides.project.infrastructure.excel.transform;
+
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow.CellKind;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.FormulaError;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Copia inmutable de un tramo de columnas de una fila leída en streaming, con el número de secuencia
+ * original para que la ordenación sea estable. Se serializa en formato binario compacto para los
+ * tramos volcados a disco
+ */
+final class SortRow {
+
+    private static final CellKind[] KINDS = CellKind.values();
+
+    // Sobrecoste aproximado de cada objeto y arreglo en el heap
+    private static final int OBJECT_OVERHEAD = 16;
+
+    private final long sequence;
+    private final byte[] kinds;
+    private final double[] numbers;
+    private final String[] texts;
+
+    private SortRow(long sequence, byte[] kinds, double[] numbers, String[] texts) {
+        this.sequence = sequence;
+        this.kinds = kinds;
+        this.numbers = numbers;
+        this.texts = texts;
+    }
+
+    /**
+     * Copia las columnas [firstColumn, firstColumn + width) de la fila reutilizable
+     */
+    static SortRow copyOf(ExcelStreamedRow row, int firstColumn, int width, long sequence) {
+        byte[] kinds = new byte[width];
+        double[] numbers = new double[width];
+        String[] texts = null;
+        for (int i = 0; i < width; i++) {
+            int column = firstColumn + i;
+            CellKind kind = row.getKind(column);
+            kinds[i] = (byte) kind.ordinal();
+            switch (kind) {
+                case NUMERIC, DATE, BOOLEAN -> numbers[i] = row.getNumber(column);
+                case STRING, ERROR -> {
+                    if (texts == null) {
+                        texts = new String[width];
+                    }
+                    texts[i] = row.getText(column);
+                }
+                default -> {
+                }
+            }
+        }
+        return new SortRow(sequence, kinds, numbers, texts);
+    }
+
+    /**
+     * Fila vacía (se usa para las filas ausentes dentro del rango)
+     */
+    static SortRow empty(int width, long sequence) {
+        return new SortRow(sequence, new byte[width], new double[width], null);
+    }
+
+    long sequence() {
+        return sequence;
+    }
+
+    CellKind kind(int column) {
+        return KINDS[kinds[column]];
+    }
+
+    double number(int column) {
+        return numbers[column];
+    }
+
+    String text(int column) {
+        return texts != null ? texts[column] : null;
+    }
+
+    /**
+     * Valores listos para ExcelStreamingWriter (fechas como LocalDateTime, errores como FormulaError)
+     */
+    Object[] toValues() {
+        Object[] values = new Object[kinds.length];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = switch (kind(i)) {
+                case NUMERIC -> numbers[i];
+                case DATE -> DateUtil.getLocalDateTime(numbers[i]);
+                case BOOLEAN -> numbers[i] != 0;
+                case STRING -> texts[i];
+                case ERROR -> FormulaError.forString(texts[i]);
+                case BLANK -> null;
+            };
+        }
+        return values;
+    }
+
+    /**
+     * Estimación del tamaño en memoria de la fila, usada para respetar el presupuesto de ordenación
+     */
+    long estimatedBytes() {
+        long bytes = OBJECT_OVERHEAD * 4L + kinds.length * 9L;
+        if (texts != null) {
+            bytes += OBJECT_OVERHEAD + texts.length * 4L;
+            for (String text : texts) {
+                if (text != null) {
+                    bytes += OBJECT_OVERHEAD * 2L + text.length();
+                }
+            }
+        }
+        return bytes;
+    }
+
+    void writeTo(DataOutputStream output) throws IOException {
+        output.writeLong(sequence);
+        for (int i = 0; i < kinds.length; i++) {
+            output.writeByte(kinds[i]);
+            switch (kind(i)) {
+                case NUMERIC, DATE, BOOLEAN -> output.writeDouble(numbers[i]);
+                case STRING, ERROR -> {
+                    byte[] bytes = texts[i].getBytes(StandardCharsets.UTF_8);
+                    output.writeInt(bytes.length);
+                    output.write(bytes);
+                }
+                default -> {
+                }
+            }
+        }
+    }
+
+    static SortRow readFrom(DataInputStream input, int width) throws IOException {
+        long sequence = input.readLong();
+        byte[] kinds = new byte[width];
+        double[] numbers = new double[width];
+        String[] texts = null;
+        for (int i = 0; i < width; i++) {
+            kinds[i] = input.readByte();
+            switch (KINDS[kinds[i]]) {
+                case NUMERIC, DATE, BOOLEAN -> numbers[i] = input.readDouble();
+                case STRING, ERROR -> {
+                    byte[] bytes = new byte[input.readInt()];
+                    input.readFully(bytes);
+                    if (texts == null) {
+                        texts = new String[width];
+                    }
+                    texts[i] = new String(bytes, StandardCharsets.UTF_8);
+                }
+                default -> {
+                }
+            }
+        }
+        return new SortRow(sequence, kinds, numbers, texts);
+    }
+}
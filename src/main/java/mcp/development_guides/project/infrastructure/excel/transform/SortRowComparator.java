@@ -0,0 +1,60 @@
+package mcp.development_guides.project.infrastructure.excel.transform;
+
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamedRow.CellKind;
+
+import java.util.Comparator;
+
+/**
+ * Comparador multi-clave con el orden de tipos de Excel: números y fechas, texto (sin distinguir
+ * mayúsculas), booleanos y errores. Las celdas vacías quedan siempre al final, también en orden
+ * descendente, y los empates se resuelven por la posición original
+ */
+final class SortRowComparator implements Comparator<SortRow> {
+
+    private final int[] columns;
+    private final boolean[] descending;
+
+    SortRowComparator(int[] columns, boolean[] descending) {
+        this.columns = columns;
+        this.descending = descending;
+    }
+
+    @Override
+    public int compare(SortRow left, SortRow right) {
+        for (int i = 0; i < columns.length; i++) {
+            int column = columns[i];
+            CellKind leftKind = left.kind(column);
+            CellKind rightKind = right.kind(column);
+
+            boolean leftBlank = leftKind == CellKind.BLANK;
+            boolean rightBlank = rightKind == CellKind.BLANK;
+            if (leftBlank || rightBlank) {
+                if (leftBlank != rightBlank) {
+                    return leftBlank ? 1 : -1;
+                }
+                continue;
+            }
+
+            int result = Integer.compare(typeRank(leftKind), typeRank(rightKind));
+            if (result == 0) {
+                result = switch (leftKind) {
+                    case STRING, ERROR -> String.CASE_INSENSITIVE_ORDER.compare(left.text(column), right.text(column));
+                    default -> Double.compare(left.number(column), right.number(column));
+                };
+            }
+            if (result != 0) {
+                return descending[i] ? -result : result;
+            }
+        }
+        return Long.compare(left.sequence(), right.sequence());
+    }
+
+    private int typeRank(CellKind kind) {
+        return switch (kind) {
+            case NUMERIC, DATE -> 0;
+            case STRING -> 1;
+            case BOOLEAN -> 2;
+            default -> 3;
+        };
+    }
+}
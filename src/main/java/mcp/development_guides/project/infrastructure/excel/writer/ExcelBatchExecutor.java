@@ -0,0 +1,238 @@
+package mcp.development_guides.project.infrastructure.excel.writer;
+
+import mcp.development_guides.project.domain.model.*;
+import mcp.development_guides.project.domain.model.ExcelBatchOperation.OperationType;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelAtomicSaver;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFormulaRecalculator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ejecuta una lista ordenada de operaciones heterogéneas sobre un único workbook cargado en memoria y
+ * lo guarda una sola vez. El lote es todo o nada: si una operación falla no se guarda ningún cambio
+ */
+@Component
+public class ExcelBatchExecutor {
+
+    @Autowired
+    private ExcelCellWriter cellWriter;
+
+    @Autowired
+    private ExcelFormatWriter formatWriter;
+
+    @Autowired
+    private ExcelStructureEditor structureEditor;
+
+    @Autowired
+    private ExcelSheetWriter sheetWriter;
+
+    @Autowired
+    private ExcelAtomicSaver atomicSaver;
+
+    @Autowired
+    private ExcelFormulaRecalculator formulaRecalculator;
+
+    @Autowired
+    private ExcelWriteCoordinator writeCoordinator;
+
+    /**
+     * Aplica las operaciones en orden y guarda el archivo si todas tienen éxito (si no existe se crea un .xlsx).
+     * El archivo se reserva en ExcelWriteCoordinator durante todo el lote para no intercalarse con la cola
+     */
+    public ExcelBatchResult execute(String filePath, List<ExcelBatchOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one operation");
+        }
+        long batchStart = System.nanoTime();
+        File file = new File(filePath);
+        System.out.println("📦 Executing batch of " + operations.size() + " operations on: " + filePath);
+
+        ExcelWriteCoordinator.FileLock fileLock = writeCoordinator.lockFile(filePath);
+        try (Workbook workbook = openWorkbook(file)) {
+            List<ExcelBatchOperationResult> results = new ArrayList<>(operations.size());
+            int succeeded = 0;
+            boolean failed = false;
+
+            for (int i = 0; i < operations.size(); i++) {
+                ExcelBatchOperation operation = operations.get(i);
+                if (failed) {
+                    results.add(new ExcelBatchOperationResult(i, operation.type().name(), "SKIPPED", null, 0));
+                    continue;
+                }
+                long start = System.nanoTime();
+                String message = null;
+                try {
+                    if (!apply(workbook, operation)) {
+                        message = "Operation could not be applied";
+                    }
+                } catch (Exception e) {
+                    message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                }
+                long elapsedMicros = (System.nanoTime() - start) / 1_000;
+                if (message == null) {
+                    succeeded++;
+                    results.add(new ExcelBatchOperationResult(i, operation.type().name(), "OK", null, elapsedMicros));
+                } else {
+                    failed = true;
+                    System.err.println("❌ Batch operation " + i + " (" + operation.type() + ") failed: " + message);
+                    results.add(new ExcelBatchOperationResult(i, operation.type().name(), "FAILED", message, elapsedMicros));
+                }
+            }
+
+            long saveMillis = 0;
+            if (!failed) {
+                formulaRecalculator.recalculate(workbook, filePath);
+                long saveStart = System.nanoTime();
+                atomicSaver.save(workbook, file);
+                formulaRecalculator.saved(workbook, filePath);
+                saveMillis = (System.nanoTime() - saveStart) / 1_000_000;
+                System.out.println("💾 Batch of " + operations.size() + " operations saved to: " + filePath);
+            } else {
+                System.out.println("↩️ Batch aborted, no changes saved to: " + filePath);
+            }
+            long totalMillis = (System.nanoTime() - batchStart) / 1_000_000;
+            return new ExcelBatchResult(filePath, operations.size(), succeeded, !failed, saveMillis, totalMillis, results);
+
+        } catch (Exception e) {
+            System.err.println("❌ Error during batch execution");
+            System.err.println("   File: " + filePath);
+            System.err.println("   Error: " + e.getMessage());
+            throw new RuntimeException("Failed to execute batch on: " + filePath, e);
+        } finally {
+            fileLock.close();
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private Workbook openWorkbook(File file) throws Exception {
+        if (!file.exists()) {
+            return new XSSFWorkbook();
+        }
+        // Se carga en memoria para que el archivo original no quede abierto mientras se reemplaza
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return WorkbookFactory.create(inputStream);
+        }
+    }
+
+    private boolean apply(Workbook workbook, ExcelBatchOperation operation) {
+        String sheet = operation.sheet();
+        OperationType type = operation.type();
+        if (sheet == null || sheet.isBlank()) {
+            throw new IllegalArgumentException("Operation " + type + " requires a sheet");
+        }
+
+        return switch (type) {
+            case WRITE_CELL -> writeCell(workbook, sheet, cell(operation), operation.value());
+            case WRITE_FORMULA -> {
+                String formula = String.valueOf(require(operation.value(), "value", type));
+                CellPosition position = cell(operation);
+                yield cellWriter.writeCellFormula(workbook, sheet, position.row(), position.column(),
+                    formula.startsWith("=") ? formula.substring(1) : formula);
+            }
+            case WRITE_ROWS -> writeRows(workbook, sheet, operation);
+            case CLEAR_RANGE -> cellWriter.clearRange(workbook, sheet, range(operation));
+            case FORMAT -> formatWriter.formatRange(workbook, sheet, range(operation), createStyle(workbook, operation));
+            case INSERT_ROW -> structureEditor.insertRow(workbook, sheet, index(operation));
+            case DELETE_ROW -> structureEditor.deleteRow(workbook, sheet, index(operation));
+            case INSERT_COLUMN -> structureEditor.insertColumn(workbook, sheet, index(operation));
+            case DELETE_COLUMN -> structureEditor.deleteColumn(workbook, sheet, index(operation));
+            case MERGE -> structureEditor.mergeCells(workbook, sheet, range(operation));
+            case UNMERGE -> structureEditor.unmergeCells(workbook, sheet, range(operation));
+            case COPY_RANGE -> {
+                CellPosition target = CellPosition.fromExcelNotation(require(operation.target(), "target", type));
+                yield structureEditor.copyRange(workbook, sheet, range(operation), target.row(), target.column());
+            }
+            case MOVE_RANGE -> {
+                CellPosition target = CellPosition.fromExcelNotation(require(operation.target(), "target", type));
+                yield structureEditor.moveRange(workbook, sheet, range(operation), target.row(), target.column());
+            }
+            case CREATE_SHEET -> sheetWriter.createSheet(workbook, sheet);
+            case DELETE_SHEET -> sheetWriter.deleteSheet(workbook, sheet);
+            case RENAME_SHEET -> sheetWriter.renameSheet(workbook, sheet, require(operation.target(), "target", type));
+            case COPY_SHEET -> sheetWriter.copySheet(workbook, sheet, require(operation.target(), "target", type));
+            case CLEAR_SHEET -> sheetWriter.clearSheet(workbook, sheet);
+        };
+    }
+
+    private boolean writeCell(Workbook workbook, String sheet, CellPosition position, Object value) {
+        int row = position.row();
+        int column = position.column();
+        return switch (value) {
+            case null -> cellWriter.clearCell(workbook, sheet, row, column);
+            case Number n -> cellWriter.writeCellNumber(workbook, sheet, row, column, n.doubleValue());
+            case Boolean b -> cellWriter.writeCellBoolean(workbook, sheet, row, column, b);
+            default -> cellWriter.writeCellValue(workbook, sheet, row, column, value.toString());
+        };
+    }
+
+    /**
+     * Escribe las filas desde la celda indicada (A1 por defecto); las filas cortas se completan con vacíos
+     */
+    private boolean writeRows(Workbook workbook, String sheet, ExcelBatchOperation operation) {
+        List<List<Object>> rows = require(operation.rows(), "rows", operation.type());
+        if (rows.isEmpty()) {
+            return true;
+        }
+        CellPosition start = operation.range() != null && !operation.range().isBlank()
+            ? cell(operation)
+            : new CellPosition(0, 0);
+        int width = 1;
+        for (List<Object> row : rows) {
+            width = Math.max(width, row.size());
+        }
+        Object[][] data = new Object[rows.size()][width];
+        for (int i = 0; i < rows.size(); i++) {
+            rows.get(i).toArray(data[i]);
+        }
+        ExcelRange range = new ExcelRange(start.row(), start.column(), start.row() + rows.size() - 1, start.column() + width - 1);
+        return sheetWriter.writeRange(workbook, sheet, range, data);
+    }
+
+    private CellStyle createStyle(Workbook workbook, ExcelBatchOperation operation) {
+        return formatWriter.createStyle(workbook,
+            operation.bold(),
+            operation.italic(),
+            color(operation.fontColor()),
+            color(operation.backgroundColor()),
+            operation.borderStyle() != null ? BorderStyle.valueOf(operation.borderStyle().toUpperCase(Locale.ROOT)) : null,
+            color(operation.borderColor()),
+            operation.numberFormat(),
+            operation.horizontalAlignment() != null ? HorizontalAlignment.valueOf(operation.horizontalAlignment().toUpperCase(Locale.ROOT)) : null,
+            operation.verticalAlignment() != null ? VerticalAlignment.valueOf(operation.verticalAlignment().toUpperCase(Locale.ROOT)) : null);
+    }
+
+    private Color color(String hex) {
+        return hex != null && !hex.isBlank() ? Color.decode(hex) : null;
+    }
+
+    private CellPosition cell(ExcelBatchOperation operation) {
+        return CellPosition.fromExcelNotation(require(operation.range(), "range", operation.type()).split(":")[0]);
+    }
+
+    private ExcelRange range(ExcelBatchOperation operation) {
+        return ExcelRange.fromExcelNotation(require(operation.range(), "range", operation.type()));
+    }
+
+    private int index(ExcelBatchOperation operation) {
+        return require(operation.index(), "index", operation.type());
+    }
+
+    private <T> T require(T value, String field, OperationType type) {
+        if (value == null) {
+            throw new IllegalArgumentException("Operation " + type + " requires '" + field + "'");
+        }
+        return value;
+    }
+}
@@ -3,13 +3,14 @@ package mcp.development_guides.project.infrastructure.excel.writer;
 import mcp.development_guides.project.domain.model.CellModification;
 import mcp.development_guides.project.domain.model.CellPosition;
 import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelWriteStatus;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFormulaRecalculator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
 import org.apache.poi.ss.usermodel.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.util.Date;
 import java.util.List;
 
@@ -22,18 +23,29 @@ public class ExcelCellWriter {
     @Autowired
     private ExcelFileHandler fileHandler;
 
+    @Autowired
+    private ExcelWriteCoordinator writeCoordinator;
+
+    @Autowired
+    private ExcelFormulaRecalculator formulaRecalculator;
+
     /**
      * Escribe un valor String en una celda específica
      */
     public boolean writeCellValue(String filePath, String sheetName, int row, int column, String value) {
         return modifyWorkbook(filePath,
             String.format("Writing value '%s' to cell [%d,%d] in sheet '%s'", value, row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-                cell.setCellValue(value);
-                return true;
-            });
+            (workbook, path) -> writeCellValue(workbook, sheetName, row, column, value));
+    }
+
+    /**
+     * Escribe un valor String en una celda específica en un workbook ya abierto, sin guardar
+     */
+    public boolean writeCellValue(Workbook workbook, String sheetName, int row, int column, String value) {
+        Sheet sheet = getOrCreateSheet(workbook, sheetName);
+        Cell cell = getOrCreateCell(sheet, row, column);
+        cell.setCellValue(value);
+        return true;
     }
 
     /**
@@ -49,12 +61,17 @@ public class ExcelCellWriter {
     public boolean writeCellNumber(String filePath, String sheetName, int row, int column, double value) {
         return modifyWorkbook(filePath,
             String.format("Writing number %f to cell [%d,%d] in sheet '%s'", value, row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-                cell.setCellValue(value);
-                return true;
-            });
+            (workbook, path) -> writeCellNumber(workbook, sheetName, row, column, value));
+    }
+
+    /**
+     * Escribe un valor numérico en una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean writeCellNumber(Workbook workbook, String sheetName, int row, int column, double value) {
+        Sheet sheet = getOrCreateSheet(workbook, sheetName);
+        Cell cell = getOrCreateCell(sheet, row, column);
+        cell.setCellValue(value);
+        return true;
     }
 
     /**
@@ -63,19 +80,24 @@ public class ExcelCellWriter {
     public boolean writeCellDate(String filePath, String sheetName, int row, int column, Date date) {
         return modifyWorkbook(filePath,
             String.format("Writing date %s to cell [%d,%d] in sheet '%s'", date, row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-                cell.setCellValue(date);
-
-                // Aplicar formato de fecha
-                CellStyle dateStyle = workbook.createCellStyle();
-                CreationHelper createHelper = workbook.getCreationHelper();
-                dateStyle.setDataFormat(createHelper.createDataFormat().getFormat("dd/mm/yyyy"));
-                cell.setCellStyle(dateStyle);
-
-                return true;
-            });
+            (workbook, path) -> writeCellDate(workbook, sheetName, row, column, date));
+    }
+
+    /**
+     * Escribe una fecha en una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean writeCellDate(Workbook workbook, String sheetName, int row, int column, Date date) {
+        Sheet sheet = getOrCreateSheet(workbook, sheetName);
+        Cell cell = getOrCreateCell(sheet, row, column);
+        cell.setCellValue(date);
+
+        // Aplicar formato de fecha
+        CellStyle dateStyle = workbook.createCellStyle();
+        CreationHelper createHelper = workbook.getCreationHelper();
+        dateStyle.setDataFormat(createHelper.createDataFormat().getFormat("dd/mm/yyyy"));
+        cell.setCellStyle(dateStyle);
+
+        return true;
     }
 
     /**
@@ -84,12 +106,17 @@ public class ExcelCellWriter {
     public boolean writeCellFormula(String filePath, String sheetName, int row, int column, String formula) {
         return modifyWorkbook(filePath,
             String.format("Writing formula '%s' to cell [%d,%d] in sheet '%s'", formula, row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-                cell.setCellFormula(formula);
-                return true;
-            });
+            (workbook, path) -> writeCellFormula(workbook, sheetName, row, column, formula));
+    }
+
+    /**
+     * Escribe una fórmula en una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean writeCellFormula(Workbook workbook, String sheetName, int row, int column, String formula) {
+        Sheet sheet = getOrCreateSheet(workbook, sheetName);
+        Cell cell = getOrCreateCell(sheet, row, column);
+        cell.setCellFormula(formula);
+        return true;
     }
 
     /**
@@ -98,12 +125,17 @@ public class ExcelCellWriter {
     public boolean writeCellBoolean(String filePath, String sheetName, int row, int column, boolean value) {
         return modifyWorkbook(filePath,
             String.format("Writing boolean %b to cell [%d,%d] in sheet '%s'", value, row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-                cell.setCellValue(value);
-                return true;
-            });
+            (workbook, path) -> writeCellBoolean(workbook, sheetName, row, column, value));
+    }
+
+    /**
+     * Escribe un valor boolean en una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean writeCellBoolean(Workbook workbook, String sheetName, int row, int column, boolean value) {
+        Sheet sheet = getOrCreateSheet(workbook, sheetName);
+        Cell cell = getOrCreateCell(sheet, row, column);
+        cell.setCellValue(value);
+        return true;
     }
 
     /**
@@ -112,17 +144,23 @@ public class ExcelCellWriter {
     public boolean clearCell(String filePath, String sheetName, int row, int column) {
         return modifyWorkbook(filePath,
             String.format("Clearing cell [%d,%d] in sheet '%s'", row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                Row sheetRow = sheet.getRow(row);
-                if (sheetRow != null) {
-                    Cell cell = sheetRow.getCell(column);
-                    if (cell != null) {
-                        sheetRow.removeCell(cell);
-                    }
-                }
-                return true;
-            });
+            (workbook, path) -> clearCell(workbook, sheetName, row, column));
+    }
+
+    /**
+     * Limpia el contenido de una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean clearCell(Workbook workbook, String sheetName, int row, int column) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        Row sheetRow = sheet.getRow(row);
+        if (sheetRow != null) {
+            Cell cell = sheetRow.getCell(column);
+            if (cell != null) {
+                sheetRow.removeCell(cell);
+                formulaRecalculator.markChanged(sheet, row, column);
+            }
+        }
+        return true;
     }
 
     /**
@@ -131,73 +169,48 @@ public class ExcelCellWriter {
     public boolean clearRange(String filePath, String sheetName, ExcelRange range) {
         return modifyWorkbook(filePath,
             String.format("Clearing range %s in sheet '%s'", range.toExcelNotation(), sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-
-                for (int rowIndex = range.startPosition().row(); rowIndex <= range.endPosition().row(); rowIndex++) {
-                    Row row = sheet.getRow(rowIndex);
-                    if (row != null) {
-                        for (int colIndex = range.startPosition().column(); colIndex <= range.endPosition().column(); colIndex++) {
-                            Cell cell = row.getCell(colIndex);
-                            if (cell != null) {
-                                row.removeCell(cell);
-                            }
-                        }
+            (workbook, path) -> clearRange(workbook, sheetName, range));
+    }
+
+    /**
+     * Limpia un rango de celdas en un workbook ya abierto, sin guardar
+     */
+    public boolean clearRange(Workbook workbook, String sheetName, ExcelRange range) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+
+        for (int rowIndex = range.startPosition().row(); rowIndex <= range.endPosition().row(); rowIndex++) {
+            Row row = sheet.getRow(rowIndex);
+            if (row != null) {
+                for (int colIndex = range.startPosition().column(); colIndex <= range.endPosition().column(); colIndex++) {
+                    Cell cell = row.getCell(colIndex);
+                    if (cell != null) {
+                        row.removeCell(cell);
                     }
                 }
-                return true;
-            });
+            }
+        }
+        formulaRecalculator.markChanged(sheet, range);
+        return true;
     }
 
     /**
-     * Modifica múltiples celdas en una sola operación
+     * Modifica múltiples celdas en una sola operación. Las celdas que ya tienen el valor pedido no se
+     * tocan y, si ninguna cambia, el archivo no se reescribe (UNCHANGED)
      */
-    public boolean modifyCells(String filePath, String sheetName, List<CellModification> modifications) {
-        return modifyWorkbook(filePath,
+    public ExcelWriteStatus modifyCells(String filePath, String sheetName, List<CellModification> modifications) {
+        return modifyWorkbookIfChanged(filePath,
             String.format("Modifying %d cells in sheet '%s'", modifications.size(), sheetName),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
-
-                for (CellModification modification : modifications) {
-                    CellPosition position = modification.position();
-                    Object value = modification.value();
-                    CellModification.ModificationType type = modification.type();
-
-                    switch (type) {
-                        case TEXT:
-                            Cell textCell = getOrCreateCell(sheet, position.row(), position.column());
-                            textCell.setCellValue((String) value);
-                            break;
-
-                        case NUMBER:
-                            Cell numberCell = getOrCreateCell(sheet, position.row(), position.column());
-                            numberCell.setCellValue(((Number) value).doubleValue());
-                            break;
-
-                        case FORMULA:
-                            Cell formulaCell = getOrCreateCell(sheet, position.row(), position.column());
-                            formulaCell.setCellFormula((String) value);
-                            break;
-
-                        case BOOLEAN:
-                            Cell booleanCell = getOrCreateCell(sheet, position.row(), position.column());
-                            booleanCell.setCellValue((Boolean) value);
-                            break;
-
-                        case CLEAR:
-                            Row sheetRow = sheet.getRow(position.row());
-                            if (sheetRow != null) {
-                                Cell cellToClear = sheetRow.getCell(position.column());
-                                if (cellToClear != null) {
-                                    sheetRow.removeCell(cellToClear);
-                                }
-                            }
-                            break;
-                    }
-                }
+            (workbook, path) -> applyModifications(workbook, sheetName, modifications) > 0
+                ? ExcelWriteStatus.UPDATED
+                : ExcelWriteStatus.UNCHANGED);
+    }
 
-                return true;
-            });
+    /**
+     * Modifica múltiples celdas en una sola operación en un workbook ya abierto, sin guardar
+     */
+    public boolean modifyCells(Workbook workbook, String sheetName, List<CellModification> modifications) {
+        applyModifications(workbook, sheetName, modifications);
+        return true;
     }
 
     // MÉTODOS PRIVADOS DE SOPORTE
@@ -206,62 +219,79 @@ public class ExcelCellWriter {
      * Ejecuta una operación de modificación en un workbook y guarda los cambios
      */
     private boolean modifyWorkbook(String filePath, String operation, ExcelFileHandler.WorkbookOperation<Boolean> workbookOperation) {
-        try {
-            System.out.println("✏️ " + operation);
+        // Las escrituras simultáneas sobre el mismo archivo se agrupan en una sola carga y un solo guardado
+        return writeCoordinator.submit(filePath, "✏️ " + operation, workbookOperation);
+    }
 
-            // Crear una copia temporal del archivo para evitar conflictos
-            File originalFile = new File(filePath);
-            File tempFile = new File(filePath + ".tmp");
+    /**
+     * Como modifyWorkbook, pero la operación indica si cambió algo para evitar guardados inútiles
+     */
+    private ExcelWriteStatus modifyWorkbookIfChanged(String filePath, String operation,
+                                                     ExcelFileHandler.WorkbookOperation<ExcelWriteStatus> workbookOperation) {
+        return writeCoordinator.submitWrite(filePath, "✏️ " + operation, workbookOperation);
+    }
 
-            boolean result;
+    /**
+     * Aplica las modificaciones que cambian algo y devuelve cuántas celdas se modificaron
+     */
+    private int applyModifications(Workbook workbook, String sheetName, List<CellModification> modifications) {
+        Sheet sheet = workbook.getSheet(sheetName);
+        int changed = 0;
 
-            // Abrir el archivo original, hacer modificaciones, y guardar en temporal
-            try (Workbook workbook = WorkbookFactory.create(originalFile)) {
-                result = workbookOperation.execute(workbook, filePath);
+        for (CellModification modification : modifications) {
+            CellPosition position = modification.position();
+            Object value = modification.value();
+            CellModification.ModificationType type = modification.type();
 
-                // Guardar en archivo temporal
-                try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
-                    workbook.write(outputStream);
-                }
+            Row sheetRow = sheet != null ? sheet.getRow(position.row()) : null;
+            Cell current = sheetRow != null ? sheetRow.getCell(position.column()) : null;
+            if (hasValue(current, type, value)) {
+                continue;
             }
-
-            // Si todo salió bien, reemplazar el archivo original con el temporal
-            if (result && tempFile.exists()) {
-                if (originalFile.delete()) {
-                    if (tempFile.renameTo(originalFile)) {
-                        System.out.println("💾 Changes saved successfully to: " + filePath);
-                        return true;
-                    } else {
-                        System.err.println("❌ Could not rename temporary file");
-                        tempFile.delete(); // Limpiar archivo temporal
-                        return false;
-                    }
-                } else {
-                    System.err.println("❌ Could not delete original file");
-                    tempFile.delete(); // Limpiar archivo temporal
-                    return false;
-                }
-            } else {
-                // Limpiar archivo temporal si algo salió mal
-                if (tempFile.exists()) {
-                    tempFile.delete();
-                }
-                return false;
+            if (type == CellModification.ModificationType.CLEAR) {
+                sheetRow.removeCell(current);
+                formulaRecalculator.markChanged(sheet, position.row(), position.column());
+                changed++;
+                continue;
             }
 
-        } catch (Exception e) {
-            System.err.println("❌ Error during operation: " + operation);
-            System.err.println("   File: " + filePath);
-            System.err.println("   Error: " + e.getMessage());
-
-            // Limpiar archivo temporal si existe
-            File tempFile = new File(filePath + ".tmp");
-            if (tempFile.exists()) {
-                tempFile.delete();
+            if (sheet == null) {
+                sheet = getOrCreateSheet(workbook, sheetName);
+            }
+            Cell cell = getOrCreateCell(sheet, position.row(), position.column());
+            switch (type) {
+                case TEXT -> cell.setCellValue((String) value);
+                case NUMBER -> cell.setCellValue(((Number) value).doubleValue());
+                case FORMULA -> cell.setCellFormula((String) value);
+                case BOOLEAN -> cell.setCellValue((Boolean) value);
+                default -> throw new IllegalArgumentException("Unsupported modification type: " + type);
             }
+            changed++;
+        }
+
+        // Mismo comportamiento que antes: la hoja se crea aunque no se escriba ninguna celda
+        if (sheet == null) {
+            getOrCreateSheet(workbook, sheetName);
+            changed++;
+        }
+        return changed;
+    }
 
-            return false;
+    /**
+     * Indica si la celda ya contiene exactamente lo que pide la modificación
+     */
+    private boolean hasValue(Cell cell, CellModification.ModificationType type, Object value) {
+        if (cell == null) {
+            return type == CellModification.ModificationType.CLEAR;
         }
+        return switch (type) {
+            case TEXT -> cell.getCellType() == CellType.STRING && cell.getStringCellValue().equals(value);
+            case NUMBER -> cell.getCellType() == CellType.NUMERIC
+                && cell.getNumericCellValue() == ((Number) value).doubleValue();
+            case FORMULA -> cell.getCellType() == CellType.FORMULA && cell.getCellFormula().equals(value);
+            case BOOLEAN -> cell.getCellType() == CellType.BOOLEAN && cell.getBooleanCellValue() == (Boolean) value;
+            case CLEAR -> false;
+        };
     }
 
     /**
@@ -277,9 +307,10 @@ public class ExcelCellWriter {
     }
 
     /**
-     * Obtiene una celda existente o la crea si no existe
+     * Obtiene una celda existente o la crea si no existe; se anota como modificada para el recálculo
      */
     private Cell getOrCreateCell(Sheet sheet, int rowIndex, int columnIndex) {
+        formulaRecalculator.markChanged(sheet, rowIndex, columnIndex);
         Row row = sheet.getRow(rowIndex);
         if (row == null) {
             row = sheet.createRow(rowIndex);
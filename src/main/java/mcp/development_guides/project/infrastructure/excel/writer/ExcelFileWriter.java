@@ -1,12 +1,13 @@
 package mcp.development_guides.project.infrastructure.excel.writer;
 
+import mcp.development_guides.project.infrastructure.excel.core.ExcelAtomicSaver;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.FileOutputStream;
+import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
@@ -20,6 +21,9 @@ public class ExcelFileWriter {
     @Autowired
     private ExcelFileHandler fileHandler;
 
+    @Autowired
+    private ExcelAtomicSaver atomicSaver;
+
     /**
      * Crea un nuevo archivo Excel vacío
      */
@@ -32,11 +36,9 @@ public class ExcelFileWriter {
                 workbook.createSheet("Sheet1");
 
                 // Guardar el archivo
-                try (FileOutputStream outputStream = new FileOutputStream(filePath)) {
-                    workbook.write(outputStream);
-                    System.out.println("✅ New Excel file created successfully: " + filePath);
-                    return true;
-                }
+                atomicSaver.save(workbook, new File(filePath));
+                System.out.println("✅ New Excel file created successfully: " + filePath);
+                return true;
             }
         } catch (Exception e) {
             System.err.println("❌ Error creating new Excel file: " + e.getMessage());
@@ -63,11 +65,9 @@ public class ExcelFileWriter {
                 }
 
                 // Guardar el archivo
-                try (FileOutputStream outputStream = new FileOutputStream(filePath)) {
-                    workbook.write(outputStream);
-                    System.out.println("✅ New Excel file with sheets created successfully: " + filePath);
-                    return true;
-                }
+                atomicSaver.save(workbook, new File(filePath));
+                System.out.println("✅ New Excel file with sheets created successfully: " + filePath);
+                return true;
             }
         } catch (Exception e) {
             System.err.println("❌ Error creating new Excel file with sheets: " + e.getMessage());
@@ -106,7 +106,8 @@ public class ExcelFileWriter {
                 int sheetCounter = 1;
 
                 for (String sourceFilePath : sourceFilePaths) {
-                    try (Workbook sourceWorkbook = WorkbookFactory.create(new java.io.File(sourceFilePath))) {
+                    try (java.io.InputStream inputStream = new java.io.FileInputStream(sourceFilePath);
+                         Workbook sourceWorkbook = WorkbookFactory.create(inputStream)) {
 
                         for (int i = 0; i < sourceWorkbook.getNumberOfSheets(); i++) {
                             Sheet sourceSheet = sourceWorkbook.getSheetAt(i);
@@ -120,11 +121,9 @@ public class ExcelFileWriter {
                 }
 
                 // Guardar el archivo combinado
-                try (FileOutputStream outputStream = new FileOutputStream(targetFilePath)) {
-                    targetWorkbook.write(outputStream);
-                    System.out.println("✅ Files merged successfully into: " + targetFilePath);
-                    return true;
-                }
+                atomicSaver.save(targetWorkbook, new File(targetFilePath));
+                System.out.println("✅ Files merged successfully into: " + targetFilePath);
+                return true;
             }
         } catch (Exception e) {
             System.err.println("❌ Error merging Excel files: " + e.getMessage());
@@ -151,10 +150,8 @@ public class ExcelFileWriter {
                         Sheet newSheet = newWorkbook.createSheet(sourceSheet.getSheetName());
                         copySheetData(sourceSheet, newSheet);
 
-                        try (FileOutputStream outputStream = new FileOutputStream(sheetFileName)) {
-                            newWorkbook.write(outputStream);
-                            System.out.println("📄 Created: " + sheetFileName);
-                        }
+                        atomicSaver.save(newWorkbook, new File(sheetFileName));
+                        System.out.println("📄 Created: " + sheetFileName);
                     }
                 }
 
@@ -217,7 +214,9 @@ public class ExcelFileWriter {
         try {
             System.out.println("🔒 Protecting Excel file with password");
 
-            return fileHandler.executeWithWorkbook(filePath, "Protecting file", (workbook, path) -> {
+            // Se carga desde un stream para poder reemplazar el archivo de origen
+            try (java.io.InputStream inputStream = new java.io.FileInputStream(filePath);
+                 Workbook workbook = WorkbookFactory.create(inputStream)) {
                 // Proteger cada hoja
                 for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
                     Sheet sheet = workbook.getSheetAt(i);
@@ -225,12 +224,10 @@ public class ExcelFileWriter {
                 }
 
                 // Guardar cambios
-                try (FileOutputStream outputStream = new FileOutputStream(filePath)) {
-                    workbook.write(outputStream);
-                    System.out.println("✅ File protected successfully");
-                    return true;
-                }
-            });
+                atomicSaver.save(workbook, new File(filePath));
+                System.out.println("✅ File protected successfully");
+                return true;
+            }
         } catch (Exception e) {
             System.err.println("❌ Error protecting Excel file: " + e.getMessage());
             return false;
@@ -1,17 +1,21 @@
 package mcp.development_guides.project.infrastructure.excel.writer;
 
 import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.domain.model.ExcelWriteStatus;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
+import org.apache.poi.hssf.model.InternalWorkbook;
+import org.apache.poi.hssf.record.ExtendedFormatRecord;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.xssf.usermodel.XSSFColor;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFFont;
 import org.apache.poi.xssf.usermodel.XSSFCellStyle;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.awt.Color;
-import java.io.FileOutputStream;
+import java.util.Objects;
 
 /**
  * Editor especializado en formato y estilo de celdas Excel
@@ -22,126 +26,95 @@ public class ExcelFormatWriter {
     @Autowired
     private ExcelFileHandler fileHandler;
 
+    @Autowired
+    private ExcelWriteCoordinator writeCoordinator;
+
     /**
      * Aplica formato de texto (negrita, cursiva, color)
      */
-    public boolean formatText(String filePath, String sheetName, int row, int column,
-                             boolean bold, boolean italic, Color textColor) {
+    public ExcelWriteStatus formatText(String filePath, String sheetName, int row, int column,
+                                      boolean bold, boolean italic, Color textColor) {
         return modifyWorkbook(filePath,
             String.format("Formatting text in cell [%d,%d] of sheet '%s'", row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-
-                CellStyle style = workbook.createCellStyle();
-                Font font = workbook.createFont();
-
-                if (bold) font.setBold(true);
-                if (italic) font.setItalic(true);
-
-                // Corregir el manejo de colores para XSSFWorkbook
-                if (textColor != null && workbook instanceof XSSFWorkbook) {
-                    XSSFFont xssfFont = (XSSFFont) font;
-                    xssfFont.setColor(new XSSFColor(textColor, null));
-                }
+            (workbook, path) -> styleCell(workbook, sheetName, row, column, StyleRequest.text(bold, italic, textColor)));
+    }
 
-                style.setFont(font);
-                cell.setCellStyle(style);
-                return true;
-            });
+    /**
+     * Aplica formato de texto (negrita, cursiva, color) en un workbook ya abierto, sin guardar
+     */
+    public boolean formatText(Workbook workbook, String sheetName, int row, int column, boolean bold, boolean italic, Color textColor) {
+        styleCell(workbook, sheetName, row, column, StyleRequest.text(bold, italic, textColor));
+        return true;
     }
 
     /**
      * Aplica color de fondo a una celda
      */
-    public boolean setBackgroundColor(String filePath, String sheetName, int row, int column, Color backgroundColor) {
+    public ExcelWriteStatus setBackgroundColor(String filePath, String sheetName, int row, int column, Color backgroundColor) {
         return modifyWorkbook(filePath,
             String.format("Setting background color in cell [%d,%d] of sheet '%s'", row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-
-                CellStyle style = workbook.createCellStyle();
-                if (backgroundColor != null && workbook instanceof XSSFWorkbook) {
-                    XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
-                    xssfStyle.setFillForegroundColor(new XSSFColor(backgroundColor, null));
-                    xssfStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-                }
+            (workbook, path) -> styleCell(workbook, sheetName, row, column, StyleRequest.background(backgroundColor)));
+    }
 
-                cell.setCellStyle(style);
-                return true;
-            });
+    /**
+     * Aplica color de fondo a una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean setBackgroundColor(Workbook workbook, String sheetName, int row, int column, Color backgroundColor) {
+        styleCell(workbook, sheetName, row, column, StyleRequest.background(backgroundColor));
+        return true;
     }
 
     /**
      * Aplica bordes a una celda
      */
-    public boolean setBorders(String filePath, String sheetName, int row, int column,
-                             BorderStyle borderStyle, Color borderColor) {
+    public ExcelWriteStatus setBorders(String filePath, String sheetName, int row, int column,
+                                      BorderStyle borderStyle, Color borderColor) {
         return modifyWorkbook(filePath,
             String.format("Setting borders in cell [%d,%d] of sheet '%s'", row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-
-                CellStyle style = workbook.createCellStyle();
-                style.setBorderTop(borderStyle);
-                style.setBorderBottom(borderStyle);
-                style.setBorderLeft(borderStyle);
-                style.setBorderRight(borderStyle);
-
-                // Corregir el manejo de colores de borde para XSSFWorkbook
-                if (borderColor != null && workbook instanceof XSSFWorkbook) {
-                    XSSFCellStyle xssfStyle = (XSSFCellStyle) style;
-                    XSSFColor color = new XSSFColor(borderColor, null);
-                    xssfStyle.setTopBorderColor(color);
-                    xssfStyle.setBottomBorderColor(color);
-                    xssfStyle.setLeftBorderColor(color);
-                    xssfStyle.setRightBorderColor(color);
-                }
+            (workbook, path) -> styleCell(workbook, sheetName, row, column, StyleRequest.borders(borderStyle, borderColor)));
+    }
 
-                cell.setCellStyle(style);
-                return true;
-            });
+    /**
+     * Aplica bordes a una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean setBorders(Workbook workbook, String sheetName, int row, int column, BorderStyle borderStyle, Color borderColor) {
+        styleCell(workbook, sheetName, row, column, StyleRequest.borders(borderStyle, borderColor));
+        return true;
     }
 
     /**
      * Aplica formato numérico (moneda, porcentaje, fecha, etc.)
      */
-    public boolean setNumberFormat(String filePath, String sheetName, int row, int column, String formatPattern) {
+    public ExcelWriteStatus setNumberFormat(String filePath, String sheetName, int row, int column, String formatPattern) {
         return modifyWorkbook(filePath,
             String.format("Setting number format '%s' in cell [%d,%d] of sheet '%s'", formatPattern, row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-
-                CellStyle style = workbook.createCellStyle();
-                DataFormat format = workbook.createDataFormat();
-                style.setDataFormat(format.getFormat(formatPattern));
+            (workbook, path) -> styleCell(workbook, sheetName, row, column, StyleRequest.numberFormat(formatPattern)));
+    }
 
-                cell.setCellStyle(style);
-                return true;
-            });
+    /**
+     * Aplica formato numérico (moneda, porcentaje, fecha, etc.) en un workbook ya abierto, sin guardar
+     */
+    public boolean setNumberFormat(Workbook workbook, String sheetName, int row, int column, String formatPattern) {
+        styleCell(workbook, sheetName, row, column, StyleRequest.numberFormat(formatPattern));
+        return true;
     }
 
     /**
      * Aplica alineación a una celda
      */
-    public boolean setAlignment(String filePath, String sheetName, int row, int column,
-                               HorizontalAlignment horizontal, VerticalAlignment vertical) {
+    public ExcelWriteStatus setAlignment(String filePath, String sheetName, int row, int column,
+                                        HorizontalAlignment horizontal, VerticalAlignment vertical) {
         return modifyWorkbook(filePath,
             String.format("Setting alignment in cell [%d,%d] of sheet '%s'", row, column, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                Cell cell = getOrCreateCell(sheet, row, column);
-
-                CellStyle style = workbook.createCellStyle();
-                if (horizontal != null) style.setAlignment(horizontal);
-                if (vertical != null) style.setVerticalAlignment(vertical);
+            (workbook, path) -> styleCell(workbook, sheetName, row, column, StyleRequest.alignment(horizontal, vertical)));
+    }
 
-                cell.setCellStyle(style);
-                return true;
-            });
+    /**
+     * Aplica alineación a una celda en un workbook ya abierto, sin guardar
+     */
+    public boolean setAlignment(Workbook workbook, String sheetName, int row, int column, HorizontalAlignment horizontal, VerticalAlignment vertical) {
+        styleCell(workbook, sheetName, row, column, StyleRequest.alignment(horizontal, vertical));
+        return true;
     }
 
     /**
@@ -150,43 +123,233 @@ public class ExcelFormatWriter {
     public boolean formatRange(String filePath, String sheetName, ExcelRange range, CellStyle templateStyle) {
         return modifyWorkbook(filePath,
             String.format("Formatting range %s in sheet '%s'", range.toExcelNotation(), sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+            (workbook, path) -> formatRange(workbook, sheetName, range, templateStyle)
+                ? ExcelWriteStatus.UPDATED
+                : ExcelWriteStatus.FAILED) != ExcelWriteStatus.FAILED;
+    }
+
+    /**
+     * Aplica formato a un rango completo de celdas en un workbook ya abierto, sin guardar
+     */
+    public boolean formatRange(Workbook workbook, String sheetName, ExcelRange range, CellStyle templateStyle) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+
+        for (int rowIndex = range.startPosition().row(); rowIndex <= range.endPosition().row(); rowIndex++) {
+            for (int colIndex = range.startPosition().column(); colIndex <= range.endPosition().column(); colIndex++) {
+                Cell cell = getOrCreateCell(sheet, rowIndex, colIndex);
+                cell.setCellStyle(templateStyle);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Crea un único estilo que combina las opciones indicadas (las nulas se dejan por defecto) para
+     * aplicarlo después a un rango sin crear un estilo por celda
+     */
+    public CellStyle createStyle(Workbook workbook, Boolean bold, Boolean italic, Color textColor, Color backgroundColor,
+                                 BorderStyle borderStyle, Color borderColor, String formatPattern,
+                                 HorizontalAlignment horizontal, VerticalAlignment vertical) {
+        CellStyle style = workbook.createCellStyle();
+
+        if (Boolean.TRUE.equals(bold) || Boolean.TRUE.equals(italic) || textColor != null) {
+            Font font = workbook.createFont();
+            font.setBold(Boolean.TRUE.equals(bold));
+            font.setItalic(Boolean.TRUE.equals(italic));
+            if (textColor != null && font instanceof XSSFFont xssfFont) {
+                xssfFont.setColor(new XSSFColor(textColor, null));
+            }
+            style.setFont(font);
+        }
 
-                for (int rowIndex = range.startPosition().row(); rowIndex <= range.endPosition().row(); rowIndex++) {
-                    for (int colIndex = range.startPosition().column(); colIndex <= range.endPosition().column(); colIndex++) {
-                        Cell cell = getOrCreateCell(sheet, rowIndex, colIndex);
-                        cell.setCellStyle(templateStyle);
-                    }
-                }
-                return true;
-            });
+        if (style instanceof XSSFCellStyle xssfStyle) {
+            if (backgroundColor != null) {
+                xssfStyle.setFillForegroundColor(new XSSFColor(backgroundColor, null));
+                xssfStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            }
+            if (borderColor != null) {
+                XSSFColor color = new XSSFColor(borderColor, null);
+                xssfStyle.setTopBorderColor(color);
+                xssfStyle.setBottomBorderColor(color);
+                xssfStyle.setLeftBorderColor(color);
+                xssfStyle.setRightBorderColor(color);
+            }
+        }
+
+        if (borderStyle != null) {
+            style.setBorderTop(borderStyle);
+            style.setBorderBottom(borderStyle);
+            style.setBorderLeft(borderStyle);
+            style.setBorderRight(borderStyle);
+        }
+        if (formatPattern != null && !formatPattern.isBlank()) {
+            style.setDataFormat(workbook.createDataFormat().getFormat(formatPattern));
+        }
+        if (horizontal != null) style.setAlignment(horizontal);
+        if (vertical != null) style.setVerticalAlignment(vertical);
+        return style;
     }
 
     // MÉTODOS PRIVADOS DE SOPORTE
 
     /**
-     * Ejecuta una operación de modificación en un workbook y guarda los cambios
+     * Ejecuta una operación de modificación en un workbook y guarda los cambios si la operación cambió algo
      */
-    private boolean modifyWorkbook(String filePath, String operation, ExcelFileHandler.WorkbookOperation<Boolean> workbookOperation) {
-        try (Workbook workbook = WorkbookFactory.create(new java.io.File(filePath))) {
-            System.out.println("🎨 " + operation);
+    private ExcelWriteStatus modifyWorkbook(String filePath, String operation,
+                                            ExcelFileHandler.WorkbookOperation<ExcelWriteStatus> workbookOperation) {
+        return writeCoordinator.submitWrite(filePath, "🎨 " + operation, workbookOperation);
+    }
 
-            boolean result = workbookOperation.execute(workbook, filePath);
+    /**
+     * Asigna a la celda un estilo con los atributos pedidos salvo que el que ya tiene se vea igual (UNCHANGED).
+     * Cada operación de formato sustituye el estilo completo de la celda, así que se compara el resultado final
+     * sin crear nada; si hace falta cambiarlo se reutiliza un estilo igual del workbook y solo si no existe se
+     * crea uno
+     */
+    private ExcelWriteStatus styleCell(Workbook workbook, String sheetName, int row, int column, StyleRequest request) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        Row sheetRow = sheet.getRow(row);
+        Cell cell = sheetRow != null ? sheetRow.getCell(column) : null;
+        CellStyle current = cell != null ? cell.getCellStyle() : workbook.getCellStyleAt(0);
+        if (matches(workbook, current, request)) {
+            return ExcelWriteStatus.UNCHANGED;
+        }
+
+        CellStyle style = findStyle(workbook, request);
+        if (style == null) {
+            style = createStyle(workbook, request.bold(), request.italic(), request.textColor(), request.backgroundColor(),
+                request.borderStyle(), request.borderColor(), request.formatPattern(), request.horizontal(), request.vertical());
+        }
+        getOrCreateCell(sheet, row, column).setCellStyle(style);
+        return ExcelWriteStatus.UPDATED;
+    }
+
+    /**
+     * Estilo de celda del workbook que ya se ve como el pedido, o null. En .xls se descartan los registros
+     * de estilo con nombre, que no se pueden asignar a celdas
+     */
+    private CellStyle findStyle(Workbook workbook, StyleRequest request) {
+        InternalWorkbook hssfWorkbook = workbook instanceof HSSFWorkbook hssf ? hssf.getInternalWorkbook() : null;
+        for (int index = 0; index < workbook.getNumCellStyles(); index++) {
+            if (hssfWorkbook != null && hssfWorkbook.getExFormatAt(index).getXFType() != ExtendedFormatRecord.XF_CELL) {
+                continue;
+            }
+            CellStyle style = workbook.getCellStyleAt(index);
+            if (matches(workbook, style, request)) {
+                return style;
+            }
+        }
+        return null;
+    }
 
-            // Guardar los cambios
-            try (FileOutputStream outputStream = new FileOutputStream(filePath)) {
-                workbook.write(outputStream);
-                System.out.println("💾 Format changes saved successfully to: " + filePath);
+    /**
+     * Indica si el estilo se ve como el que crearía createStyle con los atributos pedidos: esos atributos
+     * coinciden y el resto (fuente, relleno, bordes, formato, alineación, protección) está por defecto.
+     * Los colores solo se aplican en .xlsx, así que en .xls no se comparan
+     */
+    private boolean matches(Workbook workbook, CellStyle style, StyleRequest request) {
+        String format = request.formatPattern() != null && !request.formatPattern().isBlank() ? request.formatPattern() : "General";
+        HorizontalAlignment horizontal = request.horizontal() != null ? request.horizontal() : HorizontalAlignment.GENERAL;
+        VerticalAlignment vertical = request.vertical() != null ? request.vertical() : VerticalAlignment.BOTTOM;
+        BorderStyle border = request.borderStyle() != null ? request.borderStyle() : BorderStyle.NONE;
+
+        boolean same = format.equals(style.getDataFormatString())
+            && style.getAlignment() == horizontal
+            && style.getVerticalAlignment() == vertical
+            && !style.getWrapText()
+            && style.getRotation() == 0
+            && style.getIndention() == 0
+            && style.getBorderTop() == border
+            && style.getBorderBottom() == border
+            && style.getBorderLeft() == border
+            && style.getBorderRight() == border
+            && style.getLocked()
+            && !style.getHidden()
+            && matchesFont(workbook, workbook.getFontAt(style.getFontIndex()), request);
+        if (!same) {
+            return false;
+        }
+
+        if (style instanceof XSSFCellStyle xssfStyle) {
+            XSSFColor borderColor = request.borderColor() != null ? new XSSFColor(request.borderColor(), null) : null;
+            if (border != BorderStyle.NONE && !(sameColor(xssfStyle.getTopBorderXSSFColor(), borderColor)
+                    && sameColor(xssfStyle.getBottomBorderXSSFColor(), borderColor)
+                    && sameColor(xssfStyle.getLeftBorderXSSFColor(), borderColor)
+                    && sameColor(xssfStyle.getRightBorderXSSFColor(), borderColor))) {
+                return false;
+            }
+            if (request.backgroundColor() != null) {
+                return style.getFillPattern() == FillPatternType.SOLID_FOREGROUND
+                    && sameColor(xssfStyle.getFillForegroundColorColor(), new XSSFColor(request.backgroundColor(), null));
             }
+        } else if (border != BorderStyle.NONE && (style.getTopBorderColor() != IndexedColors.BLACK.getIndex()
+                || style.getBottomBorderColor() != IndexedColors.BLACK.getIndex()
+                || style.getLeftBorderColor() != IndexedColors.BLACK.getIndex()
+                || style.getRightBorderColor() != IndexedColors.BLACK.getIndex())) {
+            return false;
+        }
+        return style.getFillPattern() == FillPatternType.NO_FILL;
+    }
 
-            return result;
-        } catch (Exception e) {
-            System.err.println("❌ Error during formatting operation: " + operation);
-            System.err.println("   File: " + filePath);
-            System.err.println("   Error: " + e.getMessage());
+    /**
+     * La fuente pedida es la fuente por defecto del workbook con la negrita, cursiva y color indicados
+     */
+    private boolean matchesFont(Workbook workbook, Font font, StyleRequest request) {
+        Font defaultFont = workbook.getFontAt(0);
+        boolean same = font.getBold() == request.bold()
+            && font.getItalic() == request.italic()
+            && font.getUnderline() == defaultFont.getUnderline()
+            && font.getStrikeout() == defaultFont.getStrikeout()
+            && font.getTypeOffset() == defaultFont.getTypeOffset()
+            && font.getFontHeight() == defaultFont.getFontHeight()
+            && Objects.equals(font.getFontName(), defaultFont.getFontName());
+        if (!same) {
+            return false;
+        }
+        if (font instanceof XSSFFont xssfFont && request.textColor() != null) {
+            return sameColor(xssfFont.getXSSFColor(), new XSSFColor(request.textColor(), null));
+        }
+        if (font.getColor() != defaultFont.getColor()) {
             return false;
         }
+        // Sin color pedido: sin color propio o el mismo que la fuente por defecto
+        return !(font instanceof XSSFFont xssfFont) || xssfFont.getXSSFColor() == null
+            || sameColor(xssfFont.getXSSFColor(), ((XSSFFont) defaultFont).getXSSFColor());
+    }
+
+    private boolean sameColor(XSSFColor a, XSSFColor b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return Objects.equals(a.getARGBHex(), b.getARGBHex()) && a.isAuto() == b.isAuto();
+    }
+
+    /**
+     * Atributos que pide una operación de formato; el resto del estilo queda por defecto
+     */
+    private record StyleRequest(boolean bold, boolean italic, Color textColor, Color backgroundColor,
+                                BorderStyle borderStyle, Color borderColor, String formatPattern,
+                                HorizontalAlignment horizontal, VerticalAlignment vertical) {
+
+        static StyleRequest text(boolean bold, boolean italic, Color textColor) {
+            return new StyleRequest(bold, italic, textColor, null, null, null, null, null, null);
+        }
+
+        static StyleRequest background(Color backgroundColor) {
+            return new StyleRequest(false, false, null, backgroundColor, null, null, null, null, null);
+        }
+
+        static StyleRequest borders(BorderStyle borderStyle, Color borderColor) {
+            return new StyleRequest(false, false, null, null, borderStyle, borderColor, null, null, null);
+        }
+
+        static StyleRequest numberFormat(String formatPattern) {
+            return new StyleRequest(false, false, null, null, null, null, formatPattern, null, null);
+        }
+
+        static StyleRequest alignment(HorizontalAlignment horizontal, VerticalAlignment vertical) {
+            return new StyleRequest(false, false, null, null, null, null, null, horizontal, vertical);
+        }
     }
 
     /**
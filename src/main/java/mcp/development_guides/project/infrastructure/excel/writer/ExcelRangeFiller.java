@@ -0,0 +1,207 @@
+package mcp.development_guides.project.infrastructure.excel.writer;
+
+import mcp.development_guides.project.domain.model.ExcelColumnData;
+import mcp.development_guides.project.domain.model.ExcelFillResult;
+import mcp.development_guides.project.domain.model.ExcelRange;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Relleno de rangos al estilo del controlador de relleno de Excel: fórmulas copiadas con sus referencias
+ * relativas desplazadas, series lineales o de fechas y constantes. Todo se escribe en una sola pasada por
+ * ExcelStreamingWriter, sin generar una modificación por celda
+ */
+@Component
+public class ExcelRangeFiller {
+
+    private static final long DAY_MILLISECONDS = 86_400_000L;
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @Value("${excel.fill.max-cells:10000000}")
+    private long maxCells;
+
+    /**
+     * Ajusta el número máximo de celdas que puede escribir un relleno
+     */
+    public void setMaxCells(long maxCells) {
+        this.maxCells = maxCells;
+    }
+
+    /**
+     * Rellena el rango A1 según fillType:
+     * formula (value es la fórmula de la celda superior izquierda y se copia al resto del rango),
+     * linear (serie numérica desde value con incremento step), date (serie de fechas desde value en ISO,
+     * step unidades de unit: day, weekday, month o year) o constant (value en todas las celdas; números y
+     * booleanos se escriben con su tipo). En las series direction indica si avanzan hacia abajo (down) o
+     * hacia la derecha (right); el otro eje repite el mismo valor
+     */
+    public ExcelFillResult fill(String filePath, String sheetName, String rangeNotation, String fillType,
+                                String value, Double step, String unit, String direction) {
+        ExcelRange range = ExcelRange.fromExcelNotation(rangeNotation);
+        String type = fillType != null ? fillType.trim().toLowerCase(Locale.ROOT) : "";
+        boolean right = direction != null && direction.trim().equalsIgnoreCase("right");
+        if (direction != null && !direction.isBlank() && !right && !direction.trim().equalsIgnoreCase("down")) {
+            throw new IllegalArgumentException("Invalid fill direction: " + direction + " (expected down or right)");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("A value is required to fill a range");
+        }
+        int rowCount = range.getRowCount();
+        int columnCount = range.getColumnCount();
+        long cells = (long) rowCount * columnCount;
+        if (cells > maxCells) {
+            throw new IllegalArgumentException("Range " + range.toExcelNotation() + " has " + cells
+                + " cells, more than the fill limit of " + maxCells);
+        }
+
+        // Las series y constantes se preparan antes de abrir el archivo para fallar sin tocarlo
+        List<ExcelColumnData> series = switch (type) {
+            case "linear" -> seriesColumns("NUMBER", linearSeries(value, step, right ? columnCount : rowCount), rowCount, columnCount, right);
+            case "date" -> seriesColumns("DATE", dateSeries(value, step, unit, right ? columnCount : rowCount), rowCount, columnCount, right);
+            case "formula", "constant" -> null;
+            default -> throw new IllegalArgumentException("Invalid fill type: " + fillType + " (expected formula, linear, date or constant)");
+        };
+
+        try (ExcelStreamingWriter.RowSink sink = streamingWriter.openSheet(filePath, sheetName,
+                range.startPosition().row(), range.startPosition().column(), false)) {
+            String strategy = sink.isStreaming() ? "streamed" : "per-cell";
+            switch (type) {
+                case "formula" -> strategy = sink.writeFormulas(value, rowCount, columnCount);
+                case "constant" -> {
+                    Object[] row = new Object[columnCount];
+                    Arrays.fill(row, parseConstant(value));
+                    for (int i = 0; i < rowCount; i++) {
+                        sink.write(row);
+                    }
+                }
+                default -> sink.writeColumns(series);
+            }
+            sink.commit();
+            System.out.println("🪣 Filled " + cells + " cells of " + range.toExcelNotation() + " in sheet '" + sheetName
+                + "' (" + type + ", " + strategy + ")");
+            return new ExcelFillResult(sheetName, range.toExcelNotation(), type, cells, strategy);
+        } catch (RuntimeException e) {
+            System.err.println("❌ Error filling range " + range.toExcelNotation() + " in sheet '" + sheetName + "'");
+            System.err.println("   File: " + filePath);
+            System.err.println("   Error: " + e.getMessage());
+            throw new RuntimeException("Failed to fill range " + range.toExcelNotation() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    /**
+     * Columnas del relleno: hacia abajo todas comparten la serie; hacia la derecha cada columna repite su valor
+     */
+    private static List<ExcelColumnData> seriesColumns(String type, double[] series, int rowCount, int columnCount, boolean right) {
+        if (!right) {
+            return Collections.nCopies(columnCount, new ExcelColumnData(null, type, series, null, null, null, null));
+        }
+        ExcelColumnData[] columns = new ExcelColumnData[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            double[] values = new double[rowCount];
+            Arrays.fill(values, series[column]);
+            columns[column] = new ExcelColumnData(null, type, values, null, null, null, null);
+        }
+        return Arrays.asList(columns);
+    }
+
+    private static double[] linearSeries(String value, Double step, int length) {
+        double start;
+        try {
+            start = new BigDecimal(value.trim()).doubleValue();
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid start number for a linear series: " + value);
+        }
+        double increment = step != null ? step : 1;
+        double[] series = new double[length];
+        for (int i = 0; i < length; i++) {
+            series[i] = start + i * increment;
+        }
+        return series;
+    }
+
+    /**
+     * Serie de fechas en milisegundos epoch (fecha y hora tomadas como UTC). Meses y años se cuentan siempre
+     * desde el inicio, así un 31 de enero pasa a 28/29 de febrero y vuelve a 31 de marzo como en Excel
+     */
+    private static double[] dateSeries(String value, Double step, String unit, int length) {
+        LocalDateTime start = parseDate(value);
+        double increment = step != null ? step : 1;
+        String seriesUnit = unit != null && !unit.isBlank() ? unit.trim().toLowerCase(Locale.ROOT) : "day";
+        if (!List.of("day", "weekday", "month", "year").contains(seriesUnit)) {
+            throw new IllegalArgumentException("Invalid date series unit: " + unit + " (expected day, weekday, month or year)");
+        }
+        if (!seriesUnit.equals("day") && increment != Math.rint(increment)) {
+            throw new IllegalArgumentException("The step of a " + seriesUnit + " series must be a whole number: " + increment);
+        }
+        long wholeStep = (long) increment;
+
+        double[] series = new double[length];
+        long startMillis = start.toInstant(ZoneOffset.UTC).toEpochMilli();
+        LocalDateTime current = start;
+        for (int i = 0; i < length; i++) {
+            series[i] = switch (seriesUnit) {
+                case "day" -> startMillis + i * increment * DAY_MILLISECONDS;
+                case "month" -> start.plusMonths(i * wholeStep).toInstant(ZoneOffset.UTC).toEpochMilli();
+                case "year" -> start.plusYears(i * wholeStep).toInstant(ZoneOffset.UTC).toEpochMilli();
+                default -> {
+                    if (i > 0) {
+                        current = plusWeekdays(current, wholeStep);
+                    }
+                    yield current.toInstant(ZoneOffset.UTC).toEpochMilli();
+                }
+            };
+        }
+        return series;
+    }
+
+    private static LocalDateTime plusWeekdays(LocalDateTime date, long weekdays) {
+        LocalDateTime result = date;
+        long remaining = Math.abs(weekdays);
+        int direction = weekdays < 0 ? -1 : 1;
+        while (remaining > 0) {
+            result = result.plusDays(direction);
+            if (result.getDayOfWeek() != DayOfWeek.SATURDAY && result.getDayOfWeek() != DayOfWeek.SUNDAY) {
+                remaining--;
+            }
+        }
+        return result;
+    }
+
+    private static LocalDateTime parseDate(String value) {
+        String text = value.trim();
+        try {
+            return text.length() > 10 ? LocalDateTime.parse(text.replace(' ', 'T')) : LocalDate.parse(text).atStartOfDay();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid start date for a date series (expected ISO yyyy-MM-dd or yyyy-MM-ddTHH:mm): " + value);
+        }
+    }
+
+    private static Object parseConstant(String value) {
+        String text = value.trim();
+        if (text.equalsIgnoreCase("true") || text.equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(text);
+        }
+        try {
+            return new BigDecimal(text).doubleValue();
+        } catch (NumberFormatException e) {
+            return value;
+        }
+    }
+}
@@ -1,13 +1,16 @@
 package mcp.development_guides.project.infrastructure.excel.writer;
 
+import mcp.development_guides.project.domain.model.ExcelColumnData;
 import mcp.development_guides.project.domain.model.ExcelRange;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFormulaRecalculator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWriter;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.File;
-import java.io.FileOutputStream;
 import java.util.List;
 
 /**
@@ -19,20 +22,34 @@ public class ExcelSheetWriter {
     @Autowired
     private ExcelFileHandler fileHandler;
 
+    @Autowired
+    private ExcelWriteCoordinator writeCoordinator;
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @Autowired
+    private ExcelFormulaRecalculator formulaRecalculator;
+
     /**
      * Crea una nueva hoja en el workbook
      */
     public boolean createSheet(String filePath, String sheetName) {
         return modifyWorkbook(filePath,
             String.format("Creating new sheet '%s'", sheetName),
-            (workbook, path) -> {
-                if (workbook.getSheet(sheetName) != null) {
-                    System.out.println("⚠️ Sheet '" + sheetName + "' already exists");
-                    return false;
-                }
-                workbook.createSheet(sheetName);
-                return true;
-            });
+            (workbook, path) -> createSheet(workbook, sheetName));
+    }
+
+    /**
+     * Crea una nueva hoja en el workbook en un workbook ya abierto, sin guardar
+     */
+    public boolean createSheet(Workbook workbook, String sheetName) {
+        if (workbook.getSheet(sheetName) != null) {
+            System.out.println("⚠️ Sheet '" + sheetName + "' already exists");
+            return false;
+        }
+        workbook.createSheet(sheetName);
+        return true;
     }
 
     /**
@@ -41,15 +58,21 @@ public class ExcelSheetWriter {
     public boolean deleteSheet(String filePath, String sheetName) {
         return modifyWorkbook(filePath,
             String.format("Deleting sheet '%s'", sheetName),
-            (workbook, path) -> {
-                int sheetIndex = workbook.getSheetIndex(sheetName);
-                if (sheetIndex == -1) {
-                    System.out.println("⚠️ Sheet '" + sheetName + "' not found");
-                    return false;
-                }
-                workbook.removeSheetAt(sheetIndex);
-                return true;
-            });
+            (workbook, path) -> deleteSheet(workbook, sheetName));
+    }
+
+    /**
+     * Elimina una hoja del workbook en un workbook ya abierto, sin guardar
+     */
+    public boolean deleteSheet(Workbook workbook, String sheetName) {
+        int sheetIndex = workbook.getSheetIndex(sheetName);
+        if (sheetIndex == -1) {
+            System.out.println("⚠️ Sheet '" + sheetName + "' not found");
+            return false;
+        }
+        workbook.removeSheetAt(sheetIndex);
+        formulaRecalculator.markStructureChanged(workbook);
+        return true;
     }
 
     /**
@@ -58,15 +81,21 @@ public class ExcelSheetWriter {
     public boolean renameSheet(String filePath, String oldName, String newName) {
         return modifyWorkbook(filePath,
             String.format("Renaming sheet from '%s' to '%s'", oldName, newName),
-            (workbook, path) -> {
-                int sheetIndex = workbook.getSheetIndex(oldName);
-                if (sheetIndex == -1) {
-                    System.out.println("⚠️ Sheet '" + oldName + "' not found");
-                    return false;
-                }
-                workbook.setSheetName(sheetIndex, newName);
-                return true;
-            });
+            (workbook, path) -> renameSheet(workbook, oldName, newName));
+    }
+
+    /**
+     * Renombra una hoja existente en un workbook ya abierto, sin guardar
+     */
+    public boolean renameSheet(Workbook workbook, String oldName, String newName) {
+        int sheetIndex = workbook.getSheetIndex(oldName);
+        if (sheetIndex == -1) {
+            System.out.println("⚠️ Sheet '" + oldName + "' not found");
+            return false;
+        }
+        workbook.setSheetName(sheetIndex, newName);
+        formulaRecalculator.markStructureChanged(workbook);
+        return true;
     }
 
     /**
@@ -75,20 +104,41 @@ public class ExcelSheetWriter {
     public boolean writeRows(String filePath, String sheetName, int startRow, List<List<Object>> data) {
         return modifyWorkbook(filePath,
             String.format("Writing %d rows to sheet '%s' starting at row %d", data.size(), sheetName, startRow),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
+            (workbook, path) -> writeRows(workbook, sheetName, startRow, data));
+    }
 
-                for (int rowIndex = 0; rowIndex < data.size(); rowIndex++) {
-                    List<Object> rowData = data.get(rowIndex);
-                    Row row = getOrCreateRow(sheet, startRow + rowIndex);
+    /**
+     * Escribe múltiples filas de datos en un workbook ya abierto, sin guardar
+     */
+    public boolean writeRows(Workbook workbook, String sheetName, int startRow, List<List<Object>> data) {
+        Sheet sheet = getOrCreateSheet(workbook, sheetName);
+
+        int width = 0;
+        for (int rowIndex = 0; rowIndex < data.size(); rowIndex++) {
+            List<Object> rowData = data.get(rowIndex);
+            Row row = getOrCreateRow(sheet, startRow + rowIndex);
+            width = Math.max(width, rowData.size());
+
+            for (int colIndex = 0; colIndex < rowData.size(); colIndex++) {
+                Cell cell = getOrCreateCell(row, colIndex);
+                setCellValue(cell, rowData.get(colIndex));
+            }
+        }
+        if (width > 0) {
+            formulaRecalculator.markChanged(sheet, new ExcelRange(startRow, 0, startRow + data.size() - 1, width - 1));
+        }
+        return true;
+    }
 
-                    for (int colIndex = 0; colIndex < rowData.size(); colIndex++) {
-                        Cell cell = getOrCreateCell(row, colIndex);
-                        setCellValue(cell, rowData.get(colIndex));
-                    }
-                }
-                return true;
-            });
+    /**
+     * Escribe una tabla por columnas tipadas (arreglos primitivos o diccionario por columna) a través del
+     * escritor en streaming; devuelve las filas escritas
+     */
+    public long writeColumns(String filePath, String sheetName, int startRow, int startColumn, List<ExcelColumnData> columns) {
+        if (columns == null || columns.isEmpty()) {
+            throw new IllegalArgumentException("At least one column is required");
+        }
+        return streamingWriter.writeColumns(filePath, sheetName, startRow, startColumn, columns);
     }
 
     /**
@@ -97,28 +147,34 @@ public class ExcelSheetWriter {
     public boolean writeRange(String filePath, String sheetName, ExcelRange range, Object[][] data) {
         return modifyWorkbook(filePath,
             String.format("Writing data to range %s in sheet '%s'", range.toExcelNotation(), sheetName),
-            (workbook, path) -> {
-                Sheet sheet = getOrCreateSheet(workbook, sheetName);
+            (workbook, path) -> writeRange(workbook, sheetName, range, data));
+    }
+
+    /**
+     * Escribe datos en un rango específico en un workbook ya abierto, sin guardar
+     */
+    public boolean writeRange(Workbook workbook, String sheetName, ExcelRange range, Object[][] data) {
+        Sheet sheet = getOrCreateSheet(workbook, sheetName);
 
-                int dataRows = data.length;
-                int dataCols = dataRows > 0 ? data[0].length : 0;
+        int dataRows = data.length;
+        int dataCols = dataRows > 0 ? data[0].length : 0;
 
-                // Verificar que los datos caben en el rango
-                if (dataRows > range.getRowCount() || dataCols > range.getColumnCount()) {
-                    System.out.println("⚠️ Data size exceeds range dimensions");
-                    return false;
-                }
+        // Verificar que los datos caben en el rango
+        if (dataRows > range.getRowCount() || dataCols > range.getColumnCount()) {
+            System.out.println("⚠️ Data size exceeds range dimensions");
+            return false;
+        }
 
-                for (int rowIndex = 0; rowIndex < dataRows; rowIndex++) {
-                    Row row = getOrCreateRow(sheet, range.startPosition().row() + rowIndex);
+        for (int rowIndex = 0; rowIndex < dataRows; rowIndex++) {
+            Row row = getOrCreateRow(sheet, range.startPosition().row() + rowIndex);
 
-                    for (int colIndex = 0; colIndex < dataCols; colIndex++) {
-                        Cell cell = getOrCreateCell(row, range.startPosition().column() + colIndex);
-                        setCellValue(cell, data[rowIndex][colIndex]);
-                    }
-                }
-                return true;
-            });
+            for (int colIndex = 0; colIndex < dataCols; colIndex++) {
+                Cell cell = getOrCreateCell(row, range.startPosition().column() + colIndex);
+                setCellValue(cell, data[rowIndex][colIndex]);
+            }
+        }
+        formulaRecalculator.markChanged(sheet, range);
+        return true;
     }
 
     /**
@@ -138,12 +194,18 @@ public class ExcelSheetWriter {
     public boolean copySheet(String filePath, String sourceSheetName, String targetSheetName) {
         return modifyWorkbook(filePath,
             String.format("Copying sheet '%s' to '%s'", sourceSheetName, targetSheetName),
-            (workbook, path) -> {
-                Sheet sourceSheet = fileHandler.getSheetByName(workbook, sourceSheetName);
-                Sheet targetSheet = workbook.createSheet(targetSheetName);
-                copySheetData(sourceSheet, targetSheet);
-                return true;
-            });
+            (workbook, path) -> copySheet(workbook, sourceSheetName, targetSheetName));
+    }
+
+    /**
+     * Copia una hoja completa dentro del mismo archivo en un workbook ya abierto, sin guardar
+     */
+    public boolean copySheet(Workbook workbook, String sourceSheetName, String targetSheetName) {
+        Sheet sourceSheet = fileHandler.getSheetByName(workbook, sourceSheetName);
+        Sheet targetSheet = workbook.createSheet(targetSheetName);
+        copySheetData(sourceSheet, targetSheet);
+        formulaRecalculator.markStructureChanged(workbook);
+        return true;
     }
 
     /**
@@ -159,21 +221,15 @@ public class ExcelSheetWriter {
             return fileHandler.executeWithWorkbook(sourceFilePath, "Reading source sheet", (sourceWorkbook, sourcePath) -> {
                 Sheet sourceSheet = fileHandler.getSheetByName(sourceWorkbook, sourceSheetName);
 
-                // Escribir a archivo destino
-                try (Workbook targetWorkbook = WorkbookFactory.create(new java.io.File(targetFilePath))) {
-                    Sheet targetSheet = targetWorkbook.createSheet(targetSheetName);
-                    copySheetData(sourceSheet, targetSheet);
-
-                    // Guardar cambios en archivo destino
-                    try (FileOutputStream outputStream = new FileOutputStream(targetFilePath)) {
-                        targetWorkbook.write(outputStream);
-                        System.out.println("✅ Sheet copied between files successfully");
+                // El archivo destino se modifica por la misma vía que el resto de escrituras
+                return modifyWorkbook(targetFilePath,
+                    String.format("Copying sheet '%s' into '%s'", sourceSheetName, targetSheetName),
+                    (targetWorkbook, targetPath) -> {
+                        Sheet targetSheet = targetWorkbook.createSheet(targetSheetName);
+                        copySheetData(sourceSheet, targetSheet);
+                        formulaRecalculator.markStructureChanged(targetWorkbook);
                         return true;
-                    }
-                } catch (Exception e) {
-                    System.err.println("❌ Error writing to target file: " + e.getMessage());
-                    return false;
-                }
+                    });
             });
         } catch (Exception e) {
             System.err.println("❌ Error copying sheet between files: " + e.getMessage());
@@ -187,18 +243,25 @@ public class ExcelSheetWriter {
     public boolean clearSheet(String filePath, String sheetName) {
         return modifyWorkbook(filePath,
             String.format("Clearing all content from sheet '%s'", sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-
-                // Eliminar todas las filas
-                for (int i = sheet.getLastRowNum(); i >= 0; i--) {
-                    Row row = sheet.getRow(i);
-                    if (row != null) {
-                        sheet.removeRow(row);
-                    }
-                }
-                return true;
-            });
+            (workbook, path) -> clearSheet(workbook, sheetName));
+    }
+
+    /**
+     * Limpia todo el contenido de una hoja en un workbook ya abierto, sin guardar
+     */
+    public boolean clearSheet(Workbook workbook, String sheetName) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+
+        // Eliminar todas las filas
+        for (int i = sheet.getLastRowNum(); i >= 0; i--) {
+            Row row = sheet.getRow(i);
+            if (row != null) {
+                sheet.removeRow(row);
+            }
+        }
+        SpreadsheetVersion version = workbook.getSpreadsheetVersion();
+        formulaRecalculator.markChanged(sheet, new ExcelRange(0, 0, version.getLastRowIndex(), version.getLastColumnIndex()));
+        return true;
     }
 
     // MÉTODOS PRIVADOS DE SOPORTE
@@ -207,62 +270,7 @@ public class ExcelSheetWriter {
      * Ejecuta una operación de modificación en un workbook y guarda los cambios
      */
     private boolean modifyWorkbook(String filePath, String operation, ExcelFileHandler.WorkbookOperation<Boolean> workbookOperation) {
-        try {
-            System.out.println("📊 " + operation);
-
-            // Crear una copia temporal del archivo para evitar conflictos
-            File originalFile = new File(filePath);
-            File tempFile = new File(filePath + ".tmp");
-
-            boolean result;
-
-            // Abrir el archivo original, hacer modificaciones, y guardar en temporal
-            try (Workbook workbook = WorkbookFactory.create(originalFile)) {
-                result = workbookOperation.execute(workbook, filePath);
-
-                // Guardar en archivo temporal
-                try (FileOutputStream outputStream = new FileOutputStream(tempFile)) {
-                    workbook.write(outputStream);
-                }
-            }
-
-            // Si todo salió bien, reemplazar el archivo original con el temporal
-            if (result && tempFile.exists()) {
-                if (originalFile.delete()) {
-                    if (tempFile.renameTo(originalFile)) {
-                        System.out.println("💾 Sheet operation completed successfully: " + filePath);
-                        return true;
-                    } else {
-                        System.err.println("❌ Could not rename temporary file");
-                        tempFile.delete(); // Limpiar archivo temporal
-                        return false;
-                    }
-                } else {
-                    System.err.println("❌ Could not delete original file");
-                    tempFile.delete(); // Limpiar archivo temporal
-                    return false;
-                }
-            } else {
-                // Limpiar archivo temporal si algo salió mal
-                if (tempFile.exists()) {
-                    tempFile.delete();
-                }
-                return false;
-            }
-
-        } catch (Exception e) {
-            System.err.println("❌ Error during sheet operation: " + operation);
-            System.err.println("   File: " + filePath);
-            System.err.println("   Error: " + e.getMessage());
-
-            // Limpiar archivo temporal si existe
-            File tempFile = new File(filePath + ".tmp");
-            if (tempFile.exists()) {
-                tempFile.delete();
-            }
-
-            return false;
-        }
+        return writeCoordinator.submit(filePath, "📊 " + operation, workbookOperation);
     }
 
     /**
@@ -2,12 +2,14 @@ package mcp.development_guides.project.infrastructure.excel.writer;
 
 import mcp.development_guides.project.domain.model.ExcelRange;
 import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFormulaRecalculator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
+import org.apache.poi.ss.SpreadsheetVersion;
 import org.apache.poi.ss.usermodel.*;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.FileOutputStream;
 
 /**
  * Editor especializado en estructura de Excel (insertar/eliminar filas/columnas, copiar/mover)
@@ -18,25 +20,37 @@ public class ExcelStructureEditor {
     @Autowired
     private ExcelFileHandler fileHandler;
 
+    @Autowired
+    private ExcelWriteCoordinator writeCoordinator;
+
+    @Autowired
+    private ExcelFormulaRecalculator formulaRecalculator;
+
     /**
      * Inserta una nueva fila en la posición especificada
      */
     public boolean insertRow(String filePath, String sheetName, int rowIndex) {
         return modifyWorkbook(filePath,
             String.format("Inserting row at index %d in sheet '%s'", rowIndex, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                
-                // Desplazar filas existentes hacia abajo
-                int lastRow = sheet.getLastRowNum();
-                if (rowIndex <= lastRow) {
-                    sheet.shiftRows(rowIndex, lastRow, 1);
-                }
-                
-                // Crear la nueva fila
-                sheet.createRow(rowIndex);
-                return true;
-            });
+            (workbook, path) -> insertRow(workbook, sheetName, rowIndex));
+    }
+
+    /**
+     * Inserta una nueva fila en la posición especificada en un workbook ya abierto, sin guardar
+     */
+    public boolean insertRow(Workbook workbook, String sheetName, int rowIndex) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        // Desplazar filas existentes hacia abajo
+        int lastRow = sheet.getLastRowNum();
+        if (rowIndex <= lastRow) {
+            sheet.shiftRows(rowIndex, lastRow, 1);
+        }
+        
+        // Crear la nueva fila
+        sheet.createRow(rowIndex);
+        formulaRecalculator.markStructureChanged(workbook);
+        return true;
     }
 
     /**
@@ -45,21 +59,27 @@ public class ExcelStructureEditor {
     public boolean deleteRow(String filePath, String sheetName, int rowIndex) {
         return modifyWorkbook(filePath,
             String.format("Deleting row at index %d in sheet '%s'", rowIndex, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                
-                Row row = sheet.getRow(rowIndex);
-                if (row != null) {
-                    sheet.removeRow(row);
-                    
-                    // Desplazar filas hacia arriba
-                    int lastRow = sheet.getLastRowNum();
-                    if (rowIndex < lastRow) {
-                        sheet.shiftRows(rowIndex + 1, lastRow, -1);
-                    }
-                }
-                return true;
-            });
+            (workbook, path) -> deleteRow(workbook, sheetName, rowIndex));
+    }
+
+    /**
+     * Elimina una fila en la posición especificada en un workbook ya abierto, sin guardar
+     */
+    public boolean deleteRow(Workbook workbook, String sheetName, int rowIndex) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        Row row = sheet.getRow(rowIndex);
+        if (row != null) {
+            sheet.removeRow(row);
+            
+            // Desplazar filas hacia arriba
+            int lastRow = sheet.getLastRowNum();
+            if (rowIndex < lastRow) {
+                sheet.shiftRows(rowIndex + 1, lastRow, -1);
+            }
+            formulaRecalculator.markStructureChanged(workbook);
+        }
+        return true;
     }
 
     /**
@@ -68,22 +88,28 @@ public class ExcelStructureEditor {
     public boolean insertColumn(String filePath, String sheetName, int columnIndex) {
         return modifyWorkbook(filePath,
             String.format("Inserting column at index %d in sheet '%s'", columnIndex, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                
-                // Desplazar celdas existentes hacia la derecha
-                for (Row row : sheet) {
-                    for (int colIndex = row.getLastCellNum(); colIndex >= columnIndex; colIndex--) {
-                        Cell oldCell = row.getCell(colIndex);
-                        if (oldCell != null) {
-                            Cell newCell = row.createCell(colIndex + 1);
-                            copyCellValue(oldCell, newCell);
-                            row.removeCell(oldCell);
-                        }
-                    }
+            (workbook, path) -> insertColumn(workbook, sheetName, columnIndex));
+    }
+
+    /**
+     * Inserta una nueva columna en la posición especificada en un workbook ya abierto, sin guardar
+     */
+    public boolean insertColumn(Workbook workbook, String sheetName, int columnIndex) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        // Desplazar celdas existentes hacia la derecha
+        for (Row row : sheet) {
+            for (int colIndex = row.getLastCellNum(); colIndex >= columnIndex; colIndex--) {
+                Cell oldCell = row.getCell(colIndex);
+                if (oldCell != null) {
+                    Cell newCell = row.createCell(colIndex + 1);
+                    copyCellValue(oldCell, newCell);
+                    row.removeCell(oldCell);
                 }
-                return true;
-            });
+            }
+        }
+        markColumnsShifted(sheet, columnIndex);
+        return true;
     }
 
     /**
@@ -92,28 +118,34 @@ public class ExcelStructureEditor {
     public boolean deleteColumn(String filePath, String sheetName, int columnIndex) {
         return modifyWorkbook(filePath,
             String.format("Deleting column at index %d in sheet '%s'", columnIndex, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                
-                // Eliminar celdas de la columna y desplazar hacia la izquierda
-                for (Row row : sheet) {
-                    Cell cellToDelete = row.getCell(columnIndex);
-                    if (cellToDelete != null) {
-                        row.removeCell(cellToDelete);
-                    }
-                    
-                    // Desplazar celdas hacia la izquierda
-                    for (int colIndex = columnIndex + 1; colIndex <= row.getLastCellNum(); colIndex++) {
-                        Cell oldCell = row.getCell(colIndex);
-                        if (oldCell != null) {
-                            Cell newCell = row.createCell(colIndex - 1);
-                            copyCellValue(oldCell, newCell);
-                            row.removeCell(oldCell);
-                        }
-                    }
+            (workbook, path) -> deleteColumn(workbook, sheetName, columnIndex));
+    }
+
+    /**
+     * Elimina una columna en la posición especificada en un workbook ya abierto, sin guardar
+     */
+    public boolean deleteColumn(Workbook workbook, String sheetName, int columnIndex) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        // Eliminar celdas de la columna y desplazar hacia la izquierda
+        for (Row row : sheet) {
+            Cell cellToDelete = row.getCell(columnIndex);
+            if (cellToDelete != null) {
+                row.removeCell(cellToDelete);
+            }
+            
+            // Desplazar celdas hacia la izquierda
+            for (int colIndex = columnIndex + 1; colIndex <= row.getLastCellNum(); colIndex++) {
+                Cell oldCell = row.getCell(colIndex);
+                if (oldCell != null) {
+                    Cell newCell = row.createCell(colIndex - 1);
+                    copyCellValue(oldCell, newCell);
+                    row.removeCell(oldCell);
                 }
-                return true;
-            });
+            }
+        }
+        markColumnsShifted(sheet, columnIndex);
+        return true;
     }
 
     /**
@@ -124,33 +156,39 @@ public class ExcelStructureEditor {
         return modifyWorkbook(filePath,
             String.format("Copying range %s to [%d,%d] in sheet '%s'", 
                 sourceRange.toExcelNotation(), targetRow, targetColumn, sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                
-                int rowOffset = targetRow - sourceRange.startPosition().row();
-                int colOffset = targetColumn - sourceRange.startPosition().column();
+            (workbook, path) -> copyRange(workbook, sheetName, sourceRange, targetRow, targetColumn));
+    }
+
+    /**
+     * Copia un rango de celdas a otra ubicación en un workbook ya abierto, sin guardar
+     */
+    public boolean copyRange(Workbook workbook, String sheetName, ExcelRange sourceRange, int targetRow, int targetColumn) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        int rowOffset = targetRow - sourceRange.startPosition().row();
+        int colOffset = targetColumn - sourceRange.startPosition().column();
+        
+        for (int rowIndex = sourceRange.startPosition().row(); 
+             rowIndex <= sourceRange.endPosition().row(); rowIndex++) {
+            
+            Row sourceRow = sheet.getRow(rowIndex);
+            if (sourceRow != null) {
+                Row targetRowObj = getOrCreateRow(sheet, rowIndex + rowOffset);
                 
-                for (int rowIndex = sourceRange.startPosition().row(); 
-                     rowIndex <= sourceRange.endPosition().row(); rowIndex++) {
+                for (int colIndex = sourceRange.startPosition().column(); 
+                     colIndex <= sourceRange.endPosition().column(); colIndex++) {
                     
-                    Row sourceRow = sheet.getRow(rowIndex);
-                    if (sourceRow != null) {
-                        Row targetRowObj = getOrCreateRow(sheet, rowIndex + rowOffset);
-                        
-                        for (int colIndex = sourceRange.startPosition().column(); 
-                             colIndex <= sourceRange.endPosition().column(); colIndex++) {
-                            
-                            Cell sourceCell = sourceRow.getCell(colIndex);
-                            if (sourceCell != null) {
-                                Cell targetCell = targetRowObj.createCell(colIndex + colOffset);
-                                copyCellValue(sourceCell, targetCell);
-                                targetCell.setCellStyle(sourceCell.getCellStyle());
-                            }
-                        }
+                    Cell sourceCell = sourceRow.getCell(colIndex);
+                    if (sourceCell != null) {
+                        Cell targetCell = targetRowObj.createCell(colIndex + colOffset);
+                        copyCellValue(sourceCell, targetCell);
+                        targetCell.setCellStyle(sourceCell.getCellStyle());
                     }
                 }
-                return true;
-            });
+            }
+        }
+        formulaRecalculator.markChanged(sheet, shifted(sourceRange, rowOffset, colOffset));
+        return true;
     }
 
     /**
@@ -161,38 +199,45 @@ public class ExcelStructureEditor {
         return modifyWorkbook(filePath,
             String.format("Moving range %s to [%d,%d] in sheet '%s'", 
                 sourceRange.toExcelNotation(), targetRow, targetColumn, sheetName),
-            (workbook, path) -> {
-                // Primero copiar
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                
-                int rowOffset = targetRow - sourceRange.startPosition().row();
-                int colOffset = targetColumn - sourceRange.startPosition().column();
+            (workbook, path) -> moveRange(workbook, sheetName, sourceRange, targetRow, targetColumn));
+    }
+
+    /**
+     * Mueve un rango de celdas a otra ubicación en un workbook ya abierto, sin guardar
+     */
+    public boolean moveRange(Workbook workbook, String sheetName, ExcelRange sourceRange, int targetRow, int targetColumn) {
+        // Primero copiar
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        int rowOffset = targetRow - sourceRange.startPosition().row();
+        int colOffset = targetColumn - sourceRange.startPosition().column();
+        
+        // Copiar datos
+        for (int rowIndex = sourceRange.startPosition().row(); 
+             rowIndex <= sourceRange.endPosition().row(); rowIndex++) {
+            
+            Row sourceRow = sheet.getRow(rowIndex);
+            if (sourceRow != null) {
+                Row targetRowObj = getOrCreateRow(sheet, rowIndex + rowOffset);
                 
-                // Copiar datos
-                for (int rowIndex = sourceRange.startPosition().row(); 
-                     rowIndex <= sourceRange.endPosition().row(); rowIndex++) {
+                for (int colIndex = sourceRange.startPosition().column(); 
+                     colIndex <= sourceRange.endPosition().column(); colIndex++) {
                     
-                    Row sourceRow = sheet.getRow(rowIndex);
-                    if (sourceRow != null) {
-                        Row targetRowObj = getOrCreateRow(sheet, rowIndex + rowOffset);
-                        
-                        for (int colIndex = sourceRange.startPosition().column(); 
-                             colIndex <= sourceRange.endPosition().column(); colIndex++) {
-                            
-                            Cell sourceCell = sourceRow.getCell(colIndex);
-                            if (sourceCell != null) {
-                                Cell targetCell = targetRowObj.createCell(colIndex + colOffset);
-                                copyCellValue(sourceCell, targetCell);
-                                targetCell.setCellStyle(sourceCell.getCellStyle());
-                            }
-                        }
+                    Cell sourceCell = sourceRow.getCell(colIndex);
+                    if (sourceCell != null) {
+                        Cell targetCell = targetRowObj.createCell(colIndex + colOffset);
+                        copyCellValue(sourceCell, targetCell);
+                        targetCell.setCellStyle(sourceCell.getCellStyle());
                     }
                 }
-                
-                // Luego limpiar origen
-                clearRange(sheet, sourceRange);
-                return true;
-            });
+            }
+        }
+        
+        // Luego limpiar origen
+        clearRange(sheet, sourceRange);
+        formulaRecalculator.markChanged(sheet, sourceRange);
+        formulaRecalculator.markChanged(sheet, shifted(sourceRange, rowOffset, colOffset));
+        return true;
     }
 
     /**
@@ -201,19 +246,24 @@ public class ExcelStructureEditor {
     public boolean mergeCells(String filePath, String sheetName, ExcelRange range) {
         return modifyWorkbook(filePath,
             String.format("Merging cells in range %s of sheet '%s'", range.toExcelNotation(), sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
-                
-                CellRangeAddress cellRangeAddress = new CellRangeAddress(
-                    range.startPosition().row(),
-                    range.endPosition().row(),
-                    range.startPosition().column(),
-                    range.endPosition().column()
-                );
-                
-                sheet.addMergedRegion(cellRangeAddress);
-                return true;
-            });
+            (workbook, path) -> mergeCells(workbook, sheetName, range));
+    }
+
+    /**
+     * Combina celdas en un rango especificado en un workbook ya abierto, sin guardar
+     */
+    public boolean mergeCells(Workbook workbook, String sheetName, ExcelRange range) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        CellRangeAddress cellRangeAddress = new CellRangeAddress(
+            range.startPosition().row(),
+            range.endPosition().row(),
+            range.startPosition().column(),
+            range.endPosition().column()
+        );
+        
+        sheet.addMergedRegion(cellRangeAddress);
+        return true;
     }
 
     /**
@@ -222,46 +272,50 @@ public class ExcelStructureEditor {
     public boolean unmergeCells(String filePath, String sheetName, ExcelRange range) {
         return modifyWorkbook(filePath,
             String.format("Unmerging cells in range %s of sheet '%s'", range.toExcelNotation(), sheetName),
-            (workbook, path) -> {
-                Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+            (workbook, path) -> unmergeCells(workbook, sheetName, range));
+    }
+
+    /**
+     * Deshace la combinación de celdas en un rango en un workbook ya abierto, sin guardar
+     */
+    public boolean unmergeCells(Workbook workbook, String sheetName, ExcelRange range) {
+        Sheet sheet = fileHandler.getSheetByName(workbook, sheetName);
+        
+        // Buscar y eliminar regiones combinadas que coincidan
+        for (int i = sheet.getNumMergedRegions() - 1; i >= 0; i--) {
+            CellRangeAddress mergedRegion = sheet.getMergedRegion(i);
+            
+            if (mergedRegion.getFirstRow() == range.startPosition().row() &&
+                mergedRegion.getLastRow() == range.endPosition().row() &&
+                mergedRegion.getFirstColumn() == range.startPosition().column() &&
+                mergedRegion.getLastColumn() == range.endPosition().column()) {
                 
-                // Buscar y eliminar regiones combinadas que coincidan
-                for (int i = sheet.getNumMergedRegions() - 1; i >= 0; i--) {
-                    CellRangeAddress mergedRegion = sheet.getMergedRegion(i);
-                    
-                    if (mergedRegion.getFirstRow() == range.startPosition().row() &&
-                        mergedRegion.getLastRow() == range.endPosition().row() &&
-                        mergedRegion.getFirstColumn() == range.startPosition().column() &&
-                        mergedRegion.getLastColumn() == range.endPosition().column()) {
-                        
-                        sheet.removeMergedRegion(i);
-                        break;
-                    }
-                }
-                return true;
-            });
+                sheet.removeMergedRegion(i);
+                break;
+            }
+        }
+        return true;
     }
 
     // MÉTODOS PRIVADOS DE SOPORTE
 
+    /**
+     * Las celdas desplazadas de columna conservan el texto de sus fórmulas: todo lo que hay desde la columna
+     * cambia de valor para las fórmulas que lo leen
+     */
+    private void markColumnsShifted(Sheet sheet, int columnIndex) {
+        SpreadsheetVersion version = sheet.getWorkbook().getSpreadsheetVersion();
+        formulaRecalculator.markChanged(sheet, new ExcelRange(0, columnIndex, version.getLastRowIndex(), version.getLastColumnIndex()));
+        formulaRecalculator.markStructureChanged(sheet.getWorkbook());
+    }
+
+    private static ExcelRange shifted(ExcelRange range, int rowOffset, int colOffset) {
+        return new ExcelRange(range.startPosition().row() + rowOffset, range.startPosition().column() + colOffset,
+            range.endPosition().row() + rowOffset, range.endPosition().column() + colOffset);
+    }
+
     private boolean modifyWorkbook(String filePath, String operation, ExcelFileHandler.WorkbookOperation<Boolean> workbookOperation) {
-        try (Workbook workbook = WorkbookFactory.create(new java.io.File(filePath))) {
-            System.out.println("🔧 " + operation);
-            
-            boolean result = workbookOperation.execute(workbook, filePath);
-            
-            try (FileOutputStream outputStream = new FileOutputStream(filePath)) {
-                workbook.write(outputStream);
-                System.out.println("💾 Structure changes saved successfully to: " + filePath);
-            }
-            
-            return result;
-        } catch (Exception e) {
-            System.err.println("❌ Error during structure operation: " + operation);
-            System.err.println("   File: " + filePath);
-            System.err.println("   Error: " + e.getMessage());
-            return false;
-        }
+        return writeCoordinator.submit(filePath, "🔧 " + operation, workbookOperation);
     }
 
     private void copyCellValue(Cell sourceCell, Cell targetCell) {
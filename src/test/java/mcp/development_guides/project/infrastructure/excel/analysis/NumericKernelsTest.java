@@ -0,0 +1,121 @@
+package mcp.development_guides.project.infrastructure.excel.analysis;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumericKernelsTest {
+
+    private final NumericKernels scalar = new ScalarNumericKernels();
+    private final NumericKernels vector = new VectorNumericKernels();
+
+    private double[] values;
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        values = new double[10_007];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian() * 1_000 + 5_000;
+        }
+    }
+
+    @Test
+    void testVectorKernelsMatchScalar() {
+        int length = values.length - 3;
+        double sum = scalar.sum(values, length);
+        double mean = sum / length;
+
+        assertEquals(sum, vector.sum(values, length), Math.abs(sum) * 1e-12);
+        assertEquals(scalar.min(values, length), vector.min(values, length));
+        assertEquals(scalar.max(values, length), vector.max(values, length));
+
+        double deviations = scalar.sumOfSquaredDeviations(values, length, mean);
+        assertEquals(deviations, vector.sumOfSquaredDeviations(values, length, mean), deviations * 1e-12);
+    }
+
+    @Test
+    void testHistogramMatchesScalarAndCountsEveryValue() {
+        int length = values.length;
+        double min = scalar.min(values, length);
+        double max = scalar.max(values, length);
+
+        long[] expected = scalar.histogram(values, length, min, max, 20);
+        long[] actual = vector.histogram(values, length, min, max, 20);
+
+        assertArrayEquals(expected, actual);
+        long total = 0;
+        for (long count : actual) {
+            total += count;
+        }
+        assertEquals(length, total);
+    }
+
+    @Test
+    void testSummaryOfSmallColumn() {
+        ExcelStatisticsCalculator calculator = new ExcelStatisticsCalculator();
+        calculator.setVectorKernelsEnabled(false);
+
+        var summary = calculator.summarize("Qty", new double[]{2, 4, 4, 4, 5, 5, 7, 9}, 8, 4);
+
+        assertEquals(8, summary.count());
+        assertEquals(40, summary.sum());
+        assertEquals(5.0, summary.mean());
+        assertEquals(32.0 / 7, summary.variance(), 1e-12);
+        assertEquals(2.0, summary.min());
+        assertEquals(9.0, summary.max());
+        assertEquals(5, summary.binEdges().size());
+        assertEquals(8L, summary.histogram().stream().mapToLong(Long::longValue).sum());
+        assertEquals("scalar", summary.kernel());
+    }
+
+    /**
+     * Comparativa de rendimiento; se ejecuta con -Dbenchmark=true
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkVectorAgainstScalar() {
+        double[] column = new double[4_000_000];
+        Random random = new Random(7);
+        for (int i = 0; i < column.length; i++) {
+            column[i] = random.nextDouble() * 1_000_000;
+        }
+
+        for (int warmup = 0; warmup < 20; warmup++) {
+            runSummary(scalar, column);
+            runSummary(vector, column);
+        }
+
+        long scalarNanos = time(scalar, column, 50);
+        long vectorNanos = time(vector, column, 50);
+
+        System.out.printf("📊 Numeric kernels over %,d values: scalar %.2f ms, vector %.2f ms, speed-up x%.2f%n",
+            column.length, scalarNanos / 50 / 1e6, vectorNanos / 50 / 1e6, (double) scalarNanos / vectorNanos);
+    }
+
+    private long time(NumericKernels kernels, double[] column, int iterations) {
+        long start = System.nanoTime();
+        double sink = 0;
+        for (int i = 0; i < iterations; i++) {
+            sink += runSummary(kernels, column);
+        }
+        long elapsed = System.nanoTime() - start;
+        assertFalse(Double.isNaN(sink));
+        return elapsed;
+    }
+
+    private double runSummary(NumericKernels kernels, double[] column) {
+        int length = column.length;
+        double sum = kernels.sum(column, length);
+        double mean = sum / length;
+        double min = kernels.min(column, length);
+        double max = kernels.max(column, length);
+        double deviations = kernels.sumOfSquaredDeviations(column, length, mean);
+        long[] histogram = kernels.histogram(column, length, min, max, 32);
+        return deviations + histogram[0];
+    }
+}
@@ -0,0 +1,44 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelAtomicSaver.class, ExcelFileWatcher.class})
+class ExcelAtomicSaverTest {
+
+    @Autowired
+    private ExcelAtomicSaver atomicSaver;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @EnabledIfSystemProperty(named = "os.name", matches = "(?i).*(linux|mac).*")
+    void testSaveKeepsTargetPermissions() throws Exception {
+        Path target = tempDir.resolve("shared.xlsx");
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("Data");
+            atomicSaver.save(workbook, target.toFile());
+            Files.setPosixFilePermissions(target, PosixFilePermissions.fromString("rw-rw-r--"));
+
+            workbook.getSheet("Data").createRow(0).createCell(0).setCellValue("updated");
+            atomicSaver.save(workbook, target.toFile());
+        }
+
+        assertEquals("rw-rw-r--", PosixFilePermissions.toString(Files.getPosixFilePermissions(target)));
+        try (var leftovers = Files.list(tempDir)) {
+            assertEquals(1, leftovers.count(), "temporary files were left behind");
+        }
+    }
+}
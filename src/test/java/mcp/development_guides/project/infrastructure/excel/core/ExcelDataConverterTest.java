@@ -0,0 +1,82 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcelDataConverterTest {
+
+    // Zonas con horario de verano, desfases no enteros y cambios de desfase históricos
+    private static final String[] ZONES = {"UTC", "Europe/Madrid", "America/New_York", "Australia/Lord_Howe",
+        "Asia/Kolkata", "America/Sao_Paulo", "Europe/Dublin", "Pacific/Apia", "America/St_Johns", "Asia/Tokyo"};
+
+    private final ExcelDataConverter converter = new ExcelDataConverter();
+    private final TimeZone defaultZone = TimeZone.getDefault();
+
+    @AfterEach
+    void restoreTimeZone() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    void testDatesRenderLikeJavaDateToString() throws Exception {
+        for (boolean date1904 : new boolean[]{false, true}) {
+            try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+                workbook.getCTWorkbook().getWorkbookPr().setDate1904(date1904);
+                CellStyle dateStyle = workbook.createCellStyle();
+                dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd hh:mm:ss"));
+                Cell cell = workbook.createSheet("Data").createRow(0).createCell(0);
+                cell.setCellStyle(dateStyle);
+
+                List<Double> values = sampleValues(date1904);
+                for (String zone : ZONES) {
+                    TimeZone.setDefault(TimeZone.getTimeZone(zone));
+                    for (double value : values) {
+                        cell.setCellValue(value);
+                        Date expected = DateUtil.getJavaDate(value, date1904);
+                        String label = zone + " 1904=" + date1904 + " value=" + value;
+
+                        assertEquals(expected.toString(), converter.getCellValueAsString(cell), label);
+                        assertEquals(expected.toString(), converter.getCellData(cell).value(), label);
+                        assertEquals(expected, converter.getCellData(cell).dateValue(), label);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Valores aleatorios más horas cada 15 minutos alrededor de los cambios de hora de marzo, abril,
+     * septiembre, octubre y noviembre
+     */
+    private static List<Double> sampleValues(boolean date1904) {
+        List<Double> values = new ArrayList<>(List.of(0.5, 1.0, 59.0, 60.0, 61.0));
+        Random random = new Random(42);
+        for (int i = 0; i < 2_000; i++) {
+            values.add(random.nextDouble() * 50_000);
+        }
+        for (int year = 1995; year <= 2030; year += 5) {
+            for (int month : new int[]{3, 4, 9, 10, 11}) {
+                for (int day = 1; day <= 28; day += 3) {
+                    LocalDateTime start = LocalDateTime.of(year, month, day, 0, 0);
+                    for (int quarter = 0; quarter < 96; quarter++) {
+                        values.add(DateUtil.getExcelDate(start.plusMinutes(quarter * 15L), date1904));
+                    }
+                }
+            }
+        }
+        return values;
+    }
+}
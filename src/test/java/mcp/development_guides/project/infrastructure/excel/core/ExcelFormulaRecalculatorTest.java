@@ -0,0 +1,204 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelFormulaRecalculator.class, ExcelStreamingWriter.class, ExcelWriteCoordinator.class,
+    ExcelAtomicSaver.class, ExcelFileWatcher.class})
+class ExcelFormulaRecalculatorTest {
+
+    @Autowired
+    private ExcelFormulaRecalculator formulaRecalculator;
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testChangesReachTransitiveAndCrossSheetDependents() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("chain." + extension).toFile();
+            try (Workbook workbook = extension.equals("xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                Sheet data = workbook.createSheet("Data");
+                Row row = data.createRow(0);
+                row.createCell(0).setCellValue(1);
+                row.createCell(1).setCellFormula("A1*2");
+                row.createCell(2).setCellFormula("B1+1");
+                // Fórmula ajena a los cambios con un resultado en caché deliberadamente distinto
+                Cell unrelated = row.createCell(3);
+                unrelated.setCellFormula("A2*1");
+                unrelated.setCellValue(99);
+                workbook.createSheet("Summary").createRow(0).createCell(0).setCellFormula("Data!C1*10");
+                workbook.getCreationHelper().createFormulaEvaluator().evaluateFormulaCell(row.getCell(1));
+                workbook.getCreationHelper().createFormulaEvaluator().evaluateFormulaCell(row.getCell(2));
+                write(workbook, file);
+            }
+
+            // Primera escritura: construye el grafo; la segunda usa solo las celdas anotadas
+            for (double value : new double[]{10, 3}) {
+                try (Workbook workbook = open(file)) {
+                    Sheet data = workbook.getSheet("Data");
+                    data.getRow(0).getCell(0).setCellValue(value);
+                    formulaRecalculator.markChanged(data, 0, 0);
+                    save(workbook, file);
+                }
+                try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                    String label = file.getName() + " A1=" + value;
+                    Row row = workbook.getSheet("Data").getRow(0);
+                    assertEquals(value * 2, row.getCell(1).getNumericCellValue(), label);
+                    assertEquals(value * 2 + 1, row.getCell(2).getNumericCellValue(), label);
+                    assertEquals((value * 2 + 1) * 10, workbook.getSheet("Summary").getRow(0).getCell(0).getNumericCellValue(), label);
+                    assertEquals(99, row.getCell(3).getNumericCellValue(), label + ": unrelated formula was recalculated");
+                }
+            }
+        }
+    }
+
+    @Test
+    void testCyclesDoNotBlockOtherFormulas() throws Exception {
+        File file = tempDir.resolve("cycle.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Row row = workbook.createSheet("Data").createRow(0);
+            row.createCell(0).setCellValue(5);
+            row.createCell(1).setCellFormula("C1+A1");
+            row.createCell(2).setCellFormula("B1");
+            row.createCell(3).setCellFormula("A1*2");
+            write(workbook, file);
+        }
+
+        for (double value : new double[]{7, 8}) {
+            try (Workbook workbook = open(file)) {
+                Sheet data = workbook.getSheet("Data");
+                data.getRow(0).getCell(0).setCellValue(value);
+                formulaRecalculator.markChanged(data, 0, 0);
+                save(workbook, file);
+            }
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                Row row = workbook.getSheet("Data").getRow(0);
+                assertEquals(value * 2, row.getCell(3).getNumericCellValue());
+                assertEquals(CellType.FORMULA, row.getCell(1).getCellType());
+                assertEquals("B1", row.getCell(2).getCellFormula());
+            }
+        }
+    }
+
+    @Test
+    void testStructureChangeRevisitsShiftedFormulas() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("structure." + extension).toFile();
+            try (Workbook workbook = extension.equals("xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                Sheet data = workbook.createSheet("Data");
+                for (int i = 0; i < 3; i++) {
+                    data.createRow(i).createCell(0).setCellValue(i + 1);
+                }
+                data.getRow(0).createCell(1).setCellFormula("SUM(A1:A3)");
+                workbook.createSheet("Summary").createRow(0).createCell(0).setCellFormula("Data!B1*2");
+                write(workbook, file);
+            }
+            try (Workbook workbook = open(file)) {
+                Sheet data = workbook.getSheet("Data");
+                data.getRow(0).getCell(0).setCellValue(1);
+                formulaRecalculator.markChanged(data, 0, 0);
+                save(workbook, file);
+            }
+
+            // Se inserta una fila dentro del rango sumado sin anotar celdas: solo el cambio de estructura
+            try (Workbook workbook = open(file)) {
+                Sheet data = workbook.getSheet("Data");
+                data.shiftRows(1, 2, 1);
+                data.createRow(1).createCell(0).setCellValue(50);
+                formulaRecalculator.markStructureChanged(workbook);
+                save(workbook, file);
+            }
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                String label = file.getName();
+                assertEquals("SUM(A1:A4)", workbook.getSheet("Data").getRow(0).getCell(1).getCellFormula(), label);
+                assertEquals(56, workbook.getSheet("Data").getRow(0).getCell(1).getNumericCellValue(), label);
+                assertEquals(112, workbook.getSheet("Summary").getRow(0).getCell(0).getNumericCellValue(), label);
+            }
+        }
+    }
+
+    @Test
+    void testStreamedCommitsRecalculateSharedFormulaFills() throws Exception {
+        File file = tempDir.resolve("shared.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet data = workbook.createSheet("Data");
+            for (int i = 0; i < 4; i++) {
+                data.createRow(i).createCell(0).setCellValue(i + 1);
+            }
+            workbook.createSheet("Summary").createRow(0).createCell(0).setCellFormula("SUM(Data!B1:B4)");
+            write(workbook, file);
+        }
+
+        // Primer commit: fórmula compartida en B1:B4; el segundo cambia valores que lee el grupo
+        try (ExcelStreamingWriter.RowSink sink = streamingWriter.openSheet(file.getPath(), "Data", 0, 1, false)) {
+            assertEquals("shared-formula", sink.writeFormulas("A1*2", 4, 1));
+            sink.commit();
+        }
+        assertSharedResults(file, new double[]{1, 2, 3, 4});
+
+        try (ExcelStreamingWriter.RowSink sink = streamingWriter.openSheet(file.getPath(), "Data", 1, 0, false)) {
+            sink.write(new Object[]{20.0});
+            sink.write(new Object[]{30.0});
+            sink.commit();
+        }
+        assertSharedResults(file, new double[]{1, 20, 30, 4});
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private void assertSharedResults(File file, double[] values) throws Exception {
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            Sheet data = workbook.getSheet("Data");
+            double sum = 0;
+            for (int i = 0; i < values.length; i++) {
+                Cell cell = data.getRow(i).getCell(1);
+                assertEquals("A" + (i + 1) + "*2", cell.getCellFormula());
+                assertEquals(values[i] * 2, cell.getNumericCellValue(), "B" + (i + 1));
+                sum += values[i] * 2;
+            }
+            assertEquals(sum, workbook.getSheet("Summary").getRow(0).getCell(0).getNumericCellValue(), "Summary!A1");
+        }
+    }
+
+    /**
+     * Guarda como ExcelWriteCoordinator: recálculo, escritura y registro del guardado
+     */
+    private void save(Workbook workbook, File file) throws Exception {
+        formulaRecalculator.recalculate(workbook, file.getPath());
+        write(workbook, file);
+        formulaRecalculator.saved(workbook, file.getPath());
+    }
+
+    /**
+     * Abre el archivo desde un flujo: un workbook abierto sobre el propio archivo no puede sobrescribirlo
+     */
+    private Workbook open(File file) throws Exception {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            return WorkbookFactory.create(inputStream);
+        }
+    }
+
+    private void write(Workbook workbook, File file) throws Exception {
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            workbook.write(outputStream);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExcelFormulaTemplateTest {
+
+    private final StringBuilder buffer = new StringBuilder();
+
+    @Test
+    void testRelativeReferencesAreShifted() {
+        ExcelFormulaTemplate template = ExcelFormulaTemplate.compile("=A1+B2*SUM(C1:D3)", SpreadsheetVersion.EXCEL2007);
+        assertTrue(template.isRelative());
+        assertEquals("A1+B2*SUM(C1:D3)", template.render(0, 0, buffer));
+        assertEquals("A3+B4*SUM(C3:D5)", template.render(2, 0, buffer));
+        assertEquals("C1+D2*SUM(E1:F3)", template.render(0, 2, buffer));
+        assertEquals("Z2+AA3*SUM(AB2:AC4)", template.render(1, 25, buffer));
+    }
+
+    @Test
+    void testAbsolutePartsAreKept() {
+        ExcelFormulaTemplate template = ExcelFormulaTemplate.compile("$A$1+$A1+A$1+SUM($B:C)+SUM(1:$2)", SpreadsheetVersion.EXCEL2007);
+        assertEquals("$A$1+$A4+D$1+SUM($B:F)+SUM(4:$2)", template.render(3, 3, buffer));
+
+        ExcelFormulaTemplate absolute = ExcelFormulaTemplate.compile("$A$1*2", SpreadsheetVersion.EXCEL2007);
+        assertFalse(absolute.isRelative());
+        assertEquals("$A$1*2", absolute.render(5, 5, buffer));
+    }
+
+    @Test
+    void testLiteralsAndNamesAreNotReferences() {
+        ExcelFormulaTemplate template = ExcelFormulaTemplate.compile(
+            "IF(A1>1.5E+3,\"B2\",'Sheet B1'!C3&LOG10(D4))", SpreadsheetVersion.EXCEL2007);
+        assertEquals("IF(A2>1.5E+3,\"B2\",'Sheet B1'!C4&LOG10(D5))", template.render(1, 0, buffer));
+    }
+
+    @Test
+    void testReferencesOutsideTheSheetBecomeRefErrors() {
+        ExcelFormulaTemplate template = ExcelFormulaTemplate.compile("A2+SUM(B1:B3)+$C$1", SpreadsheetVersion.EXCEL97);
+        assertEquals("#REF!+SUM(#REF!)+$C$1", template.render(-2, 0, buffer));
+        assertEquals("A65536+SUM(#REF!)+$C$1", template.render(65534, 0, buffer));
+        // Basta con que un extremo del rango salga de la hoja (.xls acaba en la columna IV)
+        assertEquals("IV2+SUM(#REF!)+$C$1", template.render(0, 255, buffer));
+        assertEquals("IU2+SUM(IV1:IV3)+$C$1", template.render(0, 254, buffer));
+    }
+}
@@ -0,0 +1,104 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import mcp.development_guides.project.domain.model.ExcelColumnData;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelStreamingWriter.class, ExcelWriteCoordinator.class, ExcelFormulaRecalculator.class,
+    ExcelAtomicSaver.class, ExcelFileWatcher.class})
+class ExcelStreamingWriterTest {
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCommitRecalculatesDependentFormulas() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("totals." + extension).toFile();
+            try (Workbook workbook = extension.equals("xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                Row row = workbook.createSheet("Data").createRow(0);
+                row.createCell(0).setCellValue(1);
+                row.createCell(1).setCellValue(2);
+                row.createCell(2).setCellFormula("SUM(A1:B3)");
+                workbook.createSheet("Summary").createRow(0).createCell(0).setCellFormula("Data!C1*2");
+                workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+                try (OutputStream outputStream = new FileOutputStream(file)) {
+                    workbook.write(outputStream);
+                }
+            }
+
+            streamingWriter.writeRows(file.getPath(), "Data", 1, 0,
+                List.<Object[]>of(new Object[]{10.0, 20.0}, new Object[]{30.0}).iterator());
+
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                String label = file.getName();
+                assertEquals(63, workbook.getSheet("Data").getRow(0).getCell(2).getNumericCellValue(), label);
+                assertEquals(126, workbook.getSheet("Summary").getRow(0).getCell(0).getNumericCellValue(), label);
+            }
+        }
+    }
+
+    @Test
+    void testStreamedSheetForcesRecalculationOnOpen() throws Exception {
+        File file = tempDir.resolve("streamed.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("Summary").createRow(0).createCell(0).setCellFormula("SUM(Data!A1:A2)");
+            try (OutputStream outputStream = new FileOutputStream(file)) {
+                workbook.write(outputStream);
+            }
+        }
+
+        streamingWriter.writeRows(file.getPath(), "Data", 0, 0,
+            List.<Object[]>of(new Object[]{1.0}, new Object[]{2.0}).iterator());
+
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            assertEquals(2, workbook.getSheet("Data").getLastRowNum() + 1);
+            assertTrue(workbook.getForceFormulaRecalculation());
+        }
+    }
+
+    @Test
+    void testDateColumnsUseTheWorkbookDateSystem() throws Exception {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 1, 15, 10, 30);
+        double epochMillis = dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        ExcelColumnData dates = new ExcelColumnData(null, "DATE", new double[]{epochMillis}, null, null, null, null);
+        for (boolean date1904 : new boolean[]{false, true}) {
+            File file = tempDir.resolve("dates" + (date1904 ? "1904" : "1900") + ".xlsx").toFile();
+            try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+                workbook.getCTWorkbook().getWorkbookPr().setDate1904(date1904);
+                workbook.createSheet("Data").createRow(0).createCell(0).setCellValue("existing");
+                try (OutputStream outputStream = new FileOutputStream(file)) {
+                    workbook.write(outputStream);
+                }
+            }
+
+            // Hoja existente (modelo completo) y hoja nueva (streaming SXSSF)
+            streamingWriter.writeColumns(file.getPath(), "Data", 1, 0, List.of(dates));
+            streamingWriter.writeColumns(file.getPath(), "New", 0, 0, List.of(dates));
+
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                String label = file.getName();
+                assertEquals(dateTime, workbook.getSheet("Data").getRow(1).getCell(0).getLocalDateTimeCellValue(), label);
+                assertEquals(dateTime, workbook.getSheet("New").getRow(0).getCell(0).getLocalDateTimeCellValue(), label);
+            }
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package mcp.development_guides.project.infrastructure.excel.core;
+
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelWriteCoordinator.class, ExcelFormulaRecalculator.class, ExcelStreamingWriter.class,
+    ExcelAtomicSaver.class, ExcelFileWatcher.class})
+class ExcelWriteCoordinatorTest {
+
+    @Autowired
+    private ExcelWriteCoordinator writeCoordinator;
+
+    @Autowired
+    private ExcelStreamingWriter streamingWriter;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testQueuedAndStreamedWritesDoNotOverwriteEachOther() throws Exception {
+        File file = tempDir.resolve("concurrent.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("Data");
+            try (OutputStream outputStream = new FileOutputStream(file)) {
+                workbook.write(outputStream);
+            }
+        }
+
+        int writes = 40;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < writes; i++) {
+                int rowIndex = i;
+                futures.add(executor.submit(() -> {
+                    if (rowIndex % 2 == 0) {
+                        assertTrue(writeCoordinator.submit(file.getPath(), "write row " + rowIndex, (workbook, path) -> {
+                            workbook.getSheet("Data").createRow(rowIndex).createCell(0).setCellValue(rowIndex);
+                            return true;
+                        }));
+                    } else {
+                        streamingWriter.writeRows(file.getPath(), "Data", rowIndex, 0,
+                            List.<Object[]>of(new Object[]{(double) rowIndex}).iterator());
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+            Sheet sheet = workbook.getSheet("Data");
+            for (int i = 0; i < writes; i++) {
+                Row row = sheet.getRow(i);
+                assertNotNull(row, "row " + (i + 1) + " was lost");
+                assertEquals(i, row.getCell(0).getNumericCellValue());
+            }
+        }
+    }
+
+    @Test
+    void testRecoveryOnlyCleansJournalsOfFinishedProcesses() throws Exception {
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"), "excel-mcp-journal");
+        Path deadJournal = directory.resolve("write-journal-test-dead.log");
+        Path liveJournal = directory.resolve("write-journal-test-live.log");
+        Path deadTemp = tempDir.resolve(".dead.xlsx.1.tmp");
+        Path liveTemp = tempDir.resolve(".live.xlsx.1.tmp");
+        Files.createFile(deadTemp);
+        Files.createFile(liveTemp);
+        Files.writeString(deadJournal, "BEGIN\t7\t" + tempDir.resolve("dead.xlsx") + "\twrite\n");
+        Files.writeString(liveJournal, "BEGIN\t7\t" + tempDir.resolve("live.xlsx") + "\twrite\n");
+
+        // El diario bloqueado hace de proceso vivo con un guardado en curso
+        try (FileChannel channel = FileChannel.open(liveJournal, StandardOpenOption.WRITE);
+             FileLock lock = channel.lock()) {
+            writeCoordinator.recover();
+
+            assertFalse(Files.exists(deadTemp), "temp file of a finished process was kept");
+            assertFalse(Files.exists(deadJournal), "journal of a finished process was kept");
+            assertTrue(Files.exists(liveTemp), "temp file of a live process was deleted");
+            assertTrue(Files.readString(liveJournal).startsWith("BEGIN"), "journal of a live process was truncated");
+        } finally {
+            Files.deleteIfExists(deadJournal);
+            Files.deleteIfExists(liveJournal);
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package mcp.development_guides.project.infrastructure.excel.reader;
+
+import mcp.development_guides.project.infrastructure.excel.core.*;
+import mcp.development_guides.project.domain.model.CellPosition;
+import mcp.development_guides.project.domain.model.ExcelTypedColumn;
+import mcp.development_guides.project.domain.model.ExcelTypedRange;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelCellReader.class, ExcelSheetReader.class, ExcelFileHandler.class, ExcelDataConverter.class,
+    ExcelOffHeapSheetStore.class, ExcelStreamingReader.class, ExcelFileWatcher.class, ExcelSheetSnapshotStore.class,
+    ExcelMultiRangeReader.class, ExcelValueFormatter.class})
+class ExcelCellReaderTest {
+
+    @Autowired
+    private ExcelCellReader cellReader;
+
+    @Autowired
+    private ExcelSheetReader sheetReader;
+
+    @Autowired
+    private ExcelOffHeapSheetStore offHeapStore;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void restoreThreshold() {
+        offHeapStore.setMinFileBytes(Long.MAX_VALUE);
+        offHeapStore.setMaxBytes(1L << 30);
+    }
+
+    @Test
+    void testOffHeapReadsMatchWorkbookReads() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("parity." + extension).toFile();
+            try (Workbook workbook = extension.equals("xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                fillValues(workbook, workbook.createSheet("Data"));
+                workbook.createSheet("Empty");
+                write(workbook, file);
+            }
+            assertSameReads(file, "Data", 6, 5, "", "#DIV/0!", "3.250");
+            assertSameReads(file, "Empty", 0, 0, "", "x");
+        }
+    }
+
+    @Test
+    void testOffHeapReadsUseTheWorkbookDateSystem() throws Exception {
+        File file = tempDir.resolve("dates1904.xlsx").toFile();
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            workbook.getCTWorkbook().getWorkbookPr().setDate1904(true);
+            fillValues(workbook, workbook.createSheet("Data"));
+            write(workbook, file);
+        }
+        assertSameReads(file, "Data", 6, 5);
+    }
+
+    @Test
+    void testTypedRangesUseTheWorkbookDateSystem() throws Exception {
+        LocalDateTime dateTime = LocalDateTime.of(2024, 1, 15, 10, 30);
+        for (boolean date1904 : new boolean[]{false, true}) {
+            File file = tempDir.resolve("typed" + (date1904 ? "1904" : "1900") + ".xlsx").toFile();
+            try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+                workbook.getCTWorkbook().getWorkbookPr().setDate1904(date1904);
+                CellStyle dateStyle = workbook.createCellStyle();
+                dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+                Row row = workbook.createSheet("Data").createRow(0);
+                // Columna de fechas y columna mixta (fecha más texto), que se devuelve como TEXT
+                for (int column = 0; column < 2; column++) {
+                    Cell date = row.createCell(column);
+                    date.setCellValue(dateTime);
+                    date.setCellStyle(dateStyle);
+                }
+                workbook.getSheet("Data").createRow(1).createCell(1).setCellValue("text");
+                write(workbook, file);
+            }
+
+            for (long minFileBytes : new long[]{Long.MAX_VALUE, 0}) {
+                offHeapStore.setMinFileBytes(minFileBytes);
+                String label = file.getName() + (minFileBytes == 0 ? " off-heap" : " streaming");
+                ExcelTypedRange range = cellReader.readTypedRange(file.getPath(), "Data", 0, 0, 1, 1);
+                ExcelTypedColumn dates = range.columns().get(0);
+                assertEquals("DATE", dates.type(), label);
+                assertEquals(dateTime.toInstant(ZoneOffset.UTC).toEpochMilli(), (long) dates.values()[0], label);
+                ExcelTypedColumn mixed = range.columns().get(1);
+                assertEquals("TEXT", mixed.type(), label);
+                assertEquals(dateTime.toString(), mixed.dictionary()[mixed.indexes()[0]], label);
+            }
+        }
+    }
+
+    @Test
+    void testSheetsOverTheOffHeapLimitFallBackToPoi() throws Exception {
+        File file = tempDir.resolve("limit.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Data");
+            for (int i = 0; i < 10_000; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue(i);
+                row.createCell(1).setCellValue("row " + (i % 10));
+            }
+            write(workbook, file);
+        }
+
+        // La carga supera el límite al crecer las filas: se corta y la lectura sigue por POI
+        offHeapStore.setMaxBytes(200_000);
+        offHeapStore.setMinFileBytes(0);
+        assertArrayEquals(new String[]{"9999", "row 9"}, cellReader.readRow(file.getPath(), "Data", 9_999));
+        assertEquals(0, offHeapStore.getStatistics().get("residentSheets"));
+        assertEquals(0L, offHeapStore.getStatistics().get("loads"));
+    }
+
+    @Test
+    void testFormulasAreEvaluatedLikeTheWorkbookPath() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("formulas." + extension).toFile();
+            try (Workbook workbook = extension.equals("xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Data");
+                Row row = sheet.createRow(0);
+                row.createCell(0).setCellValue(21);
+                // Sin resultado cacheado: solo la evaluación de POI da 42
+                row.createCell(1).setCellFormula("A1*2");
+                sheet.createRow(1).createCell(0).setCellValue("plain");
+                write(workbook, file);
+            }
+            assertSameReads(file, "Data", 2, 2);
+            offHeapStore.setMinFileBytes(0);
+            assertEquals("42", cellReader.readRow(file.getPath(), "Data", 0)[1]);
+        }
+    }
+
+    // MÉTODOS PRIVADOS DE SOPORTE
+
+    private void fillValues(Workbook workbook, Sheet sheet) {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.getCreationHelper().createDataFormat().getFormat("yyyy-mm-dd hh:mm"));
+        CellStyle filled = workbook.createCellStyle();
+        filled.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
+        filled.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+        Row header = sheet.createRow(0);
+        header.createCell(0).setCellValue("Name");
+        header.createCell(1).setCellValue(42);
+        header.createCell(2).setCellValue(3.25);
+        Row flags = sheet.createRow(1);
+        flags.createCell(0).setCellValue(true);
+        flags.createCell(3).setCellValue(false);
+        // Celda vacía con estilo al final de la fila: cuenta para la longitud de la fila
+        flags.createCell(4).setCellStyle(filled);
+        // Fila sin celdas
+        sheet.createRow(2);
+        Row errors = sheet.createRow(3);
+        errors.createCell(1).setCellErrorValue(FormulaError.DIV0.getCode());
+        Cell negative = errors.createCell(2);
+        negative.setCellValue(-1);
+        negative.setCellStyle(dateStyle);
+        Cell date = sheet.createRow(4).createCell(0);
+        date.setCellValue(LocalDateTime.of(2024, 1, 15, 10, 30));
+        date.setCellStyle(dateStyle);
+        // Última fila presente, sin valores
+        sheet.createRow(5).createCell(1).setCellStyle(filled);
+    }
+
+    private void write(Workbook workbook, File file) throws Exception {
+        try (OutputStream outputStream = new FileOutputStream(file)) {
+            workbook.write(outputStream);
+        }
+    }
+
+    private void assertSameReads(File file, String sheetName, int rows, int columns, String... needles) {
+        String path = file.getPath();
+        offHeapStore.setMinFileBytes(Long.MAX_VALUE);
+        Object[][] range = cellReader.readRange(path, sheetName, 0, 0, rows + 1, columns + 1);
+        List<String[]> rowValues = new ArrayList<>();
+        for (int row = 0; row <= rows; row++) {
+            rowValues.add(cellReader.readRow(path, sheetName, row));
+        }
+        List<String[]> columnValues = new ArrayList<>();
+        for (int column = 0; column <= columns; column++) {
+            columnValues.add(cellReader.readColumn(path, sheetName, column));
+        }
+        // Se busca cada valor leído además de los textos indicados
+        Set<String> searched = new LinkedHashSet<>(List.of(needles));
+        rowValues.forEach(values -> searched.addAll(List.of(values)));
+        List<String> searchedValues = new ArrayList<>(searched);
+        List<List<CellPosition>> found = new ArrayList<>();
+        for (String needle : searchedValues) {
+            found.add(findValue(path, sheetName, needle));
+        }
+
+        offHeapStore.setMinFileBytes(0);
+        // Dos pasadas: la primera carga la hoja y la segunda la relee (de la copia residente o de la instantánea)
+        for (int pass = 0; pass < 2; pass++) {
+            String label = file.getName() + " " + sheetName + " pass " + pass;
+            assertArrayEquals(range, cellReader.readRange(path, sheetName, 0, 0, rows + 1, columns + 1), label + " range");
+            for (int row = 0; row <= rows; row++) {
+                assertArrayEquals(rowValues.get(row), cellReader.readRow(path, sheetName, row), label + " row " + row);
+            }
+            for (int column = 0; column <= columns; column++) {
+                assertArrayEquals(columnValues.get(column), cellReader.readColumn(path, sheetName, column), label + " column " + column);
+            }
+            for (int i = 0; i < searchedValues.size(); i++) {
+                String needle = searchedValues.get(i);
+                assertEquals(found.get(i), findValue(path, sheetName, needle), label + " find '" + needle + "'");
+            }
+        }
+    }
+
+    /**
+     * Igual que excel_find_value: copia fuera del heap si el almacén la acepta, si no el modelo completo
+     */
+    private List<CellPosition> findValue(String path, String sheetName, String needle) {
+        return offHeapStore.query(path, sheetName, sheet -> {
+            List<CellPosition> matches = new ArrayList<>();
+            return sheet.find(needle, matches) ? matches : null;
+        }, () -> sheetReader.findValue(path, sheetName, needle));
+    }
+}
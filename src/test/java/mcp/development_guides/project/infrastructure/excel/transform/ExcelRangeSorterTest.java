@@ -0,0 +1,80 @@
+package mcp.development_guides.project.infrastructure.excel.transform;
+
+import mcp.development_guides.project.domain.model.ExcelSortKey;
+import mcp.development_guides.project.domain.model.ExcelSortResult;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelAtomicSaver;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelCacheManager;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileWatcher;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFormulaRecalculator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWriter;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelRangeSorter.class, ExcelStreamingReader.class, ExcelStreamingWriter.class,
+    ExcelTableReader.class, ExcelAtomicSaver.class, ExcelFileWatcher.class, ExcelCacheManager.class,
+    ExcelWriteCoordinator.class, ExcelFormulaRecalculator.class})
+class ExcelRangeSorterTest {
+
+    @Autowired
+    private ExcelRangeSorter rangeSorter;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSortReplacesFormulasWithCachedValues() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("sort." + extension).toFile();
+            try (Workbook workbook = "xls".equals(extension) ? new HSSFWorkbook() : new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Data");
+                Row header = sheet.createRow(0);
+                header.createCell(0).setCellValue("Name");
+                header.createCell(1).setCellValue("Total");
+                String[] names = {"c", "a", "b"};
+                String[] formulas = {"10+20", "1+2", "100+200"};
+                for (int i = 0; i < names.length; i++) {
+                    Row row = sheet.createRow(i + 1);
+                    row.createCell(0).setCellValue(names[i]);
+                    row.createCell(1).setCellFormula(formulas[i]);
+                }
+                workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+                try (OutputStream outputStream = new FileOutputStream(file)) {
+                    workbook.write(outputStream);
+                }
+            }
+
+            ExcelSortResult result = rangeSorter.sortRange(file.getPath(), "Data", "",
+                List.of(new ExcelSortKey("Name", "asc")), null);
+            assertEquals(3, result.rowsSorted());
+
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                Sheet sheet = workbook.getSheet("Data");
+                String[] expectedNames = {"a", "b", "c"};
+                double[] expectedTotals = {3, 300, 30};
+                for (int i = 0; i < expectedNames.length; i++) {
+                    Row row = sheet.getRow(i + 1);
+                    assertEquals(expectedNames[i], row.getCell(0).getStringCellValue());
+                    Cell total = row.getCell(1);
+                    assertEquals(CellType.NUMERIC, total.getCellType(), extension + " row " + (i + 2) + " kept a formula");
+                    assertEquals(expectedTotals[i], total.getNumericCellValue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package mcp.development_guides.project.infrastructure.excel.transform;
+
+import mcp.development_guides.project.domain.model.ExcelDedupeResult;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelAtomicSaver;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelCacheManager;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileWatcher;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFormulaRecalculator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingReader;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelStreamingWriter;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
+import mcp.development_guides.project.infrastructure.excel.reader.ExcelTableReader;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelRowDeduplicator.class, ExcelStreamingReader.class, ExcelStreamingWriter.class,
+    ExcelTableReader.class, ExcelAtomicSaver.class, ExcelFileWatcher.class, ExcelCacheManager.class,
+    ExcelWriteCoordinator.class, ExcelFormulaRecalculator.class})
+class ExcelRowDeduplicatorTest {
+
+    @Autowired
+    private ExcelRowDeduplicator rowDeduplicator;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRemoveDuplicatesReplacesFormulasWithCachedValues() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("dedupe." + extension).toFile();
+            try (Workbook workbook = "xls".equals(extension) ? new HSSFWorkbook() : new XSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Data");
+                Row header = sheet.createRow(0);
+                header.createCell(0).setCellValue("Name");
+                header.createCell(1).setCellValue("Amount");
+                String[] names = {"a", "b", "a", "c"};
+                String[] formulas = {"1+1", "2+2", "1+1", "3+3"};
+                for (int i = 0; i < names.length; i++) {
+                    Row row = sheet.createRow(i + 1);
+                    row.createCell(0).setCellValue(names[i]);
+                    row.createCell(1).setCellFormula(formulas[i]);
+                }
+                workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+                try (OutputStream outputStream = new FileOutputStream(file)) {
+                    workbook.write(outputStream);
+                }
+            }
+
+            ExcelDedupeResult result = rowDeduplicator.dedupeRows(file.getPath(), "Data", "", List.of("Name"), true);
+            assertEquals(1, result.duplicateCount());
+            assertTrue(result.removed());
+
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                Sheet sheet = workbook.getSheet("Data");
+                String[] expectedNames = {"a", "b", "c"};
+                double[] expectedAmounts = {2, 4, 6};
+                for (int i = 0; i < expectedNames.length; i++) {
+                    Row row = sheet.getRow(i + 1);
+                    assertEquals(expectedNames[i], row.getCell(0).getStringCellValue());
+                    Cell amount = row.getCell(1);
+                    assertEquals(CellType.NUMERIC, amount.getCellType(), extension + " row " + (i + 2) + " kept a formula");
+                    assertEquals(expectedAmounts[i], amount.getNumericCellValue());
+                }
+                // La fila liberada al final queda vacía, sin la fórmula que tenía
+                Row freed = sheet.getRow(4);
+                assertEquals(CellType.BLANK, freed.getCell(1).getCellType());
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package mcp.development_guides.project.infrastructure.excel.writer;
+
+import mcp.development_guides.project.infrastructure.excel.core.ExcelAtomicSaver;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileHandler;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFileWatcher;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelFormulaRecalculator;
+import mcp.development_guides.project.infrastructure.excel.core.ExcelWriteCoordinator;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.awt.Color;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelFormatWriter.class, ExcelFileHandler.class, ExcelWriteCoordinator.class,
+    ExcelFormulaRecalculator.class, ExcelAtomicSaver.class, ExcelFileWatcher.class})
+class ExcelFormatWriterTest {
+
+    @Autowired
+    private ExcelFormatWriter formatWriter;
+
+    @Test
+    void testRepeatedFormatsReuseStylesAndFonts() throws Exception {
+        for (Workbook workbook : new Workbook[]{new XSSFWorkbook(), new HSSFWorkbook()}) {
+            try (workbook) {
+                Sheet sheet = workbook.createSheet("Data");
+                sheet.createRow(0).createCell(0).setCellValue("a");
+                int styles = workbook.getNumCellStyles();
+                int fonts = workbook.getNumberOfFonts();
+
+                formatWriter.formatText(workbook, "Data", 0, 0, true, false, Color.RED);
+                formatWriter.formatText(workbook, "Data", 0, 0, true, false, Color.RED);
+                formatWriter.formatText(workbook, "Data", 1, 0, true, false, Color.RED);
+                formatWriter.setNumberFormat(workbook, "Data", 2, 0, "0.00%");
+                formatWriter.setNumberFormat(workbook, "Data", 2, 0, "0.00%");
+                formatWriter.setNumberFormat(workbook, "Data", 3, 0, "0.00%");
+
+                String label = workbook.getClass().getSimpleName();
+                assertEquals(styles + 2, workbook.getNumCellStyles(), label + " created unused styles");
+                assertEquals(fonts + 1, workbook.getNumberOfFonts(), label + " created unused fonts");
+
+                Cell bold = sheet.getRow(0).getCell(0);
+                assertEquals(bold.getCellStyle().getIndex(), sheet.getRow(1).getCell(0).getCellStyle().getIndex());
+                assertTrue(workbook.getFontAt(bold.getCellStyle().getFontIndex()).getBold());
+                Cell percent = sheet.getRow(2).getCell(0);
+                assertEquals(percent.getCellStyle().getIndex(), sheet.getRow(3).getCell(0).getCellStyle().getIndex());
+                assertEquals("0.00%", percent.getCellStyle().getDataFormatString());
+            }
+        }
+    }
+
+    @Test
+    void testDifferentColorsGetDifferentStyles() throws Exception {
+        try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Data");
+            formatWriter.setBackgroundColor(workbook, "Data", 0, 0, Color.YELLOW);
+            formatWriter.setBackgroundColor(workbook, "Data", 1, 0, Color.GREEN);
+            formatWriter.setBackgroundColor(workbook, "Data", 2, 0, Color.YELLOW);
+
+            XSSFCellStyle yellow = (XSSFCellStyle) sheet.getRow(0).getCell(0).getCellStyle();
+            XSSFCellStyle green = (XSSFCellStyle) sheet.getRow(1).getCell(0).getCellStyle();
+            assertNotEquals(yellow.getIndex(), green.getIndex());
+            assertEquals(yellow.getIndex(), sheet.getRow(2).getCell(0).getCellStyle().getIndex());
+            assertEquals(FillPatternType.SOLID_FOREGROUND, yellow.getFillPattern());
+            assertEquals("FFFFFF00", yellow.getFillForegroundColorColor().getARGBHex());
+        }
+    }
+}
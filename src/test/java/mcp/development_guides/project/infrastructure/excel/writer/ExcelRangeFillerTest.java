@@ -0,0 +1,106 @@
+package mcp.development_guides.project.infrastructure.excel.writer;
+
+import mcp.development_guides.project.infrastructure.excel.core.*;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = {ExcelRangeFiller.class, ExcelStreamingWriter.class, ExcelWriteCoordinator.class,
+    ExcelFormulaRecalculator.class, ExcelAtomicSaver.class, ExcelFileWatcher.class})
+class ExcelRangeFillerTest {
+
+    @Autowired
+    private ExcelRangeFiller rangeFiller;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testValueFillsReplaceFormulas() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("fill." + extension).toFile();
+            try (Workbook workbook = extension.equals("xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Data");
+                for (int i = 0; i < 4; i++) {
+                    sheet.createRow(i).createCell(0).setCellValue(i + 1);
+                }
+                try (OutputStream outputStream = new FileOutputStream(file)) {
+                    workbook.write(outputStream);
+                }
+            }
+            // Columnas B:D con fórmulas (compartidas en .xlsx) que después se sobrescriben en parte
+            rangeFiller.fill(file.getPath(), "Data", "B1:D4", "formula", "=$A1*2", null, null, null);
+            rangeFiller.fill(file.getPath(), "Data", "B2:B3", "constant", "7", null, null, null);
+            rangeFiller.fill(file.getPath(), "Data", "C1:C4", "linear", "10", 5.0, null, "down");
+            rangeFiller.fill(file.getPath(), "Data", "D1:D2", "date", "2024-01-31", 1.0, "month", "down");
+
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                Sheet sheet = workbook.getSheet("Data");
+                String label = file.getName();
+                for (int row = 1; row <= 2; row++) {
+                    Cell constant = sheet.getRow(row).getCell(1);
+                    assertEquals(CellType.NUMERIC, constant.getCellType(), label + " B" + (row + 1) + " kept its formula");
+                    assertEquals(7, constant.getNumericCellValue());
+                }
+                for (int row = 0; row < 4; row++) {
+                    Cell linear = sheet.getRow(row).getCell(2);
+                    assertEquals(CellType.NUMERIC, linear.getCellType(), label + " C" + (row + 1) + " kept its formula");
+                    assertEquals(10 + 5 * row, linear.getNumericCellValue());
+                }
+                Cell january = sheet.getRow(0).getCell(3);
+                assertEquals(CellType.NUMERIC, january.getCellType(), label + " D1 kept its formula");
+                assertEquals(LocalDateTime.of(2024, 1, 31, 0, 0), january.getLocalDateTimeCellValue());
+                assertEquals(LocalDateTime.of(2024, 2, 29, 0, 0), sheet.getRow(1).getCell(3).getLocalDateTimeCellValue());
+
+                // Las celdas no alcanzadas conservan su fórmula desplazada
+                assertEquals("$A1*2", sheet.getRow(0).getCell(1).getCellFormula());
+                assertEquals("$A4*2", sheet.getRow(3).getCell(1).getCellFormula());
+                assertEquals("$A3*2", sheet.getRow(2).getCell(3).getCellFormula());
+                assertEquals("$A4*2", sheet.getRow(3).getCell(3).getCellFormula());
+            }
+        }
+    }
+
+    @Test
+    void testFormulaFillsStoreRecalculatedResults() throws Exception {
+        for (String extension : new String[]{"xlsx", "xls"}) {
+            File file = tempDir.resolve("results." + extension).toFile();
+            try (Workbook workbook = extension.equals("xlsx") ? new XSSFWorkbook() : new HSSFWorkbook()) {
+                Sheet sheet = workbook.createSheet("Data");
+                for (int i = 0; i < 5; i++) {
+                    sheet.createRow(i).createCell(0).setCellValue(i + 1);
+                }
+                sheet.getRow(0).createCell(3).setCellFormula("SUM(B1:B5)");
+                try (OutputStream outputStream = new FileOutputStream(file)) {
+                    workbook.write(outputStream);
+                }
+            }
+            // El segundo relleno lee las fórmulas del primero y D1 depende de ambos bloques
+            rangeFiller.fill(file.getPath(), "Data", "B1:B5", "formula", "A1*2", null, null, null);
+            rangeFiller.fill(file.getPath(), "Data", "C1:C5", "formula", "B1+1", null, null, null);
+
+            try (Workbook workbook = WorkbookFactory.create(file, null, true)) {
+                Sheet sheet = workbook.getSheet("Data");
+                String label = file.getName();
+                for (int row = 0; row < 5; row++) {
+                    assertEquals("A" + (row + 1) + "*2", sheet.getRow(row).getCell(1).getCellFormula(), label);
+                    assertEquals(2 * (row + 1), sheet.getRow(row).getCell(1).getNumericCellValue(), label + " B" + (row + 1));
+                    assertEquals(2 * (row + 1) + 1, sheet.getRow(row).getCell(2).getNumericCellValue(), label + " C" + (row + 1));
+                }
+                assertEquals(30, sheet.getRow(0).getCell(3).getNumericCellValue(), label + " D1");
+            }
+        }
+    }
+}